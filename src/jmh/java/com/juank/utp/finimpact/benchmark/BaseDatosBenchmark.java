@@ -0,0 +1,156 @@
+package com.juank.utp.finimpact.benchmark;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Crea el esquema de la aplicación en la base H2 de los benchmarks y la llena con datos sintéticos
+ * de proporciones parecidas a producción (muchos impactos por iniciativa, pocos usuarios).
+ */
+public final class BaseDatosBenchmark {
+
+    static final String[] TIPOS = {"Maquinaria", "Generación", "Optimización", "Transformación"};
+    static final String[] ATRIBUTOS = {"Planeado", "Estimado", "Real"};
+    static final String[] ESTADOS = {"planeado", "en curso", "finalizado", "cancelado"};
+    static final String[] RIESGOS = {"alto", "medio", "bajo"};
+
+    static final int USUARIOS = 50;
+    static final int IMPACTOS_POR_INICIATIVA = 40;
+    private static final LocalDate FECHA_BASE = LocalDate.of(2020, 1, 1);
+
+    private static int impactosCargados = -1;
+
+    private BaseDatosBenchmark() {}
+
+    /**
+     * Deja la base con exactamente la cantidad de impactos indicada (se recrea si cambia)
+     */
+    public static synchronized void preparar(int cantidadImpactos) throws SQLException {
+        if (impactosCargados == cantidadImpactos) {
+            return;
+        }
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS impactos_mensual");
+            stmt.execute("DROP TABLE IF EXISTS impactos");
+            stmt.execute("DROP TABLE IF EXISTS iniciativas");
+            stmt.execute("DROP TABLE IF EXISTS usuarios");
+            stmt.execute("CREATE TABLE usuarios (id_usuario INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "nombre_completo NVARCHAR(100) NOT NULL, email NVARCHAR(100) UNIQUE NOT NULL, " +
+                    "password NVARCHAR(255) NOT NULL, rol NVARCHAR(20) NOT NULL, estado BIT NOT NULL)");
+            stmt.execute("CREATE TABLE iniciativas (id_iniciativa INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "nombre NVARCHAR(100) NOT NULL, descripcion NVARCHAR(500), fecha_inicio DATE, fecha_fin DATE, " +
+                    "tipo NVARCHAR(30), estado NVARCHAR(20) NOT NULL, riesgo NVARCHAR(20) NOT NULL, " +
+                    "id_owner INT NOT NULL REFERENCES usuarios(id_usuario), fecha_registro DATETIME DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE TABLE impactos (id_impacto INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "id_iniciativa INT NOT NULL REFERENCES iniciativas(id_iniciativa), fecha_creacion DATE NOT NULL, " +
+                    "tipo_impacto NVARCHAR(30) NOT NULL, multiplicador INT NOT NULL, atributo_impacto NVARCHAR(20) NOT NULL, " +
+                    "fecha_impacto DATE NOT NULL, impacto DECIMAL(18, 2) NOT NULL)");
+            // Mismas claves que db/migracion/V3__indices.sql (H2 no admite INCLUDE)
+            stmt.execute("CREATE INDEX ix_impactos_fecha_id ON impactos (fecha_impacto DESC, id_impacto DESC)");
+            stmt.execute("CREATE INDEX ix_impactos_iniciativa_fecha ON impactos (id_iniciativa, fecha_impacto DESC)");
+            stmt.execute("CREATE INDEX ix_impactos_atributo_fecha ON impactos (atributo_impacto, fecha_impacto)");
+            stmt.execute("CREATE INDEX ix_iniciativas_owner_registro ON iniciativas (id_owner, fecha_registro DESC)");
+            stmt.execute("CREATE TABLE impactos_mensual (id_iniciativa INT NOT NULL, tipo_impacto NVARCHAR(30) NOT NULL, " +
+                    "atributo_impacto NVARCHAR(20) NOT NULL, mes DATE NOT NULL, cantidad INT NOT NULL, total DECIMAL(19, 2) NOT NULL, " +
+                    "PRIMARY KEY (id_iniciativa, tipo_impacto, atributo_impacto, mes))");
+            stmt.execute("CREATE INDEX ix_impactos_mensual_atributo_mes ON impactos_mensual (atributo_impacto, mes)");
+        }
+
+        Random random = new Random(42);
+        int iniciativas = Math.max(1, cantidadImpactos / IMPACTOS_POR_INICIATIVA);
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO usuarios (nombre_completo, email, password, rol, estado) VALUES (?, ?, ?, ?, 1)")) {
+                for (int i = 1; i <= USUARIOS; i++) {
+                    stmt.setString(1, "Usuario " + i);
+                    stmt.setString(2, "usuario" + i + "@finimpact.test");
+                    stmt.setString(3, "x");
+                    stmt.setString(4, i % 5 == 0 ? "admin" : "analista");
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO iniciativas (nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= iniciativas; i++) {
+                    stmt.setString(1, "Iniciativa " + i);
+                    stmt.setString(2, "Descripción de la iniciativa " + i);
+                    stmt.setDate(3, Date.valueOf(FECHA_BASE.plusDays(random.nextInt(1000))));
+                    stmt.setDate(4, Date.valueOf(FECHA_BASE.plusDays(1000 + random.nextInt(1000))));
+                    stmt.setString(5, "Operativa");
+                    stmt.setString(6, ESTADOS[random.nextInt(ESTADOS.length)]);
+                    stmt.setString(7, RIESGOS[random.nextInt(RIESGOS.length)]);
+                    stmt.setInt(8, 1 + random.nextInt(USUARIOS));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO impactos (id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < cantidadImpactos; i++) {
+                    Impacto impacto = impactoAleatorio(random, iniciativas);
+                    stmt.setInt(1, impacto.getIdIniciativa());
+                    stmt.setDate(2, Date.valueOf(impacto.getFechaCreacion()));
+                    stmt.setString(3, impacto.getTipoImpacto());
+                    stmt.setInt(4, impacto.getMultiplicador());
+                    stmt.setString(5, impacto.getAtributoImpacto());
+                    stmt.setDate(6, Date.valueOf(impacto.getFechaImpacto()));
+                    stmt.setBigDecimal(7, impacto.getImpacto());
+                    stmt.addBatch();
+                    if (i % 5000 == 4999) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            // Mismo contenido que ImpactoMensualRepository.reconstruir(), con funciones de fecha de H2
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO impactos_mensual (id_iniciativa, tipo_impacto, atributo_impacto, mes, cantidad, total) " +
+                        "SELECT id_iniciativa, tipo_impacto, atributo_impacto, CAST(DATE_TRUNC(MONTH, fecha_impacto) AS DATE), " +
+                        "COUNT(*), SUM(impacto * multiplicador) FROM impactos " +
+                        "GROUP BY id_iniciativa, tipo_impacto, atributo_impacto, CAST(DATE_TRUNC(MONTH, fecha_impacto) AS DATE)");
+            }
+            conn.commit();
+        }
+        impactosCargados = cantidadImpactos;
+    }
+
+    /**
+     * Impactos en memoria con la misma distribución que los de la base
+     */
+    public static List<Impacto> impactosEnMemoria(int cantidad) {
+        Random random = new Random(42);
+        int iniciativas = Math.max(1, cantidad / IMPACTOS_POR_INICIATIVA);
+        List<Impacto> impactos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Impacto impacto = impactoAleatorio(random, iniciativas);
+            impacto.setIdImpacto(i + 1);
+            impactos.add(impacto);
+        }
+        return impactos;
+    }
+
+    private static Impacto impactoAleatorio(Random random, int iniciativas) {
+        LocalDate fecha = FECHA_BASE.plusDays(random.nextInt(2000));
+        return new Impacto(
+                1 + random.nextInt(iniciativas),
+                fecha.minusDays(random.nextInt(60)),
+                TIPOS[random.nextInt(TIPOS.length)],
+                random.nextInt(10) == 0 ? -1 : 1,
+                ATRIBUTOS[random.nextInt(ATRIBUTOS.length)],
+                fecha,
+                BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+    }
+}
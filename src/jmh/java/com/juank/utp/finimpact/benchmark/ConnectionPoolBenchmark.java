@@ -0,0 +1,42 @@
+package com.juank.utp.finimpact.benchmark;
+
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Préstamo y devolución de conexiones del pool (DatabaseConfig.getConnection / close),
+ * con un hilo y con más hilos que conexiones máximas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        BaseDatosBenchmark.preparar(0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean prestarYDevolver() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return conn.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean prestarYDevolverConcurrente() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return conn.getAutoCommit();
+        }
+    }
+}
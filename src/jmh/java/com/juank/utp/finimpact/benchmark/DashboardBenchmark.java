@@ -0,0 +1,57 @@
+package com.juank.utp.finimpact.benchmark;
+
+import com.juank.utp.finimpact.model.DashboardResumen;
+import com.juank.utp.finimpact.model.ImpactoColumnas;
+import com.juank.utp.finimpact.repository.DashboardRepository;
+import com.juank.utp.finimpact.repository.ImpactoRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KPIs y series del dashboard: consultas agrupadas en la base frente a la agregación
+ * en memoria sobre ImpactoColumnas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardBenchmark {
+
+    @Param({"10000", "100000"})
+    public int impactos;
+
+    private DashboardRepository dashboardRepository;
+    private ImpactoColumnas columnas;
+    private DashboardRepository.Filtro sinFiltro;
+    private DashboardRepository.Filtro porOwner;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        BaseDatosBenchmark.preparar(impactos);
+        dashboardRepository = new DashboardRepository();
+        columnas = new ImpactoRepository().cargarColumnas(null);
+        sinFiltro = new DashboardRepository.Filtro(null, null);
+        porOwner = new DashboardRepository.Filtro(1, null);
+    }
+
+    @Benchmark
+    public DashboardResumen resumenSql() {
+        return dashboardRepository.obtenerResumen(sinFiltro);
+    }
+
+    @Benchmark
+    public DashboardResumen resumenSqlPorOwner() {
+        return dashboardRepository.obtenerResumen(porOwner);
+    }
+
+    @Benchmark
+    public DashboardResumen resumenColumnas() {
+        DashboardResumen resumen = new DashboardResumen();
+        columnas.resumir(columnas.todas(), resumen);
+        return resumen;
+    }
+}
@@ -0,0 +1,84 @@
+package com.juank.utp.finimpact.benchmark;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.ImpactoColumnas;
+import com.juank.utp.finimpact.utils.IndiceFiltro;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de la tabla de impactos (ImpactoController.aplicarFiltros) con los bitmaps de IndiceFiltro
+ * frente al mismo filtro sobre columnas primitivas y a un recorrido lineal de objetos Impacto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImpactoFiltroBenchmark {
+
+    @Param({"10000", "100000"})
+    public int impactos;
+
+    @Param({"Todos", "Maquinaria"})
+    public String tipo;
+
+    @Param({"", "gen"})
+    public String texto;
+
+    private List<Impacto> lista;
+    private ImpactoColumnas columnas;
+    private IndiceFiltro<Impacto> indice;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        lista = BaseDatosBenchmark.impactosEnMemoria(impactos);
+        columnas = new ImpactoColumnas();
+        for (Impacto impacto : lista) {
+            long centavos = impacto.getImpactoCalculado().movePointRight(2).longValueExact();
+            columnas.agregar(impacto.getIdImpacto(), impacto.getIdIniciativa(), (int) impacto.getFechaImpacto().toEpochDay(),
+                    impacto.getTipoImpacto(), impacto.getAtributoImpacto(), centavos);
+        }
+        indice = new IndiceFiltro<Impacto>(Impacto::getTipoImpacto)
+                .campo(Impacto::getTipoImpacto)
+                .campo(Impacto::getAtributoImpacto);
+        indice.reconstruir(lista);
+    }
+
+    @Benchmark
+    public void filtrarObjetos(Blackhole bh) {
+        for (Impacto impacto : lista) {
+            if (cumpleFiltros(impacto, tipo, "Real", texto)) {
+                bh.consume(impacto);
+            }
+        }
+    }
+
+    /**
+     * Línea base: el filtro que la tabla aplicaba fila por fila antes de IndiceFiltro
+     * ("Todos" = sin restricción; el texto ya en minúsculas)
+     */
+    private static boolean cumpleFiltros(Impacto impacto, String tipoFiltro, String atributoFiltro, String textoFiltro) {
+        boolean cumpleTipo = "Todos".equals(tipoFiltro) || impacto.getTipoImpacto().equals(tipoFiltro);
+        boolean cumpleAtributo = "Todos".equals(atributoFiltro) || impacto.getAtributoImpacto().equals(atributoFiltro);
+        boolean cumpleTexto = textoFiltro.isEmpty() ||
+                impacto.getTipoImpacto().toLowerCase(Locale.ROOT).contains(textoFiltro);
+        return cumpleTipo && cumpleAtributo && cumpleTexto;
+    }
+
+    @Benchmark
+    public int[] filtrarColumnas() {
+        int[] filas = columnas.filtrar("Todos".equals(tipo) ? null : tipo, "Real", null, null, null);
+        return columnas.filtrarPorTextoTipo(filas, texto);
+    }
+
+    @Benchmark
+    public List<Impacto> filtrarIndice() {
+        return indice.filtrar(texto, "Todos".equals(tipo) ? null : tipo, "Real");
+    }
+}
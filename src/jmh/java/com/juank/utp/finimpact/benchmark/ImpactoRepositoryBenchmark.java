@@ -0,0 +1,49 @@
+package com.juank.utp.finimpact.benchmark;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.ImpactoColumnas;
+import com.juank.utp.finimpact.repository.ImpactoRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de impactos contra H2: mapeo fila a Impacto (createImpactoFromResultSet),
+ * primera página keyset y carga en columnas primitivas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImpactoRepositoryBenchmark {
+
+    @Param({"10000", "100000"})
+    public int impactos;
+
+    private ImpactoRepository repository;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        BaseDatosBenchmark.preparar(impactos);
+        repository = new ImpactoRepository();
+    }
+
+    @Benchmark
+    public List<Impacto> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Impacto> primeraPagina() {
+        return repository.findAllPage(null, 200);
+    }
+
+    @Benchmark
+    public ImpactoColumnas cargarColumnas() {
+        return repository.cargarColumnas(null);
+    }
+}
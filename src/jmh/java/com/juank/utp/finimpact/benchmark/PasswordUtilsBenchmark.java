@@ -0,0 +1,26 @@
+package com.juank.utp.finimpact.benchmark;
+
+import com.juank.utp.finimpact.utils.PasswordUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo del hash de contraseñas usado en login y al guardar usuarios
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordUtilsBenchmark {
+
+    @Param({"admin123", "una-contraseña-bastante-más-larga-de-lo-normal"})
+    public String password;
+
+    @Benchmark
+    public String hashPassword() {
+        return PasswordUtils.hashPassword(password);
+    }
+}
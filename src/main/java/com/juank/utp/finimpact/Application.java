@@ -1,10 +1,19 @@
 package com.juank.utp.finimpact;
 
+import com.juank.utp.finimpact.utils.ArranqueAplicacion;
 import com.juank.utp.finimpact.utils.AsyncTaskManager;
+import com.juank.utp.finimpact.utils.CacheLectura;
 import com.juank.utp.finimpact.utils.DatabaseConfig;
+import com.juank.utp.finimpact.utils.DetectorBloqueosFx;
+import com.juank.utp.finimpact.utils.GrabacionJfr;
+import com.juank.utp.finimpact.utils.Metricas;
+import com.juank.utp.finimpact.utils.VerificadorIndices;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 
@@ -13,8 +22,22 @@ import java.io.IOException;
 public class Application extends javafx.application.Application {
     @Override
     public void start(Stage stage) throws IOException {
+        ArranqueAplicacion.registrarInicioToolkit();
+        Metricas.iniciarExportacion();
+        if (Boolean.getBoolean("finimpact.jfr")) {
+            alternarGrabacionJfr();
+        }
+        // Las conexiones se abren en paralelo mientras se construye la ventana
+        ArranqueAplicacion.calentarPool();
+
+        long inicioVista = System.nanoTime();
+        // La vista principal solo trae el marco; cada pestaña se carga al seleccionarla por primera vez
         FXMLLoader fxmlLoader = new FXMLLoader(Application.class.getResource("/com/juank/utp/finimpact/main-view.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 800, 600);
+        ArranqueAplicacion.registrarFase("vista principal", inicioVista);
+        // Ctrl+Shift+R inicia o detiene una grabación JFR para diagnosticar lentitud
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.R, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN),
+                Application::alternarGrabacionJfr);
         stage.setTitle("FinImpact - Sistema de Seguimiento de Iniciativas e Impactos Financieros");
         stage.setScene(scene);
         stage.setMinWidth(600);
@@ -31,14 +54,42 @@ public class Application extends javafx.application.Application {
         // Configurar el cierre de la aplicación para limpiar recursos
         stage.setOnCloseRequest(event -> {
             System.out.println("🔒 Cerrando aplicación y limpiando recursos...");
+            DetectorBloqueosFx.detener();
+            if (GrabacionJfr.isGrabando()) {
+                alternarGrabacionJfr();
+            }
+            System.out.println("📋 Arranque: " + ArranqueAplicacion.resumen());
+            CacheLectura.getRegistradas().forEach(cache -> System.out.println("📋 Caché " + cache));
+            if (DatabaseConfig.getPool() != null) {
+                System.out.println("📋 Pool " + DatabaseConfig.getPool().getStatementCacheStats());
+            }
+            // Cerrar executor de tareas asíncronas (espera a las tareas en curso, que aún usan conexiones)
+            AsyncTaskManager.shutdown();
             // Cerrar pool de conexiones
             DatabaseConfig.closePool();
-            // Cerrar executor de tareas asíncronas
-            AsyncTaskManager.shutdown();
+            Metricas.detenerExportacion();
             System.out.println("✅ Recursos limpiados correctamente");
         });
 
+        long inicioVentana = System.nanoTime();
         stage.show();
+        ArranqueAplicacion.registrarFase("ventana visible", inicioVentana);
+        DetectorBloqueosFx.iniciar();
+
+        // La versión del esquema se lee sin demorar la apertura (el login la espera);
+        // después se informan por consola las migraciones pendientes y los índices faltantes
+        ArranqueAplicacion.verificarEsquema().thenRun(() -> AsyncTaskManager.supplyAsync("verificar-esquema", () -> {
+            VerificadorIndices.verificarAlIniciar();
+            return null;
+        }));
+    }
+
+    private static void alternarGrabacionJfr() {
+        try {
+            GrabacionJfr.alternar();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error con la grabación JFR: " + e.getMessage());
+        }
     }
 
     public static void main(String[] args) {
@@ -1,12 +1,16 @@
 package com.juank.utp.finimpact.controller;
 
-import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.DashboardResumen;
+import com.juank.utp.finimpact.model.DashboardSnapshot;
 import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.model.OpcionFiltro;
 import com.juank.utp.finimpact.model.Usuario;
-import com.juank.utp.finimpact.repository.ImpactoRepository;
-import com.juank.utp.finimpact.repository.IniciativaRepository;
-import com.juank.utp.finimpact.repository.UsuarioRepository;
+import com.juank.utp.finimpact.repository.DashboardRepository;
+import com.juank.utp.finimpact.utils.AsyncTaskManager;
+import com.juank.utp.finimpact.utils.DashboardLoader;
+import com.juank.utp.finimpact.utils.EventosJfr;
 import com.juank.utp.finimpact.utils.UserSession;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -14,17 +18,14 @@ import javafx.scene.chart.*;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 
-import java.math.BigDecimal;
 import java.net.URL;
 import java.text.NumberFormat;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class DashboardController implements Initializable {
 
-    @FXML private ComboBox<String> cmbFiltroIniciativa;
-    @FXML private ComboBox<String> cmbFiltroUsuario;
+    @FXML private ComboBox<OpcionFiltro> cmbFiltroIniciativa;
+    @FXML private ComboBox<OpcionFiltro> cmbFiltroUsuario;
     @FXML private Label lblFiltroUsuario; // Add reference to the Usuario label
 
     @FXML private PieChart chartIniciativasPorEstado;
@@ -41,20 +42,15 @@ public class DashboardController implements Initializable {
     @FXML private Label lblROI;
     @FXML private Label lblEficiencia;
 
-    private IniciativaRepository iniciativaRepository;
-    private ImpactoRepository impactoRepository;
-    private UsuarioRepository usuarioRepository;
+    private DashboardLoader dashboardLoader;
     private NumberFormat currencyFormat;
 
-    // Mapas para almacenar los datos completos
-    private Map<String, Integer> iniciativaIdMap = new HashMap<>();
-    private Map<String, Integer> usuarioIdMap = new HashMap<>();
+    // Espera tras el último cambio de filtro antes de consultar
+    private static final long DEBOUNCE_FILTROS_MS = 300;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        iniciativaRepository = new IniciativaRepository();
-        impactoRepository = new ImpactoRepository();
-        usuarioRepository = new UsuarioRepository();
+        dashboardLoader = new DashboardLoader();
         currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "CO"));
 
         System.out.println("🔧 DashboardController inicializando...");
@@ -74,10 +70,7 @@ public class DashboardController implements Initializable {
             System.out.println("✅ Configurando dashboard para usuario: " + usuario.getNombreCompleto() + " (" + usuario.getRol() + ")");
 
             // Usar Platform.runLater para asegurar que el FXML esté completamente cargado
-            javafx.application.Platform.runLater(() -> {
-                configurarFiltros();
-                cargarDatos();
-            });
+            Platform.runLater(() -> cargarDashboard(true));
         } else {
             System.out.println("⚠️ No hay usuario en sesión al inicializar dashboard");
             // No cargar datos por defecto sin usuario
@@ -85,7 +78,50 @@ public class DashboardController implements Initializable {
         }
     }
 
-    private void configurarFiltros() {
+    /**
+     * Lanza la carga en background y publica el snapshot en el hilo de UI al terminar.
+     * Las consultas nunca se ejecutan en el hilo de UI; los cambios rápidos de filtro se agrupan
+     * y una carga nueva cancela la anterior, de modo que solo se publica la última.
+     *
+     * @param incluirFiltros true al cambiar de usuario: también recarga los combos y usa el filtro por defecto
+     */
+    private void cargarDashboard(boolean incluirFiltros) {
+        Usuario usuario = UserSession.getUsuarioActual();
+        DashboardRepository.Filtro filtro = incluirFiltros ? filtroPorDefecto(usuario) : construirFiltro();
+
+        AsyncTaskManager.executeLatestAsync(
+            "dashboard",
+            incluirFiltros ? 0 : DEBOUNCE_FILTROS_MS,
+            () -> dashboardLoader.cargar(usuario, filtro, incluirFiltros),
+            this::aplicarSnapshot,
+            error -> System.err.println("❌ Error al cargar dashboard: " + error.getMessage())
+        );
+    }
+
+    /**
+     * Actualiza filtros, KPIs y gráficos a partir de un snapshot ya cargado (hilo de UI)
+     */
+    private void aplicarSnapshot(DashboardSnapshot snapshot) {
+        EventosJfr.FaseDashboard evento = new EventosJfr.FaseDashboard();
+        evento.begin();
+        if (snapshot.incluyeFiltros()) {
+            configurarFiltros(snapshot);
+        }
+
+        DashboardResumen resumen = snapshot.getResumen();
+
+        actualizarKPIs(resumen);
+        actualizarGraficos(resumen);
+
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.fase = "publicar en UI";
+            evento.incluyeFiltros = snapshot.incluyeFiltros();
+            evento.commit();
+        }
+    }
+
+    private void configurarFiltros(DashboardSnapshot snapshot) {
         Usuario usuarioLogueado = UserSession.getUsuarioActual();
         if (usuarioLogueado == null || cmbFiltroIniciativa == null) {
             return;
@@ -94,6 +130,12 @@ public class DashboardController implements Initializable {
         boolean esAnalista = "analista".equals(usuarioLogueado.getRol());
         System.out.println("🔧 Configurando filtros para: " + usuarioLogueado.getNombreCompleto() + " (Es analista: " + esAnalista + ")");
 
+        // Quitar los listeners mientras se cambian los valores para no disparar recargas
+        cmbFiltroIniciativa.setOnAction(null);
+        if (cmbFiltroUsuario != null) {
+            cmbFiltroUsuario.setOnAction(null);
+        }
+
         // PRIMERO: Ocultar inmediatamente el filtro de usuario para analistas
         if (esAnalista) {
             System.out.println("👤 OCULTANDO filtro de usuario para analista...");
@@ -114,59 +156,36 @@ public class DashboardController implements Initializable {
             }
         }
 
-        // Limpiar mapas antes de reconfigurar
-        iniciativaIdMap.clear();
-        usuarioIdMap.clear();
+        // Iniciativas según el rol (ya cargadas en background)
+        List<Iniciativa> iniciativasDisponibles = snapshot.getIniciativasDisponibles();
+        System.out.println("📊 Iniciativas disponibles para " + usuarioLogueado.getRol() + ": " + iniciativasDisponibles.size());
 
-        // Configurar filtro de iniciativas según el rol
-        List<Iniciativa> iniciativasDisponibles;
-
-        if (esAnalista) {
-            // Para analistas: solo sus iniciativas
-            iniciativasDisponibles = iniciativaRepository.findByOwner(usuarioLogueado.getIdUsuario());
-            System.out.println("📊 Iniciativas disponibles para analista: " + iniciativasDisponibles.size());
-        } else {
-            // Para admin y otros roles: todas las iniciativas
-            iniciativasDisponibles = iniciativaRepository.findAll();
-            System.out.println("📊 Iniciativas disponibles para admin: " + iniciativasDisponibles.size());
-        }
-
-        List<String> nombresIniciativas = new ArrayList<>();
-        if (esAnalista) {
-            nombresIniciativas.add("Mis iniciativas");
-        } else {
-            nombresIniciativas.add("Todas las iniciativas");
-        }
+        // Cada opción lleva el ID de la iniciativa: las consultas filtran por clave primaria
+        List<OpcionFiltro> opcionesIniciativas = new ArrayList<>();
+        OpcionFiltro todasLasIniciativas = OpcionFiltro.todas(esAnalista ? "Mis iniciativas" : "Todas las iniciativas");
+        opcionesIniciativas.add(todasLasIniciativas);
 
         for (Iniciativa iniciativa : iniciativasDisponibles) {
-            String nombre = iniciativa.getNombre();
-            nombresIniciativas.add(nombre);
-            iniciativaIdMap.put(nombre, iniciativa.getIdIniciativa());
+            opcionesIniciativas.add(new OpcionFiltro(iniciativa.getIdIniciativa(), iniciativa.getNombre()));
         }
 
-        cmbFiltroIniciativa.setItems(FXCollections.observableArrayList(nombresIniciativas));
-        if (esAnalista) {
-            cmbFiltroIniciativa.setValue("Mis iniciativas");
-        } else {
-            cmbFiltroIniciativa.setValue("Todas las iniciativas");
-        }
+        cmbFiltroIniciativa.setItems(FXCollections.observableArrayList(opcionesIniciativas));
+        cmbFiltroIniciativa.setValue(todasLasIniciativas);
 
         // Para usuarios NO analistas: configurar filtro de usuarios
-        if (!esAnalista) {
+        if (!esAnalista && snapshot.getUsuarios() != null) {
             System.out.println("👥 Configurando filtro de usuario para admin/viewer...");
-            List<Usuario> usuarios = usuarioRepository.findAll();
-            List<String> nombresUsuarios = new ArrayList<>();
-            nombresUsuarios.add("Todos los usuarios");
-
-            for (Usuario usuario : usuarios) {
-                String nombre = usuario.getNombreCompleto();
-                nombresUsuarios.add(nombre);
-                usuarioIdMap.put(nombre, usuario.getIdUsuario());
+            List<OpcionFiltro> opcionesUsuarios = new ArrayList<>();
+            OpcionFiltro todosLosUsuarios = OpcionFiltro.todas("Todos los usuarios");
+            opcionesUsuarios.add(todosLosUsuarios);
+
+            for (Usuario usuario : snapshot.getUsuarios()) {
+                opcionesUsuarios.add(new OpcionFiltro(usuario.getIdUsuario(), usuario.getNombreCompleto()));
             }
 
             if (cmbFiltroUsuario != null) {
-                cmbFiltroUsuario.setItems(FXCollections.observableArrayList(nombresUsuarios));
-                cmbFiltroUsuario.setValue("Todos los usuarios");
+                cmbFiltroUsuario.setItems(FXCollections.observableArrayList(opcionesUsuarios));
+                cmbFiltroUsuario.setValue(todosLosUsuarios);
                 cmbFiltroUsuario.setVisible(true);
                 cmbFiltroUsuario.setManaged(true);
                 System.out.println("✅ ComboBox usuario visible para admin");
@@ -191,151 +210,76 @@ public class DashboardController implements Initializable {
     }
 
     private void cargarDatos() {
-        System.out.println("🔄 Cargando datos del dashboard...");
-        List<Iniciativa> iniciativas = obtenerIniciativasFiltradas();
-        List<Impacto> impactos = obtenerImpactosFiltrados(iniciativas);
-
-        System.out.println("📊 Iniciativas encontradas: " + iniciativas.size());
-        System.out.println("💰 Impactos encontrados: " + impactos.size());
-
-        actualizarKPIs(iniciativas, impactos);
-        actualizarGraficos(iniciativas, impactos);
+        cargarDashboard(false);
     }
 
-    private List<Iniciativa> obtenerIniciativasFiltradas() {
-        System.out.println("🔍 Obteniendo iniciativas filtradas con consultas eficientes...");
+    /**
+     * Filtro que corresponde a los valores por defecto de los combos según el rol
+     */
+    private DashboardRepository.Filtro filtroPorDefecto(Usuario usuario) {
+        if (usuario != null && "analista".equals(usuario.getRol())) {
+            return new DashboardRepository.Filtro(usuario.getIdUsuario(), null);
+        }
+        return new DashboardRepository.Filtro(null, null);
+    }
 
+    /**
+     * Traduce la selección de los combos al filtro de las consultas agregadas
+     */
+    private DashboardRepository.Filtro construirFiltro() {
         Usuario usuarioLogueado = UserSession.getUsuarioActual();
         if (usuarioLogueado == null) {
-            System.out.println("⚠️ No hay usuario logueado, devolviendo todas las iniciativas");
-            return iniciativaRepository.findAll();
+            System.out.println("⚠️ No hay usuario logueado, usando todas las iniciativas");
+            return new DashboardRepository.Filtro(null, null);
         }
 
         boolean esAnalista = "analista".equals(usuarioLogueado.getRol());
-        String iniciativaSeleccionada = cmbFiltroIniciativa != null ? cmbFiltroIniciativa.getValue() : null;
-        String usuarioSeleccionado = cmbFiltroUsuario != null ? cmbFiltroUsuario.getValue() : null;
-
-        System.out.println("👤 Usuario logueado: " + usuarioLogueado.getNombreCompleto() + " (" + usuarioLogueado.getRol() + ")");
-        System.out.println("🎯 Filtro iniciativa: " + iniciativaSeleccionada);
-        System.out.println("👥 Filtro usuario: " + usuarioSeleccionado);
-
-        List<Iniciativa> iniciativas;
+        Integer idIniciativa = idSeleccionado(cmbFiltroIniciativa);
 
         if (esAnalista) {
-            // Para analistas: usar consultas eficientes solo para sus iniciativas
-            if (iniciativaSeleccionada != null && !iniciativaSeleccionada.equals("Mis iniciativas")) {
-                // Filtro específico por nombre de iniciativa del analista
-                iniciativas = iniciativaRepository.findByOwnerAndName(usuarioLogueado.getIdUsuario(), iniciativaSeleccionada);
-                System.out.println("📊 Consultando iniciativa específica del analista: " + iniciativaSeleccionada);
-            } else {
-                // Todas las iniciativas del analista
-                iniciativas = iniciativaRepository.findByOwner(usuarioLogueado.getIdUsuario());
-                System.out.println("📊 Consultando todas las iniciativas del analista");
-            }
-        } else {
-            // Para admin: usar consultas eficientes según los filtros
-            if (usuarioSeleccionado != null && !usuarioSeleccionado.equals("Todos los usuarios")) {
-                Integer usuarioId = usuarioIdMap.get(usuarioSeleccionado);
-                if (usuarioId != null) {
-                    if (iniciativaSeleccionada != null && !iniciativaSeleccionada.equals("Todas las iniciativas")) {
-                        // Filtro por usuario específico e iniciativa específica
-                        iniciativas = iniciativaRepository.findByOwnerAndName(usuarioId, iniciativaSeleccionada);
-                        System.out.println("📊 Consultando iniciativa específica de usuario específico");
-                    } else {
-                        // Filtro solo por usuario específico
-                        iniciativas = iniciativaRepository.findByOwner(usuarioId);
-                        System.out.println("📊 Consultando todas las iniciativas del usuario: " + usuarioSeleccionado);
-                    }
-                } else {
-                    iniciativas = new ArrayList<>();
-                }
-            } else if (iniciativaSeleccionada != null && !iniciativaSeleccionada.equals("Todas las iniciativas")) {
-                // Filtro solo por iniciativa específica (todos los usuarios)
-                iniciativas = iniciativaRepository.findByName(iniciativaSeleccionada);
-                System.out.println("📊 Consultando iniciativa específica de todos los usuarios");
-            } else {
-                // Sin filtros específicos: todas las iniciativas
-                iniciativas = iniciativaRepository.findAll();
-                System.out.println("📊 Consultando todas las iniciativas (admin sin filtros)");
-            }
+            // Para analistas: siempre restringido a sus iniciativas
+            return new DashboardRepository.Filtro(usuarioLogueado.getIdUsuario(), idIniciativa);
         }
-
-        System.out.println("✅ Iniciativas obtenidas: " + iniciativas.size());
-        return iniciativas;
+        return new DashboardRepository.Filtro(idSeleccionado(cmbFiltroUsuario), idIniciativa);
     }
 
-    private List<Impacto> obtenerImpactosFiltrados(List<Iniciativa> iniciativasFiltradas) {
-        if (iniciativasFiltradas.isEmpty()) {
-            System.out.println("⚠️ No hay iniciativas filtradas, no se obtendrán impactos");
-            return new ArrayList<>();
-        }
-
-        Usuario usuarioLogueado = UserSession.getUsuarioActual();
-        boolean esAnalista = usuarioLogueado != null && "analista".equals(usuarioLogueado.getRol());
-
-        List<Impacto> impactos;
-
-        if (esAnalista && usuarioLogueado != null) {
-            // Para analistas: consulta eficiente directa por propietario
-            impactos = impactoRepository.findByOwner(usuarioLogueado.getIdUsuario());
-            System.out.println("📊 Consultando impactos del analista directamente desde BD");
-        } else {
-            // Para admin o casos específicos: consulta por IDs de iniciativas
-            List<Integer> idsIniciativas = iniciativasFiltradas.stream()
-                    .map(Iniciativa::getIdIniciativa)
-                    .collect(Collectors.toList());
-
-            impactos = impactoRepository.findByIniciativaIds(idsIniciativas);
-            System.out.println("📊 Consultando impactos por IDs de iniciativas específicas");
-        }
-
-        System.out.println("✅ Impactos obtenidos: " + impactos.size());
-        return impactos;
+    /**
+     * ID de la opción elegida en un combo (null = todas o sin selección)
+     */
+    private static Integer idSeleccionado(ComboBox<OpcionFiltro> combo) {
+        OpcionFiltro opcion = combo != null ? combo.getValue() : null;
+        return opcion != null ? opcion.getId() : null;
     }
 
-    private void actualizarKPIs(List<Iniciativa> iniciativas, List<Impacto> impactos) {
+    private void actualizarKPIs(DashboardResumen resumen) {
         // Total de iniciativas
         if (lblTotalIniciativas != null) {
-            lblTotalIniciativas.setText(String.valueOf(iniciativas.size()));
+            lblTotalIniciativas.setText(String.valueOf(resumen.getTotalIniciativas()));
         }
 
         // Iniciativas activas
-        long activas = iniciativas.stream()
-                .filter(i -> "en curso".equalsIgnoreCase(i.getEstado()))
-                .count();
         if (lblIniciativasActivas != null) {
-            lblIniciativasActivas.setText(String.valueOf(activas));
+            lblIniciativasActivas.setText(String.valueOf(resumen.getIniciativasActivas()));
         }
 
         // Iniciativas finalizadas
-        long finalizadas = iniciativas.stream()
-                .filter(i -> "finalizado".equalsIgnoreCase(i.getEstado()))
-                .count();
         if (lblIniciativasFinalizadas != null) {
-            lblIniciativasFinalizadas.setText(String.valueOf(finalizadas));
+            lblIniciativasFinalizadas.setText(String.valueOf(resumen.getIniciativasFinalizadas()));
         }
 
         // Riesgo alto
-        long riesgoAlto = iniciativas.stream()
-                .filter(i -> "alto".equalsIgnoreCase(i.getRiesgo()))
-                .count();
         if (lblRiesgoAlto != null) {
-            lblRiesgoAlto.setText(String.valueOf(riesgoAlto));
+            lblRiesgoAlto.setText(String.valueOf(resumen.getIniciativasRiesgoAlto()));
         }
 
-        // Impacto total - usando getImpactoCalculado() en lugar de getValor()
-        BigDecimal impactoTotal = impactos.stream()
-                .map(Impacto::getImpactoCalculado)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Impacto total (ya con el multiplicador aplicado en SQL)
         if (lblImpactoTotal != null) {
-            lblImpactoTotal.setText(currencyFormat.format(impactoTotal));
+            lblImpactoTotal.setText(currencyFormat.format(resumen.getImpactoTotal()));
         }
 
         // Impacto promedio
-        BigDecimal impactoPromedio = impactos.isEmpty() ? BigDecimal.ZERO :
-                impactoTotal.divide(BigDecimal.valueOf(impactos.size()), 2, BigDecimal.ROUND_HALF_UP);
         if (lblImpactoPromedio != null) {
-            lblImpactoPromedio.setText(currencyFormat.format(impactoPromedio));
+            lblImpactoPromedio.setText(currencyFormat.format(resumen.getImpactoPromedio()));
         }
 
         // ROI - Simplified calculation
@@ -345,82 +289,64 @@ public class DashboardController implements Initializable {
 
         // Eficiencia
         if (lblEficiencia != null) {
-            double eficiencia = iniciativas.isEmpty() ? 0 :
-                (double) finalizadas / iniciativas.size() * 100;
+            double eficiencia = resumen.getTotalIniciativas() == 0 ? 0 :
+                (double) resumen.getIniciativasFinalizadas() / resumen.getTotalIniciativas() * 100;
             lblEficiencia.setText(String.format("%.1f%%", eficiencia));
         }
     }
 
-    private void actualizarGraficos(List<Iniciativa> iniciativas, List<Impacto> impactos) {
-        actualizarGraficoEstados(iniciativas);
-        actualizarGraficoRiesgos(iniciativas);
-        actualizarGraficoImpactosPorTipo(impactos);
-        actualizarGraficoImpactoMensual(impactos);
+    private void actualizarGraficos(DashboardResumen resumen) {
+        actualizarGraficoEstados(resumen);
+        actualizarGraficoRiesgos(resumen);
+        actualizarGraficoImpactosPorTipo(resumen);
+        actualizarGraficoImpactoMensual(resumen);
     }
 
-    private void actualizarGraficoEstados(List<Iniciativa> iniciativas) {
+    private void actualizarGraficoEstados(DashboardResumen resumen) {
         if (chartIniciativasPorEstado == null) return;
 
-        Map<String, Long> estadoCount = iniciativas.stream()
-                .collect(Collectors.groupingBy(Iniciativa::getEstado, Collectors.counting()));
-
         chartIniciativasPorEstado.getData().clear();
-        estadoCount.forEach((estado, count) -> {
+        resumen.getIniciativasPorEstado().forEach((estado, count) -> {
             PieChart.Data data = new PieChart.Data(estado, count);
             chartIniciativasPorEstado.getData().add(data);
         });
     }
 
-    private void actualizarGraficoRiesgos(List<Iniciativa> iniciativas) {
+    private void actualizarGraficoRiesgos(DashboardResumen resumen) {
         if (chartIniciativasPorRiesgo == null) return;
 
-        Map<String, Long> riesgoCount = iniciativas.stream()
-                .collect(Collectors.groupingBy(Iniciativa::getRiesgo, Collectors.counting()));
-
         chartIniciativasPorRiesgo.getData().clear();
-        riesgoCount.forEach((riesgo, count) -> {
+        resumen.getIniciativasPorRiesgo().forEach((riesgo, count) -> {
             PieChart.Data data = new PieChart.Data(riesgo, count);
             chartIniciativasPorRiesgo.getData().add(data);
         });
     }
 
-    private void actualizarGraficoImpactosPorTipo(List<Impacto> impactos) {
+    private void actualizarGraficoImpactosPorTipo(DashboardResumen resumen) {
         if (chartImpactosPorTipo == null) return;
 
-        Map<String, BigDecimal> tipoSuma = impactos.stream()
-                .collect(Collectors.groupingBy(Impacto::getTipoImpacto,
-                        Collectors.reducing(BigDecimal.ZERO, Impacto::getImpactoCalculado, BigDecimal::add)));
-
         chartImpactosPorTipo.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Impactos por Tipo");
 
-        tipoSuma.forEach((tipo, suma) -> {
+        resumen.getImpactoPorTipo().forEach((tipo, suma) -> {
             series.getData().add(new XYChart.Data<>(tipo, suma));
         });
 
         chartImpactosPorTipo.getData().add(series);
     }
 
-    private void actualizarGraficoImpactoMensual(List<Impacto> impactos) {
+    private void actualizarGraficoImpactoMensual(DashboardResumen resumen) {
         if (chartImpactoMensual == null) return;
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        Map<String, BigDecimal> impactoMensual = impactos.stream()
-                .collect(Collectors.groupingBy(
-                        impacto -> impacto.getFechaImpacto().format(formatter),
-                        Collectors.reducing(BigDecimal.ZERO, Impacto::getImpactoCalculado, BigDecimal::add)
-                ));
-
         chartImpactoMensual.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Impacto Mensual");
 
-        impactoMensual.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> {
-                    series.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
-                });
+        // Las claves "yyyy-MM" ya vienen ordenadas
+        resumen.getImpactoMensual().forEach((mes, suma) -> {
+            series.getData().add(new XYChart.Data<>(mes, suma));
+        });
 
         chartImpactoMensual.getData().add(series);
     }
@@ -441,10 +367,9 @@ public class DashboardController implements Initializable {
         UserSession.setUsuarioActual(usuario);
 
         // Usar Platform.runLater para asegurar que el FXML esté completamente cargado
-        javafx.application.Platform.runLater(() -> {
+        Platform.runLater(() -> {
             System.out.println("🔧 Platform.runLater ejecutándose...");
-            configurarFiltros();
-            cargarDatos();
+            cargarDashboard(true);
         });
     }
 }
@@ -1,11 +1,19 @@
 package com.juank.utp.finimpact.controller;
 
 import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.ImpactoColumnas;
 import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.repository.ImpactoImportador;
 import com.juank.utp.finimpact.repository.ImpactoRepository;
 import com.juank.utp.finimpact.repository.IniciativaRepository;
 import com.juank.utp.finimpact.utils.UserSession;
 import com.juank.utp.finimpact.utils.AsyncTaskManager;
+import com.juank.utp.finimpact.utils.ExportacionCsv;
+import com.juank.utp.finimpact.utils.IndiceFiltro;
+import com.juank.utp.finimpact.utils.IniciativaNombreCache;
+import com.juank.utp.finimpact.utils.Metricas;
+import com.juank.utp.finimpact.utils.KeysetPageLoader;
+import com.juank.utp.finimpact.utils.SnapshotLocal;
 import com.juank.utp.finimpact.model.Usuario;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -18,12 +26,15 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.application.Platform;
 
+import java.io.File;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.sql.SQLException;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -42,7 +53,9 @@ public class ImpactoController implements Initializable {
     @FXML private ComboBox<String> cbSeveridad;
     @FXML private TextField txtFiltroDescripcion;
     @FXML private Button btnCrearImpacto; // Botón para crear nuevo impacto
+    @FXML private Button btnImportarCsv;
     @FXML private TableView<Impacto> tableImpactos;
+    @FXML private Label lblResumenFiltro;
     @FXML private TableColumn<Impacto, String> colId;
     @FXML private TableColumn<Impacto, String> colDescripcion;
     @FXML private TableColumn<Impacto, String> colTipo;
@@ -56,17 +69,38 @@ public class ImpactoController implements Initializable {
     private ImpactoRepository impactoRepository;
     private IniciativaRepository iniciativaRepository;
 
-    // Lista de datos
+    // Lista de datos (solo las páginas ya cargadas, pedidas al servidor con los filtros vigentes)
     private ObservableList<Impacto> impactosList = FXCollections.observableArrayList();
     private ObservableList<Impacto> impactosFiltradosList = FXCollections.observableArrayList();
+    // Bitmaps por tipo y atributo de las filas cargadas: filtran al instante mientras llega la página filtrada
+    private final IndiceFiltro<Impacto> indiceFiltro = new IndiceFiltro<Impacto>(Impacto::getTipoImpacto)
+            .campo(Impacto::getTipoImpacto)
+            .campo(Impacto::getAtributoImpacto);
+
+    // Paginación keyset sobre (fecha_impacto, id_impacto)
+    private static final int TAMANO_PAGINA = 200;
+    private static final long DEBOUNCE_TEXTO_MS = 250;
+    // Solo se usa en el hilo de UI (NumberFormat no es thread-safe)
+    private static final NumberFormat FORMATO_MONEDA = NumberFormat.getCurrencyInstance(Locale.of("es", "CO"));
+    private boolean primeraCarga = true;
+    private KeysetPageLoader<Impacto> paginador;
+
+    // Todos los impactos visibles para el usuario en columnas primitivas (totales del filtro sin cargar páginas)
+    private ImpactoColumnas columnas;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         impactoRepository = new ImpactoRepository();
         iniciativaRepository = new IniciativaRepository();
+        paginador = new KeysetPageLoader<>(TAMANO_PAGINA, pagina -> {
+            impactosList.addAll(pagina);
+            indiceFiltro.agregar(pagina);
+            aplicarFiltros();
+        });
 
         configurarTabla();
-        cargarImpactos();
+        paginador.vincularScroll(tableImpactos);
+        cargarImpactosAsync(); // la pestaña se muestra de inmediato y la tabla se llena al llegar los datos
         configurarFiltros();
         configurarFiltrosAutomaticos();
         configurarPermisosSegunUsuario(); // Configurar permisos según el rol del usuario
@@ -96,6 +130,11 @@ public class ImpactoController implements Initializable {
             }
         }
 
+        if (btnImportarCsv != null) {
+            btnImportarCsv.setVisible(!esViewer);
+            btnImportarCsv.setManaged(!esViewer);
+        }
+
         // Reconfigurar la tabla para mostrar/ocultar botones de acción
         configurarTabla();
     }
@@ -110,8 +149,7 @@ public class ImpactoController implements Initializable {
         colValorMonetario.setCellValueFactory(cellData -> {
             BigDecimal valor = cellData.getValue().getImpacto();
             if (valor != null) {
-                NumberFormat formatter = NumberFormat.getCurrencyInstance(new Locale("es", "CO"));
-                return new SimpleStringProperty(formatter.format(valor));
+                return new SimpleStringProperty(FORMATO_MONEDA.format(valor));
             }
             return new SimpleStringProperty("$0");
         });
@@ -124,12 +162,9 @@ public class ImpactoController implements Initializable {
         colIniciativaId.setCellValueFactory(cellData -> {
             int iniciativaId = cellData.getValue().getIdIniciativa();
             if (iniciativaId > 0) {
-                try {
-                    Optional<Iniciativa> iniciativaOpt = iniciativaRepository.findById(iniciativaId);
-                    return new SimpleStringProperty(iniciativaOpt.map(Iniciativa::getNombre).orElse("N/A"));
-                } catch (Exception e) {
-                    return new SimpleStringProperty("Error");
-                }
+                // Solo memoria: la caché se carga junto con los impactos
+                String nombre = IniciativaNombreCache.getNombre(iniciativaId);
+                return new SimpleStringProperty(nombre != null ? nombre : "N/A");
             }
             return new SimpleStringProperty("Sin asignar");
         });
@@ -195,9 +230,29 @@ public class ImpactoController implements Initializable {
 
     private void configurarFiltrosAutomaticos() {
         // Configurar filtros automáticos
-        cbTipo.valueProperty().addListener((observable, oldValue, newValue) -> aplicarFiltros());
-        cbSeveridad.valueProperty().addListener((observable, oldValue, newValue) -> aplicarFiltros());
-        txtFiltroDescripcion.textProperty().addListener((observable, oldValue, newValue) -> aplicarFiltros());
+        cbTipo.valueProperty().addListener((observable, oldValue, newValue) -> alCambiarFiltros());
+        cbSeveridad.valueProperty().addListener((observable, oldValue, newValue) -> alCambiarFiltros());
+        // El texto se filtra al dejar de escribir, no en cada tecla
+        txtFiltroDescripcion.textProperty().addListener((observable, oldValue, newValue) ->
+                AsyncTaskManager.debounce("impactos-filtro-texto", DEBOUNCE_TEXTO_MS, this::alCambiarFiltros));
+    }
+
+    /**
+     * Filtra al instante las filas ya cargadas y reinicia la paginación con el filtro en la consulta:
+     * con un filtro selectivo las páginas cargadas pueden no tener coincidencias y, sin scroll, no
+     * se pedirían más
+     */
+    private void alCambiarFiltros() {
+        aplicarFiltros();
+        KeysetPageLoader.PageFetcher<Impacto> fetcher = crearFetcher(UserSession.getUsuarioActual());
+        AsyncTaskManager.executeLatest("impactos-pagina-filtrada", 0,
+                () -> paginador.cargarPrimeraPagina(fetcher),
+                pagina -> {
+                    impactosList.setAll(pagina);
+                    indiceFiltro.reconstruir(pagina);
+                    aplicarFiltros();
+                },
+                error -> System.err.println("❌ Error al filtrar impactos: " + error.getMessage()));
     }
 
     @FXML
@@ -213,59 +268,96 @@ public class ImpactoController implements Initializable {
 
     @FXML
     private void aplicarFiltros() {
-        String tipoFiltro = cbTipo.getValue();
-        String severidadFiltro = cbSeveridad.getValue();
-        String descripcionFiltro = txtFiltroDescripcion.getText().toLowerCase();
-
-        impactosFiltradosList.clear();
+        // Un solo setAll: la tabla recibe un cambio en vez de uno por fila
+        impactosFiltradosList.setAll(indiceFiltro.filtrar(txtFiltroDescripcion.getText(),
+                sinFiltro(cbTipo.getValue()), sinFiltro(cbSeveridad.getValue())));
+        actualizarResumenFiltro();
+    }
 
-        for (Impacto impacto : impactosList) {
-            boolean cumpleTipo = "Todos".equals(tipoFiltro) || impacto.getTipoImpacto().equals(tipoFiltro);
-            boolean cumpleSeveridad = "Todos".equals(severidadFiltro) || impacto.getAtributoImpacto().equals(severidadFiltro);
-            boolean cumpleDescripcion = descripcionFiltro.isEmpty() ||
-                    impacto.getTipoImpacto().toLowerCase().contains(descripcionFiltro);
+    private static String sinFiltro(String valor) {
+        return valor == null || "Todos".equals(valor) ? null : valor;
+    }
 
-            if (cumpleTipo && cumpleSeveridad && cumpleDescripcion) {
-                impactosFiltradosList.add(impacto);
-            }
+    /**
+     * Muestra cantidad y total de todos los impactos que cumplen el filtro, no solo de las páginas cargadas
+     */
+    private void actualizarResumenFiltro() {
+        if (lblResumenFiltro == null) {
+            return;
         }
+        if (columnas == null) {
+            lblResumenFiltro.setText("");
+            return;
+        }
+        int[] filas = columnas.filtrar(sinFiltro(cbTipo.getValue()), sinFiltro(cbSeveridad.getValue()), null, null, null);
+        filas = columnas.filtrarPorTextoTipo(filas, txtFiltroDescripcion.getText());
+
+        BigDecimal total = ImpactoColumnas.aMonto(columnas.sumarCentavos(filas));
+        lblResumenFiltro.setText(filas.length + " impactos · Total: " + FORMATO_MONEDA.format(total));
     }
 
-    @FXML
-    private void limpiarFiltros() {
-        cbTipo.setValue("Todos");
-        cbSeveridad.setValue("Todos");
-        txtFiltroDescripcion.clear();
-        impactosFiltradosList.setAll(impactosList);
+    /**
+     * Carga en background las columnas de todos los impactos del usuario para los totales del filtro
+     */
+    private void cargarColumnasAsync(Usuario usuarioActual) {
+        Integer idOwner = usuarioActual != null && "analista".equals(usuarioActual.getRol())
+                ? usuarioActual.getIdUsuario() : null;
+        AsyncTaskManager.executeLatest("impactos-columnas", 0,
+                () -> impactoRepository.cargarColumnas(idOwner),
+                cargadas -> {
+                    columnas = cargadas;
+                    actualizarResumenFiltro();
+                },
+                error -> System.err.println("❌ Error al cargar totales de impactos: " + error.getMessage()));
     }
 
     /**
-     * Método público para recargar impactos según el usuario actual
+     * Totales a partir del snapshot local conciliado con el servidor; si está al día solo se traen
+     * los impactos nuevos en vez de leer todos otra vez
      */
-    public void cargarImpactos() {
-        try {
-            Usuario usuarioActual = UserSession.getUsuarioActual();
-            List<Impacto> impactos;
+    private void sincronizarColumnasAsync(Usuario usuarioActual) {
+        AsyncTaskManager.executeLatest("impactos-columnas", 0,
+                () -> {
+                    try {
+                        return SnapshotLocal.IMPACTOS.sincronizar(usuarioActual);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                },
+                cargadas -> {
+                    columnas = cargadas;
+                    actualizarResumenFiltro();
+                },
+                error -> System.err.println("❌ Error al sincronizar impactos: " + error.getMessage()));
+    }
 
-            if (usuarioActual != null && "analista".equals(usuarioActual.getRol())) {
-                // Para analistas: solo cargar impactos relacionados a sus iniciativas
-                impactos = impactoRepository.findByOwner(usuarioActual.getIdUsuario());
-                System.out.println("🔍 Cargando impactos del analista: " + usuarioActual.getNombreCompleto() + " (" + impactos.size() + " impactos)");
-            } else {
-                // Para admin y viewer: cargar todos los impactos
-                impactos = impactoRepository.findAll();
-                System.out.println("🔍 Cargando todos los impactos para " + (usuarioActual != null ? usuarioActual.getRol() : "usuario") + " (" + impactos.size() + " impactos)");
-            }
+    /**
+     * Muestra la primera página y los totales guardados mientras responde el servidor (en background).
+     * Los totales salen del archivo mapeado directo a columnas, sin decodificar cada impacto.
+     */
+    private void mostrarGuardados(Usuario usuarioActual, List<Impacto> primeraPagina) {
+        SnapshotLocal.INICIATIVAS.leer(usuarioActual).ifPresent(IniciativaNombreCache::precargar);
+        ImpactoColumnas columnasGuardadas = SnapshotLocal.IMPACTOS.leer(usuarioActual).orElse(null);
+        Platform.runLater(() -> {
+            impactosList.setAll(primeraPagina);
+            indiceFiltro.reconstruir(primeraPagina);
+            columnas = columnasGuardadas;
+            aplicarFiltros();
+        });
+    }
 
-            impactosList.setAll(impactos);
-            impactosFiltradosList.setAll(impactos);
-        } catch (Exception e) {
-            mostrarError("Error al cargar impactos", e.getMessage());
-        }
+    @FXML
+    private void limpiarFiltros() {
+        cbTipo.setValue("Todos");
+        cbSeveridad.setValue("Todos");
+        txtFiltroDescripcion.clear();
+        impactosFiltradosList.setAll(impactosList);
+        actualizarResumenFiltro();
     }
 
     /**
-     * Método asíncrono para recargar impactos según el usuario actual
+     * Método asíncrono para recargar impactos según el usuario actual (también tras guardar,
+     * editar o eliminar: la consulta y la caché de nombres no corren en el hilo de UI)
      */
     public void cargarImpactosAsync() {
         // Mostrar indicador de carga en la tabla
@@ -273,20 +365,31 @@ public class ImpactoController implements Initializable {
             tableImpactos.setPlaceholder(new Label("Cargando impactos..."));
         });
 
+        // Solo la primera carga parte del snapshot local; las recargas posteriores consultan directo
+        boolean desdeSnapshot = primeraCarga && SnapshotLocal.isActivo();
+        primeraCarga = false;
+        // Los filtros se leen aquí, en el hilo de UI
+        Usuario usuarioActual = UserSession.getUsuarioActual();
+        KeysetPageLoader.PageFetcher<Impacto> fetcher = crearFetcher(usuarioActual);
+
         AsyncTaskManager.executeAsyncWithMessage(
             () -> {
                 // Esta operación se ejecuta en background thread
-                Usuario usuarioActual = UserSession.getUsuarioActual();
                 List<Impacto> impactos;
 
-                if (usuarioActual != null && "analista".equals(usuarioActual.getRol())) {
-                    // Para analistas: solo cargar impactos relacionados a sus iniciativas
-                    impactos = impactoRepository.findByOwner(usuarioActual.getIdUsuario());
-                    System.out.println("🔍 Cargando impactos del analista: " + usuarioActual.getNombreCompleto() + " (" + impactos.size() + " impactos)");
+                if (desdeSnapshot) {
+                    SnapshotLocal.IMPACTOS.leerPrimeras(usuarioActual, TAMANO_PAGINA)
+                            .ifPresent(primeraPagina -> mostrarGuardados(usuarioActual, primeraPagina));
+                }
+                IniciativaNombreCache.cargar();
+
+                // Solo la primera página; las siguientes se cargan al hacer scroll
+                impactos = paginador.cargarPrimeraPagina(fetcher);
+                Metricas.registrarValor("impactos.primeraPagina.filas", impactos.size());
+                if (desdeSnapshot) {
+                    sincronizarColumnasAsync(usuarioActual);
                 } else {
-                    // Para admin y viewer: cargar todos los impactos
-                    impactos = impactoRepository.findAll();
-                    System.out.println("🔍 Cargando todos los impactos para " + (usuarioActual != null ? usuarioActual.getRol() : "usuario") + " (" + impactos.size() + " impactos)");
+                    cargarColumnasAsync(usuarioActual);
                 }
 
                 return impactos;
@@ -294,9 +397,9 @@ public class ImpactoController implements Initializable {
             (impactos) -> {
                 // Este código se ejecuta en el UI thread después del éxito
                 impactosList.setAll(impactos);
-                impactosFiltradosList.setAll(impactos);
+                indiceFiltro.reconstruir(impactos);
+                aplicarFiltros();
                 tableImpactos.setPlaceholder(new Label("No hay impactos disponibles"));
-                System.out.println("✅ Impactos cargados correctamente de forma asíncrona");
             },
             (error) -> {
                 // En caso de error
@@ -313,6 +416,94 @@ public class ImpactoController implements Initializable {
         );
     }
 
+    /**
+     * Fuente de páginas según el rol (analistas solo ven impactos de sus iniciativas) y los filtros
+     * vigentes, que se leen al crearla (llamar en el hilo de UI)
+     */
+    private KeysetPageLoader.PageFetcher<Impacto> crearFetcher(Usuario usuarioActual) {
+        // null para admin y viewer: todos los impactos
+        Integer idOwner = usuarioActual != null && "analista".equals(usuarioActual.getRol())
+                ? usuarioActual.getIdUsuario() : null;
+        String tipo = sinFiltro(cbTipo.getValue());
+        String atributo = sinFiltro(cbSeveridad.getValue());
+        String texto = txtFiltroDescripcion.getText();
+        return (ultimo, tamanoPagina) -> impactoRepository.findPage(idOwner, tipo, atributo, texto, ultimo, tamanoPagina);
+    }
+
+    /**
+     * Exporta a CSV todos los impactos que cumplen los filtros de tipo y atributo (no solo las páginas cargadas)
+     */
+    @FXML
+    private void exportarCsv() {
+        Usuario usuarioActual = UserSession.getUsuarioActual();
+        Integer idOwner = usuarioActual != null && "analista".equals(usuarioActual.getRol())
+                ? usuarioActual.getIdUsuario() : null;
+        String tipo = "Todos".equals(cbTipo.getValue()) ? null : cbTipo.getValue();
+        String atributo = "Todos".equals(cbSeveridad.getValue()) ? null : cbSeveridad.getValue();
+
+        ExportacionCsv.exportar(tableImpactos.getScene().getWindow(), "Exportar impactos", "impactos.csv",
+                (destino, progreso) -> impactoRepository.exportarCsv(tipo, atributo, null, null, null, idOwner, destino, progreso));
+    }
+
+    /**
+     * Importa impactos masivamente desde un CSV (p. ej. los reales mensuales de finanzas)
+     */
+    @FXML
+    private void importarCsv() {
+        Usuario usuarioActual = UserSession.getUsuarioActual();
+        if (usuarioActual != null && "viewer".equals(usuarioActual.getRol())) {
+            mostrarError("Acceso Denegado", "Los usuarios con rol 'Viewer' no pueden importar impactos.");
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Importar impactos desde CSV");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Archivos CSV", "*.csv"));
+        File archivo = fileChooser.showOpenDialog(tableImpactos.getScene().getWindow());
+        if (archivo == null) {
+            return;
+        }
+
+        // Los analistas solo pueden importar impactos de sus propias iniciativas
+        Integer idOwner = usuarioActual != null && "analista".equals(usuarioActual.getRol())
+                ? usuarioActual.getIdUsuario() : null;
+        ImpactoImportador importador = new ImpactoImportador(ImpactoImportador.TAMANO_LOTE_POR_DEFECTO,
+                ImpactoImportador.Modo.LOTES_JDBC, idOwner);
+
+        AsyncTaskManager.executeAsyncWithMessage(
+            () -> {
+                try {
+                    return importador.importar(archivo.toPath(), (numeroLote, filasLote, totalInsertadas, totalRechazadas) ->
+                            Platform.runLater(() -> lblResumenFiltro.setText(
+                                    "Importando... " + totalInsertadas + " insertados, " + totalRechazadas + " rechazados")));
+                } catch (Exception e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            },
+            resultado -> {
+                StringBuilder mensaje = new StringBuilder()
+                        .append(resultado.getInsertadas()).append(" impactos importados, ")
+                        .append(resultado.getRechazadas().size()).append(" filas rechazadas.");
+                resultado.getRechazadas().stream().limit(10)
+                        .forEach(rechazada -> mensaje.append("\n").append(rechazada));
+                if (resultado.getRechazadas().size() > 10) {
+                    mensaje.append("\n...");
+                }
+                mostrarInformacion("Importación finalizada", mensaje.toString());
+                cargarImpactosAsync();
+            },
+            error -> {
+                System.err.println("❌ Error al importar impactos: " + error.getMessage());
+                mostrarError("Error al importar impactos", "No se importó ninguna fila: " + error.getMessage());
+                actualizarResumenFiltro();
+            },
+            null,
+            null,
+            "Importando impactos...",
+            "Impactos importados correctamente"
+        );
+    }
+
     private void editarImpacto(Impacto impacto) {
         mostrarFormulario(impacto);
     }
@@ -327,7 +518,7 @@ public class ImpactoController implements Initializable {
         if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
                 impactoRepository.delete(impacto.getIdImpacto());
-                cargarImpactos();
+                cargarImpactosAsync();
                 mostrarInformacion("Éxito", "Impacto eliminado correctamente.");
             } catch (Exception e) {
                 mostrarError("Error al eliminar impacto", e.getMessage());
@@ -463,7 +654,8 @@ public class ImpactoController implements Initializable {
                         return;
                     }
 
-                    Impacto nuevoImpacto = impacto != null ? impacto : new Impacto();
+                    // Se edita una copia: si el guardado falla, la fila de la tabla no queda modificada
+                    Impacto nuevoImpacto = impacto != null ? new Impacto(impacto) : new Impacto();
                     nuevoImpacto.setTipoImpacto(cbTipoForm.getValue());
                     nuevoImpacto.setAtributoImpacto(cbAtributoForm.getValue());
                     nuevoImpacto.setMultiplicador(cbMultiplicadorForm.getValue());
@@ -485,14 +677,20 @@ public class ImpactoController implements Initializable {
                     }
 
                     if (impacto == null) {
-                        impactoRepository.save(nuevoImpacto);
+                        if (!impactoRepository.save(nuevoImpacto)) {
+                            mostrarError("Error", "No se pudo crear el impacto.");
+                            return;
+                        }
                         mostrarInformacion("Éxito", "Impacto creado correctamente.");
                     } else {
-                        impactoRepository.update(nuevoImpacto);
+                        if (!impactoRepository.update(nuevoImpacto)) {
+                            mostrarError("Error", "No se pudo actualizar el impacto.");
+                            return;
+                        }
                         mostrarInformacion("Éxito", "Impacto actualizado correctamente.");
                     }
 
-                    cargarImpactos();
+                    cargarImpactosAsync();
                     stage.close();
                 } catch (Exception ex) {
                     mostrarError("Error al guardar impacto", ex.getMessage());
@@ -6,6 +6,11 @@ import com.juank.utp.finimpact.repository.IniciativaRepository;
 import com.juank.utp.finimpact.repository.UsuarioRepository;
 import com.juank.utp.finimpact.utils.UserSession;
 import com.juank.utp.finimpact.utils.AsyncTaskManager;
+import com.juank.utp.finimpact.utils.ExportacionCsv;
+import com.juank.utp.finimpact.utils.IndiceBusquedaIniciativas;
+import com.juank.utp.finimpact.utils.IndiceFiltro;
+import com.juank.utp.finimpact.utils.Metricas;
+import com.juank.utp.finimpact.utils.SnapshotLocal;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -22,9 +27,13 @@ import javafx.stage.Stage;
 import javafx.application.Platform;
 
 import java.net.URL;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -56,6 +65,13 @@ public class IniciativaController implements Initializable {
     // Lista de datos
     private final ObservableList<Iniciativa> iniciativasList = FXCollections.observableArrayList();
     private final ObservableList<Iniciativa> iniciativasFiltradasList = FXCollections.observableArrayList();
+    // Bitmaps por estado y riesgo; el texto se busca sobre el nombre
+    private final IndiceFiltro<Iniciativa> indiceFiltro = new IndiceFiltro<Iniciativa>(Iniciativa::getNombre)
+            .campo(Iniciativa::getEstado)
+            .campo(Iniciativa::getRiesgo);
+
+    private static final long DEBOUNCE_TEXTO_MS = 250;
+    private boolean primeraCarga = true;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -63,7 +79,7 @@ public class IniciativaController implements Initializable {
         usuarioRepository = new UsuarioRepository();
 
         configurarTabla();
-        cargarIniciativas();
+        cargarIniciativasAsync(); // la pestaña se muestra de inmediato y la tabla se llena al llegar los datos
         configurarFiltros();
         configurarFiltrosAutomaticos();
         configurarPermisosSegunUsuario(); // Configurar permisos según el rol del usuario
@@ -179,7 +195,9 @@ public class IniciativaController implements Initializable {
         // Configurar filtros automáticos
         cbEstado.valueProperty().addListener((observable, oldValue, newValue) -> aplicarFiltros());
         cbRiesgo.valueProperty().addListener((observable, oldValue, newValue) -> aplicarFiltros());
-        txtFiltroNombre.textProperty().addListener((observable, oldValue, newValue) -> aplicarFiltros());
+        // El texto se filtra al dejar de escribir, no en cada tecla
+        txtFiltroNombre.textProperty().addListener((observable, oldValue, newValue) ->
+                AsyncTaskManager.debounce("iniciativas-filtro-texto", DEBOUNCE_TEXTO_MS, this::aplicarFiltros));
     }
 
     @FXML
@@ -195,22 +213,47 @@ public class IniciativaController implements Initializable {
 
     @FXML
     private void aplicarFiltros() {
-        String estadoFiltro = cbEstado.getValue();
-        String riesgoFiltro = cbRiesgo.getValue();
-        String nombreFiltro = txtFiltroNombre.getText().toLowerCase();
-
-        iniciativasFiltradasList.clear();
-
-        for (Iniciativa iniciativa : iniciativasList) {
-            boolean cumpleEstado = "Todos".equals(estadoFiltro) || iniciativa.getEstado().equals(estadoFiltro);
-            boolean cumpleRiesgo = "Todos".equals(riesgoFiltro) || iniciativa.getRiesgo().equals(riesgoFiltro);
-            boolean cumpleNombre = nombreFiltro.isEmpty() ||
-                    iniciativa.getNombre().toLowerCase().contains(nombreFiltro);
+        String texto = txtFiltroNombre.getText();
+        String estado = sinFiltro(cbEstado.getValue());
+        String riesgo = sinFiltro(cbRiesgo.getValue());
+        // Un solo setAll: la tabla recibe un cambio en vez de uno por fila
+        if (texto.isBlank() || !IndiceBusquedaIniciativas.isCargado()) {
+            iniciativasFiltradasList.setAll(indiceFiltro.filtrar(texto, estado, riesgo));
+            return;
+        }
 
-            if (cumpleEstado && cumpleRiesgo && cumpleNombre) {
-                iniciativasFiltradasList.add(iniciativa);
+        // Búsqueda por nombre y descripción, en el orden de relevancia del índice
+        Map<Integer, Iniciativa> visibles = new HashMap<>();
+        for (Iniciativa iniciativa : indiceFiltro.filtrar(null, estado, riesgo)) {
+            visibles.put(iniciativa.getIdIniciativa(), iniciativa);
+        }
+        List<Iniciativa> encontradas = new ArrayList<>();
+        for (Integer id : IndiceBusquedaIniciativas.buscar(texto)) {
+            Iniciativa iniciativa = visibles.get(id);
+            if (iniciativa != null) {
+                encontradas.add(iniciativa);
             }
         }
+        iniciativasFiltradasList.setAll(encontradas);
+    }
+
+    private static String sinFiltro(String valor) {
+        return valor == null || "Todos".equals(valor) ? null : valor;
+    }
+
+    /**
+     * Exporta a CSV todas las iniciativas que cumplen los filtros de estado y riesgo
+     */
+    @FXML
+    private void exportarCsv() {
+        Usuario usuarioActual = UserSession.getUsuarioActual();
+        Integer idOwner = usuarioActual != null && "analista".equals(usuarioActual.getRol())
+                ? usuarioActual.getIdUsuario() : null;
+        String estado = "Todos".equals(cbEstado.getValue()) ? null : cbEstado.getValue();
+        String riesgo = "Todos".equals(cbRiesgo.getValue()) ? null : cbRiesgo.getValue();
+
+        ExportacionCsv.exportar(tableIniciativas.getScene().getWindow(), "Exportar iniciativas", "iniciativas.csv",
+                (destino, progreso) -> iniciativaRepository.exportarCsv(estado, null, riesgo, idOwner, destino, progreso));
     }
 
     @FXML
@@ -232,15 +275,15 @@ public class IniciativaController implements Initializable {
             if (usuarioActual != null && "analista".equals(usuarioActual.getRol())) {
                 // Para analistas: solo cargar sus iniciativas asignadas
                 iniciativas = iniciativaRepository.findByOwner(usuarioActual.getIdUsuario());
-                System.out.println("🔍 Cargando iniciativas del analista: " + usuarioActual.getNombreCompleto() + " (" + iniciativas.size() + " iniciativas)");
             } else {
                 // Para admin y viewer: cargar todas las iniciativas
                 iniciativas = iniciativaRepository.findAll();
-                System.out.println("🔍 Cargando todas las iniciativas para " + (usuarioActual != null ? usuarioActual.getRol() : "usuario") + " (" + iniciativas.size() + " iniciativas)");
             }
+            Metricas.registrarValor("iniciativas.carga.filas", iniciativas.size());
 
             iniciativasList.setAll(iniciativas);
-            iniciativasFiltradasList.setAll(iniciativas);
+            indiceFiltro.reconstruir(iniciativas);
+            aplicarFiltros();
         } catch (Exception e) {
             mostrarError("Error al cargar iniciativas", e.getMessage());
         }
@@ -255,30 +298,41 @@ public class IniciativaController implements Initializable {
             tableIniciativas.setPlaceholder(new Label("Cargando iniciativas..."));
         });
 
+        // Solo la primera carga parte del snapshot local; las recargas posteriores consultan directo
+        boolean desdeSnapshot = primeraCarga && SnapshotLocal.isActivo();
+        primeraCarga = false;
+
         AsyncTaskManager.executeAsyncWithMessage(
             () -> {
                 // Esta operación se ejecuta en background thread
                 Usuario usuarioActual = UserSession.getUsuarioActual();
                 List<Iniciativa> iniciativas;
 
-                if (usuarioActual != null && "analista".equals(usuarioActual.getRol())) {
+                if (desdeSnapshot) {
+                    // Lo guardado se muestra de inmediato y se reemplaza al terminar la sincronización
+                    SnapshotLocal.INICIATIVAS.leer(usuarioActual).ifPresent(guardadas ->
+                            Platform.runLater(() -> mostrarIniciativas(guardadas)));
+                    try {
+                        iniciativas = SnapshotLocal.INICIATIVAS.sincronizar(usuarioActual);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("No se pudo sincronizar con la base de datos: " + e.getMessage(), e);
+                    }
+                } else if (usuarioActual != null && "analista".equals(usuarioActual.getRol())) {
                     // Para analistas: solo cargar sus iniciativas asignadas
                     iniciativas = iniciativaRepository.findByOwner(usuarioActual.getIdUsuario());
-                    System.out.println("🔍 Cargando iniciativas del analista: " + usuarioActual.getNombreCompleto() + " (" + iniciativas.size() + " iniciativas)");
                 } else {
                     // Para admin y viewer: cargar todas las iniciativas
                     iniciativas = iniciativaRepository.findAll();
-                    System.out.println("🔍 Cargando todas las iniciativas para " + (usuarioActual != null ? usuarioActual.getRol() : "usuario") + " (" + iniciativas.size() + " iniciativas)");
                 }
+                Metricas.registrarValor("iniciativas.carga.filas", iniciativas.size());
+                IndiceBusquedaIniciativas.cargar();
 
                 return iniciativas;
             },
             (iniciativas) -> {
                 // Este código se ejecuta en el UI thread después del éxito
-                iniciativasList.setAll(iniciativas);
-                iniciativasFiltradasList.setAll(iniciativas);
+                mostrarIniciativas(iniciativas);
                 tableIniciativas.setPlaceholder(new Label("No hay iniciativas disponibles"));
-                System.out.println("✅ Iniciativas cargadas correctamente de forma asíncrona");
             },
             (error) -> {
                 // En caso de error
@@ -295,6 +349,15 @@ public class IniciativaController implements Initializable {
         );
     }
 
+    /**
+     * Reemplaza las filas de la tabla manteniendo los filtros elegidos
+     */
+    private void mostrarIniciativas(List<Iniciativa> iniciativas) {
+        iniciativasList.setAll(iniciativas);
+        indiceFiltro.reconstruir(iniciativas);
+        aplicarFiltros();
+    }
+
     private void editarIniciativa(Iniciativa iniciativa) {
         mostrarFormulario(iniciativa);
     }
@@ -445,7 +508,8 @@ public class IniciativaController implements Initializable {
                         return;
                     }
 
-                    Iniciativa nuevaIniciativa = iniciativa != null ? iniciativa : new Iniciativa();
+                    // Se edita una copia: si el guardado falla, la fila de la tabla no queda modificada
+                    Iniciativa nuevaIniciativa = iniciativa != null ? new Iniciativa(iniciativa) : new Iniciativa();
                     nuevaIniciativa.setNombre(txtNombre.getText().trim());
                     nuevaIniciativa.setDescripcion(txtDescripcion.getText().trim());
                     nuevaIniciativa.setTipo(txtTipo.getText().trim());
@@ -459,10 +523,16 @@ public class IniciativaController implements Initializable {
                     }
 
                     if (iniciativa == null) {
-                        iniciativaRepository.save(nuevaIniciativa);
+                        if (!iniciativaRepository.save(nuevaIniciativa)) {
+                            mostrarError("Error", "No se pudo crear la iniciativa.");
+                            return;
+                        }
                         mostrarInformacion("Éxito", "Iniciativa creada correctamente.");
                     } else {
-                        iniciativaRepository.update(nuevaIniciativa);
+                        if (!iniciativaRepository.update(nuevaIniciativa)) {
+                            mostrarError("Error", "No se pudo actualizar la iniciativa.");
+                            return;
+                        }
                         mostrarInformacion("Éxito", "Iniciativa actualizada correctamente.");
                     }
 
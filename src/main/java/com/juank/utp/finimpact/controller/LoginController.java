@@ -2,6 +2,9 @@ package com.juank.utp.finimpact.controller;
 
 import com.juank.utp.finimpact.model.Usuario;
 import com.juank.utp.finimpact.repository.UsuarioRepository;
+import com.juank.utp.finimpact.utils.ArranqueAplicacion;
+import com.juank.utp.finimpact.utils.MigradorEsquema;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -10,6 +13,8 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controlador para la vista de login
@@ -63,6 +68,31 @@ public class LoginController {
 
         // Permitir login con Enter
         txtPassword.setOnAction(event -> handleLogin());
+
+        esperarEsquema();
+    }
+
+    /**
+     * Deshabilita el ingreso hasta que termine en background la lectura de la versión del esquema
+     */
+    private void esperarEsquema() {
+        btnIngresar.setDisable(true);
+        btnIngresar.setText("Verificando...");
+        ArranqueAplicacion.verificarEsquema().whenComplete((version, error) -> Platform.runLater(() -> {
+            btnIngresar.setDisable(false);
+            btnIngresar.setText("Ingresar");
+            if (error != null) {
+                Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                mostrarErrorLogin("No se pudo conectar con la base de datos: " + causa.getMessage());
+            } else if (version < MigradorEsquema.versionDisponible()) {
+                mostrarErrorLogin(mensajeEsquemaDesactualizado(version));
+            }
+        }));
+    }
+
+    private String mensajeEsquemaDesactualizado(int version) {
+        return "La base de datos está en la versión " + version + " y la aplicación necesita la " +
+                MigradorEsquema.versionDisponible() + ". Un administrador debe ejecutar MigradorEsquema.";
     }
 
     /**
@@ -86,6 +116,19 @@ public class LoginController {
         String email = txtEmail.getText().trim();
         String password = txtPassword.getText();
 
+        // Las pantallas que se abren tras el login escriben en tablas de migraciones recientes
+        // (p. ej. impactos_mensual): sin el esquema al día no se deja entrar
+        CompletableFuture<Integer> esquema = ArranqueAplicacion.verificarEsquema();
+        if (!esquema.isDone() || esquema.isCompletedExceptionally()) {
+            esperarEsquema(); // reintento tras un fallo de conexión
+            return;
+        }
+        int version = esquema.join(); // ya terminó: no bloquea
+        if (version < MigradorEsquema.versionDisponible()) {
+            mostrarErrorLogin(mensajeEsquemaDesactualizado(version));
+            return;
+        }
+
         // Deshabilitar botón mientras se procesa
         btnIngresar.setDisable(true);
         btnIngresar.setText("Ingresando...");
@@ -1,6 +1,7 @@
 package com.juank.utp.finimpact.controller;
 
 import com.juank.utp.finimpact.model.Usuario;
+import com.juank.utp.finimpact.utils.ArranqueAplicacion;
 import com.juank.utp.finimpact.utils.UserSession;
 import com.juank.utp.finimpact.utils.AsyncTaskManager;
 import javafx.fxml.FXML;
@@ -8,6 +9,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.layout.VBox;
@@ -16,6 +18,9 @@ import javafx.stage.Stage;
 import javafx.application.Platform;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Controlador para la vista principal de la aplicación
@@ -30,20 +35,77 @@ public class MainController {
     @FXML private VBox loginView;    // Vista del header para no autenticados
     @FXML private VBox userView;     // Vista del header para autenticados
     @FXML private TabPane mainTabPane;
+    @FXML private Tab tabDashboard;
+    @FXML private Tab tabIniciativas;
+    @FXML private Tab tabImpactos;
 
-    // Referencias a los controladores incluidos
-    @FXML private DashboardController dashboardIncludeController;
-    @FXML private IniciativaController iniciativaIncludeController;
-    @FXML private ImpactoController impactoIncludeController;
+    // Controladores de las pestañas; quedan en null hasta que la pestaña se abre por primera vez
+    private DashboardController dashboardIncludeController;
+    private IniciativaController iniciativaIncludeController;
+    private ImpactoController impactoIncludeController;
+
+    // Vista FXML de cada pestaña que todavía no se cargó
+    private final Map<Tab, String> vistasPendientes = new HashMap<>();
+    // Usuario con el que se configuró cada controlador, para no recargar una vista recién creada
+    private final Map<Object, Usuario> usuarioPorControlador = new IdentityHashMap<>();
 
     private Usuario usuarioLogueado;
     private static String ultimoEmailUsado = ""; // Variable estática para recordar el último email
 
     @FXML
     private void initialize() {
+        vistasPendientes.put(tabDashboard, "dashboard-view.fxml");
+        vistasPendientes.put(tabIniciativas, "iniciativa-view.fxml");
+        vistasPendientes.put(tabImpactos, "impacto-view.fxml");
+        mainTabPane.getSelectionModel().selectedItemProperty().addListener(
+                (observable, anterior, pestana) -> cargarPestanaSiFalta(pestana));
+
         actualizarEstadoUsuario();
     }
 
+    /**
+     * Carga el contenido de la pestaña la primera vez que se muestra con un usuario logueado.
+     * Los controladores consultan la base en background al inicializarse con la sesión ya establecida.
+     */
+    private void cargarPestanaSiFalta(Tab pestana) {
+        if (pestana == null || usuarioLogueado == null || !vistasPendientes.containsKey(pestana)) {
+            return;
+        }
+        String vista = vistasPendientes.remove(pestana);
+        long inicio = System.nanoTime();
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/juank/utp/finimpact/" + vista));
+            pestana.setContent(loader.load());
+
+            Object controlador = loader.getController();
+            if (controlador instanceof DashboardController) {
+                dashboardIncludeController = (DashboardController) controlador;
+            } else if (controlador instanceof IniciativaController) {
+                iniciativaIncludeController = (IniciativaController) controlador;
+            } else if (controlador instanceof ImpactoController) {
+                impactoIncludeController = (ImpactoController) controlador;
+            }
+            usuarioPorControlador.put(controlador, usuarioLogueado);
+            ArranqueAplicacion.registrarFase("pestaña " + pestana.getText(), inicio);
+
+        } catch (IOException e) {
+            vistasPendientes.put(pestana, vista); // reintentar en la próxima selección
+            System.err.println("Error al cargar la vista " + vista + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Indica si el controlador existe y todavía no se configuró para el usuario logueado
+     */
+    private boolean requiereConfiguracion(Object controlador) {
+        if (controlador == null || usuarioLogueado == null || usuarioPorControlador.get(controlador) == usuarioLogueado) {
+            return false;
+        }
+        usuarioPorControlador.put(controlador, usuarioLogueado);
+        return true;
+    }
+
     /**
      * Maneja el evento del botón de login
      */
@@ -172,17 +234,18 @@ public class MainController {
     }
 
     /**
-     * Configura los controladores de forma asíncrona y secuencial
+     * Configura los controladores de forma asíncrona y secuencial.
+     * Solo afecta a las pestañas ya cargadas; las demás toman el usuario de la sesión al abrirse.
      */
     private void configurarControladores() {
         // Configurar dashboard
-        if (dashboardIncludeController != null && usuarioLogueado != null) {
+        if (requiereConfiguracion(dashboardIncludeController)) {
             System.out.println("📊 Estableciendo usuario en DashboardController...");
             dashboardIncludeController.setUsuarioLogueado(usuarioLogueado);
         }
 
         // Configurar iniciativas de forma asíncrona
-        if (iniciativaIncludeController != null && usuarioLogueado != null) {
+        if (requiereConfiguracion(iniciativaIncludeController)) {
             System.out.println("📋 Reconfigurando IniciativaController para usuario: " + usuarioLogueado.getRol());
 
             AsyncTaskManager.executeAsync(
@@ -207,7 +270,7 @@ public class MainController {
         }
 
         // Configurar impactos de forma asíncrona
-        if (impactoIncludeController != null && usuarioLogueado != null) {
+        if (requiereConfiguracion(impactoIncludeController)) {
             System.out.println("💰 Reconfigurando ImpactoController para usuario: " + usuarioLogueado.getRol());
 
             AsyncTaskManager.executeAsync(
@@ -276,6 +339,7 @@ public class MainController {
             welcomeView.setManaged(false);
             mainTabPane.setVisible(true);
             mainTabPane.setManaged(true);
+            cargarPestanaSiFalta(mainTabPane.getSelectionModel().getSelectedItem());
         }
     }
 
@@ -319,7 +319,8 @@ public class UsuarioController implements Initializable {
                         return;
                     }
 
-                    Usuario nuevoUsuario = usuario != null ? usuario : new Usuario();
+                    // Se edita una copia: si el guardado falla, la fila de la tabla no queda modificada
+                    Usuario nuevoUsuario = usuario != null ? new Usuario(usuario) : new Usuario();
                     nuevoUsuario.setNombreCompleto(txtNombreCompleto.getText().trim());
                     nuevoUsuario.setEmail(txtEmail.getText().trim());
                     nuevoUsuario.setRol(cbRolForm.getValue());
@@ -340,10 +341,16 @@ public class UsuarioController implements Initializable {
                             mostrarError("Error", "La contraseña es obligatoria para nuevos usuarios");
                             return;
                         }
-                        usuarioRepository.save(nuevoUsuario);
+                        if (!usuarioRepository.save(nuevoUsuario)) {
+                            mostrarError("Error", "No se pudo crear el usuario.");
+                            return;
+                        }
                         mostrarInformacion("Éxito", "Usuario creado correctamente.");
                     } else {
-                        usuarioRepository.update(nuevoUsuario);
+                        if (!usuarioRepository.update(nuevoUsuario)) {
+                            mostrarError("Error", "No se pudo actualizar el usuario.");
+                            return;
+                        }
                         mostrarInformacion("Éxito", "Usuario actualizado correctamente.");
                     }
 
@@ -0,0 +1,102 @@
+package com.juank.utp.finimpact.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Datos ya agregados que necesita el dashboard (KPIs y series de los gráficos)
+ */
+public class DashboardResumen {
+    // Iniciativas
+    private int totalIniciativas;
+    private int iniciativasActivas;
+    private int iniciativasFinalizadas;
+    private int iniciativasRiesgoAlto;
+    private final Map<String, Long> iniciativasPorEstado = new LinkedHashMap<>();
+    private final Map<String, Long> iniciativasPorRiesgo = new LinkedHashMap<>();
+
+    // Impactos (valores con el multiplicador aplicado)
+    private long cantidadImpactos;
+    private BigDecimal impactoTotal = BigDecimal.ZERO;
+    private final Map<String, BigDecimal> impactoPorTipo = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> impactoMensual = new TreeMap<>(); // clave "yyyy-MM"
+
+    // Constructor vacío
+    public DashboardResumen() {}
+
+    // Getters y Setters
+    public int getTotalIniciativas() {
+        return totalIniciativas;
+    }
+
+    public void setTotalIniciativas(int totalIniciativas) {
+        this.totalIniciativas = totalIniciativas;
+    }
+
+    public int getIniciativasActivas() {
+        return iniciativasActivas;
+    }
+
+    public void setIniciativasActivas(int iniciativasActivas) {
+        this.iniciativasActivas = iniciativasActivas;
+    }
+
+    public int getIniciativasFinalizadas() {
+        return iniciativasFinalizadas;
+    }
+
+    public void setIniciativasFinalizadas(int iniciativasFinalizadas) {
+        this.iniciativasFinalizadas = iniciativasFinalizadas;
+    }
+
+    public int getIniciativasRiesgoAlto() {
+        return iniciativasRiesgoAlto;
+    }
+
+    public void setIniciativasRiesgoAlto(int iniciativasRiesgoAlto) {
+        this.iniciativasRiesgoAlto = iniciativasRiesgoAlto;
+    }
+
+    public Map<String, Long> getIniciativasPorEstado() {
+        return iniciativasPorEstado;
+    }
+
+    public Map<String, Long> getIniciativasPorRiesgo() {
+        return iniciativasPorRiesgo;
+    }
+
+    public long getCantidadImpactos() {
+        return cantidadImpactos;
+    }
+
+    public void setCantidadImpactos(long cantidadImpactos) {
+        this.cantidadImpactos = cantidadImpactos;
+    }
+
+    public BigDecimal getImpactoTotal() {
+        return impactoTotal;
+    }
+
+    public void setImpactoTotal(BigDecimal impactoTotal) {
+        this.impactoTotal = impactoTotal;
+    }
+
+    public Map<String, BigDecimal> getImpactoPorTipo() {
+        return impactoPorTipo;
+    }
+
+    public Map<String, BigDecimal> getImpactoMensual() {
+        return impactoMensual;
+    }
+
+    /**
+     * Impacto promedio por registro de impacto
+     */
+    public BigDecimal getImpactoPromedio() {
+        if (cantidadImpactos == 0) return BigDecimal.ZERO;
+        return impactoTotal.divide(BigDecimal.valueOf(cantidadImpactos), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,38 @@
+package com.juank.utp.finimpact.model;
+
+import java.util.List;
+
+/**
+ * Resultado completo de una carga del dashboard, armado en background y publicado
+ * de una sola vez al hilo de UI. No se modifica después de publicarse.
+ */
+public class DashboardSnapshot {
+    private final DashboardResumen resumen;
+    private final List<Iniciativa> iniciativasDisponibles; // null si no se recargaron los filtros
+    private final List<Usuario> usuarios;                  // null si no se recargaron o no aplica al rol
+
+    public DashboardSnapshot(DashboardResumen resumen, List<Iniciativa> iniciativasDisponibles, List<Usuario> usuarios) {
+        this.resumen = resumen;
+        this.iniciativasDisponibles = iniciativasDisponibles != null ? List.copyOf(iniciativasDisponibles) : null;
+        this.usuarios = usuarios != null ? List.copyOf(usuarios) : null;
+    }
+
+    public DashboardResumen getResumen() {
+        return resumen;
+    }
+
+    public List<Iniciativa> getIniciativasDisponibles() {
+        return iniciativasDisponibles;
+    }
+
+    public List<Usuario> getUsuarios() {
+        return usuarios;
+    }
+
+    /**
+     * Indica si la carga incluye los datos para reconstruir los combos de filtro
+     */
+    public boolean incluyeFiltros() {
+        return iniciativasDisponibles != null;
+    }
+}
@@ -44,6 +44,18 @@ public class Impacto {
         this.impacto = impacto;
     }
 
+    // Constructor de copia (las cachés de lectura no comparten instancias con la UI)
+    public Impacto(Impacto otro) {
+        this.idImpacto = otro.idImpacto;
+        this.idIniciativa = otro.idIniciativa;
+        this.fechaCreacion = otro.fechaCreacion;
+        this.tipoImpacto = otro.tipoImpacto;
+        this.multiplicador = otro.multiplicador;
+        this.atributoImpacto = otro.atributoImpacto;
+        this.fechaImpacto = otro.fechaImpacto;
+        this.impacto = otro.impacto;
+    }
+
     // Getters y Setters
     public int getIdImpacto() {
         return idImpacto;
@@ -0,0 +1,269 @@
+package com.juank.utp.finimpact.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Impactos guardados por columnas en arreglos primitivos, sin un objeto Impacto por fila.
+ * Fechas como día epoch (int), tipo y atributo codificados con diccionario (byte) y
+ * montos en centavos (long) con el multiplicador ya aplicado.
+ * Los operadores trabajan sobre arreglos de índices de fila devueltos por filtrar().
+ */
+public class ImpactoColumnas {
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private int tamano;
+    private int[] idImpacto = new int[CAPACIDAD_INICIAL];
+    private int[] idIniciativa = new int[CAPACIDAD_INICIAL];
+    private int[] fechaImpacto = new int[CAPACIDAD_INICIAL]; // días desde 1970-01-01
+    private byte[] tipo = new byte[CAPACIDAD_INICIAL];
+    private byte[] atributo = new byte[CAPACIDAD_INICIAL];
+    private long[] centavos = new long[CAPACIDAD_INICIAL];   // impacto * multiplicador * 100
+
+    private final Diccionario tipos = new Diccionario();
+    private final Diccionario atributos = new Diccionario();
+
+    /**
+     * Agrega un impacto ya cargado; el monto se redondea como en ImpactoRepository.cargarColumnas
+     */
+    public void agregar(Impacto impacto) {
+        long centavos = impacto.getImpacto().multiply(BigDecimal.valueOf(impacto.getMultiplicador()))
+                .movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        agregar(impacto.getIdImpacto(), impacto.getIdIniciativa(), (int) impacto.getFechaImpacto().toEpochDay(),
+                impacto.getTipoImpacto(), impacto.getAtributoImpacto(), centavos);
+    }
+
+    /**
+     * Agrega una fila; el monto ya viene en centavos y con el multiplicador aplicado
+     */
+    public void agregar(int idImpacto, int idIniciativa, int fechaEpochDia, String tipo, String atributo, long centavos) {
+        if (tamano == this.idImpacto.length) {
+            crecer();
+        }
+        this.idImpacto[tamano] = idImpacto;
+        this.idIniciativa[tamano] = idIniciativa;
+        this.fechaImpacto[tamano] = fechaEpochDia;
+        this.tipo[tamano] = tipos.codificar(tipo);
+        this.atributo[tamano] = atributos.codificar(atributo);
+        this.centavos[tamano] = centavos;
+        tamano++;
+    }
+
+    private void crecer() {
+        int capacidad = idImpacto.length * 2;
+        idImpacto = Arrays.copyOf(idImpacto, capacidad);
+        idIniciativa = Arrays.copyOf(idIniciativa, capacidad);
+        fechaImpacto = Arrays.copyOf(fechaImpacto, capacidad);
+        tipo = Arrays.copyOf(tipo, capacidad);
+        atributo = Arrays.copyOf(atributo, capacidad);
+        centavos = Arrays.copyOf(centavos, capacidad);
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    /**
+     * Índices de las filas que cumplen todas las condiciones (null = sin restricción).
+     * Tipo y atributo se comparan por código de diccionario, no por String.
+     */
+    public int[] filtrar(String tipoFiltro, String atributoFiltro, Integer idIniciativaFiltro, LocalDate desde, LocalDate hasta) {
+        int codigoTipo = tipoFiltro != null ? tipos.buscar(tipoFiltro) : -1;
+        int codigoAtributo = atributoFiltro != null ? atributos.buscar(atributoFiltro) : -1;
+        if ((tipoFiltro != null && codigoTipo < 0) || (atributoFiltro != null && codigoAtributo < 0)) {
+            return new int[0]; // valor que no aparece en ninguna fila
+        }
+        int diaDesde = desde != null ? (int) desde.toEpochDay() : Integer.MIN_VALUE;
+        int diaHasta = hasta != null ? (int) hasta.toEpochDay() : Integer.MAX_VALUE;
+
+        int[] filas = new int[tamano];
+        int cantidad = 0;
+        for (int i = 0; i < tamano; i++) {
+            if (codigoTipo >= 0 && tipo[i] != codigoTipo) continue;
+            if (codigoAtributo >= 0 && atributo[i] != codigoAtributo) continue;
+            if (idIniciativaFiltro != null && idIniciativa[i] != idIniciativaFiltro) continue;
+            if (fechaImpacto[i] < diaDesde || fechaImpacto[i] > diaHasta) continue;
+            filas[cantidad++] = i;
+        }
+        return Arrays.copyOf(filas, cantidad);
+    }
+
+    /**
+     * Filtra por texto contenido en el tipo: el texto se evalúa una vez por valor del diccionario
+     */
+    public int[] filtrarPorTextoTipo(int[] filas, String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return filas;
+        }
+        boolean[] coincide = tipos.contienen(texto.toLowerCase());
+        int[] resultado = new int[filas.length];
+        int cantidad = 0;
+        for (int fila : filas) {
+            if (coincide[tipo[fila]]) {
+                resultado[cantidad++] = fila;
+            }
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    /**
+     * Todas las filas, para agregar sin filtro
+     */
+    public int[] todas() {
+        int[] filas = new int[tamano];
+        for (int i = 0; i < tamano; i++) {
+            filas[i] = i;
+        }
+        return filas;
+    }
+
+    /**
+     * Suma de los montos de las filas indicadas, en centavos
+     */
+    public long sumarCentavos(int[] filas) {
+        long suma = 0;
+        for (int fila : filas) {
+            suma += centavos[fila];
+        }
+        return suma;
+    }
+
+    /**
+     * Suma por tipo de impacto, de mayor a menor total
+     */
+    public Map<String, BigDecimal> sumarPorTipo(int[] filas) {
+        long[] porCodigo = new long[tipos.tamano()];
+        boolean[] presente = new boolean[tipos.tamano()];
+        for (int fila : filas) {
+            porCodigo[tipo[fila]] += centavos[fila];
+            presente[tipo[fila]] = true;
+        }
+        Map<String, Long> totales = new HashMap<>();
+        for (int codigo = 0; codigo < porCodigo.length; codigo++) {
+            if (presente[codigo]) {
+                totales.put(tipos.valor(codigo), porCodigo[codigo]);
+            }
+        }
+        Map<String, BigDecimal> ordenado = new LinkedHashMap<>();
+        totales.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> ordenado.put(e.getKey(), aMonto(e.getValue())));
+        return ordenado;
+    }
+
+    /**
+     * Suma por mes del impacto con clave "yyyy-MM", igual que DashboardResumen.getImpactoMensual()
+     */
+    public Map<String, BigDecimal> sumarPorMes(int[] filas) {
+        Map<Integer, long[]> porMes = new HashMap<>();
+        for (int fila : filas) {
+            porMes.computeIfAbsent(anioMes(fechaImpacto[fila]), k -> new long[1])[0] += centavos[fila];
+        }
+        Map<String, BigDecimal> resultado = new TreeMap<>();
+        porMes.forEach((anioMes, suma) ->
+                resultado.put(String.format("%04d-%02d", anioMes / 100, anioMes % 100), aMonto(suma[0])));
+        return resultado;
+    }
+
+    /**
+     * Llena los campos de impactos de un resumen del dashboard a partir de las filas indicadas
+     */
+    public void resumir(int[] filas, DashboardResumen resumen) {
+        resumen.setCantidadImpactos(filas.length);
+        resumen.setImpactoTotal(aMonto(sumarCentavos(filas)));
+        resumen.getImpactoPorTipo().putAll(sumarPorTipo(filas));
+        resumen.getImpactoMensual().putAll(sumarPorMes(filas));
+    }
+
+    /**
+     * Crea un Impacto solo para la fila que se necesita mostrar o editar.
+     * La fecha de creación no se guarda en columnas; el monto vuelve con multiplicador 1.
+     */
+    public Impacto materializar(int fila) {
+        return new Impacto(idImpacto[fila], idIniciativa[fila], null, tipos.valor(tipo[fila]), 1,
+                atributos.valor(atributo[fila]), LocalDate.ofEpochDay(fechaImpacto[fila]), aMonto(centavos[fila]));
+    }
+
+    public int getIdImpacto(int fila) {
+        return idImpacto[fila];
+    }
+
+    public long getCentavos(int fila) {
+        return centavos[fila];
+    }
+
+    /**
+     * Convierte centavos al monto con dos decimales
+     */
+    public static BigDecimal aMonto(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * Año y mes (yyyy * 100 + mm) de un día epoch sin crear LocalDate (algoritmo civil de H. Hinnant)
+     */
+    static int anioMes(int epochDia) {
+        int z = epochDia + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int mes = mp < 10 ? mp + 3 : mp - 9;
+        int anio = yoe + era * 400 + (mes <= 2 ? 1 : 0);
+        return anio * 100 + mes;
+    }
+
+    /**
+     * Diccionario de valores repetidos (tipos y atributos tienen pocos valores distintos)
+     */
+    private static class Diccionario {
+        private final Map<String, Byte> codigos = new HashMap<>();
+        private String[] valores = new String[8];
+
+        byte codificar(String valor) {
+            Byte codigo = codigos.get(valor);
+            if (codigo != null) {
+                return codigo;
+            }
+            int nuevo = codigos.size();
+            if (nuevo > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Demasiados valores distintos para codificar en byte: " + valor);
+            }
+            if (nuevo == valores.length) {
+                valores = Arrays.copyOf(valores, valores.length * 2);
+            }
+            valores[nuevo] = valor;
+            codigos.put(valor, (byte) nuevo);
+            return (byte) nuevo;
+        }
+
+        int buscar(String valor) {
+            Byte codigo = codigos.get(valor);
+            return codigo != null ? codigo : -1;
+        }
+
+        String valor(int codigo) {
+            return valores[codigo];
+        }
+
+        int tamano() {
+            return codigos.size();
+        }
+
+        boolean[] contienen(String textoMinusculas) {
+            boolean[] coincide = new boolean[Math.max(1, codigos.size())];
+            for (int codigo = 0; codigo < codigos.size(); codigo++) {
+                coincide[codigo] = valores[codigo] != null && valores[codigo].toLowerCase().contains(textoMinusculas);
+            }
+            return coincide;
+        }
+    }
+}
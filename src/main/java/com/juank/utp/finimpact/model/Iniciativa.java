@@ -50,6 +50,20 @@ public class Iniciativa {
         this.idOwner = idOwner;
     }
 
+    // Constructor de copia (las cachés de lectura no comparten instancias con la UI)
+    public Iniciativa(Iniciativa otra) {
+        this.idIniciativa = otra.idIniciativa;
+        this.nombre = otra.nombre;
+        this.descripcion = otra.descripcion;
+        this.fechaInicio = otra.fechaInicio;
+        this.fechaFin = otra.fechaFin;
+        this.tipo = otra.tipo;
+        this.estado = otra.estado;
+        this.riesgo = otra.riesgo;
+        this.idOwner = otra.idOwner;
+        this.fechaRegistro = otra.fechaRegistro;
+    }
+
     // Getters y Setters
     public int getId() {
         return idIniciativa;
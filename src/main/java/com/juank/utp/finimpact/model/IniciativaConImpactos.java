@@ -0,0 +1,44 @@
+package com.juank.utp.finimpact.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Iniciativa junto con sus impactos, leída en una sola consulta del portafolio
+ */
+public class IniciativaConImpactos {
+    private final Iniciativa iniciativa;
+    private final List<Impacto> impactos;
+
+    public IniciativaConImpactos(Iniciativa iniciativa, List<Impacto> impactos) {
+        this.iniciativa = iniciativa;
+        this.impactos = List.copyOf(impactos);
+    }
+
+    public Iniciativa getIniciativa() {
+        return iniciativa;
+    }
+
+    /**
+     * Impactos de la iniciativa, del más reciente al más antiguo
+     */
+    public List<Impacto> getImpactos() {
+        return impactos;
+    }
+
+    /**
+     * Suma de impacto * multiplicador de todos los impactos
+     */
+    public BigDecimal getImpactoTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Impacto impacto : impactos) {
+            total = total.add(impacto.getImpacto().multiply(BigDecimal.valueOf(impacto.getMultiplicador())));
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return iniciativa.getNombre() + " (" + impactos.size() + " impactos)";
+    }
+}
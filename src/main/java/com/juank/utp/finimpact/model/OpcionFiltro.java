@@ -0,0 +1,50 @@
+package com.juank.utp.finimpact.model;
+
+import java.util.Objects;
+
+/**
+ * Opción de un combo de filtro: el ID que usan las consultas y el texto que ve el usuario.
+ * Un ID null representa "todas" (sin restricción).
+ */
+public class OpcionFiltro {
+    private final Integer id;
+    private final String texto;
+
+    public OpcionFiltro(Integer id, String texto) {
+        this.id = id;
+        this.texto = texto;
+    }
+
+    /**
+     * Opción sin restricción, p. ej. "Todas las iniciativas"
+     */
+    public static OpcionFiltro todas(String texto) {
+        return new OpcionFiltro(null, texto);
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OpcionFiltro that = (OpcionFiltro) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+}
@@ -33,6 +33,16 @@ public class Usuario {
         this.estado = estado;
     }
 
+    // Constructor de copia (las cachés de lectura no comparten instancias con la UI)
+    public Usuario(Usuario otro) {
+        this.idUsuario = otro.idUsuario;
+        this.nombreCompleto = otro.nombreCompleto;
+        this.email = otro.email;
+        this.password = otro.password;
+        this.rol = otro.rol;
+        this.estado = otro.estado;
+    }
+
     // Getters y Setters
     public int getId() {
         return idUsuario;
@@ -0,0 +1,200 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lectura de consultas fila por fila para los repositorios. El mapeador resuelve las columnas
+ * por nombre una sola vez por ResultSet y cada fila se lee por posición; las sentencias usan un
+ * fetch size fijo, así recorrer muchas filas no acumula más que un bloque en memoria.
+ *
+ * recorrer() entrega cada fila a un consumidor y listar() las junta; abrir() devuelve un Stream
+ * perezoso que tiene la conexión tomada hasta que se cierra (usar try-with-resources) o se agota.
+ */
+public final class ConsultaFilas {
+
+    static final int FILAS_POR_FETCH = 1000;
+
+    private ConsultaFilas() {
+    }
+
+    /**
+     * Prepara la lectura de un ResultSet: busca las columnas y devuelve el lector de filas
+     */
+    @FunctionalInterface
+    interface Mapeador<T> {
+        Lector<T> preparar(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Convierte la fila actual usando las posiciones ya resueltas
+     */
+    @FunctionalInterface
+    interface Lector<T> {
+        T leer(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface Parametros {
+        Parametros NINGUNO = stmt -> {
+        };
+
+        void asignar(PreparedStatement stmt) throws SQLException;
+
+        static Parametros de(List<?> valores) {
+            return stmt -> {
+                for (int i = 0; i < valores.size(); i++) {
+                    stmt.setObject(i + 1, valores.get(i));
+                }
+            };
+        }
+
+        static Parametros de(Object... valores) {
+            return de(Arrays.asList(valores));
+        }
+    }
+
+    /**
+     * Error de JDBC al avanzar un Stream de los repositorios; la causa es la SQLException original
+     */
+    public static class ErrorLectura extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ErrorLectura(SQLException causa) {
+            super(causa.getMessage(), causa);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    /**
+     * Entrega cada fila al consumidor sin guardarlas
+     *
+     * @return cantidad de filas leídas
+     */
+    static <T> long recorrer(String sql, Parametros parametros, Mapeador<T> mapeador, Consumer<? super T> consumidor)
+            throws SQLException {
+        long filas = 0;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = preparar(conn, sql, parametros);
+             ResultSet rs = stmt.executeQuery()) {
+
+            Lector<T> lector = mapeador.preparar(rs);
+            while (rs.next()) {
+                consumidor.accept(lector.leer(rs));
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    static <T> List<T> listar(String sql, Parametros parametros, Mapeador<T> mapeador) throws SQLException {
+        List<T> filas = new ArrayList<>();
+        recorrer(sql, parametros, mapeador, filas::add);
+        return filas;
+    }
+
+    /**
+     * Stream perezoso de las filas. La consulta se ejecuta aquí; la conexión vuelve al pool
+     * al cerrar el Stream o al leer la última fila.
+     */
+    static <T> Stream<T> abrir(String sql, Parametros parametros, Mapeador<T> mapeador) throws SQLException {
+        Connection conn = DatabaseConfig.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = preparar(conn, sql, parametros);
+            rs = stmt.executeQuery();
+            Filas<T> filas = new Filas<>(conn, stmt, rs, mapeador.preparar(rs));
+            return StreamSupport.stream(filas, false).onClose(filas::cerrar);
+        } catch (SQLException | RuntimeException e) {
+            cerrar(rs, stmt, conn, e);
+            throw e;
+        }
+    }
+
+    private static PreparedStatement preparar(Connection conn, String sql, Parametros parametros) throws SQLException {
+        // Forward-only y solo lectura son los valores por defecto; la misma SQL comparte la caché de sentencias
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        parametros.asignar(stmt);
+        stmt.setFetchSize(FILAS_POR_FETCH);
+        return stmt;
+    }
+
+    private static void cerrar(ResultSet rs, PreparedStatement stmt, Connection conn, Throwable error) {
+        for (AutoCloseable recurso : new AutoCloseable[]{rs, stmt, conn}) {
+            if (recurso == null) {
+                continue;
+            }
+            try {
+                recurso.close();
+            } catch (Exception e) {
+                error.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Filas de un ResultSet abierto; cierra ResultSet, sentencia y conexión una sola vez
+     */
+    private static class Filas<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private final Lector<T> lector;
+        private boolean cerrado;
+
+        Filas(Connection conn, PreparedStatement stmt, ResultSet rs, Lector<T> lector) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.lector = lector;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> accion) {
+            if (cerrado) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    cerrar();
+                    return false;
+                }
+                accion.accept(lector.leer(rs));
+                return true;
+            } catch (SQLException e) {
+                cerrar();
+                throw new ErrorLectura(e);
+            }
+        }
+
+        void cerrar() {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            SQLException error = new SQLException("Error cerrando la consulta");
+            ConsultaFilas.cerrar(rs, stmt, conn, error);
+            if (error.getSuppressed().length > 0) {
+                System.err.println("Error cerrando la consulta: " + error.getSuppressed()[0].getMessage());
+            }
+        }
+    }
+}
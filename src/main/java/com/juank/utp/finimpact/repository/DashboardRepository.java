@@ -0,0 +1,180 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.model.DashboardResumen;
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de consultas agregadas para el dashboard.
+ * Devuelve solo los números ya agrupados en SQL, sin cargar filas de iniciativas ni impactos.
+ */
+public class DashboardRepository {
+
+    /**
+     * Filtro del dashboard sobre las iniciativas (null = sin restricción)
+     */
+    public static class Filtro {
+        private final Integer idOwner;
+        private final Integer idIniciativa;
+
+        public Filtro(Integer idOwner, Integer idIniciativa) {
+            this.idOwner = idOwner;
+            this.idIniciativa = idIniciativa;
+        }
+
+        public Integer getIdOwner() {
+            return idOwner;
+        }
+
+        public Integer getIdIniciativa() {
+            return idIniciativa;
+        }
+    }
+
+    /**
+     * Obtiene todos los KPIs y series del dashboard con tres consultas agrupadas
+     */
+    public DashboardResumen obtenerResumen(Filtro filtro) {
+        DashboardResumen resumen = new DashboardResumen();
+        cargarResumenIniciativas(filtro, resumen);
+        cargarResumenImpactosPorTipo(filtro, resumen);
+        cargarImpactoMensual(filtro, resumen);
+        return resumen;
+    }
+
+    /**
+     * Conteos de iniciativas por estado y riesgo (KPIs y gráficos de pastel).
+     * Cada método de carga escribe campos distintos del resumen, por lo que pueden ejecutarse en paralelo.
+     */
+    public void cargarResumenIniciativas(Filtro filtro, DashboardResumen resumen) {
+        StringBuilder sql = new StringBuilder("SELECT ini.estado, ini.riesgo, COUNT(*) AS cantidad FROM iniciativas ini WHERE 1=1");
+        List<Object> parameters = new ArrayList<>();
+        agregarFiltro(sql, parameters, filtro);
+        sql.append(" GROUP BY ini.estado, ini.riesgo ORDER BY ini.estado, ini.riesgo");
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            setParameters(stmt, parameters);
+            ResultSet rs = stmt.executeQuery();
+
+            int total = 0, activas = 0, finalizadas = 0, riesgoAlto = 0;
+            while (rs.next()) {
+                String estado = rs.getString("estado");
+                String riesgo = rs.getString("riesgo");
+                int cantidad = rs.getInt("cantidad");
+
+                total += cantidad;
+                if ("en curso".equalsIgnoreCase(estado)) activas += cantidad;
+                if ("finalizado".equalsIgnoreCase(estado)) finalizadas += cantidad;
+                if ("alto".equalsIgnoreCase(riesgo)) riesgoAlto += cantidad;
+
+                resumen.getIniciativasPorEstado().merge(estado, (long) cantidad, Long::sum);
+                resumen.getIniciativasPorRiesgo().merge(riesgo, (long) cantidad, Long::sum);
+            }
+
+            resumen.setTotalIniciativas(total);
+            resumen.setIniciativasActivas(activas);
+            resumen.setIniciativasFinalizadas(finalizadas);
+            resumen.setIniciativasRiesgoAlto(riesgoAlto);
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener resumen de iniciativas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cantidad y suma de impactos por tipo desde el resumen mensual; el total general se obtiene de estas filas
+     */
+    public void cargarResumenImpactosPorTipo(Filtro filtro, DashboardResumen resumen) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT res.tipo_impacto, SUM(res.cantidad) AS cantidad, SUM(res.total) AS total " +
+            "FROM impactos_mensual res INNER JOIN iniciativas ini ON res.id_iniciativa = ini.id_iniciativa WHERE 1=1");
+        List<Object> parameters = new ArrayList<>();
+        agregarFiltro(sql, parameters, filtro);
+        sql.append(" GROUP BY res.tipo_impacto ORDER BY total DESC");
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            setParameters(stmt, parameters);
+            ResultSet rs = stmt.executeQuery();
+
+            long cantidadTotal = 0;
+            BigDecimal sumaTotal = BigDecimal.ZERO;
+            while (rs.next()) {
+                long cantidad = rs.getLong("cantidad");
+                BigDecimal total = rs.getBigDecimal("total");
+                if (total == null) total = BigDecimal.ZERO;
+
+                cantidadTotal += cantidad;
+                sumaTotal = sumaTotal.add(total);
+                resumen.getImpactoPorTipo().put(rs.getString("tipo_impacto"), total);
+            }
+
+            resumen.setCantidadImpactos(cantidadTotal);
+            resumen.setImpactoTotal(sumaTotal);
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener resumen de impactos por tipo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Suma de impactos por mes (serie del gráfico de líneas) desde el resumen mensual
+     */
+    public void cargarImpactoMensual(Filtro filtro, DashboardResumen resumen) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT res.mes, SUM(res.total) AS total " +
+            "FROM impactos_mensual res INNER JOIN iniciativas ini ON res.id_iniciativa = ini.id_iniciativa WHERE 1=1");
+        List<Object> parameters = new ArrayList<>();
+        agregarFiltro(sql, parameters, filtro);
+        sql.append(" GROUP BY res.mes");
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            setParameters(stmt, parameters);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                LocalDate mes = rs.getDate("mes").toLocalDate();
+                String clave = String.format("%04d-%02d", mes.getYear(), mes.getMonthValue());
+                BigDecimal total = rs.getBigDecimal("total");
+                resumen.getImpactoMensual().put(clave, total != null ? total : BigDecimal.ZERO);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener impacto mensual: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Agrega las condiciones del filtro sobre el alias "ini" de iniciativas
+     */
+    private void agregarFiltro(StringBuilder sql, List<Object> parameters, Filtro filtro) {
+        if (filtro == null) {
+            return;
+        }
+        if (filtro.getIdOwner() != null) {
+            sql.append(" AND ini.id_owner = ?");
+            parameters.add(filtro.getIdOwner());
+        }
+        if (filtro.getIdIniciativa() != null) {
+            // Búsqueda por clave primaria; dos iniciativas con el mismo nombre ya no se mezclan
+            sql.append(" AND ini.id_iniciativa = ?");
+            parameters.add(filtro.getIdIniciativa());
+        }
+    }
+
+    private void setParameters(PreparedStatement stmt, List<Object> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
+        }
+    }
+}
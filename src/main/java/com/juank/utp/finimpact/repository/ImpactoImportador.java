@@ -0,0 +1,426 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.utils.CsvReader;
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Importación masiva de impactos desde CSV.
+ * Lee el archivo por streaming, valida cada fila, inserta en lotes dentro de una sola transacción
+ * y reporta el progreso por lote y las filas rechazadas. Si algo falla en la base se revierte todo.
+ */
+public class ImpactoImportador {
+
+    /**
+     * Forma de enviar cada lote a SQL Server
+     */
+    public enum Modo {
+        /** INSERT multi-fila con OUTPUT INSERTED: devuelve los IDs generados */
+        LOTES_JDBC,
+        /** API de bulk copy de mssql-jdbc: más rápida, pero no devuelve los IDs generados */
+        BULK_COPY
+    }
+
+    /**
+     * Avance de la importación, notificado después de insertar cada lote
+     */
+    @FunctionalInterface
+    public interface Progreso {
+        void loteInsertado(int numeroLote, int filasLote, int totalInsertadas, int totalRechazadas);
+    }
+
+    public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+
+    // SQL Server admite hasta 2100 parámetros por sentencia: 7 columnas * 250 filas = 1750
+    private static final int FILAS_POR_SENTENCIA = 250;
+    private static final int COLUMNAS = 7;
+    private static final String INSERT_BASE = "INSERT INTO impactos (id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto) OUTPUT INSERTED.id_impacto VALUES ";
+
+    private static final Set<String> TIPOS = Set.of("Maquinaria", "Generación", "Optimización", "Transformación");
+    private static final Set<String> ATRIBUTOS = Set.of("Planeado", "Estimado", "Real");
+    private static final List<String> COLUMNAS_REQUERIDAS = List.of("id_iniciativa", "tipo_impacto", "atributo_impacto", "fecha_impacto", "impacto");
+    private static final DateTimeFormatter FORMATO_FECHA_LATINO = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+    private final int tamanoLote;
+    private final Modo modo;
+    private final Integer idOwnerPermitido;
+
+    /**
+     * @param tamanoLote        filas por lote (cada lote se inserta y se reporta junto)
+     * @param modo              forma de envío de los lotes
+     * @param idOwnerPermitido  si no es null, solo se aceptan impactos de iniciativas de ese owner
+     */
+    public ImpactoImportador(int tamanoLote, Modo modo, Integer idOwnerPermitido) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo");
+        }
+        this.tamanoLote = tamanoLote;
+        this.modo = modo;
+        this.idOwnerPermitido = idOwnerPermitido;
+    }
+
+    /**
+     * Importa un archivo CSV en UTF-8 con encabezado
+     */
+    public Resultado importar(Path archivo, Progreso progreso) throws IOException, SQLException {
+        try (Reader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            return importar(reader, progreso);
+        }
+    }
+
+    /**
+     * Importa desde un CSV con encabezado. Columnas requeridas: id_iniciativa, tipo_impacto,
+     * atributo_impacto, fecha_impacto, impacto. Opcionales: multiplicador (1), fecha_creacion (hoy).
+     * Las filas inválidas se rechazan sin detener la importación; un error de base de datos
+     * revierte la transacción completa y se propaga.
+     */
+    public Resultado importar(Reader csv, Progreso progreso) throws IOException, SQLException {
+        Resultado resultado = new Resultado();
+        Set<Integer> iniciativasValidas = cargarIniciativasValidas();
+
+        try (CsvReader reader = new CsvReader(csv)) {
+            Map<String, Integer> indices = leerEncabezado(reader);
+
+            try (Connection conn = DatabaseConfig.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    List<Impacto> lote = new ArrayList<>(tamanoLote);
+                    ImpactoMensualRepository.Cambios cambiosMensuales = new ImpactoMensualRepository.Cambios();
+                    int numeroLote = 0;
+                    List<String> fila;
+                    while ((fila = reader.leerFila()) != null) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new SQLException("Importación cancelada");
+                        }
+                        Impacto impacto = convertirFila(fila, indices, iniciativasValidas, reader.getNumeroLinea(), resultado);
+                        if (impacto != null) {
+                            lote.add(impacto);
+                            cambiosMensuales.agregar(impacto);
+                        }
+                        if (lote.size() == tamanoLote) {
+                            insertarLote(conn, lote, resultado, progreso, ++numeroLote);
+                            lote.clear();
+                        }
+                    }
+                    if (!lote.isEmpty()) {
+                        insertarLote(conn, lote, resultado, progreso, ++numeroLote);
+                    }
+                    // El resumen mensual se actualiza una vez por clave al final, no por fila
+                    ImpactoMensualRepository.aplicar(conn, cambiosMensuales);
+                    conn.commit();
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        }
+
+        if (resultado.getInsertadas() > 0) {
+            ImpactoRepository.invalidarCache();
+        }
+        System.out.println("📥 Importación de impactos: " + resultado.getInsertadas() + " insertados, " +
+                resultado.getRechazadas().size() + " rechazados");
+        return resultado;
+    }
+
+    private Set<Integer> cargarIniciativasValidas() {
+        IniciativaRepository iniciativaRepository = new IniciativaRepository();
+        if (idOwnerPermitido == null) {
+            return iniciativaRepository.findNombres().keySet();
+        }
+        Set<Integer> ids = new HashSet<>();
+        iniciativaRepository.findByOwner(idOwnerPermitido).forEach(iniciativa -> ids.add(iniciativa.getIdIniciativa()));
+        return ids;
+    }
+
+    private Map<String, Integer> leerEncabezado(CsvReader reader) throws IOException {
+        List<String> encabezado = reader.leerFila();
+        if (encabezado == null) {
+            throw new IOException("El archivo está vacío");
+        }
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < encabezado.size(); i++) {
+            indices.put(encabezado.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        for (String columna : COLUMNAS_REQUERIDAS) {
+            if (!indices.containsKey(columna)) {
+                throw new IOException("Falta la columna requerida '" + columna + "' en el encabezado");
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Valida y convierte una fila; si es inválida la registra como rechazada y devuelve null
+     */
+    private Impacto convertirFila(List<String> fila, Map<String, Integer> indices, Set<Integer> iniciativasValidas,
+                                  int linea, Resultado resultado) {
+        try {
+            int idIniciativa = Integer.parseInt(valor(fila, indices, "id_iniciativa"));
+            if (!iniciativasValidas.contains(idIniciativa)) {
+                throw new IllegalArgumentException("Iniciativa " + idIniciativa + " inexistente o sin permiso");
+            }
+            String tipo = valor(fila, indices, "tipo_impacto");
+            if (!TIPOS.contains(tipo)) {
+                throw new IllegalArgumentException("Tipo de impacto inválido: " + tipo);
+            }
+            String atributo = valor(fila, indices, "atributo_impacto");
+            if (!ATRIBUTOS.contains(atributo)) {
+                throw new IllegalArgumentException("Atributo inválido: " + atributo);
+            }
+            String textoMultiplicador = valor(fila, indices, "multiplicador");
+            int multiplicador = textoMultiplicador.isEmpty() ? 1 : Integer.parseInt(textoMultiplicador);
+            if (multiplicador != 1 && multiplicador != -1) {
+                throw new IllegalArgumentException("El multiplicador debe ser 1 o -1");
+            }
+            LocalDate fechaImpacto = parsearFecha(valor(fila, indices, "fecha_impacto"));
+            String textoCreacion = valor(fila, indices, "fecha_creacion");
+            LocalDate fechaCreacion = textoCreacion.isEmpty() ? LocalDate.now() : parsearFecha(textoCreacion);
+            BigDecimal monto = parsearMonto(valor(fila, indices, "impacto"));
+
+            return new Impacto(idIniciativa, fechaCreacion, tipo, multiplicador, atributo, fechaImpacto, monto);
+        } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+            resultado.rechazadas.add(new FilaRechazada(linea, e.getMessage(), fila));
+            return null;
+        }
+    }
+
+    private static String valor(List<String> fila, Map<String, Integer> indices, String columna) {
+        Integer indice = indices.get(columna);
+        return indice != null && indice < fila.size() ? fila.get(indice) : "";
+    }
+
+    private static LocalDate parsearFecha(String texto) {
+        return texto.contains("/") ? LocalDate.parse(texto, FORMATO_FECHA_LATINO) : LocalDate.parse(texto);
+    }
+
+    /**
+     * Acepta punto o coma decimal ("1234.56", "1234,56"); el separador de miles no se admite
+     */
+    private static BigDecimal parsearMonto(String texto) {
+        String normalizado = texto.indexOf('.') < 0 ? texto.replace(',', '.') : texto;
+        BigDecimal monto = new BigDecimal(normalizado);
+        if (monto.scale() > 2) {
+            throw new IllegalArgumentException("El impacto admite como máximo 2 decimales: " + texto);
+        }
+        return monto;
+    }
+
+    private void insertarLote(Connection conn, List<Impacto> lote, Resultado resultado, Progreso progreso, int numeroLote) throws SQLException {
+        if (modo == Modo.BULK_COPY) {
+            insertarConBulkCopy(conn, lote);
+        } else {
+            insertarConOutput(conn, lote, resultado.idsGenerados);
+        }
+        resultado.insertadas += lote.size();
+        if (progreso != null) {
+            progreso.loteInsertado(numeroLote, lote.size(), resultado.insertadas, resultado.rechazadas.size());
+        }
+    }
+
+    /**
+     * Inserta el lote con sentencias INSERT multi-fila; OUTPUT INSERTED devuelve los IDs
+     * de todo el bloque en un solo ResultSet, sin un round-trip por fila
+     */
+    private void insertarConOutput(Connection conn, List<Impacto> lote, List<Integer> ids) throws SQLException {
+        PreparedStatement completa = null;
+        try {
+            for (int inicio = 0; inicio < lote.size(); inicio += FILAS_POR_SENTENCIA) {
+                List<Impacto> bloque = lote.subList(inicio, Math.min(inicio + FILAS_POR_SENTENCIA, lote.size()));
+                PreparedStatement stmt;
+                if (bloque.size() == FILAS_POR_SENTENCIA) {
+                    // Los bloques completos reutilizan la misma sentencia preparada
+                    if (completa == null) {
+                        completa = conn.prepareStatement(sqlInsert(FILAS_POR_SENTENCIA));
+                    }
+                    stmt = completa;
+                } else {
+                    stmt = conn.prepareStatement(sqlInsert(bloque.size()));
+                }
+                try {
+                    int parametro = 1;
+                    for (Impacto impacto : bloque) {
+                        stmt.setInt(parametro++, impacto.getIdIniciativa());
+                        stmt.setDate(parametro++, Date.valueOf(impacto.getFechaCreacion()));
+                        stmt.setString(parametro++, impacto.getTipoImpacto());
+                        stmt.setInt(parametro++, impacto.getMultiplicador());
+                        stmt.setString(parametro++, impacto.getAtributoImpacto());
+                        stmt.setDate(parametro++, Date.valueOf(impacto.getFechaImpacto()));
+                        stmt.setBigDecimal(parametro++, impacto.getImpacto());
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                } finally {
+                    if (stmt != completa) {
+                        stmt.close();
+                    }
+                }
+            }
+        } finally {
+            if (completa != null) {
+                completa.close();
+            }
+        }
+    }
+
+    private static String sqlInsert(int filas) {
+        StringBuilder sql = new StringBuilder(INSERT_BASE.length() + filas * 24);
+        sql.append(INSERT_BASE);
+        for (int i = 0; i < filas; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Envía el lote con SQLServerBulkCopy dentro de la transacción abierta de la conexión
+     */
+    private void insertarConBulkCopy(Connection conn, List<Impacto> lote) throws SQLException {
+        SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(conn.unwrap(SQLServerConnection.class));
+        try {
+            bulkCopy.setDestinationTableName("impactos");
+            for (int columna = 1; columna <= COLUMNAS; columna++) {
+                bulkCopy.addColumnMapping(columna, LoteBulkData.NOMBRES[columna - 1]);
+            }
+            bulkCopy.writeToServer(new LoteBulkData(lote));
+        } finally {
+            bulkCopy.close();
+        }
+    }
+
+    /**
+     * Adaptador de un lote de impactos a la fuente de datos que espera SQLServerBulkCopy
+     */
+    private static class LoteBulkData implements ISQLServerBulkData {
+        private static final long serialVersionUID = 1L;
+        static final String[] NOMBRES = {"id_iniciativa", "fecha_creacion", "tipo_impacto", "multiplicador", "atributo_impacto", "fecha_impacto", "impacto"};
+        private static final int[] TIPOS_SQL = {Types.INTEGER, Types.DATE, Types.NVARCHAR, Types.INTEGER, Types.NVARCHAR, Types.DATE, Types.DECIMAL};
+
+        private final transient List<Impacto> lote;
+        private int actual = -1;
+
+        LoteBulkData(List<Impacto> lote) {
+            this.lote = lote;
+        }
+
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            return Set.of(1, 2, 3, 4, 5, 6, 7);
+        }
+
+        @Override
+        public String getColumnName(int columna) {
+            return NOMBRES[columna - 1];
+        }
+
+        @Override
+        public int getColumnType(int columna) {
+            return TIPOS_SQL[columna - 1];
+        }
+
+        @Override
+        public int getPrecision(int columna) {
+            return TIPOS_SQL[columna - 1] == Types.DECIMAL ? 18 : (TIPOS_SQL[columna - 1] == Types.NVARCHAR ? 30 : 0);
+        }
+
+        @Override
+        public int getScale(int columna) {
+            return TIPOS_SQL[columna - 1] == Types.DECIMAL ? 2 : 0;
+        }
+
+        @Override
+        public Object[] getRowData() {
+            Impacto impacto = lote.get(actual);
+            return new Object[] {
+                impacto.getIdIniciativa(),
+                Date.valueOf(impacto.getFechaCreacion()),
+                impacto.getTipoImpacto(),
+                impacto.getMultiplicador(),
+                impacto.getAtributoImpacto(),
+                Date.valueOf(impacto.getFechaImpacto()),
+                impacto.getImpacto()
+            };
+        }
+
+        @Override
+        public boolean next() {
+            return ++actual < lote.size();
+        }
+    }
+
+    /**
+     * Fila del CSV que no se importó, con su número de línea y el motivo
+     */
+    public static class FilaRechazada {
+        private final int linea;
+        private final String motivo;
+        private final List<String> valores;
+
+        FilaRechazada(int linea, String motivo, List<String> valores) {
+            this.linea = linea;
+            this.motivo = motivo;
+            this.valores = List.copyOf(valores);
+        }
+
+        public int getLinea() {
+            return linea;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+
+        public List<String> getValores() {
+            return valores;
+        }
+
+        @Override
+        public String toString() {
+            return "Línea " + linea + ": " + motivo;
+        }
+    }
+
+    /**
+     * Resultado de una importación confirmada
+     */
+    public static class Resultado {
+        private int insertadas;
+        private final List<Integer> idsGenerados = new ArrayList<>();
+        private final List<FilaRechazada> rechazadas = new ArrayList<>();
+
+        public int getInsertadas() {
+            return insertadas;
+        }
+
+        /**
+         * IDs generados de las filas insertadas (vacío en modo BULK_COPY).
+         * SQL Server no garantiza que OUTPUT los devuelva en el orden de VALUES.
+         */
+        public List<Integer> getIdsGenerados() {
+            return idsGenerados;
+        }
+
+        public List<FilaRechazada> getRechazadas() {
+            return rechazadas;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Resumen mensual de impactos: cantidad y suma (impacto * multiplicador) por
+ * iniciativa, tipo, atributo y mes en la tabla impactos_mensual.
+ * ImpactoRepository e ImpactoImportador lo actualizan en la misma transacción que la escritura;
+ * las series por mes y los KPIs del mes se leen de aquí en lugar de agrupar toda la tabla impactos.
+ */
+public class ImpactoMensualRepository {
+
+    // HOLDLOCK evita que dos escrituras concurrentes inserten la misma clave
+    private static final String SQL_MERGE =
+        "MERGE impactos_mensual WITH (HOLDLOCK) AS res " +
+        "USING (VALUES (?, ?, ?, ?)) AS src (id_iniciativa, tipo_impacto, atributo_impacto, mes) " +
+        "ON res.id_iniciativa = src.id_iniciativa AND res.tipo_impacto = src.tipo_impacto " +
+        "AND res.atributo_impacto = src.atributo_impacto AND res.mes = src.mes " +
+        "WHEN MATCHED THEN UPDATE SET cantidad = res.cantidad + ?, total = res.total + ? " +
+        "WHEN NOT MATCHED THEN INSERT (id_iniciativa, tipo_impacto, atributo_impacto, mes, cantidad, total) " +
+        "VALUES (src.id_iniciativa, src.tipo_impacto, src.atributo_impacto, src.mes, ?, ?);";
+
+    private static final String SQL_ELIMINAR_VACIAS =
+        "DELETE FROM impactos_mensual WHERE id_iniciativa = ? AND tipo_impacto = ? AND atributo_impacto = ? AND mes = ? AND cantidad = 0";
+
+    /**
+     * Cambios pendientes sobre el resumen, agrupados por clave para enviar un MERGE por clave
+     */
+    public static class Cambios {
+        private final Map<Clave, long[]> cantidades = new LinkedHashMap<>();
+        private final Map<Clave, BigDecimal> totales = new LinkedHashMap<>();
+
+        /**
+         * Suma el impacto al resumen
+         */
+        public void agregar(Impacto impacto) {
+            acumular(impacto.getIdIniciativa(), impacto.getTipoImpacto(), impacto.getAtributoImpacto(),
+                    impacto.getFechaImpacto(), 1, montoEfectivo(impacto));
+        }
+
+        /**
+         * Resta el impacto del resumen
+         */
+        public void quitar(Impacto impacto) {
+            acumular(impacto.getIdIniciativa(), impacto.getTipoImpacto(), impacto.getAtributoImpacto(),
+                    impacto.getFechaImpacto(), -1, montoEfectivo(impacto).negate());
+        }
+
+        void acumular(int idIniciativa, String tipo, String atributo, LocalDate fecha, int cantidad, BigDecimal total) {
+            Clave clave = new Clave(idIniciativa, tipo, atributo, fecha.withDayOfMonth(1));
+            cantidades.computeIfAbsent(clave, k -> new long[1])[0] += cantidad;
+            totales.merge(clave, total, BigDecimal::add);
+        }
+
+        public boolean isEmpty() {
+            return cantidades.isEmpty();
+        }
+
+        private static BigDecimal montoEfectivo(Impacto impacto) {
+            return impacto.getImpacto().multiply(BigDecimal.valueOf(impacto.getMultiplicador()));
+        }
+    }
+
+    private static final class Clave {
+        final int idIniciativa;
+        final String tipo;
+        final String atributo;
+        final LocalDate mes;
+
+        Clave(int idIniciativa, String tipo, String atributo, LocalDate mes) {
+            this.idIniciativa = idIniciativa;
+            this.tipo = tipo;
+            this.atributo = atributo;
+            this.mes = mes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave)) return false;
+            Clave otra = (Clave) o;
+            return idIniciativa == otra.idIniciativa && tipo.equals(otra.tipo)
+                    && atributo.equals(otra.atributo) && mes.equals(otra.mes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idIniciativa, tipo, atributo, mes);
+        }
+    }
+
+    /**
+     * Aplica los cambios con la conexión (y transacción) de la escritura que los originó.
+     * Las claves que quedan en cantidad 0 se eliminan para no dejar meses vacíos en las series.
+     */
+    static void aplicar(Connection conn, Cambios cambios) throws SQLException {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        boolean hayRestas = false;
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_MERGE)) {
+            for (Map.Entry<Clave, long[]> entrada : cambios.cantidades.entrySet()) {
+                Clave clave = entrada.getKey();
+                long cantidad = entrada.getValue()[0];
+                BigDecimal total = cambios.totales.get(clave);
+                if (cantidad == 0 && total.signum() == 0) {
+                    continue; // la escritura no movió esta clave (p. ej. update sin cambio de mes ni monto)
+                }
+                setClave(stmt, clave);
+                stmt.setLong(5, cantidad);
+                stmt.setBigDecimal(6, total);
+                stmt.setLong(7, cantidad);
+                stmt.setBigDecimal(8, total);
+                stmt.addBatch();
+                hayRestas |= cantidad < 0;
+            }
+            stmt.executeBatch();
+        }
+        if (!hayRestas) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_ELIMINAR_VACIAS)) {
+            for (Map.Entry<Clave, long[]> entrada : cambios.cantidades.entrySet()) {
+                if (entrada.getValue()[0] < 0) {
+                    setClave(stmt, entrada.getKey());
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void setClave(PreparedStatement stmt, Clave clave) throws SQLException {
+        stmt.setInt(1, clave.idIniciativa);
+        stmt.setString(2, clave.tipo);
+        stmt.setString(3, clave.atributo);
+        stmt.setDate(4, Date.valueOf(clave.mes));
+    }
+
+    /**
+     * Recalcula todo el resumen desde impactos (corrección después de cambios fuera de la aplicación;
+     * la carga inicial la hace la migración V2). Bloquea impactos durante la transacción para que
+     * ninguna escritura quede fuera del recálculo.
+     *
+     * @return cantidad de filas del resumen generadas
+     */
+    public int reconstruir() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM impactos_mensual WITH (TABLOCKX)");
+                int filas = stmt.executeUpdate(
+                    "INSERT INTO impactos_mensual (id_iniciativa, tipo_impacto, atributo_impacto, mes, cantidad, total) " +
+                    "SELECT id_iniciativa, tipo_impacto, atributo_impacto, DATEFROMPARTS(YEAR(fecha_impacto), MONTH(fecha_impacto), 1), " +
+                    "COUNT(*), SUM(impacto * multiplicador) FROM impactos WITH (TABLOCK, HOLDLOCK) " +
+                    "GROUP BY id_iniciativa, tipo_impacto, atributo_impacto, DATEFROMPARTS(YEAR(fecha_impacto), MONTH(fecha_impacto), 1)");
+                conn.commit();
+                return filas;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Suma de un atributo en el rango de fechas (ambos inclusive): los meses completos se leen
+     * del resumen y solo los días sueltos de los extremos se suman desde impactos
+     */
+    public BigDecimal sumarPorAtributo(String atributoImpacto, LocalDate fechaInicio, LocalDate fechaFin) {
+        LocalDate primerMesCompleto = fechaInicio.getDayOfMonth() == 1 ? fechaInicio : fechaInicio.withDayOfMonth(1).plusMonths(1);
+        LocalDate finMesesCompletos = fechaFin.getDayOfMonth() == fechaFin.lengthOfMonth()
+                ? fechaFin.plusDays(1) : fechaFin.withDayOfMonth(1);
+        if (!primerMesCompleto.isBefore(finMesesCompletos)) {
+            // Rango dentro de uno o dos meses parciales: no hay meses completos que leer del resumen
+            primerMesCompleto = fechaFin.plusDays(1);
+            finMesesCompletos = primerMesCompleto;
+        }
+
+        String sql = "SELECT COALESCE(SUM(total), 0) FROM (" +
+                "SELECT SUM(total) AS total FROM impactos_mensual WHERE atributo_impacto = ? AND mes >= ? AND mes < ? " +
+                "UNION ALL " +
+                "SELECT SUM(impacto * multiplicador) FROM impactos WHERE atributo_impacto = ? " +
+                "AND ((fecha_impacto >= ? AND fecha_impacto < ?) OR (fecha_impacto >= ? AND fecha_impacto < ?))) t";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, atributoImpacto);
+            stmt.setDate(2, Date.valueOf(primerMesCompleto));
+            stmt.setDate(3, Date.valueOf(finMesesCompletos));
+            stmt.setString(4, atributoImpacto);
+            stmt.setDate(5, Date.valueOf(fechaInicio));
+            stmt.setDate(6, Date.valueOf(primerMesCompleto));
+            stmt.setDate(7, Date.valueOf(finMesesCompletos));
+            stmt.setDate(8, Date.valueOf(fechaFin.plusDays(1)));
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getBigDecimal(1);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al calcular suma de impactos: " + e.getMessage());
+        }
+
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Suma de un atributo en el mes actual
+     */
+    public BigDecimal sumarMesActual(String atributoImpacto) {
+        String sql = "SELECT COALESCE(SUM(total), 0) FROM impactos_mensual " +
+                    "WHERE atributo_impacto = ? AND mes >= ? AND mes < ?";
+        LocalDate inicioMes = LocalDate.now().withDayOfMonth(1);
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, atributoImpacto);
+            stmt.setDate(2, Date.valueOf(inicioMes));
+            stmt.setDate(3, Date.valueOf(inicioMes.plusMonths(1)));
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getBigDecimal(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener suma de impactos del mes (" + atributoImpacto + "): " + e.getMessage());
+        }
+
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Cantidad y total por tipo de impacto, de mayor a menor total: {tipo, cantidad, total}
+     */
+    public List<Object[]> totalesPorTipo() {
+        List<Object[]> totales = new ArrayList<>();
+        String sql = "SELECT tipo_impacto, SUM(cantidad) AS cantidad, SUM(total) AS total FROM impactos_mensual " +
+                    "GROUP BY tipo_impacto ORDER BY total DESC";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                totales.add(new Object[]{rs.getString("tipo_impacto"), rs.getInt("cantidad"), rs.getBigDecimal("total")});
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener totales por tipo: " + e.getMessage());
+        }
+
+        return totales;
+    }
+
+    /**
+     * Totales planeado y real por mes desde hace los meses indicados (incluye el mes actual): {año, mes, atributo, total}
+     */
+    public List<Object[]> comparacionPlaneadoVsReal(int mesesAtras) {
+        List<Object[]> comparacion = new ArrayList<>();
+        String sql = "SELECT mes, atributo_impacto, SUM(total) AS total FROM impactos_mensual " +
+                    "WHERE atributo_impacto IN ('Planeado', 'Real') " +
+                    "AND mes >= ? " +
+                    "GROUP BY mes, atributo_impacto ORDER BY mes, atributo_impacto";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(LocalDate.now().withDayOfMonth(1).minusMonths(mesesAtras)));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                LocalDate mes = rs.getDate("mes").toLocalDate();
+                comparacion.add(new Object[]{mes.getYear(), mes.getMonthValue(), rs.getString("atributo_impacto"), rs.getBigDecimal("total")});
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener comparación planeado vs real: " + e.getMessage());
+        }
+
+        return comparacion;
+    }
+}
@@ -1,249 +1,309 @@
 package com.juank.utp.finimpact.repository;
 
 import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.ImpactoColumnas;
+import com.juank.utp.finimpact.utils.AsyncTaskManager;
+import com.juank.utp.finimpact.utils.CacheLectura;
+import com.juank.utp.finimpact.utils.CsvWriter;
 import com.juank.utp.finimpact.utils.DatabaseConfig;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para operaciones CRUD de impactos financieros
  */
 public class ImpactoRepository {
 
+    private static final int FILAS_POR_FETCH_EXPORTACION = 1000;
+
+    // Los impactos cambian más seguido que las iniciativas: TTL corto
+    private static final CacheLectura<Integer, List<Impacto>> cachePorIniciativa = CacheLectura.crear("impactos.porIniciativa", 60_000, 128,
+            CacheLectura.listaDe(Impacto::new));
+    private static final CacheLectura<Integer, Optional<Impacto>> cachePorId = CacheLectura.crear("impactos.porId", 60_000, 1024,
+            CacheLectura.opcionalDe(Impacto::new));
+
+    private final ImpactoMensualRepository impactoMensualRepository = new ImpactoMensualRepository();
+
+    /**
+     * Impacto completo; las columnas se buscan por nombre una vez por consulta (con o sin alias "imp.")
+     */
+    static final ConsultaFilas.Mapeador<Impacto> MAPEADOR_IMPACTO = rs -> {
+        int idImpacto = rs.findColumn("id_impacto");
+        int idIniciativa = rs.findColumn("id_iniciativa");
+        int fechaCreacion = rs.findColumn("fecha_creacion");
+        int tipoImpacto = rs.findColumn("tipo_impacto");
+        int multiplicador = rs.findColumn("multiplicador");
+        int atributoImpacto = rs.findColumn("atributo_impacto");
+        int fechaImpacto = rs.findColumn("fecha_impacto");
+        int monto = rs.findColumn("impacto");
+        return fila -> {
+            Impacto impacto = new Impacto();
+            impacto.setIdImpacto(fila.getInt(idImpacto));
+            impacto.setIdIniciativa(fila.getInt(idIniciativa));
+            impacto.setFechaCreacion(fila.getDate(fechaCreacion).toLocalDate());
+            impacto.setTipoImpacto(fila.getString(tipoImpacto));
+            impacto.setMultiplicador(fila.getInt(multiplicador));
+            impacto.setAtributoImpacto(fila.getString(atributoImpacto));
+            impacto.setFechaImpacto(fila.getDate(fechaImpacto).toLocalDate());
+            impacto.setImpacto(fila.getBigDecimal(monto));
+            return impacto;
+        };
+    };
+
     /**
      * Obtiene todos los impactos
      */
     public List<Impacto> findAll() {
-        List<Impacto> impactos = new ArrayList<>();
         String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos ORDER BY fecha_creacion DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
-            }
-
+        try {
+            return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.NINGUNO, MAPEADOR_IMPACTO);
         } catch (SQLException e) {
             System.err.println("Error al obtener impactos: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return impactos;
     }
 
     /**
      * Busca un impacto por ID
      */
     public Optional<Impacto> findById(int id) {
-        String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE id_impacto = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                return Optional.of(impacto);
-            }
-
+        try {
+            return cachePorId.obtener(id, () -> consultarPorId(id));
         } catch (SQLException e) {
             System.err.println("Error al buscar impacto por ID: " + e.getMessage());
+            return Optional.empty();
         }
+    }
 
-        return Optional.empty();
+    private Optional<Impacto> consultarPorId(int id) throws SQLException {
+        String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE id_impacto = ?";
+        return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(id), MAPEADOR_IMPACTO).stream().findFirst();
     }
 
     /**
      * Obtiene impactos por iniciativa
      */
     public List<Impacto> findByIniciativa(int idIniciativa) {
-        List<Impacto> impactos = new ArrayList<>();
-        String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE id_iniciativa = ? ORDER BY fecha_impacto DESC";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, idIniciativa);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
-            }
-
+        try {
+            return new ArrayList<>(cachePorIniciativa.obtener(idIniciativa, () -> consultarPorIniciativa(idIniciativa)));
         } catch (SQLException e) {
             System.err.println("Error al obtener impactos por iniciativa: " + e.getMessage());
+            return new ArrayList<>();
         }
+    }
 
-        return impactos;
+    private List<Impacto> consultarPorIniciativa(int idIniciativa) throws SQLException {
+        String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE id_iniciativa = ? ORDER BY fecha_impacto DESC";
+        return List.copyOf(ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(idIniciativa), MAPEADOR_IMPACTO));
     }
 
     /**
      * Obtiene impactos por tipo de impacto
      */
     public List<Impacto> findByTipoImpacto(String tipoImpacto) {
-        List<Impacto> impactos = new ArrayList<>();
         String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE tipo_impacto = ? ORDER BY fecha_impacto DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, tipoImpacto);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
-            }
-
+        try {
+            return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(tipoImpacto), MAPEADOR_IMPACTO);
         } catch (SQLException e) {
             System.err.println("Error al obtener impactos por tipo: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return impactos;
     }
 
     /**
      * Obtiene impactos por atributo (Planeado, Estimado, Real)
      */
     public List<Impacto> findByAtributoImpacto(String atributoImpacto) {
-        List<Impacto> impactos = new ArrayList<>();
         String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE atributo_impacto = ? ORDER BY fecha_impacto DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, atributoImpacto);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
-            }
-
+        try {
+            return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(atributoImpacto), MAPEADOR_IMPACTO);
         } catch (SQLException e) {
             System.err.println("Error al obtener impactos por atributo: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return impactos;
     }
 
     /**
-     * Obtiene impactos por rango de fechas
+     * Obtiene impactos por rango de fechas (ambas inclusive)
      */
     public List<Impacto> findByFechaRange(LocalDate fechaInicio, LocalDate fechaFin) {
-        List<Impacto> impactos = new ArrayList<>();
-        String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE fecha_impacto BETWEEN ? AND ? ORDER BY fecha_impacto DESC";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setDate(1, Date.valueOf(fechaInicio));
-            stmt.setDate(2, Date.valueOf(fechaFin));
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
-            }
+        String sql = "SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE fecha_impacto >= ? AND fecha_impacto < ? ORDER BY fecha_impacto DESC";
 
+        try {
+            return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(Date.valueOf(fechaInicio), Date.valueOf(fechaFin.plusDays(1))), MAPEADOR_IMPACTO);
         } catch (SQLException e) {
             System.err.println("Error al obtener impactos por rango de fechas: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return impactos;
     }
 
     /**
      * Obtiene impactos con filtros múltiples
      */
     public List<Impacto> findByFilters(String tipoImpacto, String atributoImpacto, Integer idIniciativa, LocalDate fechaInicio, LocalDate fechaFin) {
-        List<Impacto> impactos = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE 1=1");
+        StringBuilder sql = new StringBuilder("SELECT imp.id_impacto, imp.id_iniciativa, imp.fecha_creacion, imp.tipo_impacto, imp.multiplicador, imp.atributo_impacto, imp.fecha_impacto, imp.impacto FROM impactos imp WHERE 1=1");
         List<Object> parameters = new ArrayList<>();
+        agregarFiltros(sql, parameters, tipoImpacto, atributoImpacto, idIniciativa, fechaInicio, fechaFin);
+        sql.append(" ORDER BY imp.fecha_impacto DESC");
 
+        try {
+            return ConsultaFilas.listar(sql.toString(), ConsultaFilas.Parametros.de(parameters), MAPEADOR_IMPACTO);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener impactos por filtros: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Condiciones de findByFilters sobre el alias "imp"; las comparte la exportación
+     */
+    private void agregarFiltros(StringBuilder sql, List<Object> parameters, String tipoImpacto, String atributoImpacto,
+                                Integer idIniciativa, LocalDate fechaInicio, LocalDate fechaFin) {
         if (tipoImpacto != null && !tipoImpacto.isEmpty()) {
-            sql.append(" AND tipo_impacto = ?");
+            sql.append(" AND imp.tipo_impacto = ?");
             parameters.add(tipoImpacto);
         }
 
         if (atributoImpacto != null && !atributoImpacto.isEmpty()) {
-            sql.append(" AND atributo_impacto = ?");
+            sql.append(" AND imp.atributo_impacto = ?");
             parameters.add(atributoImpacto);
         }
 
         if (idIniciativa != null) {
-            sql.append(" AND id_iniciativa = ?");
+            sql.append(" AND imp.id_iniciativa = ?");
             parameters.add(idIniciativa);
         }
 
         if (fechaInicio != null) {
-            sql.append(" AND fecha_impacto >= ?");
+            sql.append(" AND imp.fecha_impacto >= ?");
             parameters.add(Date.valueOf(fechaInicio));
         }
 
         if (fechaFin != null) {
-            sql.append(" AND fecha_impacto <= ?");
-            parameters.add(Date.valueOf(fechaFin));
+            // Rango semiabierto: fechaFin es inclusive
+            sql.append(" AND imp.fecha_impacto < ?");
+            parameters.add(Date.valueOf(fechaFin.plusDays(1)));
         }
+    }
 
-        sql.append(" ORDER BY fecha_impacto DESC");
+    /**
+     * Exporta a CSV los impactos que cumplen los mismos filtros que findByFilters, más el owner opcional.
+     * Lee con un ResultSet forward-only y escribe cada fila apenas llega: la memoria no depende
+     * de la cantidad de filas. Se detiene si el hilo es interrumpido (cancelación).
+     *
+     * @return cantidad de filas exportadas
+     */
+    public long exportarCsv(String tipoImpacto, String atributoImpacto, Integer idIniciativa, LocalDate fechaInicio,
+                            LocalDate fechaFin, Integer idOwner, Writer destino, CsvWriter.Progreso progreso)
+            throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder(
+            "SELECT imp.id_impacto, imp.id_iniciativa, ini.nombre, imp.fecha_creacion, imp.tipo_impacto, imp.multiplicador, " +
+            "imp.atributo_impacto, imp.fecha_impacto, imp.impacto " +
+            "FROM impactos imp INNER JOIN iniciativas ini ON imp.id_iniciativa = ini.id_iniciativa WHERE 1=1");
+        List<Object> parameters = new ArrayList<>();
+        agregarFiltros(sql, parameters, tipoImpacto, atributoImpacto, idIniciativa, fechaInicio, fechaFin);
+        if (idOwner != null) {
+            sql.append(" AND ini.id_owner = ?");
+            parameters.add(idOwner);
+        }
+        sql.append(" ORDER BY imp.fecha_impacto DESC, imp.id_impacto DESC");
 
+        long filas = 0;
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+             PreparedStatement stmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
 
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
             }
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
+            stmt.setFetchSize(FILAS_POR_FETCH_EXPORTACION);
+
+            CsvWriter csv = new CsvWriter(destino);
+            csv.escribirBom();
+            csv.escribirFila("id_impacto", "id_iniciativa", "iniciativa", "fecha_creacion", "tipo_impacto",
+                    "multiplicador", "atributo_impacto", "fecha_impacto", "impacto");
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal impacto = rs.getBigDecimal(9);
+                    csv.escribirFila(
+                        Integer.toString(rs.getInt(1)),
+                        Integer.toString(rs.getInt(2)),
+                        rs.getString(3),
+                        String.valueOf(rs.getDate(4)),
+                        rs.getString(5),
+                        Integer.toString(rs.getInt(6)),
+                        rs.getString(7),
+                        String.valueOf(rs.getDate(8)),
+                        impacto != null ? impacto.toPlainString() : null);
+                    filas++;
+
+                    if (filas % FILAS_POR_FETCH_EXPORTACION == 0) {
+                        if (AsyncTaskManager.isCancelada() || Thread.currentThread().isInterrupted()) {
+                            stmt.cancel();
+                            throw new InterruptedIOException("Exportación cancelada");
+                        }
+                        if (progreso != null) {
+                            progreso.filasEscritas(filas);
+                        }
+                    }
+                }
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error al obtener impactos por filtros: " + e.getMessage());
+            csv.flush();
         }
 
-        return impactos;
+        if (progreso != null) {
+            progreso.filasEscritas(filas);
+        }
+        return filas;
     }
 
     /**
-     * Crea un nuevo impacto
+     * Crea un nuevo impacto y lo suma al resumen mensual en la misma transacción
      */
     public boolean save(Impacto impacto) {
         String sql = "INSERT INTO impactos (id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setInt(1, impacto.getIdIniciativa());
-            stmt.setDate(2, Date.valueOf(impacto.getFechaCreacion()));
-            stmt.setString(3, impacto.getTipoImpacto());
-            stmt.setInt(4, impacto.getMultiplicador());
-            stmt.setString(5, impacto.getAtributoImpacto());
-            stmt.setDate(6, Date.valueOf(impacto.getFechaImpacto()));
-            stmt.setBigDecimal(7, impacto.getImpacto());
-
-            int rowsAffected = stmt.executeUpdate();
-
-            if (rowsAffected > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    impacto.setIdImpacto(rs.getInt(1));
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                stmt.setInt(1, impacto.getIdIniciativa());
+                stmt.setDate(2, Date.valueOf(impacto.getFechaCreacion()));
+                stmt.setString(3, impacto.getTipoImpacto());
+                stmt.setInt(4, impacto.getMultiplicador());
+                stmt.setString(5, impacto.getAtributoImpacto());
+                stmt.setDate(6, Date.valueOf(impacto.getFechaImpacto()));
+                stmt.setBigDecimal(7, impacto.getImpacto());
+
+                int rowsAffected = stmt.executeUpdate();
+
+                if (rowsAffected > 0) {
+                    ResultSet rs = stmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        impacto.setIdImpacto(rs.getInt(1));
+                    }
+                    ImpactoMensualRepository.Cambios cambios = new ImpactoMensualRepository.Cambios();
+                    cambios.agregar(impacto);
+                    ImpactoMensualRepository.aplicar(conn, cambios);
+                    conn.commit();
+                    invalidarCache();
+                    return true;
                 }
-                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
 
         } catch (SQLException e) {
@@ -254,24 +314,44 @@ public class ImpactoRepository {
     }
 
     /**
-     * Actualiza un impacto existente
+     * Actualiza un impacto existente; OUTPUT DELETED devuelve los valores anteriores
+     * para restarlos del resumen mensual antes de sumar los nuevos
      */
     public boolean update(Impacto impacto) {
-        String sql = "UPDATE impactos SET id_iniciativa = ?, fecha_creacion = ?, tipo_impacto = ?, multiplicador = ?, atributo_impacto = ?, fecha_impacto = ?, impacto = ? WHERE id_impacto = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, impacto.getIdIniciativa());
-            stmt.setDate(2, Date.valueOf(impacto.getFechaCreacion()));
-            stmt.setString(3, impacto.getTipoImpacto());
-            stmt.setInt(4, impacto.getMultiplicador());
-            stmt.setString(5, impacto.getAtributoImpacto());
-            stmt.setDate(6, Date.valueOf(impacto.getFechaImpacto()));
-            stmt.setBigDecimal(7, impacto.getImpacto());
-            stmt.setInt(8, impacto.getIdImpacto());
-
-            return stmt.executeUpdate() > 0;
+        String sql = "UPDATE impactos SET id_iniciativa = ?, fecha_creacion = ?, tipo_impacto = ?, multiplicador = ?, atributo_impacto = ?, fecha_impacto = ?, impacto = ? " +
+                    "OUTPUT DELETED.id_impacto, DELETED.id_iniciativa, DELETED.fecha_creacion, DELETED.tipo_impacto, DELETED.multiplicador, DELETED.atributo_impacto, DELETED.fecha_impacto, DELETED.impacto " +
+                    "WHERE id_impacto = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setInt(1, impacto.getIdIniciativa());
+                stmt.setDate(2, Date.valueOf(impacto.getFechaCreacion()));
+                stmt.setString(3, impacto.getTipoImpacto());
+                stmt.setInt(4, impacto.getMultiplicador());
+                stmt.setString(5, impacto.getAtributoImpacto());
+                stmt.setDate(6, Date.valueOf(impacto.getFechaImpacto()));
+                stmt.setBigDecimal(7, impacto.getImpacto());
+                stmt.setInt(8, impacto.getIdImpacto());
+
+                ImpactoMensualRepository.Cambios cambios = new ImpactoMensualRepository.Cambios();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    cambios.quitar(MAPEADOR_IMPACTO.preparar(rs).leer(rs));
+                }
+                cambios.agregar(impacto);
+                ImpactoMensualRepository.aplicar(conn, cambios);
+                conn.commit();
+                invalidarCache();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error al actualizar impacto: " + e.getMessage());
@@ -281,16 +361,34 @@ public class ImpactoRepository {
     }
 
     /**
-     * Elimina un impacto
+     * Elimina un impacto y lo resta del resumen mensual en la misma transacción
      */
     public boolean delete(int idImpacto) {
-        String sql = "DELETE FROM impactos WHERE id_impacto = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, idImpacto);
-            return stmt.executeUpdate() > 0;
+        String sql = "DELETE FROM impactos " +
+                    "OUTPUT DELETED.id_impacto, DELETED.id_iniciativa, DELETED.fecha_creacion, DELETED.tipo_impacto, DELETED.multiplicador, DELETED.atributo_impacto, DELETED.fecha_impacto, DELETED.impacto " +
+                    "WHERE id_impacto = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setInt(1, idImpacto);
+                ImpactoMensualRepository.Cambios cambios = new ImpactoMensualRepository.Cambios();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    cambios.quitar(MAPEADOR_IMPACTO.preparar(rs).leer(rs));
+                }
+                ImpactoMensualRepository.aplicar(conn, cambios);
+                conn.commit();
+                invalidarCache();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error al eliminar impacto: " + e.getMessage());
@@ -300,100 +398,31 @@ public class ImpactoRepository {
     }
 
     /**
-     * Calcula la suma de impactos por atributo en un rango de fechas
+     * Calcula la suma de impactos por atributo en un rango de fechas (meses completos desde el resumen mensual)
      */
     public BigDecimal sumImpactosByAtributoAndFecha(String atributoImpacto, LocalDate fechaInicio, LocalDate fechaFin) {
-        String sql = "SELECT COALESCE(SUM(impacto * multiplicador), 0) FROM impactos WHERE atributo_impacto = ? AND fecha_impacto BETWEEN ? AND ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, atributoImpacto);
-            stmt.setDate(2, Date.valueOf(fechaInicio));
-            stmt.setDate(3, Date.valueOf(fechaFin));
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getBigDecimal(1);
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error al calcular suma de impactos: " + e.getMessage());
-        }
-
-        return BigDecimal.ZERO;
+        return impactoMensualRepository.sumarPorAtributo(atributoImpacto, fechaInicio, fechaFin);
     }
 
     /**
      * Obtiene estadísticas de impactos por tipo
      */
     public List<Object[]> getEstadisticasPorTipo() {
-        List<Object[]> estadisticas = new ArrayList<>();
-        String sql = "SELECT tipo_impacto, COUNT(*) as cantidad, SUM(impacto * multiplicador) as total FROM impactos GROUP BY tipo_impacto ORDER BY total DESC";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Object[] fila = new Object[3];
-                fila[0] = rs.getString("tipo_impacto");
-                fila[1] = rs.getInt("cantidad");
-                fila[2] = rs.getBigDecimal("total");
-                estadisticas.add(fila);
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error al obtener estadísticas por tipo: " + e.getMessage());
-        }
-
-        return estadisticas;
+        return impactoMensualRepository.totalesPorTipo();
     }
 
     /**
      * Suma de impactos planeados del mes actual
      */
     public BigDecimal getSumaImpactosPlaneadosMesActual() {
-        String sql = "SELECT COALESCE(SUM(impacto * multiplicador), 0) FROM impactos " +
-                    "WHERE atributo_impacto = 'Planeado' " +
-                    "AND YEAR(fecha_impacto) = YEAR(GETDATE()) " +
-                    "AND MONTH(fecha_impacto) = MONTH(GETDATE())";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getBigDecimal(1);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener suma de impactos planeados del mes: " + e.getMessage());
-        }
-
-        return BigDecimal.ZERO;
+        return impactoMensualRepository.sumarMesActual("Planeado");
     }
 
     /**
      * Suma de impactos reales del mes actual
      */
     public BigDecimal getSumaImpactosRealesMesActual() {
-        String sql = "SELECT COALESCE(SUM(impacto * multiplicador), 0) FROM impactos " +
-                    "WHERE atributo_impacto = 'Real' " +
-                    "AND YEAR(fecha_impacto) = YEAR(GETDATE()) " +
-                    "AND MONTH(fecha_impacto) = MONTH(GETDATE())";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getBigDecimal(1);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener suma de impactos reales del mes: " + e.getMessage());
-        }
-
-        return BigDecimal.ZERO;
+        return impactoMensualRepository.sumarMesActual("Real");
     }
 
     /**
@@ -401,142 +430,193 @@ public class ImpactoRepository {
      */
     public List<Object[]> getDistribucionPorTipo() {
         List<Object[]> distribucion = new ArrayList<>();
-        String sql = "SELECT tipo_impacto, SUM(impacto * multiplicador) as total " +
-                    "FROM impactos " +
-                    "GROUP BY tipo_impacto " +
-                    "ORDER BY total DESC";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                String tipo = rs.getString("tipo_impacto");
-                BigDecimal total = rs.getBigDecimal("total");
-                distribucion.add(new Object[]{tipo, total});
-            }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener distribución por tipo: " + e.getMessage());
+        for (Object[] fila : impactoMensualRepository.totalesPorTipo()) {
+            distribucion.add(new Object[]{fila[0], fila[2]});
         }
-
         return distribucion;
     }
 
     /**
-     * Obtiene datos de comparación planeado vs real por mes para gráfico de barras
+     * Obtiene datos de comparación planeado vs real por mes para gráfico de barras (últimos 6 meses y el actual)
      */
     public List<Object[]> getComparacionPlaneadoVsReal() {
-        List<Object[]> comparacion = new ArrayList<>();
-        String sql = "SELECT " +
-                    "YEAR(fecha_impacto) as año, " +
-                    "MONTH(fecha_impacto) as mes, " +
-                    "atributo_impacto, " +
-                    "SUM(impacto * multiplicador) as total " +
-                    "FROM impactos " +
-                    "WHERE atributo_impacto IN ('Planeado', 'Real') " +
-                    "AND fecha_impacto >= DATEADD(month, -6, GETDATE()) " +
-                    "GROUP BY YEAR(fecha_impacto), MONTH(fecha_impacto), atributo_impacto " +
-                    "ORDER BY año, mes, atributo_impacto";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                int año = rs.getInt("año");
-                int mes = rs.getInt("mes");
-                String atributo = rs.getString("atributo_impacto");
-                BigDecimal total = rs.getBigDecimal("total");
-                comparacion.add(new Object[]{año, mes, atributo, total});
-            }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener comparación planeado vs real: " + e.getMessage());
-        }
-
-        return comparacion;
+        return impactoMensualRepository.comparacionPlaneadoVsReal(6);
     }
 
     /**
-     * Obtiene impactos por múltiples IDs de iniciativas
+     * Obtiene impactos por múltiples IDs de iniciativas (sin límite de cantidad, ver ListaIds).
+     * Para iniciativas y sus impactos juntos usar PortafolioRepository.
      */
     public List<Impacto> findByIniciativaIds(List<Integer> idsIniciativas) {
-        List<Impacto> impactos = new ArrayList<>();
         if (idsIniciativas == null || idsIniciativas.isEmpty()) {
-            return impactos;
-        }
-
-        StringBuilder sql = new StringBuilder("SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE id_iniciativa IN (");
-        for (int i = 0; i < idsIniciativas.size(); i++) {
-            sql.append("?");
-            if (i < idsIniciativas.size() - 1) {
-                sql.append(",");
-            }
+            return new ArrayList<>();
         }
-        sql.append(") ORDER BY fecha_impacto DESC");
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
-
-            for (int i = 0; i < idsIniciativas.size(); i++) {
-                stmt.setInt(i + 1, idsIniciativas.get(i));
-            }
 
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
-            }
+        ListaIds ids = new ListaIds(idsIniciativas);
+        StringBuilder sql = new StringBuilder("SELECT id_impacto, id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto FROM impactos WHERE ");
+        ids.agregarCondicion(sql, "id_iniciativa");
+        sql.append(" ORDER BY fecha_impacto DESC");
 
+        try {
+            return ConsultaFilas.listar(sql.toString(), stmt -> ids.asignar(stmt, 1), MAPEADOR_IMPACTO);
         } catch (SQLException e) {
             System.err.println("Error al obtener impactos por IDs de iniciativas: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return impactos;
     }
 
     /**
      * Obtiene impactos por propietario de iniciativa (para analistas)
      */
     public List<Impacto> findByOwner(int idOwner) {
-        List<Impacto> impactos = new ArrayList<>();
         String sql = "SELECT imp.id_impacto, imp.id_iniciativa, imp.fecha_creacion, imp.tipo_impacto, imp.multiplicador, imp.atributo_impacto, imp.fecha_impacto, imp.impacto " +
                     "FROM impactos imp " +
                     "INNER JOIN iniciativas ini ON imp.id_iniciativa = ini.id_iniciativa " +
                     "WHERE ini.id_owner = ? " +
                     "ORDER BY imp.fecha_impacto DESC";
 
+        try {
+            return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(idOwner), MAPEADOR_IMPACTO);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener impactos por propietario: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Recorre los impactos sin cargarlos todos: las filas se leen a medida que se consume el Stream.
+     * El Stream tiene tomada una conexión del pool hasta cerrarlo, usar try-with-resources.
+     * Un error de JDBC al avanzar se lanza como ConsultaFilas.ErrorLectura.
+     *
+     * @param idOwner propietario de las iniciativas; null = todos los impactos
+     */
+    public Stream<Impacto> abrirPorOwner(Integer idOwner) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT imp.id_impacto, imp.id_iniciativa, imp.fecha_creacion, imp.tipo_impacto, imp.multiplicador, imp.atributo_impacto, imp.fecha_impacto, imp.impacto FROM impactos imp");
+        List<Object> parameters = new ArrayList<>();
+        if (idOwner != null) {
+            sql.append(" INNER JOIN iniciativas ini ON imp.id_iniciativa = ini.id_iniciativa WHERE ini.id_owner = ?");
+            parameters.add(idOwner);
+        }
+        sql.append(" ORDER BY imp.fecha_impacto DESC, imp.id_impacto DESC");
+        return ConsultaFilas.abrir(sql.toString(), ConsultaFilas.Parametros.de(parameters), MAPEADOR_IMPACTO);
+    }
+
+    /**
+     * Obtiene una página de impactos ordenada por (fecha_impacto, id_impacto) descendente.
+     * Paginación keyset: se continúa después del último impacto de la página anterior (null = primera página).
+     */
+    public List<Impacto> findAllPage(Impacto ultimo, int tamanoPagina) {
+        return findPage(null, ultimo, tamanoPagina);
+    }
+
+    /**
+     * Obtiene una página de impactos de las iniciativas de un propietario (para analistas)
+     */
+    public List<Impacto> findByOwnerPage(int idOwner, Impacto ultimo, int tamanoPagina) {
+        return findPage(idOwner, ultimo, tamanoPagina);
+    }
+
+    private List<Impacto> findPage(Integer idOwner, Impacto ultimo, int tamanoPagina) {
+        return findPage(idOwner, null, null, null, ultimo, tamanoPagina);
+    }
+
+    /**
+     * Página keyset con los filtros de la tabla aplicados en el servidor, para que cada página
+     * venga llena aunque el filtro sea muy selectivo
+     *
+     * @param idOwner   si no es null, solo impactos de iniciativas de ese owner
+     * @param tipo      tipo exacto (null = todos)
+     * @param atributo  atributo exacto (null = todos)
+     * @param textoTipo texto que debe contener el tipo, sin distinguir mayúsculas (null o vacío = sin filtro)
+     */
+    public List<Impacto> findPage(Integer idOwner, String tipo, String atributo, String textoTipo,
+                                  Impacto ultimo, int tamanoPagina) {
+        StringBuilder sql = new StringBuilder("SELECT TOP (?) imp.id_impacto, imp.id_iniciativa, imp.fecha_creacion, imp.tipo_impacto, imp.multiplicador, imp.atributo_impacto, imp.fecha_impacto, imp.impacto FROM impactos imp");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(tamanoPagina);
+
+        if (idOwner != null) {
+            sql.append(" INNER JOIN iniciativas ini ON imp.id_iniciativa = ini.id_iniciativa WHERE ini.id_owner = ?");
+            parameters.add(idOwner);
+        } else {
+            sql.append(" WHERE 1=1");
+        }
+
+        agregarFiltros(sql, parameters, tipo, atributo, null, null, null);
+        if (textoTipo != null && !textoTipo.isEmpty()) {
+            // La intercalación de la columna no distingue mayúsculas: sin LOWER() la columna queda sargable
+            sql.append(" AND imp.tipo_impacto LIKE ? ESCAPE '\\'");
+            parameters.add("%" + escaparLike(textoTipo) + "%");
+        }
+
+        if (ultimo != null) {
+            // Continuar estrictamente después de la última fila vista según el orden (fecha_impacto, id_impacto)
+            sql.append(" AND (imp.fecha_impacto < ? OR (imp.fecha_impacto = ? AND imp.id_impacto < ?))");
+            parameters.add(Date.valueOf(ultimo.getFechaImpacto()));
+            parameters.add(Date.valueOf(ultimo.getFechaImpacto()));
+            parameters.add(ultimo.getIdImpacto());
+        }
+
+        sql.append(" ORDER BY imp.fecha_impacto DESC, imp.id_impacto DESC");
+
+        try {
+            return ConsultaFilas.listar(sql.toString(), ConsultaFilas.Parametros.de(parameters), MAPEADOR_IMPACTO);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener página de impactos: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Escapa los comodines de LIKE para buscar el texto literal (ESCAPE '\')
+     */
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_")
+                .replace("[", "\\[");
+    }
+
+    /**
+     * Carga los impactos directamente en columnas primitivas, sin crear un Impacto por fila.
+     * SQL Server entrega la fecha como día epoch y el monto en centavos con el multiplicador aplicado.
+     *
+     * @param idOwner si no es null, solo impactos de iniciativas de ese owner
+     */
+    public ImpactoColumnas cargarColumnas(Integer idOwner) {
+        ImpactoColumnas columnas = new ImpactoColumnas();
+        StringBuilder sql = new StringBuilder(
+            "SELECT imp.id_impacto, imp.id_iniciativa, DATEDIFF(DAY, '19700101', imp.fecha_impacto) AS dia_epoch, " +
+            "imp.tipo_impacto, imp.atributo_impacto, " +
+            "CAST(ROUND(imp.impacto * imp.multiplicador * 100, 0) AS BIGINT) AS centavos FROM impactos imp");
+        if (idOwner != null) {
+            sql.append(" INNER JOIN iniciativas ini ON imp.id_iniciativa = ini.id_iniciativa WHERE ini.id_owner = ?");
+        }
+
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
 
-            stmt.setInt(1, idOwner);
+            if (idOwner != null) {
+                stmt.setInt(1, idOwner);
+            }
+            stmt.setFetchSize(5000);
             ResultSet rs = stmt.executeQuery();
-
             while (rs.next()) {
-                Impacto impacto = createImpactoFromResultSet(rs);
-                impactos.add(impacto);
+                columnas.agregar(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getString(4), rs.getString(5), rs.getLong(6));
             }
 
         } catch (SQLException e) {
-            System.err.println("Error al obtener impactos por propietario: " + e.getMessage());
+            System.err.println("Error al cargar impactos en columnas: " + e.getMessage());
         }
 
-        return impactos;
+        return columnas;
     }
 
     /**
-     * Método auxiliar para crear un objeto Impacto desde ResultSet
+     * Descarta las consultas de impactos en caché después de una escritura
      */
-    private Impacto createImpactoFromResultSet(ResultSet rs) throws SQLException {
-        Impacto impacto = new Impacto();
-        impacto.setIdImpacto(rs.getInt("id_impacto"));
-        impacto.setIdIniciativa(rs.getInt("id_iniciativa"));
-        impacto.setFechaCreacion(rs.getDate("fecha_creacion").toLocalDate());
-        impacto.setTipoImpacto(rs.getString("tipo_impacto"));
-        impacto.setMultiplicador(rs.getInt("multiplicador"));
-        impacto.setAtributoImpacto(rs.getString("atributo_impacto"));
-        impacto.setFechaImpacto(rs.getDate("fecha_impacto").toLocalDate());
-        impacto.setImpacto(rs.getBigDecimal("impacto"));
-
-        return impacto;
+    static void invalidarCache() {
+        cachePorIniciativa.invalidar();
+        cachePorId.invalidar();
     }
 }
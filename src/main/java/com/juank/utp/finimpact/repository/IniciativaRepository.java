@@ -1,13 +1,23 @@
 package com.juank.utp.finimpact.repository;
 
 import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.utils.AsyncTaskManager;
+import com.juank.utp.finimpact.utils.CacheLectura;
+import com.juank.utp.finimpact.utils.CsvWriter;
 import com.juank.utp.finimpact.utils.DatabaseConfig;
+import com.juank.utp.finimpact.utils.IndiceBusquedaIniciativas;
+import com.juank.utp.finimpact.utils.IniciativaNombreCache;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -15,112 +25,148 @@ import java.util.Optional;
  */
 public class IniciativaRepository {
 
+    private static final int FILAS_POR_FETCH_EXPORTACION = 1000;
+
+    // Listas y búsquedas por ID que se repiten al cambiar entre dashboard, iniciativas e impactos
+    private static final CacheLectura<String, List<Iniciativa>> cacheListas = CacheLectura.crear("iniciativas.listas", 2 * 60_000, 64,
+            CacheLectura.listaDe(Iniciativa::new));
+    private static final CacheLectura<Integer, Optional<Iniciativa>> cachePorId = CacheLectura.crear("iniciativas.porId", 2 * 60_000, 512,
+            CacheLectura.opcionalDe(Iniciativa::new));
+
     /**
-     * Obtiene todas las iniciativas
+     * Iniciativa completa; las columnas se buscan por nombre una vez por consulta
      */
-    public List<Iniciativa> findAll() {
-        List<Iniciativa> iniciativas = new ArrayList<>();
-        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas ORDER BY fecha_registro DESC";
+    static final ConsultaFilas.Mapeador<Iniciativa> MAPEADOR_INICIATIVA = rs -> {
+        int idIniciativa = rs.findColumn("id_iniciativa");
+        int nombre = rs.findColumn("nombre");
+        int descripcion = rs.findColumn("descripcion");
+        int fechaInicio = rs.findColumn("fecha_inicio");
+        int fechaFin = rs.findColumn("fecha_fin");
+        int tipo = rs.findColumn("tipo");
+        int estado = rs.findColumn("estado");
+        int riesgo = rs.findColumn("riesgo");
+        int idOwner = rs.findColumn("id_owner");
+        int fechaRegistro = rs.findColumn("fecha_registro");
+        return fila -> {
+            Iniciativa iniciativa = new Iniciativa();
+            iniciativa.setIdIniciativa(fila.getInt(idIniciativa));
+            iniciativa.setNombre(fila.getString(nombre));
+            iniciativa.setDescripcion(fila.getString(descripcion));
+
+            Date inicio = fila.getDate(fechaInicio);
+            if (inicio != null) {
+                iniciativa.setFechaInicio(inicio.toLocalDate());
+            }
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+            Date fin = fila.getDate(fechaFin);
+            if (fin != null) {
+                iniciativa.setFechaFin(fin.toLocalDate());
+            }
 
-            while (rs.next()) {
-                Iniciativa iniciativa = createIniciativaFromResultSet(rs);
-                iniciativas.add(iniciativa);
+            iniciativa.setTipo(fila.getString(tipo));
+            iniciativa.setEstado(fila.getString(estado));
+            iniciativa.setRiesgo(fila.getString(riesgo));
+            iniciativa.setIdOwner(fila.getInt(idOwner));
+
+            Timestamp registro = fila.getTimestamp(fechaRegistro);
+            if (registro != null) {
+                iniciativa.setFechaRegistro(registro.toLocalDateTime());
             }
+            return iniciativa;
+        };
+    };
 
+    /**
+     * Obtiene todas las iniciativas
+     */
+    public List<Iniciativa> findAll() {
+        try {
+            return new ArrayList<>(cacheListas.obtener("todas", this::consultarTodas));
         } catch (SQLException e) {
             System.err.println("Error al obtener iniciativas: " + e.getMessage());
+            return new ArrayList<>();
         }
+    }
+
+    private List<Iniciativa> consultarTodas() throws SQLException {
+        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas ORDER BY fecha_registro DESC";
+        List<Iniciativa> iniciativas = ConsultaFilas.listar(sql, ConsultaFilas.Parametros.NINGUNO, MAPEADOR_INICIATIVA);
 
-        return iniciativas;
+        // Datos completos y frescos: el índice de búsqueda queda igual a la base de datos
+        IndiceBusquedaIniciativas.reconstruir(iniciativas);
+        return List.copyOf(iniciativas);
     }
 
     /**
      * Busca una iniciativa por ID
      */
     public Optional<Iniciativa> findById(int id) {
-        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas WHERE id_iniciativa = ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Iniciativa iniciativa = createIniciativaFromResultSet(rs);
-                return Optional.of(iniciativa);
-            }
-
+        try {
+            return cachePorId.obtener(id, () -> consultarPorId(id));
         } catch (SQLException e) {
             System.err.println("Error al buscar iniciativa por ID: " + e.getMessage());
+            return Optional.empty();
         }
+    }
 
-        return Optional.empty();
+    private Optional<Iniciativa> consultarPorId(int id) throws SQLException {
+        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas WHERE id_iniciativa = ?";
+        return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(id), MAPEADOR_INICIATIVA).stream().findFirst();
     }
 
     /**
      * Obtiene iniciativas por owner
      */
     public List<Iniciativa> findByOwner(int idOwner) {
-        List<Iniciativa> iniciativas = new ArrayList<>();
-        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro " +
-                    "FROM iniciativas WHERE id_owner = ? ORDER BY fecha_registro DESC";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, idOwner);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Iniciativa iniciativa = createIniciativaFromResultSet(rs);
-                iniciativas.add(iniciativa);
-            }
-
+        try {
+            return new ArrayList<>(cacheListas.obtener("owner:" + idOwner, () -> consultarPorOwner(idOwner)));
         } catch (SQLException e) {
             System.err.println("Error al obtener iniciativas por propietario: " + e.getMessage());
+            return new ArrayList<>();
         }
+    }
 
-        return iniciativas;
+    private List<Iniciativa> consultarPorOwner(int idOwner) throws SQLException {
+        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro " +
+                    "FROM iniciativas WHERE id_owner = ? ORDER BY fecha_registro DESC";
+        return List.copyOf(ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(idOwner), MAPEADOR_INICIATIVA));
     }
 
     /**
      * Obtiene iniciativas por estado
      */
     public List<Iniciativa> findByEstado(String estado) {
-        List<Iniciativa> iniciativas = new ArrayList<>();
         String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas WHERE estado = ? ORDER BY fecha_registro DESC";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, estado);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Iniciativa iniciativa = createIniciativaFromResultSet(rs);
-                iniciativas.add(iniciativa);
-            }
-
+        try {
+            return ConsultaFilas.listar(sql, ConsultaFilas.Parametros.de(estado), MAPEADOR_INICIATIVA);
         } catch (SQLException e) {
             System.err.println("Error al obtener iniciativas por estado: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return iniciativas;
     }
 
     /**
      * Obtiene iniciativas por múltiples filtros
      */
     public List<Iniciativa> findByFilters(String estado, String tipo, String riesgo, Integer idOwner) {
-        List<Iniciativa> iniciativas = new ArrayList<>();
         StringBuilder sql = new StringBuilder("SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas WHERE 1=1");
         List<Object> parameters = new ArrayList<>();
+        agregarFiltros(sql, parameters, estado, tipo, riesgo, idOwner);
+        sql.append(" ORDER BY fecha_registro DESC");
 
+        try {
+            return ConsultaFilas.listar(sql.toString(), ConsultaFilas.Parametros.de(parameters), MAPEADOR_INICIATIVA);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener iniciativas por filtros: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Condiciones de findByFilters; las comparte la exportación
+     */
+    private void agregarFiltros(StringBuilder sql, List<Object> parameters, String estado, String tipo, String riesgo, Integer idOwner) {
         if (estado != null && !estado.isEmpty()) {
             sql.append(" AND estado = ?");
             parameters.add(estado);
@@ -140,28 +186,71 @@ public class IniciativaRepository {
             sql.append(" AND id_owner = ?");
             parameters.add(idOwner);
         }
+    }
 
+    /**
+     * Exporta a CSV las iniciativas que cumplen los mismos filtros que findByFilters,
+     * escribiendo fila por fila desde un ResultSet forward-only. Se detiene si el hilo es interrumpido.
+     *
+     * @return cantidad de filas exportadas
+     */
+    public long exportarCsv(String estado, String tipo, String riesgo, Integer idOwner, Writer destino, CsvWriter.Progreso progreso)
+            throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder("SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas WHERE 1=1");
+        List<Object> parameters = new ArrayList<>();
+        agregarFiltros(sql, parameters, estado, tipo, riesgo, idOwner);
         sql.append(" ORDER BY fecha_registro DESC");
 
+        long filas = 0;
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+             PreparedStatement stmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
 
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
             }
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Iniciativa iniciativa = createIniciativaFromResultSet(rs);
-                iniciativas.add(iniciativa);
+            stmt.setFetchSize(FILAS_POR_FETCH_EXPORTACION);
+
+            CsvWriter csv = new CsvWriter(destino);
+            csv.escribirBom();
+            csv.escribirFila("id_iniciativa", "nombre", "descripcion", "fecha_inicio", "fecha_fin", "tipo",
+                    "estado", "riesgo", "id_owner", "fecha_registro");
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Date fechaInicio = rs.getDate(4);
+                    Date fechaFin = rs.getDate(5);
+                    Timestamp fechaRegistro = rs.getTimestamp(10);
+                    csv.escribirFila(
+                        Integer.toString(rs.getInt(1)),
+                        rs.getString(2),
+                        rs.getString(3),
+                        fechaInicio != null ? fechaInicio.toString() : null,
+                        fechaFin != null ? fechaFin.toString() : null,
+                        rs.getString(6),
+                        rs.getString(7),
+                        rs.getString(8),
+                        Integer.toString(rs.getInt(9)),
+                        fechaRegistro != null ? fechaRegistro.toLocalDateTime().toString() : null);
+                    filas++;
+
+                    if (filas % FILAS_POR_FETCH_EXPORTACION == 0) {
+                        if (AsyncTaskManager.isCancelada() || Thread.currentThread().isInterrupted()) {
+                            stmt.cancel();
+                            throw new InterruptedIOException("Exportación cancelada");
+                        }
+                        if (progreso != null) {
+                            progreso.filasEscritas(filas);
+                        }
+                    }
+                }
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error al obtener iniciativas por filtros: " + e.getMessage());
+            csv.flush();
         }
 
-        return iniciativas;
+        if (progreso != null) {
+            progreso.filasEscritas(filas);
+        }
+        return filas;
     }
 
     /**
@@ -189,6 +278,8 @@ public class IniciativaRepository {
                 if (rs.next()) {
                     iniciativa.setIdIniciativa(rs.getInt(1));
                 }
+                invalidarCache();
+                IndiceBusquedaIniciativas.indexar(iniciativa);
                 return true;
             }
 
@@ -218,7 +309,12 @@ public class IniciativaRepository {
             stmt.setInt(8, iniciativa.getIdOwner());
             stmt.setInt(9, iniciativa.getIdIniciativa());
 
-            return stmt.executeUpdate() > 0;
+            boolean actualizada = stmt.executeUpdate() > 0;
+            if (actualizada) {
+                invalidarCache();
+                IndiceBusquedaIniciativas.indexar(iniciativa);
+            }
+            return actualizada;
 
         } catch (SQLException e) {
             System.err.println("Error al actualizar iniciativa: " + e.getMessage());
@@ -237,7 +333,14 @@ public class IniciativaRepository {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idIniciativa);
-            return stmt.executeUpdate() > 0;
+            boolean eliminada = stmt.executeUpdate() > 0;
+            if (eliminada) {
+                invalidarCache();
+                IndiceBusquedaIniciativas.eliminar(idIniciativa);
+                // Las consultas de impactos en caché pueden incluir los de esta iniciativa
+                ImpactoRepository.invalidarCache();
+            }
+            return eliminada;
 
         } catch (SQLException e) {
             System.err.println("Error al eliminar iniciativa: " + e.getMessage());
@@ -247,107 +350,53 @@ public class IniciativaRepository {
     }
 
     /**
-     * Cuenta el número de iniciativas activas (en curso)
+     * Obtiene solo id y nombre de todas las iniciativas (para la caché de nombres)
      */
-    public int countIniciativasActivas() {
-        String sql = "SELECT COUNT(*) FROM iniciativas WHERE estado = 'en curso'";
+    public Map<Integer, String> findNombres() {
+        Map<Integer, String> nombres = new HashMap<>();
+        String sql = "SELECT id_iniciativa, nombre FROM iniciativas";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
-            if (rs.next()) {
-                return rs.getInt(1);
+            while (rs.next()) {
+                nombres.put(rs.getInt("id_iniciativa"), rs.getString("nombre"));
             }
-        } catch (SQLException e) {
-            System.err.println("Error al contar iniciativas activas: " + e.getMessage());
-        }
-
-        return 0;
-    }
-
-    /**
-     * Método auxiliar para crear un objeto Iniciativa desde ResultSet
-     */
-    private Iniciativa createIniciativaFromResultSet(ResultSet rs) throws SQLException {
-        Iniciativa iniciativa = new Iniciativa();
-        iniciativa.setIdIniciativa(rs.getInt("id_iniciativa"));
-        iniciativa.setNombre(rs.getString("nombre"));
-        iniciativa.setDescripcion(rs.getString("descripcion"));
-
-        Date fechaInicio = rs.getDate("fecha_inicio");
-        if (fechaInicio != null) {
-            iniciativa.setFechaInicio(fechaInicio.toLocalDate());
-        }
 
-        Date fechaFin = rs.getDate("fecha_fin");
-        if (fechaFin != null) {
-            iniciativa.setFechaFin(fechaFin.toLocalDate());
-        }
-
-        iniciativa.setTipo(rs.getString("tipo"));
-        iniciativa.setEstado(rs.getString("estado"));
-        iniciativa.setRiesgo(rs.getString("riesgo"));
-        iniciativa.setIdOwner(rs.getInt("id_owner"));
-
-        Timestamp fechaRegistro = rs.getTimestamp("fecha_registro");
-        if (fechaRegistro != null) {
-            iniciativa.setFechaRegistro(fechaRegistro.toLocalDateTime());
+        } catch (SQLException e) {
+            System.err.println("Error al obtener nombres de iniciativas: " + e.getMessage());
         }
 
-        return iniciativa;
+        return nombres;
     }
 
     /**
-     * Obtiene iniciativas por nombre
+     * Cuenta el número de iniciativas activas (en curso)
      */
-    public List<Iniciativa> findByName(String nombre) {
-        List<Iniciativa> iniciativas = new ArrayList<>();
-        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro " +
-                    "FROM iniciativas WHERE nombre = ? ORDER BY fecha_registro DESC";
+    public int countIniciativasActivas() {
+        String sql = "SELECT COUNT(*) FROM iniciativas WHERE estado = 'en curso'";
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, nombre);
-            ResultSet rs = stmt.executeQuery();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                Iniciativa iniciativa = createIniciativaFromResultSet(rs);
-                iniciativas.add(iniciativa);
+            if (rs.next()) {
+                return rs.getInt(1);
             }
-
         } catch (SQLException e) {
-            System.err.println("Error al obtener iniciativas por nombre: " + e.getMessage());
+            System.err.println("Error al contar iniciativas activas: " + e.getMessage());
         }
 
-        return iniciativas;
+        return 0;
     }
 
     /**
-     * Obtiene iniciativas por propietario y nombre específico
+     * Descarta las consultas en caché y los nombres después de una escritura
      */
-    public List<Iniciativa> findByOwnerAndName(int idOwner, String nombre) {
-        List<Iniciativa> iniciativas = new ArrayList<>();
-        String sql = "SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro " +
-                    "FROM iniciativas WHERE id_owner = ? AND nombre = ? ORDER BY fecha_registro DESC";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, idOwner);
-            stmt.setString(2, nombre);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Iniciativa iniciativa = createIniciativaFromResultSet(rs);
-                iniciativas.add(iniciativa);
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error al obtener iniciativas por propietario y nombre: " + e.getMessage());
-        }
-
-        return iniciativas;
+    private void invalidarCache() {
+        cacheListas.invalidar();
+        cachePorId.invalidar();
+        IniciativaNombreCache.invalidar();
     }
 }
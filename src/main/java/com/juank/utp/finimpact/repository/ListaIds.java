@@ -0,0 +1,77 @@
+package com.juank.utp.finimpact.repository;
+
+import com.microsoft.sqlserver.jdbc.SQLServerDataTable;
+import com.microsoft.sqlserver.jdbc.SQLServerPreparedStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Condición "columna IN (...)" para listas de IDs de cualquier tamaño.
+ * Hasta MAXIMO_PARAMETROS se usan parámetros, agrupados en tamaños potencia de 2 para que
+ * se repita la misma SQL (y la caché de sentencias la reutilice). Con más IDs se envía un
+ * parámetro con valor de tabla del tipo dbo.lista_ids (migración V4): SQL Server admite
+ * como máximo 2100 parámetros por sentencia.
+ */
+final class ListaIds {
+
+    static final int MAXIMO_PARAMETROS = 1024;
+    private static final String TIPO_TABLA = "dbo.lista_ids";
+
+    private final List<Integer> ids;
+    private final int parametros;
+
+    ListaIds(Collection<Integer> ids) {
+        this.ids = new ArrayList<>(new LinkedHashSet<>(ids));
+        this.parametros = this.ids.size() <= MAXIMO_PARAMETROS ? Integer.highestOneBit(Math.max(1, this.ids.size() * 2 - 1)) : 0;
+    }
+
+    boolean isEmpty() {
+        return ids.isEmpty();
+    }
+
+    boolean usaTabla() {
+        return parametros == 0;
+    }
+
+    /**
+     * Agrega la condición sobre la columna indicada
+     */
+    void agregarCondicion(StringBuilder sql, String columna) {
+        sql.append(columna);
+        if (usaTabla()) {
+            sql.append(" IN (SELECT id FROM ?)");
+            return;
+        }
+        sql.append(" IN (");
+        for (int i = 0; i < parametros; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+    }
+
+    /**
+     * Asigna los IDs a partir del parámetro indicado; devuelve el siguiente índice libre
+     */
+    int asignar(PreparedStatement stmt, int indice) throws SQLException {
+        if (usaTabla()) {
+            SQLServerDataTable tabla = new SQLServerDataTable();
+            tabla.addColumnMetadata("id", Types.INTEGER);
+            for (Integer id : ids) {
+                tabla.addRow(id);
+            }
+            stmt.unwrap(SQLServerPreparedStatement.class).setStructured(indice, TIPO_TABLA, tabla);
+            return indice + 1;
+        }
+        for (int i = 0; i < parametros; i++) {
+            // El relleno repite el último ID: no cambia el resultado del IN
+            stmt.setInt(indice + i, ids.get(Math.min(i, ids.size() - 1)));
+        }
+        return indice + parametros;
+    }
+}
@@ -0,0 +1,173 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.model.IniciativaConImpactos;
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Portafolio: iniciativas con sus impactos en una sola consulta (LEFT JOIN ordenado por iniciativa).
+ * Las filas se agrupan mientras se leen y cada iniciativa se entrega completa apenas termina,
+ * sin una segunda consulta de impactos ni listas de IDs con un parámetro por ID.
+ */
+public class PortafolioRepository {
+
+    private static final int FILAS_POR_FETCH = 1000;
+
+    private static final String SELECT_BASE =
+        "SELECT ini.id_iniciativa, ini.nombre, ini.descripcion, ini.fecha_inicio, ini.fecha_fin, ini.tipo, ini.estado, ini.riesgo, " +
+        "ini.id_owner, ini.fecha_registro, imp.id_impacto, imp.fecha_creacion, imp.tipo_impacto, imp.multiplicador, " +
+        "imp.atributo_impacto, imp.fecha_impacto, imp.impacto " +
+        "FROM iniciativas ini LEFT JOIN impactos imp ON imp.id_iniciativa = ini.id_iniciativa";
+
+    // Todas las filas de una iniciativa quedan juntas; dentro de ella, impactos del más reciente al más antiguo
+    private static final String ORDEN = " ORDER BY ini.fecha_registro DESC, ini.id_iniciativa, imp.fecha_impacto DESC, imp.id_impacto DESC";
+
+    /**
+     * Recorre el portafolio de un owner (null = todas las iniciativas)
+     *
+     * @return cantidad de iniciativas entregadas
+     */
+    public long recorrerPorOwner(Integer idOwner, Consumer<IniciativaConImpactos> consumidor) {
+        StringBuilder sql = new StringBuilder(SELECT_BASE);
+        if (idOwner != null) {
+            sql.append(" WHERE ini.id_owner = ?");
+        }
+        sql.append(ORDEN);
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            if (idOwner != null) {
+                stmt.setInt(1, idOwner);
+            }
+            return leer(stmt, consumidor);
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener portafolio por owner: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Recorre el portafolio de las iniciativas indicadas; admite listas de cualquier tamaño
+     *
+     * @return cantidad de iniciativas entregadas
+     */
+    public long recorrerPorIds(Collection<Integer> idsIniciativas, Consumer<IniciativaConImpactos> consumidor) {
+        ListaIds ids = new ListaIds(idsIniciativas);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(SELECT_BASE).append(" WHERE ");
+        ids.agregarCondicion(sql, "ini.id_iniciativa");
+        sql.append(ORDEN);
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            ids.asignar(stmt, 1);
+            return leer(stmt, consumidor);
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener portafolio por IDs de iniciativas: " + e.getMessage());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Portafolio de un owner (null = todas las iniciativas) en memoria
+     */
+    public List<IniciativaConImpactos> findByOwner(Integer idOwner) {
+        List<IniciativaConImpactos> portafolio = new ArrayList<>();
+        recorrerPorOwner(idOwner, portafolio::add);
+        return portafolio;
+    }
+
+    /**
+     * Portafolio de las iniciativas indicadas en memoria
+     */
+    public List<IniciativaConImpactos> findByIds(Collection<Integer> idsIniciativas) {
+        List<IniciativaConImpactos> portafolio = new ArrayList<>();
+        recorrerPorIds(idsIniciativas, portafolio::add);
+        return portafolio;
+    }
+
+    /**
+     * Agrupa las filas consecutivas de cada iniciativa. Las columnas se leen por posición
+     * (en el orden de SELECT_BASE) para no buscar nombres en cada fila.
+     */
+    private long leer(PreparedStatement stmt, Consumer<IniciativaConImpactos> consumidor) throws SQLException {
+        stmt.setFetchSize(FILAS_POR_FETCH);
+        long entregadas = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            Iniciativa actual = null;
+            List<Impacto> impactos = new ArrayList<>();
+            while (rs.next()) {
+                int idIniciativa = rs.getInt(1);
+                if (actual == null || actual.getIdIniciativa() != idIniciativa) {
+                    if (actual != null) {
+                        consumidor.accept(new IniciativaConImpactos(actual, impactos));
+                        entregadas++;
+                        impactos.clear();
+                    }
+                    actual = leerIniciativa(rs, idIniciativa);
+                }
+                int idImpacto = rs.getInt(11);
+                if (!rs.wasNull()) {
+                    impactos.add(leerImpacto(rs, idImpacto, idIniciativa));
+                }
+            }
+            if (actual != null) {
+                consumidor.accept(new IniciativaConImpactos(actual, impactos));
+                entregadas++;
+            }
+        }
+        return entregadas;
+    }
+
+    private Iniciativa leerIniciativa(ResultSet rs, int idIniciativa) throws SQLException {
+        Iniciativa iniciativa = new Iniciativa();
+        iniciativa.setIdIniciativa(idIniciativa);
+        iniciativa.setNombre(rs.getString(2));
+        iniciativa.setDescripcion(rs.getString(3));
+        Date fechaInicio = rs.getDate(4);
+        if (fechaInicio != null) {
+            iniciativa.setFechaInicio(fechaInicio.toLocalDate());
+        }
+        Date fechaFin = rs.getDate(5);
+        if (fechaFin != null) {
+            iniciativa.setFechaFin(fechaFin.toLocalDate());
+        }
+        iniciativa.setTipo(rs.getString(6));
+        iniciativa.setEstado(rs.getString(7));
+        iniciativa.setRiesgo(rs.getString(8));
+        iniciativa.setIdOwner(rs.getInt(9));
+        Timestamp fechaRegistro = rs.getTimestamp(10);
+        if (fechaRegistro != null) {
+            iniciativa.setFechaRegistro(fechaRegistro.toLocalDateTime());
+        }
+        return iniciativa;
+    }
+
+    private Impacto leerImpacto(ResultSet rs, int idImpacto, int idIniciativa) throws SQLException {
+        Impacto impacto = new Impacto();
+        impacto.setIdImpacto(idImpacto);
+        impacto.setIdIniciativa(idIniciativa);
+        impacto.setFechaCreacion(rs.getDate(12).toLocalDate());
+        impacto.setTipoImpacto(rs.getString(13));
+        impacto.setMultiplicador(rs.getInt(14));
+        impacto.setAtributoImpacto(rs.getString(15));
+        impacto.setFechaImpacto(rs.getDate(16).toLocalDate());
+        impacto.setImpacto(rs.getBigDecimal(17));
+        return impacto;
+    }
+}
@@ -0,0 +1,165 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Consultas para conciliar el snapshot local con el servidor. Las marcas son el mayor ID
+ * (IDENTITY) guardado: las filas nuevas siempre quedan por encima y se traen como delta;
+ * una fila modificada o eliminada por debajo cambia el conteo o el checksum y obliga a
+ * recargar la tabla completa.
+ */
+public class SnapshotRepository {
+
+    private static final String CHECKSUM_INICIATIVA =
+        "BINARY_CHECKSUM(ini.id_iniciativa, ini.nombre, ini.descripcion, ini.fecha_inicio, ini.fecha_fin, " +
+        "ini.tipo, ini.estado, ini.riesgo, ini.id_owner, ini.fecha_registro)";
+
+    private static final String CHECKSUM_IMPACTO =
+        "BINARY_CHECKSUM(imp.id_impacto, imp.id_iniciativa, imp.fecha_creacion, imp.tipo_impacto, " +
+        "imp.multiplicador, imp.atributo_impacto, imp.fecha_impacto, imp.impacto)";
+
+    /**
+     * Estado de una tabla en el servidor: conteo y checksum hasta la marca guardada y de toda la tabla
+     */
+    public static class Estado {
+        private final int filasHastaMarca;
+        private final int sumaHastaMarca;
+        private final int filas;
+        private final int suma;
+        private final int marca;
+
+        Estado(int filasHastaMarca, int sumaHastaMarca, int filas, int suma, int marca) {
+            this.filasHastaMarca = filasHastaMarca;
+            this.sumaHastaMarca = sumaHastaMarca;
+            this.filas = filas;
+            this.suma = suma;
+            this.marca = marca;
+        }
+
+        public int getFilasHastaMarca() {
+            return filasHastaMarca;
+        }
+
+        public int getSumaHastaMarca() {
+            return sumaHastaMarca;
+        }
+
+        public int getFilas() {
+            return filas;
+        }
+
+        public int getSuma() {
+            return suma;
+        }
+
+        /**
+         * Mayor ID actual (0 si no hay filas); las filas leídas después por encima de él se ignoran
+         */
+        public int getMarca() {
+            return marca;
+        }
+    }
+
+    /**
+     * Estado de las iniciativas de un owner (null = todas)
+     *
+     * @param marca mayor ID de iniciativa guardado en el snapshot (0 = ninguno)
+     */
+    public Estado estadoIniciativas(Integer idOwner, int marca) throws SQLException {
+        StringBuilder sql = new StringBuilder(consultaEstado("ini.id_iniciativa", CHECKSUM_INICIATIVA))
+                .append(" FROM iniciativas ini");
+        if (idOwner != null) {
+            sql.append(" WHERE ini.id_owner = ?");
+        }
+        return estado(sql.toString(), marca, idOwner);
+    }
+
+    /**
+     * Estado de los impactos de las iniciativas de un owner (null = todos). Reasignar una
+     * iniciativa a otro owner cambia el conteo, así que también se detecta.
+     *
+     * @param marca mayor ID de impacto guardado en el snapshot (0 = ninguno)
+     */
+    public Estado estadoImpactos(Integer idOwner, int marca) throws SQLException {
+        StringBuilder sql = new StringBuilder(consultaEstado("imp.id_impacto", CHECKSUM_IMPACTO))
+                .append(" FROM impactos imp");
+        if (idOwner != null) {
+            sql.append(" INNER JOIN iniciativas ini ON imp.id_iniciativa = ini.id_iniciativa WHERE ini.id_owner = ?");
+        }
+        return estado(sql.toString(), marca, idOwner);
+    }
+
+    /**
+     * Entrega al consumidor las iniciativas con ID mayor a la marca (0 = todas) en el orden de la
+     * tabla, sin guardarlas en memoria
+     *
+     * @return cantidad de filas entregadas
+     */
+    public long recorrerIniciativasDesde(Integer idOwner, int marca, Consumer<Iniciativa> consumidor) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT id_iniciativa, nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner, fecha_registro FROM iniciativas WHERE id_iniciativa > ?");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(marca);
+        if (idOwner != null) {
+            sql.append(" AND id_owner = ?");
+            parameters.add(idOwner);
+        }
+        sql.append(" ORDER BY fecha_registro DESC, id_iniciativa DESC");
+        return ConsultaFilas.recorrer(sql.toString(), ConsultaFilas.Parametros.de(parameters), IniciativaRepository.MAPEADOR_INICIATIVA, consumidor);
+    }
+
+    /**
+     * Entrega al consumidor los impactos con ID mayor a la marca (0 = todos) en el orden de la
+     * tabla, sin guardarlos en memoria
+     *
+     * @return cantidad de filas entregadas
+     */
+    public long recorrerImpactosDesde(Integer idOwner, int marca, Consumer<Impacto> consumidor) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT imp.id_impacto, imp.id_iniciativa, imp.fecha_creacion, imp.tipo_impacto, imp.multiplicador, imp.atributo_impacto, imp.fecha_impacto, imp.impacto FROM impactos imp");
+        List<Object> parameters = new ArrayList<>();
+        if (idOwner != null) {
+            sql.append(" INNER JOIN iniciativas ini ON imp.id_iniciativa = ini.id_iniciativa WHERE ini.id_owner = ? AND");
+            parameters.add(idOwner);
+        } else {
+            sql.append(" WHERE");
+        }
+        sql.append(" imp.id_impacto > ? ORDER BY imp.fecha_impacto DESC, imp.id_impacto DESC");
+        parameters.add(marca);
+        return ConsultaFilas.recorrer(sql.toString(), ConsultaFilas.Parametros.de(parameters), ImpactoRepository.MAPEADOR_IMPACTO, consumidor);
+    }
+
+    /**
+     * Un solo recorrido en el servidor: conteo y checksum hasta la marca, y de todas las filas
+     */
+    private static String consultaEstado(String columnaId, String checksum) {
+        return "SELECT COUNT(CASE WHEN " + columnaId + " <= ? THEN 1 END), " +
+               "CHECKSUM_AGG(CASE WHEN " + columnaId + " <= ? THEN " + checksum + " END), " +
+               "COUNT(*), CHECKSUM_AGG(" + checksum + "), MAX(" + columnaId + ")";
+    }
+
+    private static Estado estado(String sql, int marca, Integer idOwner) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, marca);
+            stmt.setInt(2, marca);
+            if (idOwner != null) {
+                stmt.setInt(3, idOwner);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                // Sin filas, CHECKSUM_AGG y MAX son NULL y getInt devuelve 0
+                return new Estado(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.juank.utp.finimpact.repository;
 
 import com.juank.utp.finimpact.model.Usuario;
+import com.juank.utp.finimpact.utils.CacheLectura;
 import com.juank.utp.finimpact.utils.DatabaseConfig;
 import com.juank.utp.finimpact.utils.PasswordUtils;
 
@@ -14,6 +15,13 @@ import java.util.Optional;
  */
 public class UsuarioRepository {
 
+    // Los usuarios cambian poco: los combos y formularios se sirven desde memoria.
+    // Las consultas en caché no leen el hash de la contraseña; solo findByEmail lo trae.
+    private static final CacheLectura<String, List<Usuario>> cacheListas = CacheLectura.crear("usuarios.listas", 5 * 60_000, 16,
+            CacheLectura.listaDe(Usuario::new));
+    private static final CacheLectura<Integer, Optional<Usuario>> cachePorId = CacheLectura.crear("usuarios.porId", 5 * 60_000, 256,
+            CacheLectura.opcionalDe(Usuario::new));
+
     /**
      * Busca un usuario por email para autenticación
      */
@@ -65,8 +73,17 @@ public class UsuarioRepository {
      * Obtiene todos los usuarios activos
      */
     public List<Usuario> findAll() {
+        try {
+            return new ArrayList<>(cacheListas.obtener("activos", this::consultarActivos));
+        } catch (SQLException e) {
+            System.err.println("Error al obtener usuarios: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<Usuario> consultarActivos() throws SQLException {
         List<Usuario> usuarios = new ArrayList<>();
-        String sql = "SELECT id_usuario, nombre_completo, email, password, rol, estado FROM usuarios WHERE estado = 1 ORDER BY nombre_completo";
+        String sql = "SELECT id_usuario, nombre_completo, email, rol, estado FROM usuarios WHERE estado = 1 ORDER BY nombre_completo";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -77,25 +94,31 @@ public class UsuarioRepository {
                     rs.getInt("id_usuario"),
                     rs.getString("nombre_completo"),
                     rs.getString("email"),
-                    rs.getString("password"),
+                    null, // sin el hash de la contraseña
                     rs.getString("rol"),
                     rs.getBoolean("estado")
                 );
                 usuarios.add(usuario);
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error al obtener usuarios: " + e.getMessage());
         }
 
-        return usuarios;
+        return List.copyOf(usuarios);
     }
 
     /**
      * Busca un usuario por ID
      */
     public Optional<Usuario> findById(int id) {
-        String sql = "SELECT id_usuario, nombre_completo, email, password, rol, estado FROM usuarios WHERE id_usuario = ?";
+        try {
+            return cachePorId.obtener(id, () -> consultarPorId(id));
+        } catch (SQLException e) {
+            System.err.println("Error al buscar usuario por ID: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Usuario> consultarPorId(int id) throws SQLException {
+        String sql = "SELECT id_usuario, nombre_completo, email, rol, estado FROM usuarios WHERE id_usuario = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -108,15 +131,12 @@ public class UsuarioRepository {
                     rs.getInt("id_usuario"),
                     rs.getString("nombre_completo"),
                     rs.getString("email"),
-                    rs.getString("password"),
+                    null, // sin el hash de la contraseña
                     rs.getString("rol"),
                     rs.getBoolean("estado")
                 );
                 return Optional.of(usuario);
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error al buscar usuario por ID: " + e.getMessage());
         }
 
         return Optional.empty();
@@ -149,6 +169,7 @@ public class UsuarioRepository {
                 if (rs.next()) {
                     usuario.setIdUsuario(rs.getInt(1));
                 }
+                invalidarCache();
                 return true;
             }
 
@@ -193,7 +214,11 @@ public class UsuarioRepository {
                 stmt.setInt(5, usuario.getIdUsuario());
             }
 
-            return stmt.executeUpdate() > 0;
+            boolean actualizado = stmt.executeUpdate() > 0;
+            if (actualizado) {
+                invalidarCache();
+            }
+            return actualizado;
 
         } catch (SQLException e) {
             System.err.println("Error al actualizar usuario: " + e.getMessage());
@@ -214,7 +239,11 @@ public class UsuarioRepository {
             stmt.setString(1, PasswordUtils.hashPassword(newPassword));
             stmt.setInt(2, idUsuario);
 
-            return stmt.executeUpdate() > 0;
+            boolean actualizado = stmt.executeUpdate() > 0;
+            if (actualizado) {
+                invalidarCache();
+            }
+            return actualizado;
 
         } catch (SQLException e) {
             System.err.println("Error al actualizar contraseña: " + e.getMessage());
@@ -233,7 +262,11 @@ public class UsuarioRepository {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, idUsuario);
-            return stmt.executeUpdate() > 0;
+            boolean eliminado = stmt.executeUpdate() > 0;
+            if (eliminado) {
+                invalidarCache();
+            }
+            return eliminado;
 
         } catch (SQLException e) {
             System.err.println("Error al eliminar usuario: " + e.getMessage());
@@ -246,8 +279,17 @@ public class UsuarioRepository {
      * Obtiene usuarios activos por rol
      */
     public List<Usuario> findByRolAndEstado(String rol, boolean estado) {
+        try {
+            return new ArrayList<>(cacheListas.obtener("rol:" + rol + ":" + estado, () -> consultarPorRolYEstado(rol, estado)));
+        } catch (SQLException e) {
+            System.err.println("Error al buscar usuarios por rol y estado: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<Usuario> consultarPorRolYEstado(String rol, boolean estado) throws SQLException {
         List<Usuario> usuarios = new ArrayList<>();
-        String sql = "SELECT id_usuario, nombre_completo, email, password, rol, estado FROM usuarios WHERE rol = ? AND estado = ? ORDER BY nombre_completo";
+        String sql = "SELECT id_usuario, nombre_completo, email, rol, estado FROM usuarios WHERE rol = ? AND estado = ? ORDER BY nombre_completo";
 
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -261,18 +303,15 @@ public class UsuarioRepository {
                     rs.getInt("id_usuario"),
                     rs.getString("nombre_completo"),
                     rs.getString("email"),
-                    rs.getString("password"),
+                    null, // sin el hash de la contraseña
                     rs.getString("rol"),
                     rs.getBoolean("estado")
                 );
                 usuarios.add(usuario);
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error al buscar usuarios por rol y estado: " + e.getMessage());
         }
 
-        return usuarios;
+        return List.copyOf(usuarios);
     }
 
     /**
@@ -287,7 +326,11 @@ public class UsuarioRepository {
             stmt.setBoolean(1, estado);
             stmt.setInt(2, idUsuario);
 
-            return stmt.executeUpdate() > 0;
+            boolean actualizado = stmt.executeUpdate() > 0;
+            if (actualizado) {
+                invalidarCache();
+            }
+            return actualizado;
 
         } catch (SQLException e) {
             System.err.println("Error al actualizar estado del usuario: " + e.getMessage());
@@ -295,4 +338,12 @@ public class UsuarioRepository {
 
         return false;
     }
+
+    /**
+     * Descarta las consultas en caché después de una escritura
+     */
+    private void invalidarCache() {
+        cacheListas.invalidar();
+        cachePorId.invalidar();
+    }
 }
@@ -0,0 +1,105 @@
+package com.juank.utp.finimpact.utils;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Orquesta el arranque: la ventana principal se muestra sin esperar a la base de datos,
+ * el pool se calienta y la versión del esquema se verifica en paralelo, y cada fase (toolkit, vista principal,
+ * pool, esquema, pestañas) informa su duración por consola para saber dónde se va el tiempo de arranque en frío.
+ */
+public class ArranqueAplicacion {
+
+    private static final long INICIO = System.nanoTime();
+    private static final Map<String, Long> fases = new LinkedHashMap<>();
+    private static CompletableFuture<ConnectionPool> poolListo;
+    private static CompletableFuture<Integer> esquemaListo;
+
+    private ArranqueAplicacion() {
+    }
+
+    /**
+     * Registra el tiempo desde que arrancó el proceso hasta que JavaFX entrega el control (JVM + toolkit)
+     */
+    public static void registrarInicioToolkit() {
+        ProcessHandle.current().info().startInstant().ifPresent(inicioProceso -> {
+            long ms = Duration.between(inicioProceso, Instant.now()).toMillis();
+            registrar("jvm y toolkit", ms);
+        });
+    }
+
+    /**
+     * Inicia el calentamiento del pool; las conexiones se abren en paralelo en hilos de fondo
+     * y la primera consulta ya no paga ese costo en el hilo de UI
+     */
+    public static synchronized CompletableFuture<ConnectionPool> calentarPool() {
+        if (poolListo == null) {
+            long inicio = System.nanoTime();
+            poolListo = DatabaseConfig.listo().whenComplete((pool, error) -> {
+                if (error == null) {
+                    registrarFase("pool de conexiones", inicio);
+                }
+            });
+        }
+        return poolListo;
+    }
+
+    /**
+     * Lee en background la versión del esquema (solo lectura: migrar es un paso de despliegue con
+     * MigradorEsquema, que necesita permisos de DDL). Termina con la versión registrada en la base;
+     * si falla (sin conexión) la siguiente llamada lo reintenta. El login no deja entrar mientras
+     * la versión sea menor que {@link MigradorEsquema#versionDisponible()}.
+     */
+    public static synchronized CompletableFuture<Integer> verificarEsquema() {
+        if (esquemaListo == null || esquemaListo.isCompletedExceptionally()) {
+            long inicio = System.nanoTime();
+            esquemaListo = AsyncTaskManager.supplyAsync("verificar-version-esquema", () -> {
+                try {
+                    return MigradorEsquema.versionActual();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }).whenComplete((version, error) -> {
+                if (error == null) {
+                    registrarFase("versión del esquema (" + version + " de " + MigradorEsquema.versionDisponible() + ")", inicio);
+                } else {
+                    Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    System.err.println("❌ No se pudo leer la versión del esquema: " + causa.getMessage());
+                }
+            });
+        }
+        return esquemaListo;
+    }
+
+    /**
+     * Registra una fase que empezó en {@code inicioNanos} (System.nanoTime) y termina ahora
+     */
+    public static void registrarFase(String fase, long inicioNanos) {
+        registrar(fase, (System.nanoTime() - inicioNanos) / 1_000_000);
+    }
+
+    private static synchronized void registrar(String fase, long ms) {
+        fases.merge(fase, ms, Long::sum);
+        long total = (System.nanoTime() - INICIO) / 1_000_000;
+        System.out.println("⏱️ Arranque: " + fase + " en " + ms + " ms (" + total + " ms desde start)");
+    }
+
+    /**
+     * Duración de cada fase registrada hasta ahora, en orden de llegada
+     */
+    public static synchronized String resumen() {
+        StringBuilder texto = new StringBuilder();
+        fases.forEach((fase, ms) -> {
+            if (texto.length() > 0) {
+                texto.append(", ");
+            }
+            texto.append(fase).append('=').append(ms).append(" ms");
+        });
+        return texto.toString();
+    }
+}
@@ -5,8 +5,20 @@ import javafx.concurrent.Task;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.Label;
 
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -15,7 +27,113 @@ import java.util.function.Supplier;
  */
 public class AsyncTaskManager {
 
-    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+    /**
+     * Backend de ejecución, seleccionable con -Dfinimpact.executor=virtual|fixed
+     */
+    public enum Modo { VIRTUAL, FIXED }
+
+    private static final Modo modo = "fixed".equalsIgnoreCase(System.getProperty("finimpact.executor"))
+            ? Modo.FIXED : Modo.VIRTUAL;
+    private static final int HILOS_MODO_FIXED = 4;
+    // Tiempo máximo que el cierre espera a las tareas en curso (p. ej. escrituras)
+    private static final long ESPERA_CIERRE_SEGUNDOS = 15;
+
+    private static final ExecutorService executor = crearExecutor();
+    private static final AtomicInteger tareasEnCurso = new AtomicInteger();
+
+    // Temporizador de las ventanas de debounce (solo programa, no ejecuta consultas)
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "finimpact-debounce");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Map<String, SolicitudCoalescida> solicitudes = new ConcurrentHashMap<>();
+    // Resultado de la tarea de supplyAsync que corre en cada hilo, para isCancelada()
+    private static final ThreadLocal<CompletableFuture<?>> tareaActual = new ThreadLocal<>();
+
+    static {
+        Metricas.registrarIndicador("tareas.enCurso", tareasEnCurso::get);
+        Metricas.registrarIndicador("tareas.enCola", AsyncTaskManager::getTareasEnCola);
+    }
+
+    /**
+     * Crea el executor según el modo: un hilo virtual por tarea o un pool fijo de hilos de plataforma
+     */
+    private static ExecutorService crearExecutor() {
+        if (modo == Modo.FIXED) {
+            AtomicInteger contador = new AtomicInteger();
+            return Executors.newFixedThreadPool(HILOS_MODO_FIXED, r -> {
+                Thread thread = new Thread(r, "finimpact-task-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("finimpact-vt-", 0).factory());
+    }
+
+    /**
+     * Límite de tareas simultáneas con hilos virtuales: casi todas son JDBC bloqueante,
+     * así que no tiene sentido tener más tareas activas que conexiones en el pool
+     */
+    private static class LimiteConcurrencia {
+        static final Semaphore PERMISOS = new Semaphore(calcularLimite(), true);
+
+        private static int calcularLimite() {
+            String configurado = System.getProperty("finimpact.executor.maxConcurrency");
+            if (configurado != null) {
+                return Integer.parseInt(configurado);
+            }
+            try {
+                ConnectionPool pool = DatabaseConfig.getPool();
+                if (pool != null) {
+                    return pool.getConfig().getMaxSize();
+                }
+                System.err.println("⚠️ Pool no configurado, usando límite por defecto");
+                return 10;
+            } catch (RuntimeException | Error e) {
+                System.err.println("⚠️ No se pudo leer el tamaño del pool, usando límite por defecto: " + e.getMessage());
+                return 10;
+            }
+        }
+    }
+
+    /**
+     * Envía una tarea al executor con nombre de hilo descriptivo mientras se ejecuta
+     */
+    private static Future<?> submit(String nombreTarea, Runnable tarea) {
+        long encolada = System.nanoTime();
+        return executor.submit(() -> {
+            Thread hilo = Thread.currentThread();
+            String nombreOriginal = hilo.getName();
+            hilo.setName(nombreOriginal + " [" + nombreTarea + "]");
+            boolean conPermiso = false;
+            boolean enCurso = false;
+            try {
+                if (modo == Modo.VIRTUAL) {
+                    // Bloquear un hilo virtual es barato: espera aquí en lugar de en el pool de conexiones
+                    LimiteConcurrencia.PERMISOS.acquire();
+                    conPermiso = true;
+                }
+                // Solo cuenta como en curso al tener permiso; mientras espera figura en getTareasEnCola()
+                tareasEnCurso.incrementAndGet();
+                enCurso = true;
+                long inicio = System.nanoTime();
+                Metricas.registrarTiempo("tareas.espera", inicio - encolada);
+                tarea.run();
+                Metricas.registrarTiempo("tareas.ejecucion", System.nanoTime() - inicio);
+            } catch (InterruptedException e) {
+                hilo.interrupt();
+            } finally {
+                if (conPermiso) {
+                    LimiteConcurrencia.PERMISOS.release();
+                }
+                if (enCurso) {
+                    tareasEnCurso.decrementAndGet();
+                }
+                hilo.setName(nombreOriginal);
+            }
+        });
+    }
 
     /**
      * Ejecuta una tarea en background con indicador de carga
@@ -70,7 +188,7 @@ public class AsyncTaskManager {
             }
         };
 
-        executor.submit(task);
+        submit("tarea-async", task);
     }
 
     /**
@@ -139,13 +257,204 @@ public class AsyncTaskManager {
             }
         };
 
-        executor.submit(task);
+        submit(loadingMessage, task);
+    }
+
+    /**
+     * Ejecuta una consulta en background y devuelve su resultado como CompletableFuture,
+     * para combinar varias consultas en paralelo sin bloquear hilos esperando.
+     * Cancelar el future evita que la tarea arranque si aún está en cola; si ya corre no se
+     * interrumpe: termina, su resultado se descarta y puede cortar antes consultando isCancelada().
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> backgroundTask) {
+        return supplyAsync("consulta", backgroundTask);
     }
 
     /**
-     * Cierra el executor al cerrar la aplicación
+     * Igual que supplyAsync, con un nombre de tarea visible en el nombre del hilo (depuración, thread dumps)
+     */
+    public static <T> CompletableFuture<T> supplyAsync(String nombreTarea, Supplier<T> backgroundTask) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        Future<?> tarea = submit(nombreTarea, () -> {
+            // Cancelada mientras esperaba su turno: no llega a pedir conexión
+            if (resultado.isDone()) {
+                return;
+            }
+            tareaActual.set(resultado);
+            try {
+                resultado.complete(backgroundTask.get());
+            } catch (Throwable t) {
+                resultado.completeExceptionally(t);
+            } finally {
+                tareaActual.remove();
+            }
+        });
+        resultado.whenComplete((valor, error) -> {
+            if (resultado.isCancelled()) {
+                // Sin interrumpir: un hilo virtual interrumpido en E/S de socket cierra la conexión
+                // JDBC que está usando y el pool la tiene que descartar
+                tarea.cancel(false);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Indica si se canceló la tarea de supplyAsync que corre en el hilo actual. Las tareas
+     * largas (p. ej. exportaciones) lo revisan entre lotes para dejar de leer y devolver la conexión.
+     */
+    public static boolean isCancelada() {
+        CompletableFuture<?> tarea = tareaActual.get();
+        return tarea != null && tarea.isCancelled();
+    }
+
+    /**
+     * Ejecuta la tarea con coalescencia por clave: espera {@code debounceMs} sin nuevas solicitudes,
+     * cancela la carga anterior aún en curso y solo entrega al hilo de UI el resultado de la última
+     */
+    public static <T> void executeLatest(
+            String clave,
+            long debounceMs,
+            Supplier<T> backgroundTask,
+            Consumer<T> onSuccess,
+            Consumer<Exception> onError) {
+
+        executeLatestAsync(clave, debounceMs, () -> supplyAsync(clave, backgroundTask), onSuccess, onError);
+    }
+
+    /**
+     * Igual que executeLatest, para tareas que ya devuelven un CompletableFuture (p. ej. consultas en paralelo)
+     */
+    public static <T> void executeLatestAsync(
+            String clave,
+            long debounceMs,
+            Supplier<CompletableFuture<T>> backgroundTask,
+            Consumer<T> onSuccess,
+            Consumer<Exception> onError) {
+
+        SolicitudCoalescida solicitud = solicitudes.computeIfAbsent(clave, k -> new SolicitudCoalescida());
+        synchronized (solicitud) {
+            long generacion = solicitud.nuevaGeneracion();
+            solicitud.programada = scheduler.schedule(
+                () -> iniciarSolicitud(solicitud, generacion, backgroundTask, onSuccess, onError),
+                debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Ejecuta una acción en el hilo de UI cuando pasan {@code debounceMs} sin nuevas llamadas con la misma clave
+     */
+    public static void debounce(String clave, long debounceMs, Runnable accion) {
+        SolicitudCoalescida solicitud = solicitudes.computeIfAbsent(clave, k -> new SolicitudCoalescida());
+        synchronized (solicitud) {
+            long generacion = solicitud.nuevaGeneracion();
+            solicitud.programada = scheduler.schedule(() -> Platform.runLater(() -> {
+                if (solicitud.esVigente(generacion)) {
+                    accion.run();
+                }
+            }), debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static <T> void iniciarSolicitud(
+            SolicitudCoalescida solicitud,
+            long generacion,
+            Supplier<CompletableFuture<T>> backgroundTask,
+            Consumer<T> onSuccess,
+            Consumer<Exception> onError) {
+
+        CompletableFuture<T> futuro;
+        synchronized (solicitud) {
+            if (!solicitud.esVigente(generacion)) {
+                return;
+            }
+            futuro = backgroundTask.get();
+            solicitud.enCurso = futuro;
+        }
+
+        futuro.whenComplete((valor, error) -> Platform.runLater(() -> {
+            // La última solicitud gana: los resultados de cargas reemplazadas se descartan
+            if (!solicitud.esVigente(generacion)) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(valor);
+                return;
+            }
+            Throwable causa = error instanceof CompletionException ? error.getCause() : error;
+            if (!(causa instanceof CancellationException)) {
+                onError.accept(new Exception(causa));
+            }
+        }));
+    }
+
+    /**
+     * Estado de las solicitudes coalescidas de una misma clave
+     */
+    private static class SolicitudCoalescida {
+        private long generacion;
+        private ScheduledFuture<?> programada;
+        private Future<?> enCurso;
+
+        /**
+         * Invalida la solicitud anterior (pendiente o en curso) y devuelve el número de la nueva
+         */
+        synchronized long nuevaGeneracion() {
+            if (programada != null) {
+                programada.cancel(false);
+            }
+            if (enCurso != null) {
+                enCurso.cancel(false);
+                enCurso = null;
+            }
+            return ++generacion;
+        }
+
+        synchronized boolean esVigente(long numero) {
+            return numero == generacion;
+        }
+    }
+
+    /**
+     * Modo de ejecución activo
+     */
+    public static Modo getModo() {
+        return modo;
+    }
+
+    /**
+     * Cantidad de tareas ejecutándose en este momento
+     */
+    public static int getTareasEnCurso() {
+        return tareasEnCurso.get();
+    }
+
+    /**
+     * Tareas enviadas que todavía esperan para ejecutarse: en la cola del pool fijo o,
+     * con hilos virtuales, esperando un permiso del límite de concurrencia
+     */
+    public static int getTareasEnCola() {
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+        return LimiteConcurrencia.PERMISOS.getQueueLength();
+    }
+
+    /**
+     * Cierra el executor al cerrar la aplicación: deja de aceptar tareas y espera
+     * a las que están en curso (p. ej. escrituras) antes de interrumpirlas
      */
     public static void shutdown() {
+        scheduler.shutdownNow();
         executor.shutdown();
+        try {
+            if (!executor.awaitTermination(ESPERA_CIERRE_SEGUNDOS, TimeUnit.SECONDS)) {
+                System.err.println("⚠️ Tareas sin terminar tras " + ESPERA_CIERRE_SEGUNDOS + " s, interrumpiendo " + tareasEnCurso.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 }
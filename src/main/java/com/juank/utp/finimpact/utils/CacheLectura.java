@@ -0,0 +1,178 @@
+package com.juank.utp.finimpact.utils;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché de lectura (read-through) para los repositorios: guarda resultados de consultas
+ * con expiración por tiempo (TTL) y un tamaño máximo con desalojo LRU.
+ * Los repositorios la invalidan en cada escritura exitosa. Guarda y entrega copias de los
+ * valores: quien modifique lo que recibió (p. ej. un formulario que edita la fila antes de
+ * guardarla) no altera lo que ven las demás lecturas.
+ */
+public final class CacheLectura<K, V> {
+
+    /**
+     * Consulta que carga un valor cuando no está en caché
+     */
+    @FunctionalInterface
+    public interface Cargador<V> {
+        V cargar() throws SQLException;
+    }
+
+    // Todas las cachés creadas, para consultar sus estadísticas
+    private static final List<CacheLectura<?, ?>> registradas = new CopyOnWriteArrayList<>();
+
+    private final String nombre;
+    private final long ttlMs;
+    private final UnaryOperator<V> copiar;
+    private final MapaLru<K, Entrada<V>> entradas;
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    // Cambia en cada invalidación: evita guardar un resultado leído antes de una escritura
+    private long generacion;
+
+    private CacheLectura(String nombre, long ttlMs, int tamanoMaximo, UnaryOperator<V> copiar) {
+        this.nombre = nombre;
+        this.ttlMs = ttlMs;
+        this.copiar = copiar;
+        this.entradas = new MapaLru<>(tamanoMaximo);
+    }
+
+    /**
+     * Crea la caché y la registra para consultar sus estadísticas
+     *
+     * @param copiar copia independiente de un valor (ver listaDe y opcionalDe)
+     */
+    public static <K, V> CacheLectura<K, V> crear(String nombre, long ttlMs, int tamanoMaximo, UnaryOperator<V> copiar) {
+        CacheLectura<K, V> cache = new CacheLectura<>(nombre, ttlMs, tamanoMaximo, copiar);
+        registradas.add(cache);
+        return cache;
+    }
+
+    /**
+     * Copia de una lista que copia también cada elemento
+     */
+    public static <T> UnaryOperator<List<T>> listaDe(UnaryOperator<T> copiarElemento) {
+        return lista -> lista.stream().map(copiarElemento).toList();
+    }
+
+    /**
+     * Copia de un Optional que copia también su valor
+     */
+    public static <T> UnaryOperator<Optional<T>> opcionalDe(UnaryOperator<T> copiarElemento) {
+        return valor -> valor.map(copiarElemento);
+    }
+
+    /**
+     * Devuelve el valor en caché o lo carga con la consulta indicada.
+     * Si la consulta falla no se guarda nada y la excepción se propaga.
+     */
+    public V obtener(K clave, Cargador<V> cargador) throws SQLException {
+        long generacionLectura;
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(clave);
+            if (entrada != null && !entrada.expirada(ttlMs)) {
+                aciertos.incrementAndGet();
+                return copiar.apply(entrada.valor);
+            }
+            if (entrada != null) {
+                entradas.remove(clave);
+            }
+            generacionLectura = generacion;
+        }
+
+        // La consulta se ejecuta fuera del bloqueo para no serializar lecturas de claves distintas
+        fallos.incrementAndGet();
+        V valor = cargador.cargar();
+
+        synchronized (this) {
+            if (generacion == generacionLectura) {
+                entradas.put(clave, new Entrada<>(copiar.apply(valor)));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta todas las entradas (se llama después de cada escritura en la tabla)
+     */
+    public synchronized void invalidar() {
+        generacion++;
+        entradas.clear();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    public synchronized int getTamano() {
+        return entradas.size();
+    }
+
+    /**
+     * Proporción de lecturas servidas desde memoria (0 a 1)
+     */
+    public double getTasaAciertos() {
+        long total = aciertos.get() + fallos.get();
+        return total == 0 ? 0 : (double) aciertos.get() / total;
+    }
+
+    /**
+     * Cachés de los repositorios, para mostrar o exportar sus contadores
+     */
+    public static List<CacheLectura<?, ?>> getRegistradas() {
+        return List.copyOf(registradas);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d aciertos, %d fallos (%.0f%%), %d entradas",
+                nombre, getAciertos(), getFallos(), getTasaAciertos() * 100, getTamano());
+    }
+
+    /**
+     * LinkedHashMap en orden de acceso: el primer elemento es el usado hace más tiempo
+     */
+    private static final class MapaLru<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final int tamanoMaximo;
+
+        MapaLru(int tamanoMaximo) {
+            super(16, 0.75f, true);
+            this.tamanoMaximo = tamanoMaximo;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > tamanoMaximo;
+        }
+    }
+
+    private static class Entrada<V> {
+        final V valor;
+        final long creadaEn = System.currentTimeMillis();
+
+        Entrada(V valor) {
+            this.valor = valor;
+        }
+
+        boolean expirada(long ttlMs) {
+            return System.currentTimeMillis() - creadaEn > ttlMs;
+        }
+    }
+}
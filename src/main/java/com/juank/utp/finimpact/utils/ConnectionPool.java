@@ -0,0 +1,598 @@
+package com.juank.utp.finimpact.utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de conexiones JDBC con tamaño mínimo/máximo, validación, tiempo de vida máximo,
+ * espera acotada, detección de fugas y desalojo en segundo plano
+ */
+public final class ConnectionPool {
+
+    /**
+     * Fábrica de conexiones físicas
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * Recibe cada préstamo y devolución (métricas, eventos JFR); se llama en el hilo que pide o devuelve la conexión
+     */
+    public interface UsageListener {
+        /**
+         * @param label     quién pidió la conexión (null si no se indicó)
+         * @param waitNanos espera hasta obtenerla, incluida la apertura si hubo que crearla
+         * @param created   true si no había una libre y se abrió una conexión nueva
+         * @return contexto que se entrega en onRelease; si no es null también se cuentan las filas leídas
+         */
+        Object onBorrow(String label, long waitNanos, boolean created);
+
+        /**
+         * @param usage uso de la conexión en este préstamo (contexto, primera SQL, sentencias, filas)
+         */
+        void onRelease(String label, long heldNanos, Usage usage);
+    }
+
+    /**
+     * Lo que hizo quien tomó prestada la conexión, para los eventos de diagnóstico
+     */
+    public static class Usage {
+        Object context;
+        String firstSql;
+        int statements;
+        long rows;
+
+        void reset(Object context) {
+            this.context = context;
+            this.firstSql = null;
+            this.statements = 0;
+            this.rows = 0;
+        }
+
+        public Object getContext() {
+            return context;
+        }
+
+        /**
+         * Primera SQL preparada en el préstamo (null si no se preparó ninguna)
+         */
+        public String getFirstSql() {
+            return firstSql;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        /**
+         * Filas leídas más filas afectadas; solo se cuentan si onBorrow devolvió un contexto
+         */
+        public long getRows() {
+            return rows;
+        }
+    }
+
+    /**
+     * Parámetros del pool (se leen de database.properties con prefijo "pool.")
+     */
+    public static class Config {
+        int minSize = 2;
+        int maxSize = 10;
+        long connectionTimeoutMs = 10_000;
+        int validationTimeoutSec = 3;
+        long maxLifetimeMs = TimeUnit.MINUTES.toMillis(30);
+        long idleTimeoutMs = TimeUnit.MINUTES.toMillis(10);
+        long leakDetectionThresholdMs = 60_000; // 0 = desactivado
+        long evictionIntervalMs = 30_000;
+        int statementCacheSize = 64; // sentencias preparadas por conexión física; 0 = sin caché
+        int warmupRetries = 5; // reintentos por conexión al calentar el pool
+        long warmupBackoffMs = 500; // espera antes del primer reintento; se duplica en cada uno
+        long warmupMaxBackoffMs = 8_000;
+
+        /**
+         * Construye la configuración a partir de las propiedades, usando valores por defecto si faltan
+         */
+        public static Config fromProperties(Properties props) {
+            Config config = new Config();
+            config.minSize = Integer.parseInt(props.getProperty("pool.minSize", String.valueOf(config.minSize)));
+            config.maxSize = Integer.parseInt(props.getProperty("pool.maxSize", String.valueOf(config.maxSize)));
+            config.connectionTimeoutMs = Long.parseLong(props.getProperty("pool.connectionTimeoutMs", String.valueOf(config.connectionTimeoutMs)));
+            config.validationTimeoutSec = Integer.parseInt(props.getProperty("pool.validationTimeoutSec", String.valueOf(config.validationTimeoutSec)));
+            config.maxLifetimeMs = Long.parseLong(props.getProperty("pool.maxLifetimeMs", String.valueOf(config.maxLifetimeMs)));
+            config.idleTimeoutMs = Long.parseLong(props.getProperty("pool.idleTimeoutMs", String.valueOf(config.idleTimeoutMs)));
+            config.leakDetectionThresholdMs = Long.parseLong(props.getProperty("pool.leakDetectionThresholdMs", String.valueOf(config.leakDetectionThresholdMs)));
+            config.evictionIntervalMs = Long.parseLong(props.getProperty("pool.evictionIntervalMs", String.valueOf(config.evictionIntervalMs)));
+            config.statementCacheSize = Integer.parseInt(props.getProperty("pool.statementCacheSize", String.valueOf(config.statementCacheSize)));
+            config.warmupRetries = Integer.parseInt(props.getProperty("pool.warmupRetries", String.valueOf(config.warmupRetries)));
+            config.warmupBackoffMs = Long.parseLong(props.getProperty("pool.warmupBackoffMs", String.valueOf(config.warmupBackoffMs)));
+            config.warmupMaxBackoffMs = Long.parseLong(props.getProperty("pool.warmupMaxBackoffMs", String.valueOf(config.warmupMaxBackoffMs)));
+
+            if (config.maxSize < 1) {
+                throw new IllegalArgumentException("pool.maxSize debe ser mayor que 0");
+            }
+            if (config.minSize < 0 || config.minSize > config.maxSize) {
+                throw new IllegalArgumentException("pool.minSize debe estar entre 0 y pool.maxSize");
+            }
+            return config;
+        }
+
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getStatementCacheSize() {
+            return statementCacheSize;
+        }
+    }
+
+    // Conexiones usadas hace menos de este tiempo no se revalidan al prestarse
+    private static final long VALIDATION_BYPASS_MS = 500;
+    // Mientras el calentamiento abre conexiones, borrow() revisa la cola de libres con esta frecuencia
+    private static final long WARMUP_POLL_MS = 50;
+
+    private final Config config;
+    private final ConnectionFactory factory;
+
+    // Conexiones libres (LIFO: se reutiliza la más reciente, las viejas envejecen y se desalojan)
+    private final LinkedBlockingDeque<PoolEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<PoolEntry> borrowed = ConcurrentHashMap.newKeySet();
+    // Un permiso por conexión prestable: acota el total de conexiones a maxSize
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    // Conexiones del calentamiento que se están abriendo en este momento (no cuenta las esperas de reintento)
+    private final AtomicInteger opening = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    // Estadísticas de las cachés de sentencias de todas las conexiones
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    // Conexiones físicas abiertas: todas y las abiertas al prestar por no haber una libre
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsCreatedOnBorrow = new AtomicLong();
+    private volatile UsageListener usageListener;
+
+    public ConnectionPool(Config config, ConnectionFactory factory) {
+        this.config = config;
+        this.factory = factory;
+        this.permits = new Semaphore(config.maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "finimpact-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evict, config.evictionIntervalMs, config.evictionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre conexiones hasta alcanzar el tamaño mínimo
+     */
+    public void fillToMinimum() throws SQLException {
+        while (!closed && totalConnections.get() + opening.get() < config.minSize) {
+            PoolEntry entry = createEntry();
+            idle.offerLast(entry);
+        }
+    }
+
+    /**
+     * Abre en paralelo, en hilos de fondo, las conexiones que faltan para el mínimo.
+     * Cada conexión queda disponible apenas se abre, sin esperar a las demás; si una falla
+     * se reintenta con espera exponencial (pool.warmupRetries, pool.warmupBackoffMs).
+     *
+     * @return future que termina con la cantidad de conexiones abiertas, o con error si no se abrió ninguna
+     */
+    public CompletableFuture<Integer> warmUp() {
+        int faltantes = config.minSize - totalConnections.get() - opening.get();
+        if (faltantes <= 0 || closed) {
+            return CompletableFuture.completedFuture(0);
+        }
+        List<CompletableFuture<Boolean>> tareas = new ArrayList<>();
+        // Se cuentan antes de lanzar los hilos: un borrow() inmediato ya espera estas conexiones
+        opening.addAndGet(faltantes);
+        for (int i = 0; i < faltantes; i++) {
+            CompletableFuture<Boolean> tarea = new CompletableFuture<>();
+            tareas.add(tarea);
+            Thread.ofPlatform().daemon().name("finimpact-pool-warmup-" + (i + 1)).start(() -> warmUpOne(tarea));
+        }
+        return CompletableFuture.allOf(tareas.toArray(new CompletableFuture<?>[0])).handle((ignorado, error) -> {
+            int abiertas = 0;
+            Throwable ultimoError = null;
+            for (CompletableFuture<Boolean> tarea : tareas) {
+                if (tarea.isCompletedExceptionally()) {
+                    ultimoError = tarea.exceptionNow();
+                } else if (tarea.join()) {
+                    abiertas++;
+                }
+            }
+            if (abiertas == 0 && ultimoError != null) {
+                throw new CompletionException(ultimoError);
+            }
+            return abiertas;
+        });
+    }
+
+    /**
+     * Abre una conexión del calentamiento con reintentos; completa con true, false (pool cerrado
+     * o mínimo ya cubierto) o con la última SQLException si se agotaron los reintentos
+     */
+    private void warmUpOne(CompletableFuture<Boolean> resultado) {
+        long espera = config.warmupBackoffMs;
+        for (int intento = 0; ; intento++) {
+            // El primer intento ya lo contó warmUp()
+            if (intento > 0) {
+                opening.incrementAndGet();
+            }
+            try {
+                if (closed) {
+                    resultado.complete(false);
+                    return;
+                }
+                PoolEntry entry = createEntry();
+                idle.offerLast(entry);
+                resultado.complete(true);
+                return;
+            } catch (SQLException e) {
+                if (intento >= config.warmupRetries) {
+                    System.err.println("❌ No se pudo abrir conexión tras " + (intento + 1) + " intentos: " + e.getMessage());
+                    resultado.completeExceptionally(e);
+                    return;
+                }
+                System.err.println("⚠️ Error abriendo conexión (intento " + (intento + 1) + "), reintento en " + espera + " ms: " + e.getMessage());
+            } catch (RuntimeException e) {
+                resultado.completeExceptionally(e);
+                return;
+            } finally {
+                opening.decrementAndGet();
+            }
+
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resultado.complete(false);
+                return;
+            }
+            espera = Math.min(espera * 2, config.warmupMaxBackoffMs);
+            // Mientras se esperaba, otro préstamo o el desalojo pudo cubrir el mínimo
+            if (totalConnections.get() + opening.get() >= config.minSize) {
+                resultado.complete(false);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Presta una conexión; espera como máximo connectionTimeoutMs antes de fallar
+     */
+    public Connection borrow() throws SQLException {
+        return borrow(null);
+    }
+
+    /**
+     * Igual que borrow(), indicando quién pide la conexión para las métricas de uso
+     */
+    public Connection borrow(String label) throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+
+        long inicio = System.currentTimeMillis();
+        long inicioNanos = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(String.format(
+                    "Timeout esperando conexión del pool tras %d ms (activas=%d, inactivas=%d, en espera=%d, máximo=%d)",
+                    System.currentTimeMillis() - inicio, getActiveCount(), getIdleCount(), getWaitingCount(), config.maxSize));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando conexión del pool", e);
+        }
+
+        try {
+            PoolEntry entry;
+            while ((entry = nextIdle(inicio)) != null) {
+                if (isUsable(entry, true)) {
+                    return lend(entry, label, inicioNanos, false);
+                }
+                discard(entry);
+            }
+            // No hay conexiones libres válidas pero sí un permiso: se puede abrir una nueva
+            connectionsCreatedOnBorrow.incrementAndGet();
+            return lend(createEntry(), label, inicioNanos, true);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Siguiente conexión libre. Si no hay pero el calentamiento está abriendo alguna, la espera
+     * (dentro del timeout) en lugar de abrir otra: la primera que termine se entrega de inmediato.
+     */
+    private PoolEntry nextIdle(long inicio) throws SQLException {
+        PoolEntry entry = idle.pollFirst();
+        try {
+            while (entry == null && opening.get() > 0
+                    && System.currentTimeMillis() - inicio < config.connectionTimeoutMs) {
+                entry = idle.pollFirst(WARMUP_POLL_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando conexión del pool", e);
+        }
+        return entry;
+    }
+
+    /**
+     * Devuelve una conexión física al pool (llamado al cerrar el wrapper)
+     */
+    void release(PoolEntry entry) {
+        borrowed.remove(entry);
+        try {
+            UsageListener listener = usageListener;
+            if (listener != null) {
+                listener.onRelease(entry.borrowLabel, System.nanoTime() - entry.borrowedAtNanos, entry.usage);
+            }
+        } catch (RuntimeException e) {
+            // Un error al medir no puede impedir devolver la conexión y el permiso
+            System.err.println("Error registrando uso de conexión: " + e.getMessage());
+        }
+        try {
+            if (closed || isExpired(entry) || entry.connection.isClosed()) {
+                discard(entry);
+                return;
+            }
+            // Dejar la conexión en estado limpio para el siguiente usuario
+            if (!entry.connection.getAutoCommit()) {
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            entry.lastUsedAt = System.currentTimeMillis();
+            entry.borrowStack = null;
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            System.err.println("Error devolviendo conexión al pool: " + e.getMessage());
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection lend(PoolEntry entry, String label, long inicioNanos, boolean created) {
+        entry.borrowedAt = System.currentTimeMillis();
+        entry.borrowedAtNanos = System.nanoTime();
+        entry.borrowLabel = label;
+        entry.createdOnBorrow = created;
+        UsageListener listener = usageListener;
+        entry.usage.reset(listener != null ? listener.onBorrow(label, entry.borrowedAtNanos - inicioNanos, created) : null);
+        entry.leakReported = false;
+        if (config.leakDetectionThresholdMs > 0) {
+            entry.borrowStack = new Throwable("Conexión tomada del pool por " + Thread.currentThread().getName());
+        }
+        borrowed.add(entry);
+        return new PooledConnection(entry, this);
+    }
+
+    private PoolEntry createEntry() throws SQLException {
+        Connection connection = factory.create();
+        totalConnections.incrementAndGet();
+        connectionsCreated.incrementAndGet();
+        return new PoolEntry(connection, new StatementCache(config.statementCacheSize, this));
+    }
+
+    private boolean isUsable(PoolEntry entry, boolean onBorrow) {
+        if (isExpired(entry)) {
+            return false;
+        }
+        try {
+            if (entry.connection.isClosed()) {
+                return false;
+            }
+            if (onBorrow && System.currentTimeMillis() - entry.lastUsedAt < VALIDATION_BYPASS_MS) {
+                return true;
+            }
+            return entry.connection.isValid(config.validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PoolEntry entry) {
+        return config.maxLifetimeMs > 0 && System.currentTimeMillis() - entry.createdAt > config.maxLifetimeMs;
+    }
+
+    private void discard(PoolEntry entry) {
+        totalConnections.decrementAndGet();
+        entry.statements.closeAll();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error cerrando conexión del pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tarea periódica: valida y desaloja conexiones inactivas, repone el mínimo y reporta fugas
+     */
+    private void evict() {
+        if (closed) {
+            return;
+        }
+        try {
+            long ahora = System.currentTimeMillis();
+            for (PoolEntry entry : idle.toArray(new PoolEntry[0])) {
+                boolean ociosa = config.idleTimeoutMs > 0 && ahora - entry.lastUsedAt > config.idleTimeoutMs
+                        && totalConnections.get() > config.minSize;
+                if (ociosa) {
+                    if (idle.remove(entry)) {
+                        discard(entry);
+                    }
+                    continue;
+                }
+                // Se valida fuera de idle y con un permiso, como un préstamo: ningún borrow() la recibe
+                // mientras tanto ni abre otra conexión en su lugar
+                if (!permits.tryAcquire()) {
+                    break;
+                }
+                try {
+                    if (!idle.remove(entry)) {
+                        continue;
+                    }
+                    if (isUsable(entry, false)) {
+                        idle.offerLast(entry);
+                    } else {
+                        discard(entry);
+                    }
+                } finally {
+                    permits.release();
+                }
+            }
+
+            fillToMinimum();
+
+            if (config.leakDetectionThresholdMs > 0) {
+                for (PoolEntry entry : borrowed) {
+                    Throwable stack = entry.borrowStack;
+                    if (!entry.leakReported && stack != null && ahora - entry.borrowedAt > config.leakDetectionThresholdMs) {
+                        entry.leakReported = true;
+                        System.err.println("⚠️ Posible fuga de conexión: prestada hace " + (ahora - entry.borrowedAt) + " ms sin devolverse");
+                        stack.printStackTrace();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reponiendo conexiones del pool: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error en tarea de mantenimiento del pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra el pool: detiene el desalojo y cierra las conexiones libres.
+     * Las conexiones prestadas se cierran al devolverse.
+     */
+    public void shutdown() {
+        closed = true;
+        evictor.shutdownNow();
+        PoolEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public void setUsageListener(UsageListener usageListener) {
+        this.usageListener = usageListener;
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated.get();
+    }
+
+    /**
+     * Conexiones abiertas durante un préstamo porque no había ninguna libre (el mínimo no alcanzó)
+     */
+    public long getConnectionsCreatedOnBorrow() {
+        return connectionsCreatedOnBorrow.get();
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.incrementAndGet();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.incrementAndGet();
+    }
+
+    void recordStatementCacheEviction() {
+        statementCacheEvictions.incrementAndGet();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions.get();
+    }
+
+    /**
+     * Resumen de la caché de sentencias para los logs
+     */
+    public String getStatementCacheStats() {
+        long hits = statementCacheHits.get();
+        long total = hits + statementCacheMisses.get();
+        return String.format("sentencias: aciertos=%d, fallos=%d, desalojos=%d, tasa=%.1f%%",
+                hits, total - hits, statementCacheEvictions.get(), total == 0 ? 0.0 : hits * 100.0 / total);
+    }
+
+    /**
+     * Conexión física y sus metadatos dentro del pool
+     */
+    static class PoolEntry {
+        final Connection connection;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsedAt = createdAt;
+        volatile long borrowedAt;
+        volatile long borrowedAtNanos;
+        volatile String borrowLabel;
+        volatile boolean createdOnBorrow;
+        // Solo lo usa el hilo que tiene la conexión prestada
+        final Usage usage = new Usage();
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+        final StatementCache statements;
+
+        PoolEntry(Connection connection, StatementCache statements) {
+            this.connection = connection;
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.juank.utp.finimpact.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV por streaming: devuelve una fila a la vez sin cargar el archivo en memoria.
+ * Soporta campos entre comillas (con comillas dobles escapadas y saltos de línea) y
+ * detecta el separador (',' o ';', habitual en Excel en español) a partir de la primera línea.
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    private char separador;
+    private boolean separadorDetectado;
+    private int numeroLinea;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Lee la siguiente fila; null al final del archivo. Las líneas vacías se omiten.
+     */
+    public List<String> leerFila() throws IOException {
+        String linea = reader.readLine();
+        while (linea != null && linea.isBlank()) {
+            numeroLinea++;
+            linea = reader.readLine();
+        }
+        if (linea == null) {
+            return null;
+        }
+        numeroLinea++;
+        if (numeroLinea == 1 && !linea.isEmpty() && linea.charAt(0) == '\uFEFF') {
+            linea = linea.substring(1); // BOM de archivos guardados desde Excel
+        }
+        if (!separadorDetectado) {
+            separador = contar(linea, ';') > contar(linea, ',') ? ';' : ',';
+            separadorDetectado = true;
+        }
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        int i = 0;
+        while (true) {
+            if (i == linea.length()) {
+                if (entreComillas) {
+                    // Campo entre comillas que continúa en la siguiente línea
+                    String siguiente = reader.readLine();
+                    if (siguiente == null) {
+                        throw new IOException("Comillas sin cerrar en la línea " + numeroLinea);
+                    }
+                    numeroLinea++;
+                    campo.append('\n');
+                    linea = siguiente;
+                    i = 0;
+                    continue;
+                }
+                break;
+            }
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+            i++;
+        }
+        campos.add(campo.toString().trim());
+        return campos;
+    }
+
+    /**
+     * Número de la última línea leída del archivo (1 = encabezado), para reportar errores
+     */
+    public int getNumeroLinea() {
+        return numeroLinea;
+    }
+
+    public char getSeparador() {
+        return separador;
+    }
+
+    private static int contar(String texto, char caracter) {
+        int cantidad = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == caracter) cantidad++;
+        }
+        return cantidad;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.juank.utp.finimpact.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escritor CSV por streaming: cada fila se escribe al buffer apenas se recibe.
+ * Por defecto usa ';' y BOM UTF-8 para que Excel en español abra el archivo directamente.
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+    /**
+     * Avance de una exportación: filas escritas hasta el momento
+     */
+    @FunctionalInterface
+    public interface Progreso {
+        void filasEscritas(long filas);
+    }
+
+    public static final char SEPARADOR_EXCEL = ';';
+
+    private final Writer writer;
+    private final char separador;
+
+    public CsvWriter(Writer writer) {
+        this(writer, SEPARADOR_EXCEL);
+    }
+
+    public CsvWriter(Writer writer, char separador) {
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, 64 * 1024);
+        this.separador = separador;
+    }
+
+    /**
+     * Marca de orden de bytes para que Excel detecte UTF-8 (tildes y ñ); debe ir antes de la primera fila
+     */
+    public void escribirBom() throws IOException {
+        writer.write('\uFEFF');
+    }
+
+    /**
+     * Escribe una fila; null se escribe como campo vacío
+     */
+    public void escribirFila(String... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(separador);
+            }
+            escribirCampo(valores[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void escribirCampo(String valor) throws IOException {
+        if (valor == null || valor.isEmpty()) {
+            return;
+        }
+        boolean requiereComillas = valor.indexOf(separador) >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0;
+        if (!requiereComillas) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
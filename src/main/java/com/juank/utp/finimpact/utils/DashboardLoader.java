@@ -0,0 +1,109 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.model.DashboardResumen;
+import com.juank.utp.finimpact.model.DashboardSnapshot;
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.model.Usuario;
+import com.juank.utp.finimpact.repository.DashboardRepository;
+import com.juank.utp.finimpact.repository.IniciativaRepository;
+import com.juank.utp.finimpact.repository.UsuarioRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Carga del dashboard en background: lanza en paralelo las consultas de filtros y de agregados
+ * y las combina en un único DashboardSnapshot
+ */
+public class DashboardLoader {
+
+    private final DashboardRepository dashboardRepository = new DashboardRepository();
+    private final IniciativaRepository iniciativaRepository = new IniciativaRepository();
+    private final UsuarioRepository usuarioRepository = new UsuarioRepository();
+
+    /**
+     * Inicia la carga sin bloquear el hilo que llama.
+     *
+     * @param usuario         usuario en sesión (define qué iniciativas y usuarios se ofrecen en los filtros)
+     * @param filtro          filtro de los agregados; null = selección sin resultados
+     * @param incluirFiltros  si también se cargan las listas para los combos de filtro
+     */
+    public CompletableFuture<DashboardSnapshot> cargar(Usuario usuario, DashboardRepository.Filtro filtro, boolean incluirFiltros) {
+        long inicio = System.nanoTime();
+        EventosJfr.FaseDashboard total = new EventosJfr.FaseDashboard();
+        total.begin();
+        boolean esAnalista = usuario != null && "analista".equals(usuario.getRol());
+        DashboardResumen resumen = new DashboardResumen();
+
+        // Agregados: cada consulta llena campos distintos del mismo resumen
+        List<CompletableFuture<?>> consultas = new ArrayList<>();
+        CompletableFuture<Void> agregados;
+        if (filtro != null) {
+            consultas.add(AsyncTaskManager.supplyAsync("dashboard-iniciativas", fase("iniciativas", incluirFiltros, () -> { dashboardRepository.cargarResumenIniciativas(filtro, resumen); return null; })));
+            consultas.add(AsyncTaskManager.supplyAsync("dashboard-impactos-tipo", fase("impactos por tipo", incluirFiltros, () -> { dashboardRepository.cargarResumenImpactosPorTipo(filtro, resumen); return null; })));
+            consultas.add(AsyncTaskManager.supplyAsync("dashboard-impacto-mensual", fase("impacto mensual", incluirFiltros, () -> { dashboardRepository.cargarImpactoMensual(filtro, resumen); return null; })));
+            agregados = CompletableFuture.allOf(consultas.toArray(new CompletableFuture<?>[0]));
+        } else {
+            agregados = CompletableFuture.completedFuture(null);
+        }
+
+        // Listas para los combos de filtro
+        CompletableFuture<List<Iniciativa>> iniciativas = CompletableFuture.completedFuture(null);
+        CompletableFuture<List<Usuario>> usuarios = CompletableFuture.completedFuture(null);
+        if (incluirFiltros && usuario != null) {
+            iniciativas = AsyncTaskManager.supplyAsync("dashboard-filtro-iniciativas", fase("filtro iniciativas", true, () -> esAnalista
+                    ? iniciativaRepository.findByOwner(usuario.getIdUsuario())
+                    : iniciativaRepository.findAll()));
+            consultas.add(iniciativas);
+            if (!esAnalista) {
+                usuarios = AsyncTaskManager.supplyAsync("dashboard-filtro-usuarios", fase("filtro usuarios", true, usuarioRepository::findAll));
+                consultas.add(usuarios);
+            }
+        }
+
+        CompletableFuture<List<Iniciativa>> iniciativasFinal = iniciativas;
+        CompletableFuture<DashboardSnapshot> snapshot = agregados
+                .thenCombine(usuarios, (ignorado, listaUsuarios) -> listaUsuarios)
+                .thenCombine(iniciativasFinal, (listaUsuarios, listaIniciativas) ->
+                        new DashboardSnapshot(resumen, listaIniciativas, listaUsuarios));
+
+        // Cancelar la carga completa cancela las consultas que aún no terminaron
+        snapshot.whenComplete((valor, error) -> {
+            if (snapshot.isCancelled()) {
+                consultas.forEach(consulta -> consulta.cancel(false));
+            } else if (error == null) {
+                total.end();
+                if (total.shouldCommit()) {
+                    total.fase = "total";
+                    total.incluyeFiltros = incluirFiltros;
+                    total.commit();
+                }
+                Metricas.registrarTiempo(incluirFiltros ? "dashboard.cargaCompleta" : "dashboard.carga", System.nanoTime() - inicio);
+                Metricas.registrarValor("dashboard.impactos", valor.getResumen().getCantidadImpactos());
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Envuelve una consulta del dashboard en un evento JFR de fase
+     */
+    private static <T> Supplier<T> fase(String nombre, boolean incluirFiltros, Supplier<T> consulta) {
+        return () -> {
+            EventosJfr.FaseDashboard evento = new EventosJfr.FaseDashboard();
+            evento.begin();
+            try {
+                return consulta.get();
+            } finally {
+                evento.end();
+                if (evento.shouldCommit()) {
+                    evento.fase = nombre;
+                    evento.incluyeFiltros = incluirFiltros;
+                    evento.commit();
+                }
+            }
+        };
+    }
+}
@@ -4,11 +4,10 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.io.InputStream;
 import java.io.IOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Configuración de conexión a la base de datos SQL Server con pool de conexiones
@@ -22,16 +21,21 @@ public class DatabaseConfig {
     private static String PASSWORD;
     private static String CONNECTION_URL;
 
-    // Pool de conexiones
-    private static final int MAX_CONNECTIONS = 5;
-    private static final BlockingQueue<Connection> connectionPool = new LinkedBlockingQueue<>();
-    private static volatile boolean poolInitialized = false;
+    private static final StackWalker LLAMADOR = StackWalker.getInstance();
+    private static final String CONSULTA_FILAS = "com.juank.utp.finimpact.repository.ConsultaFilas";
+
+    // Pool de conexiones (tamaños y tiempos configurables con las claves "pool.*")
+    private static ConnectionPool connectionPool;
+    // Termina cuando el calentamiento abrió el mínimo de conexiones (o falla si no abrió ninguna)
+    private static CompletableFuture<ConnectionPool> poolListo;
+    // Motivo por el que no se pudo configurar el pool; getConnection() lo informa en lugar de romper la clase
+    private static String errorConfiguracion;
 
     static {
         Properties props = new Properties();
         try (InputStream input = DatabaseConfig.class.getClassLoader().getResourceAsStream("database.properties")) {
             if (input == null) {
-                throw new RuntimeException("No se encontró el archivo database.properties en resources");
+                throw new IOException("No se encontró el archivo database.properties en resources");
             }
             props.load(input);
             SERVER = props.getProperty("server");
@@ -39,38 +43,116 @@ public class DatabaseConfig {
             DATABASE_NAME = props.getProperty("database");
             USERNAME = props.getProperty("username");
             PASSWORD = props.getProperty("password");
-            CONNECTION_URL = String.format(
+            // "url" permite apuntar a otra base (p. ej. H2 en memoria para los benchmarks)
+            CONNECTION_URL = props.getProperty("url", String.format(
                 "jdbc:sqlserver://%s:%s;databaseName=%s;encrypt=false;trustServerCertificate=true;loginTimeout=10",
                 SERVER, PORT, DATABASE_NAME
-            );
+            ));
 
-            // Inicializar el pool
-            initializePool();
+            // Inicializar el pool (las conexiones se abren en segundo plano)
+            initializePool(ConnectionPool.Config.fromProperties(props));
 
-        } catch (IOException e) {
-            throw new RuntimeException("Error cargando database.properties", e);
+        } catch (IOException | RuntimeException e) {
+            errorConfiguracion = e.getMessage();
+            System.err.println("❌ Error cargando database.properties: " + e.getMessage());
+            poolListo = CompletableFuture.failedFuture(e);
         }
     }
 
     /**
-     * Inicializa el pool de conexiones
+     * Crea el pool y lanza el calentamiento en paralelo sin bloquear a quien inicializa la clase
+     * (a menudo el hilo de UI). Las consultas pueden empezar antes de que termine: reciben la
+     * primera conexión que quede abierta.
      */
-    private static synchronized void initializePool() {
-        if (!poolInitialized) {
-            try {
-                for (int i = 0; i < MAX_CONNECTIONS; i++) {
-                    Connection conn = createConnection();
-                    connectionPool.offer(conn);
+    private static synchronized void initializePool(ConnectionPool.Config config) {
+        connectionPool = new ConnectionPool(config, DatabaseConfig::createConnection);
+        registrarMetricas(connectionPool);
+        long inicio = System.currentTimeMillis();
+        poolListo = connectionPool.warmUp().handle((abiertas, error) -> {
+            if (error != null) {
+                Throwable causa = error.getCause() != null ? error.getCause() : error;
+                System.err.println("❌ Error inicializando pool de conexiones: " + causa.getMessage());
+                throw new CompletionException(causa);
+            }
+            System.out.println("✅ Pool de conexiones inicializado en " + (System.currentTimeMillis() - inicio) +
+                    " ms (mínimo " + config.getMinSize() + ", máximo " + config.getMaxSize() + ")");
+            return connectionPool;
+        });
+    }
+
+    /**
+     * Indicadores del pool y tiempos de préstamo: cada conexión se mide desde que se pide hasta
+     * que se devuelve, con el nombre del método que la pidió (métrica jdbc.Clase.metodo y evento JFR)
+     */
+    private static void registrarMetricas(ConnectionPool pool) {
+        Metricas.registrarIndicador("pool.activas", pool::getActiveCount);
+        Metricas.registrarIndicador("pool.inactivas", pool::getIdleCount);
+        Metricas.registrarIndicador("pool.enEspera", pool::getWaitingCount);
+        Metricas.registrarIndicador("pool.total", pool::getTotalCount);
+        Metricas.registrarIndicador("pool.creadas", pool::getConnectionsCreated);
+        Metricas.registrarIndicador("pool.creadasAlPrestar", pool::getConnectionsCreatedOnBorrow);
+        Metricas.registrarIndicador("pool.sentencias.aciertos", pool::getStatementCacheHits);
+        Metricas.registrarIndicador("pool.sentencias.fallos", pool::getStatementCacheMisses);
+        pool.setUsageListener(new UsoConexiones());
+    }
+
+    /**
+     * Registra cada préstamo en las métricas y, si hay una grabación JFR activa, como evento Consulta
+     */
+    private static class UsoConexiones implements ConnectionPool.UsageListener {
+        @Override
+        public Object onBorrow(String label, long waitNanos, boolean created) {
+            Metricas.registrarTiempo("pool.espera", waitNanos);
+            EventosJfr.Consulta evento = new EventosJfr.Consulta();
+            if (!evento.isEnabled()) {
+                return null;
+            }
+            evento.begin();
+            return evento;
+        }
+
+        @Override
+        public void onRelease(String label, long heldNanos, ConnectionPool.Usage usage) {
+            if (label != null) {
+                Metricas.registrarTiempo("jdbc." + label, heldNanos);
+            }
+            if (usage.getContext() instanceof EventosJfr.Consulta) {
+                EventosJfr.Consulta evento = (EventosJfr.Consulta) usage.getContext();
+                evento.end();
+                if (evento.shouldCommit()) {
+                    String sql = usage.getFirstSql();
+                    evento.metodo = label;
+                    evento.sql = sql;
+                    evento.sqlId = sql != null ? Integer.toHexString(sql.hashCode()) : null;
+                    evento.sentencias = usage.getStatements();
+                    evento.filas = usage.getRows();
+                    evento.commit();
                 }
-                poolInitialized = true;
-                System.out.println("✅ Pool de conexiones inicializado con " + MAX_CONNECTIONS + " conexiones");
-            } catch (SQLException e) {
-                System.err.println("❌ Error inicializando pool de conexiones: " + e.getMessage());
-                throw new RuntimeException("Error inicializando pool de conexiones", e);
             }
         }
     }
 
+    /**
+     * Clase y método que llamó a getConnection(), p. ej. "ImpactoRepository.findAll"
+     */
+    private static String etiquetaLlamador() {
+        // Los métodos de ConsultaFilas piden la conexión en nombre del repositorio que los llamó
+        return LLAMADOR.walk(frames -> frames.skip(2)
+                        .dropWhile(frame -> frame.getClassName().equals(CONSULTA_FILAS))
+                        .findFirst())
+                .map(frame -> {
+                    String clase = frame.getClassName();
+                    String metodo = frame.getMethodName();
+                    // Las lambdas se llaman lambda$metodo$N: se atribuyen al método que las contiene
+                    if (metodo.startsWith("lambda$")) {
+                        int fin = metodo.indexOf('$', 7);
+                        metodo = metodo.substring(7, fin > 0 ? fin : metodo.length());
+                    }
+                    return clase.substring(clase.lastIndexOf('.') + 1) + "." + metodo;
+                })
+                .orElse(null);
+    }
+
     /**
      * Crea una nueva conexión
      */
@@ -79,32 +161,41 @@ public class DatabaseConfig {
     }
 
     /**
-     * Obtiene una conexión del pool
+     * Obtiene una conexión del pool.
+     * Si no hay una disponible antes del timeout configurado lanza SQLTransientConnectionException.
      */
     public static Connection getConnection() throws SQLException {
-        try {
-            Connection conn = connectionPool.poll(5, TimeUnit.SECONDS);
-            if (conn == null || conn.isClosed()) {
-                // Si no hay conexiones disponibles o está cerrada, crear una nueva
-                System.out.println("⚠️ Creando nueva conexión - pool agotado o conexión cerrada");
-                return createConnection();
-            }
-            return new PooledConnection(conn);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new SQLException("Timeout obteniendo conexión del pool", e);
-        }
+        if (connectionPool == null) {
+            throw new SQLException("Base de datos no configurada: " + errorConfiguracion);
+        }
+        EventosJfr.ObtenerConexion evento = new EventosJfr.ObtenerConexion();
+        String etiqueta = Metricas.isActivo() || evento.isEnabled() ? etiquetaLlamador() : null;
+        evento.begin();
+        Connection conexion = connectionPool.borrow(etiqueta);
+        if (evento.shouldCommit()) {
+            evento.metodo = etiqueta;
+            evento.conexionNueva = ((PooledConnection) conexion).isCreatedOnBorrow();
+            evento.enEspera = connectionPool.getWaitingCount();
+            evento.commit();
+        }
+        return conexion;
+    }
+
+    /**
+     * Future que termina cuando el pool abrió su mínimo de conexiones.
+     * Falla si no se pudo abrir ninguna; el pool sigue reintentando en su tarea de mantenimiento.
+     */
+    public static CompletableFuture<ConnectionPool> listo() {
+        return poolListo;
     }
 
     /**
-     * Devuelve una conexión al pool
+     * Devuelve una conexión al pool (equivalente a cerrarla)
      */
     public static void returnConnection(Connection conn) {
         if (conn != null) {
             try {
-                if (!conn.isClosed()) {
-                    connectionPool.offer(conn);
-                }
+                conn.close();
             } catch (SQLException e) {
                 System.err.println("Error devolviendo conexión al pool: " + e.getMessage());
             }
@@ -112,308 +203,21 @@ public class DatabaseConfig {
     }
 
     /**
-     * Wrapper para conexiones del pool que las devuelve automáticamente al cerrar
+     * Obtiene el pool para consultar su estado (activas, inactivas, en espera);
+     * null si database.properties no se pudo cargar
      */
-    private static class PooledConnection implements Connection {
-        private final Connection actualConnection;
-        private boolean closed = false;
-
-        public PooledConnection(Connection actualConnection) {
-            this.actualConnection = actualConnection;
-        }
-
-        @Override
-        public void close() throws SQLException {
-            if (!closed) {
-                closed = true;
-                returnConnection(actualConnection);
-            }
-        }
-
-        // Delegar todos los métodos a la conexión real
-        @Override
-        public java.sql.Statement createStatement() throws SQLException {
-            return actualConnection.createStatement();
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql) throws SQLException {
-            return actualConnection.prepareStatement(sql);
-        }
-
-        @Override
-        public java.sql.CallableStatement prepareCall(String sql) throws SQLException {
-            return actualConnection.prepareCall(sql);
-        }
-
-        @Override
-        public String nativeSQL(String sql) throws SQLException {
-            return actualConnection.nativeSQL(sql);
-        }
-
-        @Override
-        public void setAutoCommit(boolean autoCommit) throws SQLException {
-            actualConnection.setAutoCommit(autoCommit);
-        }
-
-        @Override
-        public boolean getAutoCommit() throws SQLException {
-            return actualConnection.getAutoCommit();
-        }
-
-        @Override
-        public void commit() throws SQLException {
-            actualConnection.commit();
-        }
-
-        @Override
-        public void rollback() throws SQLException {
-            actualConnection.rollback();
-        }
-
-        @Override
-        public boolean isClosed() throws SQLException {
-            return closed || actualConnection.isClosed();
-        }
-
-        @Override
-        public java.sql.DatabaseMetaData getMetaData() throws SQLException {
-            return actualConnection.getMetaData();
-        }
-
-        @Override
-        public void setReadOnly(boolean readOnly) throws SQLException {
-            actualConnection.setReadOnly(readOnly);
-        }
-
-        @Override
-        public boolean isReadOnly() throws SQLException {
-            return actualConnection.isReadOnly();
-        }
-
-        @Override
-        public void setCatalog(String catalog) throws SQLException {
-            actualConnection.setCatalog(catalog);
-        }
-
-        @Override
-        public String getCatalog() throws SQLException {
-            return actualConnection.getCatalog();
-        }
-
-        @Override
-        public void setTransactionIsolation(int level) throws SQLException {
-            actualConnection.setTransactionIsolation(level);
-        }
-
-        @Override
-        public int getTransactionIsolation() throws SQLException {
-            return actualConnection.getTransactionIsolation();
-        }
-
-        @Override
-        public java.sql.SQLWarning getWarnings() throws SQLException {
-            return actualConnection.getWarnings();
-        }
-
-        @Override
-        public void clearWarnings() throws SQLException {
-            actualConnection.clearWarnings();
-        }
-
-        @Override
-        public java.sql.Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
-            return actualConnection.createStatement(resultSetType, resultSetConcurrency);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-            return actualConnection.prepareStatement(sql, resultSetType, resultSetConcurrency);
-        }
-
-        @Override
-        public java.sql.CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-            return actualConnection.prepareCall(sql, resultSetType, resultSetConcurrency);
-        }
-
-        @Override
-        public java.util.Map<String, Class<?>> getTypeMap() throws SQLException {
-            return actualConnection.getTypeMap();
-        }
-
-        @Override
-        public void setTypeMap(java.util.Map<String, Class<?>> map) throws SQLException {
-            actualConnection.setTypeMap(map);
-        }
-
-        @Override
-        public void setHoldability(int holdability) throws SQLException {
-            actualConnection.setHoldability(holdability);
-        }
-
-        @Override
-        public int getHoldability() throws SQLException {
-            return actualConnection.getHoldability();
-        }
-
-        @Override
-        public java.sql.Savepoint setSavepoint() throws SQLException {
-            return actualConnection.setSavepoint();
-        }
-
-        @Override
-        public java.sql.Savepoint setSavepoint(String name) throws SQLException {
-            return actualConnection.setSavepoint(name);
-        }
-
-        @Override
-        public void rollback(java.sql.Savepoint savepoint) throws SQLException {
-            actualConnection.rollback(savepoint);
-        }
-
-        @Override
-        public void releaseSavepoint(java.sql.Savepoint savepoint) throws SQLException {
-            actualConnection.releaseSavepoint(savepoint);
-        }
-
-        @Override
-        public java.sql.Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-            return actualConnection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-            return actualConnection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
-        }
-
-        @Override
-        public java.sql.CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-            return actualConnection.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-            return actualConnection.prepareStatement(sql, autoGeneratedKeys);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
-            return actualConnection.prepareStatement(sql, columnIndexes);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
-            return actualConnection.prepareStatement(sql, columnNames);
-        }
-
-        @Override
-        public java.sql.Clob createClob() throws SQLException {
-            return actualConnection.createClob();
-        }
-
-        @Override
-        public java.sql.Blob createBlob() throws SQLException {
-            return actualConnection.createBlob();
-        }
-
-        @Override
-        public java.sql.NClob createNClob() throws SQLException {
-            return actualConnection.createNClob();
-        }
-
-        @Override
-        public java.sql.SQLXML createSQLXML() throws SQLException {
-            return actualConnection.createSQLXML();
-        }
-
-        @Override
-        public boolean isValid(int timeout) throws SQLException {
-            return actualConnection.isValid(timeout);
-        }
-
-        @Override
-        public void setClientInfo(String name, String value) throws java.sql.SQLClientInfoException {
-            actualConnection.setClientInfo(name, value);
-        }
-
-        @Override
-        public void setClientInfo(Properties properties) throws java.sql.SQLClientInfoException {
-            actualConnection.setClientInfo(properties);
-        }
-
-        @Override
-        public String getClientInfo(String name) throws SQLException {
-            return actualConnection.getClientInfo(name);
-        }
-
-        @Override
-        public Properties getClientInfo() throws SQLException {
-            return actualConnection.getClientInfo();
-        }
-
-        @Override
-        public java.sql.Array createArrayOf(String typeName, Object[] elements) throws SQLException {
-            return actualConnection.createArrayOf(typeName, elements);
-        }
-
-        @Override
-        public java.sql.Struct createStruct(String typeName, Object[] attributes) throws SQLException {
-            return actualConnection.createStruct(typeName, attributes);
-        }
-
-        @Override
-        public void setSchema(String schema) throws SQLException {
-            actualConnection.setSchema(schema);
-        }
-
-        @Override
-        public String getSchema() throws SQLException {
-            return actualConnection.getSchema();
-        }
-
-        @Override
-        public void abort(java.util.concurrent.Executor executor) throws SQLException {
-            actualConnection.abort(executor);
-        }
-
-        @Override
-        public void setNetworkTimeout(java.util.concurrent.Executor executor, int milliseconds) throws SQLException {
-            actualConnection.setNetworkTimeout(executor, milliseconds);
-        }
-
-        @Override
-        public int getNetworkTimeout() throws SQLException {
-            return actualConnection.getNetworkTimeout();
-        }
-
-        @Override
-        public <T> T unwrap(Class<T> iface) throws SQLException {
-            return actualConnection.unwrap(iface);
-        }
-
-        @Override
-        public boolean isWrapperFor(Class<?> iface) throws SQLException {
-            return actualConnection.isWrapperFor(iface);
-        }
+    public static ConnectionPool getPool() {
+        return connectionPool;
     }
 
     /**
      * Cierra todas las conexiones del pool
      */
     public static void closePool() {
-        Connection conn;
-        while ((conn = connectionPool.poll()) != null) {
-            try {
-                if (conn instanceof PooledConnection) {
-                    // Obtener la conexión real
-                    conn = ((PooledConnection) conn).actualConnection;
-                }
-                conn.close();
-            } catch (SQLException e) {
-                System.err.println("Error cerrando conexión del pool: " + e.getMessage());
-            }
+        if (connectionPool == null) {
+            return;
         }
-        poolInitialized = false;
+        connectionPool.shutdown();
         System.out.println("🔒 Pool de conexiones cerrado");
     }
 }
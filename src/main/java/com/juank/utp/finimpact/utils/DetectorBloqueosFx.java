@@ -0,0 +1,94 @@
+package com.juank.utp.finimpact.utils;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detecta bloqueos del hilo de UI: cada INTERVALO_MS envía un latido con Platform.runLater y mide
+ * cuánto tarda en ejecutarse. Si un latido no se atiende en el umbral (finimpact.fx.umbralBloqueoMs,
+ * 250 ms por defecto) se imprime la pila del hilo de UI mientras sigue bloqueado, que es lo que
+ * muestra la causa. La demora de cada latido queda en la métrica fx.latencia.
+ */
+public class DetectorBloqueosFx {
+
+    private static final long INTERVALO_MS = 100;
+    private static final long UMBRAL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("finimpact.fx.umbralBloqueoMs", 250));
+    private static final int MAXIMO_FRAMES = 25;
+
+    private static ScheduledExecutorService vigilante;
+    private static volatile Thread hiloFx;
+    // Momento en que se envió el latido que aún no se atendió (0 = ninguno pendiente)
+    private static volatile long latidoPendienteDesde;
+    private static volatile boolean bloqueoReportado;
+
+    private DetectorBloqueosFx() {
+    }
+
+    /**
+     * Empieza a vigilar; llamar desde el hilo de UI
+     */
+    public static synchronized void iniciar() {
+        if (vigilante != null || !Metricas.isActivo()) {
+            return;
+        }
+        hiloFx = Thread.currentThread();
+        vigilante = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "finimpact-vigilante-fx");
+            thread.setDaemon(true);
+            return thread;
+        });
+        vigilante.scheduleWithFixedDelay(DetectorBloqueosFx::revisar, INTERVALO_MS, INTERVALO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void detener() {
+        if (vigilante != null) {
+            vigilante.shutdownNow();
+            vigilante = null;
+        }
+    }
+
+    private static void revisar() {
+        long pendiente = latidoPendienteDesde;
+        long ahora = System.nanoTime();
+        if (pendiente == 0) {
+            latidoPendienteDesde = ahora;
+            bloqueoReportado = false;
+            Platform.runLater(() -> latido(ahora));
+            return;
+        }
+        if (!bloqueoReportado && ahora - pendiente >= UMBRAL_NANOS) {
+            bloqueoReportado = true;
+            reportarPila((ahora - pendiente) / 1_000_000);
+        }
+    }
+
+    private static void latido(long enviado) {
+        long demora = System.nanoTime() - enviado;
+        Metricas.registrarTiempo("fx.latencia", demora);
+        if (demora >= UMBRAL_NANOS) {
+            Metricas.incrementar("fx.bloqueos");
+            EventosJfr.BloqueoUi evento = new EventosJfr.BloqueoUi();
+            evento.demora = demora;
+            evento.commit();
+            System.err.println("⚠️ Hilo de UI estuvo bloqueado " + demora / 1_000_000 + " ms");
+        }
+        latidoPendienteDesde = 0;
+    }
+
+    private static void reportarPila(long bloqueadoMs) {
+        Thread hilo = hiloFx;
+        if (hilo == null) {
+            return;
+        }
+        StringBuilder texto = new StringBuilder("⚠️ Hilo de UI bloqueado hace ")
+                .append(bloqueadoMs).append(" ms, ejecutando:");
+        StackTraceElement[] pila = hilo.getStackTrace();
+        for (int i = 0; i < Math.min(pila.length, MAXIMO_FRAMES); i++) {
+            texto.append("\n\tat ").append(pila[i]);
+        }
+        System.err.println(texto);
+    }
+}
@@ -0,0 +1,92 @@
+package com.juank.utp.finimpact.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Eventos de JDK Flight Recorder de la aplicación. Con una grabación activa (GrabacionJfr o
+ * -XX:StartFlightRecording) quedan junto a los eventos de la JVM, así en JMC se ve qué consulta
+ * o qué fase del dashboard coincidió con cada pausa. Sin grabación su costo es casi nulo.
+ */
+public class EventosJfr {
+
+    private EventosJfr() {
+    }
+
+    /**
+     * Uso de una conexión por un método de repositorio, desde que se pide hasta que se devuelve
+     */
+    @Name("com.juank.utp.finimpact.Consulta")
+    @Label("Consulta de repositorio")
+    @Category({"FinImpact", "JDBC"})
+    @StackTrace(false)
+    public static class Consulta extends Event {
+        @Label("Método")
+        public String metodo;
+
+        @Label("SQL ID")
+        @Description("Hash de la primera SQL preparada; agrupa ejecuciones de la misma sentencia")
+        public String sqlId;
+
+        @Label("SQL")
+        public String sql;
+
+        @Label("Sentencias")
+        public int sentencias;
+
+        @Label("Filas")
+        @Description("Filas leídas más filas afectadas por las sentencias en caché del préstamo")
+        public long filas;
+    }
+
+    /**
+     * Espera de DatabaseConfig.getConnection() hasta obtener una conexión del pool
+     */
+    @Name("com.juank.utp.finimpact.ObtenerConexion")
+    @Label("Obtener conexión")
+    @Category({"FinImpact", "JDBC"})
+    public static class ObtenerConexion extends Event {
+        @Label("Método")
+        public String metodo;
+
+        @Label("Conexión nueva")
+        @Description("No había una conexión libre y se abrió una conexión física durante el préstamo")
+        public boolean conexionNueva;
+
+        @Label("Esperando en el pool")
+        public int enEspera;
+    }
+
+    /**
+     * Fase de la carga del dashboard (consultas en paralelo y publicación en el hilo de UI)
+     */
+    @Name("com.juank.utp.finimpact.FaseDashboard")
+    @Label("Fase del dashboard")
+    @Category({"FinImpact", "Dashboard"})
+    @StackTrace(false)
+    public static class FaseDashboard extends Event {
+        @Label("Fase")
+        public String fase;
+
+        @Label("Filtros incluidos")
+        public boolean incluyeFiltros;
+    }
+
+    /**
+     * Bloqueo del hilo de UI detectado por DetectorBloqueosFx
+     */
+    @Name("com.juank.utp.finimpact.BloqueoUi")
+    @Label("Bloqueo del hilo de UI")
+    @Category({"FinImpact", "JavaFX"})
+    @StackTrace(false)
+    public static class BloqueoUi extends Event {
+        @Label("Demora")
+        @Timespan(Timespan.NANOSECONDS)
+        public long demora;
+    }
+}
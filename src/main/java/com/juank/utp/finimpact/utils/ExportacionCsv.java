@@ -0,0 +1,117 @@
+package com.juank.utp.finimpact.utils;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Flujo de exportación a CSV desde las pantallas: elegir archivo, exportar en background
+ * con progreso y permitir cancelar (el archivo parcial se elimina)
+ */
+public class ExportacionCsv {
+
+    /**
+     * Exportación concreta: escribe las filas al destino e informa el avance
+     */
+    @FunctionalInterface
+    public interface Exportador {
+        long exportar(Writer destino, CsvWriter.Progreso progreso) throws Exception;
+    }
+
+    /**
+     * Pide el archivo de destino y ejecuta la exportación; debe llamarse desde el hilo de UI
+     */
+    public static void exportar(Window ventana, String titulo, String nombreSugerido, Exportador exportador) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(titulo);
+        fileChooser.setInitialFileName(nombreSugerido);
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV (Excel)", "*.csv"));
+        File archivo = fileChooser.showSaveDialog(ventana);
+        if (archivo == null) {
+            return;
+        }
+
+        Label lblProgreso = new Label("Preparando exportación...");
+        ProgressBar barra = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        barra.setPrefWidth(300);
+        Button btnCancelar = new Button("Cancelar");
+
+        VBox contenido = new VBox(12, lblProgreso, barra, btnCancelar);
+        contenido.setAlignment(Pos.CENTER);
+        contenido.setPadding(new Insets(20));
+
+        Stage dialogo = new Stage();
+        dialogo.initOwner(ventana);
+        dialogo.initModality(Modality.WINDOW_MODAL);
+        dialogo.setTitle(titulo);
+        dialogo.setScene(new Scene(contenido));
+
+        CompletableFuture<Long> exportacion = AsyncTaskManager.supplyAsync("exportar-csv", () -> {
+            try (Writer writer = Files.newBufferedWriter(archivo.toPath(), StandardCharsets.UTF_8)) {
+                return exportador.exportar(writer, filas ->
+                        Platform.runLater(() -> lblProgreso.setText(filas + " filas exportadas...")));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+
+        btnCancelar.setOnAction(e -> exportacion.cancel(false));
+        dialogo.setOnCloseRequest(e -> exportacion.cancel(false));
+
+        exportacion.whenComplete((filas, error) -> Platform.runLater(() -> {
+            dialogo.close();
+            if (error == null) {
+                System.out.println("📤 Exportación completada: " + filas + " filas en " + archivo);
+                mostrarAlerta(Alert.AlertType.INFORMATION, "Exportación completada",
+                        filas + " filas exportadas a " + archivo.getName());
+                return;
+            }
+            eliminarParcial(archivo);
+            if (error instanceof CancellationException) {
+                System.out.println("🚫 Exportación cancelada: " + archivo);
+                return;
+            }
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            System.err.println("❌ Error en exportación: " + causa.getMessage());
+            mostrarAlerta(Alert.AlertType.ERROR, "Error al exportar", causa.getMessage());
+        }));
+
+        dialogo.show();
+    }
+
+    private static void eliminarParcial(File archivo) {
+        // La tarea cancelada puede tener el archivo abierto unos instantes; se reintenta al salir si falla
+        try {
+            Files.deleteIfExists(archivo.toPath());
+        } catch (IOException e) {
+            archivo.deleteOnExit();
+        }
+    }
+
+    private static void mostrarAlerta(Alert.AlertType tipo, String titulo, String mensaje) {
+        Alert alert = new Alert(tipo);
+        alert.setTitle(titulo);
+        alert.setHeaderText(null);
+        alert.setContentText(mensaje);
+        alert.showAndWait();
+    }
+}
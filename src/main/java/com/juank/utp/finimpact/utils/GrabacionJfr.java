@@ -0,0 +1,93 @@
+package com.juank.utp.finimpact.utils;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Grabación de Flight Recorder iniciada desde la aplicación (Ctrl+Shift+R o -Dfinimpact.jfr=true al arrancar).
+ * Usa la configuración "profile" de la JDK más los eventos de EventosJfr y al detenerse guarda
+ * el archivo en ~/.finimpact/jfr, listo para enviarlo y abrirlo con JDK Mission Control.
+ */
+public class GrabacionJfr {
+
+    private static final Duration ANTIGUEDAD_MAXIMA = Duration.ofMinutes(30);
+    private static final DateTimeFormatter FORMATO_ARCHIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording grabacion;
+
+    private GrabacionJfr() {
+    }
+
+    public static synchronized boolean isGrabando() {
+        return grabacion != null;
+    }
+
+    /**
+     * Inicia la grabación; conserva como máximo los últimos 30 minutos
+     */
+    public static synchronized void iniciar() throws IOException {
+        if (grabacion != null) {
+            return;
+        }
+        Recording nueva;
+        try {
+            nueva = new Recording(Configuration.getConfiguration("profile"));
+        } catch (ParseException e) {
+            throw new IOException("Configuración JFR inválida: " + e.getMessage(), e);
+        }
+        nueva.setName("FinImpact");
+        nueva.setToDisk(true);
+        nueva.setMaxAge(ANTIGUEDAD_MAXIMA);
+        nueva.enable(EventosJfr.Consulta.class);
+        nueva.enable(EventosJfr.ObtenerConexion.class);
+        nueva.enable(EventosJfr.FaseDashboard.class);
+        nueva.enable(EventosJfr.BloqueoUi.class);
+        nueva.start();
+        grabacion = nueva;
+        System.out.println("🎥 Grabación JFR iniciada");
+    }
+
+    /**
+     * Detiene la grabación y la guarda
+     *
+     * @return archivo .jfr generado, o null si no había grabación
+     */
+    public static synchronized Path detenerYGuardar() throws IOException {
+        if (grabacion == null) {
+            return null;
+        }
+        Path carpeta = Path.of(System.getProperty("user.home"), ".finimpact", "jfr");
+        Files.createDirectories(carpeta);
+        Path archivo = carpeta.resolve("finimpact-" + LocalDateTime.now().format(FORMATO_ARCHIVO) + ".jfr");
+        try {
+            grabacion.stop();
+            grabacion.dump(archivo);
+        } finally {
+            grabacion.close();
+            grabacion = null;
+        }
+        System.out.println("🎥 Grabación JFR guardada en " + archivo);
+        return archivo;
+    }
+
+    /**
+     * Inicia o detiene la grabación (atajo de teclado)
+     *
+     * @return archivo guardado al detener, o null al iniciar
+     */
+    public static synchronized Path alternar() throws IOException {
+        if (grabacion == null) {
+            iniciar();
+            return null;
+        }
+        return detenerYGuardar();
+    }
+}
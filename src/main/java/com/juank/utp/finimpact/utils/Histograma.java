@@ -0,0 +1,87 @@
+package com.juank.utp.finimpact.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores no negativos con cubetas logarítmicas (8 por potencia de 2, error
+ * relativo menor a 12,5%). Registrar no bloquea, así que se puede usar desde cualquier hilo
+ * en los caminos calientes (préstamo de conexiones, tareas, latidos del hilo de UI).
+ */
+public class Histograma {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_CUBETAS = 1 << SUB_BITS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(64 * SUB_CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long valor) {
+        long positivo = Math.max(valor, 0);
+        cuentas.incrementAndGet(indice(positivo));
+        cantidad.increment();
+        suma.add(positivo);
+        maximo.accumulate(positivo);
+    }
+
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double getPromedio() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Valor bajo el cual cae la fracción {@code p} (0..1) de las muestras; cota superior de su cubeta
+     */
+    public long percentil(double p) {
+        long[] copia = new long[cuentas.length()];
+        long total = 0;
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = cuentas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rango = Math.max(1, (long) Math.ceil(p * total));
+        long acumulado = 0;
+        for (int i = 0; i < copia.length; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) {
+                return Math.min(limiteSuperior(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    static int indice(long valor) {
+        if (valor < SUB_CUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - SUB_BITS)) & (SUB_CUBETAS - 1);
+        return (exponente - SUB_BITS + 1) * SUB_CUBETAS + sub;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUB_CUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUB_CUBETAS - 1;
+        if (desplazamiento >= 59) {
+            return Long.MAX_VALUE;
+        }
+        int sub = indice % SUB_CUBETAS;
+        return ((long) (SUB_CUBETAS + sub + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,354 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.repository.IniciativaRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice invertido en memoria sobre nombre y descripción de las iniciativas para la búsqueda
+ * de la tabla, sin ir a la base de datos. Los términos se guardan sin tildes y en minúsculas en
+ * un trie, así cada palabra escrita se busca como prefijo ("innov" encuentra "Innovación").
+ *
+ * Las iniciativas que cumplen todas las palabras salen ordenadas por relevancia: coincidir en
+ * el nombre pesa más que en la descripción y la palabra completa más que un prefijo.
+ * IniciativaRepository lo actualiza al crear, editar o eliminar; una consulta de todas las
+ * iniciativas lo reconstruye con lo que haya en la base de datos.
+ */
+public class IndiceBusquedaIniciativas {
+
+    // Campos en los que aparece un término (bits de cada aparición)
+    private static final byte EN_DESCRIPCION = 1;
+    private static final byte EN_NOMBRE = 2;
+
+    private static Nodo raiz = new Nodo();
+    private static boolean cargado = false;
+
+    // Cada iniciativa ocupa una posición fija; los puntajes de una búsqueda se acumulan en arreglos por posición
+    private static final Map<Integer, Integer> posicionPorId = new HashMap<>();
+    private static final List<Integer> posicionesLibres = new ArrayList<>();
+    private static int[] idPorPosicion = new int[1024];
+    private static int posiciones = 0;
+    // Términos de cada posición, para quitarla del trie al editar o eliminar la iniciativa
+    private static final Map<Integer, Set<String>> terminosPorPosicion = new HashMap<>();
+
+    // Trabajo de buscar(): candidatos, palabras cumplidas, mejor puntaje de la palabra actual y puntaje total
+    private static int[] candidatos = new int[1024];
+    private static int cantidadCandidatos;
+    private static int[] palabrasCumplidas = new int[1024];
+    private static int[] mejorPuntaje = new int[1024];
+    private static int[] puntajeTotal = new int[1024];
+
+    private IndiceBusquedaIniciativas() {
+    }
+
+    /**
+     * Construye el índice con todas las iniciativas si aún no está cargado (llamar fuera del hilo de UI)
+     */
+    public static void cargar() {
+        synchronized (IndiceBusquedaIniciativas.class) {
+            if (cargado) {
+                return;
+            }
+        }
+        // Si la consulta de todas no estaba en caché, ya reconstruyó el índice
+        List<Iniciativa> todas = new IniciativaRepository().findAll();
+        synchronized (IndiceBusquedaIniciativas.class) {
+            if (!cargado && !todas.isEmpty()) {
+                reconstruir(todas);
+            }
+        }
+    }
+
+    public static synchronized boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * Reemplaza el contenido del índice
+     */
+    public static synchronized void reconstruir(Collection<Iniciativa> iniciativas) {
+        raiz = new Nodo();
+        posicionPorId.clear();
+        posicionesLibres.clear();
+        terminosPorPosicion.clear();
+        posiciones = 0;
+        for (Iniciativa iniciativa : iniciativas) {
+            agregar(iniciativa);
+        }
+        cargado = true;
+    }
+
+    /**
+     * Agrega o reemplaza una iniciativa después de guardarla
+     */
+    public static synchronized void indexar(Iniciativa iniciativa) {
+        quitar(iniciativa.getIdIniciativa());
+        agregar(iniciativa);
+    }
+
+    public static synchronized void eliminar(int idIniciativa) {
+        quitar(idIniciativa);
+    }
+
+    /**
+     * IDs de las iniciativas que contienen todas las palabras del texto (cada una como prefijo),
+     * de la más a la menos relevante; a igual relevancia, la más reciente primero
+     *
+     * @return lista vacía si el texto no tiene palabras
+     */
+    public static synchronized List<Integer> buscar(String texto) {
+        List<Nodo> nodos = new ArrayList<>();
+        for (String palabra : new LinkedHashSet<>(terminos(texto))) {
+            Nodo nodo = raiz.buscarRuta(palabra);
+            if (nodo == null) {
+                return new ArrayList<>();
+            }
+            nodos.add(nodo);
+        }
+        if (nodos.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // La primera palabra define los candidatos; las siguientes solo suman a quienes cumplieron las anteriores
+        cantidadCandidatos = 0;
+        recolectar(nodos.get(0), true);
+        for (int palabra = 1; palabra < nodos.size(); palabra++) {
+            acumular(nodos.get(palabra), true, palabra);
+        }
+
+        long[] ordenados = new long[cantidadCandidatos];
+        int encontrados = 0;
+        for (int i = 0; i < cantidadCandidatos; i++) {
+            int posicion = candidatos[i];
+            if (palabrasCumplidas[posicion] == nodos.size()) {
+                // Puntaje en los bits altos e id en los bajos: al ordenar ascendente, lo más relevante queda al final
+                ordenados[encontrados++] = ((long) puntajeTotal[posicion] << 32) | idPorPosicion[posicion];
+            }
+            palabrasCumplidas[posicion] = 0;
+            puntajeTotal[posicion] = 0;
+        }
+        Arrays.sort(ordenados, 0, encontrados);
+
+        List<Integer> ids = new ArrayList<>(encontrados);
+        for (int i = encontrados - 1; i >= 0; i--) {
+            ids.add((int) ordenados[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Texto en minúsculas y sin tildes ("Gestión" -> "gestion")
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder limpio = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                limpio.append(Character.toLowerCase(c));
+            }
+        }
+        return limpio.toString();
+    }
+
+    private static List<String> terminos(String texto) {
+        String normalizado = normalizar(texto);
+        List<String> terminos = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                terminos.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return terminos;
+    }
+
+    private static void agregar(Iniciativa iniciativa) {
+        Map<String, Integer> campos = new LinkedHashMap<>();
+        for (String termino : terminos(iniciativa.getNombre())) {
+            campos.merge(termino, (int) EN_NOMBRE, (a, b) -> a | b);
+        }
+        for (String termino : terminos(iniciativa.getDescripcion())) {
+            campos.merge(termino, (int) EN_DESCRIPCION, (a, b) -> a | b);
+        }
+
+        int posicion = reservarPosicion(iniciativa.getIdIniciativa());
+        campos.forEach((termino, bits) -> raiz.crearRuta(termino).agregarAparicion(posicion, bits.byteValue()));
+        terminosPorPosicion.put(posicion, campos.keySet());
+    }
+
+    private static void quitar(int idIniciativa) {
+        Integer posicion = posicionPorId.remove(idIniciativa);
+        if (posicion == null) {
+            return;
+        }
+        for (String termino : terminosPorPosicion.remove(posicion)) {
+            Nodo nodo = raiz.buscarRuta(termino);
+            if (nodo != null) {
+                nodo.quitarAparicion(posicion);
+            }
+        }
+        posicionesLibres.add(posicion);
+    }
+
+    private static int reservarPosicion(int idIniciativa) {
+        int posicion;
+        if (!posicionesLibres.isEmpty()) {
+            posicion = posicionesLibres.remove(posicionesLibres.size() - 1);
+        } else {
+            posicion = posiciones++;
+            if (posicion == idPorPosicion.length) {
+                int capacidad = idPorPosicion.length * 2;
+                idPorPosicion = Arrays.copyOf(idPorPosicion, capacidad);
+                candidatos = Arrays.copyOf(candidatos, capacidad);
+                palabrasCumplidas = Arrays.copyOf(palabrasCumplidas, capacidad);
+                mejorPuntaje = Arrays.copyOf(mejorPuntaje, capacidad);
+                puntajeTotal = Arrays.copyOf(puntajeTotal, capacidad);
+            }
+        }
+        idPorPosicion[posicion] = idIniciativa;
+        posicionPorId.put(idIniciativa, posicion);
+        return posicion;
+    }
+
+    private static int puntaje(byte bits, boolean completa) {
+        int puntaje = ((bits & EN_NOMBRE) != 0 ? 3 : 0) + ((bits & EN_DESCRIPCION) != 0 ? 1 : 0);
+        return completa ? puntaje * 2 : puntaje;
+    }
+
+    /**
+     * Primera palabra: registra a cada iniciativa del subárbol con su mejor puntaje
+     */
+    private static void recolectar(Nodo nodo, boolean completa) {
+        for (int i = 0; i < nodo.apariciones; i++) {
+            int posicion = nodo.posiciones[i];
+            int puntaje = puntaje(nodo.bits[i], completa);
+            if (palabrasCumplidas[posicion] == 0) {
+                palabrasCumplidas[posicion] = 1;
+                mejorPuntaje[posicion] = puntaje;
+                puntajeTotal[posicion] = puntaje;
+                candidatos[cantidadCandidatos++] = posicion;
+            } else if (puntaje > mejorPuntaje[posicion]) {
+                puntajeTotal[posicion] += puntaje - mejorPuntaje[posicion];
+                mejorPuntaje[posicion] = puntaje;
+            }
+        }
+        for (Nodo hijo : nodo.hijos) {
+            recolectar(hijo, false);
+        }
+    }
+
+    /**
+     * Palabras siguientes: suma el mejor puntaje solo a quienes cumplieron todas las anteriores
+     */
+    private static void acumular(Nodo nodo, boolean completa, int palabra) {
+        for (int i = 0; i < nodo.apariciones; i++) {
+            int posicion = nodo.posiciones[i];
+            int puntaje = puntaje(nodo.bits[i], completa);
+            if (palabrasCumplidas[posicion] == palabra) {
+                palabrasCumplidas[posicion] = palabra + 1;
+                mejorPuntaje[posicion] = puntaje;
+                puntajeTotal[posicion] += puntaje;
+            } else if (palabrasCumplidas[posicion] == palabra + 1 && puntaje > mejorPuntaje[posicion]) {
+                puntajeTotal[posicion] += puntaje - mejorPuntaje[posicion];
+                mejorPuntaje[posicion] = puntaje;
+            }
+        }
+        for (Nodo hijo : nodo.hijos) {
+            acumular(hijo, false, palabra);
+        }
+    }
+
+    /**
+     * Nodo del trie: hijos en arreglos ordenados por letra y apariciones del término que termina
+     * aquí como posiciones con sus bits de campo (más livianos que un mapa por nodo)
+     */
+    private static class Nodo {
+        static final char[] SIN_LETRAS = new char[0];
+        static final Nodo[] SIN_HIJOS = new Nodo[0];
+        static final int[] SIN_POSICIONES = new int[0];
+        static final byte[] SIN_BITS = new byte[0];
+
+        char[] letras = SIN_LETRAS;
+        Nodo[] hijos = SIN_HIJOS;
+        int[] posiciones = SIN_POSICIONES;
+        byte[] bits = SIN_BITS;
+        int apariciones;
+
+        Nodo buscarRuta(String termino) {
+            Nodo nodo = this;
+            for (int i = 0; i < termino.length() && nodo != null; i++) {
+                int posicion = Arrays.binarySearch(nodo.letras, termino.charAt(i));
+                nodo = posicion >= 0 ? nodo.hijos[posicion] : null;
+            }
+            return nodo;
+        }
+
+        Nodo crearRuta(String termino) {
+            Nodo nodo = this;
+            for (int i = 0; i < termino.length(); i++) {
+                char letra = termino.charAt(i);
+                int posicion = Arrays.binarySearch(nodo.letras, letra);
+                if (posicion < 0) {
+                    posicion = -posicion - 1;
+                    nodo.insertarHijo(posicion, letra);
+                }
+                nodo = nodo.hijos[posicion];
+            }
+            return nodo;
+        }
+
+        void agregarAparicion(int posicion, byte bitsCampo) {
+            if (apariciones == posiciones.length) {
+                int capacidad = Math.max(2, apariciones * 2);
+                posiciones = Arrays.copyOf(posiciones, capacidad);
+                bits = Arrays.copyOf(bits, capacidad);
+            }
+            posiciones[apariciones] = posicion;
+            bits[apariciones] = bitsCampo;
+            apariciones++;
+        }
+
+        void quitarAparicion(int posicion) {
+            for (int i = 0; i < apariciones; i++) {
+                if (posiciones[i] == posicion) {
+                    // El orden de las apariciones no importa: se mueve la última a este lugar
+                    apariciones--;
+                    posiciones[i] = posiciones[apariciones];
+                    bits[i] = bits[apariciones];
+                    return;
+                }
+            }
+        }
+
+        private void insertarHijo(int posicion, char letra) {
+            char[] nuevasLetras = new char[letras.length + 1];
+            Nodo[] nuevosHijos = new Nodo[hijos.length + 1];
+            System.arraycopy(letras, 0, nuevasLetras, 0, posicion);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, posicion);
+            nuevasLetras[posicion] = letra;
+            nuevosHijos[posicion] = new Nodo();
+            System.arraycopy(letras, posicion, nuevasLetras, posicion + 1, letras.length - posicion);
+            System.arraycopy(hijos, posicion, nuevosHijos, posicion + 1, hijos.length - posicion);
+            letras = nuevasLetras;
+            hijos = nuevosHijos;
+        }
+    }
+}
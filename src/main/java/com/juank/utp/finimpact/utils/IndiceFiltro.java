@@ -0,0 +1,146 @@
+package com.juank.utp.finimpact.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Filtro en memoria para las tablas: un bitmap de filas por cada valor de los campos
+ * indexados (p. ej. tipo y atributo) y el texto ya normalizado una sola vez al indexar.
+ * Filtrar es intersectar bitmaps y revisar el texto una vez por valor distinto, sin recorrer
+ * objetos ni pasar a minúsculas en cada tecla; el resultado sale en una lista lista para setAll().
+ *
+ * @param <T> tipo de fila de la tabla
+ */
+public class IndiceFiltro<T> {
+
+    private final Function<T, String> campoTexto;
+    private final List<Function<T, String>> campos = new ArrayList<>();
+
+    private final List<T> filas = new ArrayList<>();
+    // Por campo: valor -> filas con ese valor
+    private final List<Map<String, BitSet>> indices = new ArrayList<>();
+    // Texto normalizado -> filas con ese texto (los valores repetidos se evalúan una sola vez)
+    private final Map<String, BitSet> porTexto = new LinkedHashMap<>();
+
+    // Última búsqueda de texto: si la nueva la contiene, solo se revisan los textos que ya coincidían
+    private String ultimoTexto;
+    private List<String> ultimasCoincidencias;
+
+    /**
+     * @param campoTexto campo sobre el que se busca texto contenido (sin distinguir mayúsculas)
+     */
+    public IndiceFiltro(Function<T, String> campoTexto) {
+        this.campoTexto = campoTexto;
+    }
+
+    /**
+     * Agrega un campo indexado por valor exacto; el orden define la posición en filtrar()
+     */
+    public IndiceFiltro<T> campo(Function<T, String> lector) {
+        campos.add(lector);
+        indices.add(new HashMap<>());
+        return this;
+    }
+
+    /**
+     * Reemplaza todas las filas
+     */
+    public void reconstruir(Collection<? extends T> elementos) {
+        filas.clear();
+        indices.forEach(Map::clear);
+        porTexto.clear();
+        agregar(elementos);
+    }
+
+    /**
+     * Agrega filas al final (p. ej. la siguiente página cargada)
+     */
+    public void agregar(Collection<? extends T> elementos) {
+        for (T elemento : elementos) {
+            int fila = filas.size();
+            filas.add(elemento);
+            for (int c = 0; c < campos.size(); c++) {
+                String valor = campos.get(c).apply(elemento);
+                indices.get(c).computeIfAbsent(valor, v -> new BitSet()).set(fila);
+            }
+            porTexto.computeIfAbsent(normalizar(campoTexto.apply(elemento)), t -> new BitSet()).set(fila);
+        }
+        ultimoTexto = null;
+        ultimasCoincidencias = null;
+    }
+
+    public int getTamano() {
+        return filas.size();
+    }
+
+    /**
+     * Filas que cumplen todas las condiciones, en el orden en que se agregaron
+     *
+     * @param texto   texto contenido en el campo de texto; null o vacío = sin restricción
+     * @param valores valor exacto por campo, en el orden de campo(); null = sin restricción
+     */
+    public List<T> filtrar(String texto, String... valores) {
+        BitSet resultado = null;
+        for (int c = 0; c < valores.length && c < campos.size(); c++) {
+            if (valores[c] == null) {
+                continue;
+            }
+            BitSet conValor = indices.get(c).get(valores[c]);
+            if (conValor == null) {
+                return new ArrayList<>(); // valor que no aparece en ninguna fila
+            }
+            if (resultado == null) {
+                resultado = (BitSet) conValor.clone();
+            } else {
+                resultado.and(conValor);
+            }
+        }
+
+        String normalizado = normalizar(texto);
+        if (!normalizado.isEmpty()) {
+            BitSet conTexto = filasConTexto(normalizado);
+            if (resultado == null) {
+                resultado = conTexto;
+            } else {
+                resultado.and(conTexto);
+            }
+        }
+
+        if (resultado == null) {
+            return new ArrayList<>(filas);
+        }
+        List<T> seleccion = new ArrayList<>(resultado.cardinality());
+        for (int fila = resultado.nextSetBit(0); fila >= 0; fila = resultado.nextSetBit(fila + 1)) {
+            seleccion.add(filas.get(fila));
+        }
+        return seleccion;
+    }
+
+    private BitSet filasConTexto(String normalizado) {
+        // Al seguir escribiendo, lo que contiene el texto nuevo contiene también el anterior
+        Collection<String> candidatos = ultimoTexto != null && normalizado.contains(ultimoTexto)
+                ? ultimasCoincidencias : porTexto.keySet();
+        List<String> coincidencias = new ArrayList<>();
+        BitSet conTexto = new BitSet(filas.size());
+        for (String candidato : candidatos) {
+            if (candidato.contains(normalizado)) {
+                coincidencias.add(candidato);
+                conTexto.or(porTexto.get(candidato));
+            }
+        }
+        ultimoTexto = normalizado;
+        ultimasCoincidencias = coincidencias;
+        return conTexto;
+    }
+
+    private static String normalizar(String texto) {
+        return texto == null ? "" : texto.toLowerCase(Locale.ROOT);
+    }
+}
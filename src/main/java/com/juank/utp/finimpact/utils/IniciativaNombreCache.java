@@ -0,0 +1,70 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.repository.IniciativaRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caché compartida de nombres de iniciativas (id -> nombre).
+ * Se carga con una sola consulta y las celdas de las tablas solo leen de memoria.
+ */
+public class IniciativaNombreCache {
+
+    private static volatile Map<Integer, String> nombres = Map.of();
+    private static volatile boolean vigente = false;
+
+    /**
+     * Carga todos los nombres con una sola consulta si la caché no está vigente
+     */
+    public static void cargar() {
+        if (vigente) {
+            return;
+        }
+        synchronized (IniciativaNombreCache.class) {
+            if (!vigente) {
+                // Marcar vigente antes de consultar: una invalidación concurrente fuerza otra recarga
+                vigente = true;
+                Map<Integer, String> cargados = new IniciativaRepository().findNombres();
+                if (cargados.isEmpty()) {
+                    // Sin datos (o error de consulta): reintentar en la próxima carga
+                    vigente = false;
+                }
+                nombres = Map.copyOf(cargados);
+                System.out.println("📋 Caché de nombres de iniciativas cargada (" + nombres.size() + " iniciativas)");
+            }
+        }
+    }
+
+    /**
+     * Usa nombres ya disponibles (p. ej. del snapshot local) mientras no haya una carga;
+     * no marca la caché como vigente, así que cargar() igual consulta la base de datos
+     */
+    public static synchronized void precargar(Collection<Iniciativa> iniciativas) {
+        if (!nombres.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> guardados = new HashMap<>();
+        for (Iniciativa iniciativa : iniciativas) {
+            guardados.put(iniciativa.getIdIniciativa(), iniciativa.getNombre());
+        }
+        nombres = Map.copyOf(guardados);
+    }
+
+    /**
+     * Obtiene el nombre de una iniciativa desde memoria, sin acceder a la base de datos
+     */
+    public static String getNombre(int idIniciativa) {
+        return nombres.get(idIniciativa);
+    }
+
+    /**
+     * Marca la caché como desactualizada; la próxima carga vuelve a consultar la base de datos.
+     * Mientras tanto se siguen sirviendo los últimos nombres conocidos.
+     */
+    public static void invalidar() {
+        vigente = false;
+    }
+}
@@ -0,0 +1,146 @@
+package com.juank.utp.finimpact.utils;
+
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carga paginada (keyset) para tablas: trae la primera página y pide las siguientes
+ * a medida que el usuario se acerca al final del scroll
+ */
+public class KeysetPageLoader<T> {
+
+    /**
+     * Obtiene la página que sigue a {@code ultimo} (null = primera página)
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        List<T> fetch(T ultimo, int tamanoPagina);
+    }
+
+    // Fracción del scroll a partir de la cual se pide la siguiente página
+    private static final double UMBRAL_SCROLL = 0.9;
+
+    private final int tamanoPagina;
+    private final Consumer<List<T>> alAgregarPagina;
+
+    private PageFetcher<T> fetcher;
+    private T ultimo;
+    private boolean hayMas;
+    private boolean cargando;
+    // Se incrementa en cada reinicio para descartar páginas de cargas anteriores
+    private int generacion;
+
+    /**
+     * @param tamanoPagina     filas por página
+     * @param alAgregarPagina  recibe en el hilo de UI cada página adicional cargada por scroll
+     */
+    public KeysetPageLoader(int tamanoPagina, Consumer<List<T>> alAgregarPagina) {
+        this.tamanoPagina = tamanoPagina;
+        this.alAgregarPagina = alAgregarPagina;
+    }
+
+    /**
+     * Reinicia el cursor y carga la primera página de forma bloqueante (puede llamarse en background)
+     */
+    public List<T> cargarPrimeraPagina(PageFetcher<T> nuevoFetcher) {
+        int miGeneracion;
+        synchronized (this) {
+            fetcher = nuevoFetcher;
+            ultimo = null;
+            hayMas = false;
+            cargando = true;
+            miGeneracion = ++generacion;
+        }
+
+        List<T> pagina = nuevoFetcher.fetch(null, tamanoPagina);
+
+        synchronized (this) {
+            if (miGeneracion == generacion) {
+                registrarPagina(pagina);
+                cargando = false;
+            }
+        }
+        return pagina;
+    }
+
+    /**
+     * Pide la siguiente página en background y la entrega con el callback en el hilo de UI
+     */
+    public void cargarSiguientePagina() {
+        PageFetcher<T> fetcherActual;
+        T cursor;
+        int miGeneracion;
+        synchronized (this) {
+            if (cargando || !hayMas || fetcher == null) {
+                return;
+            }
+            cargando = true;
+            fetcherActual = fetcher;
+            cursor = ultimo;
+            miGeneracion = generacion;
+        }
+
+        AsyncTaskManager.executeAsync(
+            () -> fetcherActual.fetch(cursor, tamanoPagina),
+            pagina -> {
+                synchronized (this) {
+                    if (miGeneracion != generacion) {
+                        return;
+                    }
+                    registrarPagina(pagina);
+                    cargando = false;
+                }
+                if (!pagina.isEmpty()) {
+                    alAgregarPagina.accept(pagina);
+                }
+            },
+            error -> {
+                synchronized (this) {
+                    if (miGeneracion == generacion) {
+                        cargando = false;
+                    }
+                }
+                System.err.println("Error cargando siguiente página: " + error.getMessage());
+            }
+        );
+    }
+
+    /**
+     * Escucha el scroll vertical de la tabla para pedir más páginas al acercarse al final
+     */
+    public void vincularScroll(TableView<?> tabla) {
+        if (tabla.getSkin() != null) {
+            vincularScrollBar(tabla);
+        } else {
+            tabla.skinProperty().addListener((obs, anterior, nuevo) -> {
+                if (nuevo != null) {
+                    vincularScrollBar(tabla);
+                }
+            });
+        }
+    }
+
+    private void vincularScrollBar(TableView<?> tabla) {
+        for (Node nodo : tabla.lookupAll(".scroll-bar")) {
+            if (nodo instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((obs, anterior, valor) -> {
+                    if (valor.doubleValue() >= scrollBar.getMax() * UMBRAL_SCROLL) {
+                        cargarSiguientePagina();
+                    }
+                });
+            }
+        }
+    }
+
+    private void registrarPagina(List<T> pagina) {
+        if (!pagina.isEmpty()) {
+            ultimo = pagina.get(pagina.size() - 1);
+        }
+        hayMas = pagina.size() == tamanoPagina;
+    }
+}
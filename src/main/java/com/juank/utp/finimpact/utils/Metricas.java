@@ -0,0 +1,244 @@
+package com.juank.utp.finimpact.utils;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Métricas de la aplicación: tiempos (histogramas en nanosegundos), valores (p. ej. filas
+ * cargadas), contadores e indicadores que se leen al exportar (estado del pool, cola de tareas).
+ *
+ * Se exportan por JMX (com.juank.utp.finimpact:type=Metricas, visible en JConsole/VisualVM)
+ * y periódicamente a un archivo de texto, una línea por métrica. Propiedades del sistema:
+ * finimpact.metricas=false desactiva el registro, finimpact.metricas.archivo cambia el archivo
+ * (por defecto ~/.finimpact/metricas.log) y finimpact.metricas.intervaloSeg la frecuencia.
+ */
+public class Metricas {
+
+    private static final boolean ACTIVO = !"false".equalsIgnoreCase(System.getProperty("finimpact.metricas"));
+    private static final String NOMBRE_JMX = "com.juank.utp.finimpact:type=Metricas";
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private static final Map<String, Histograma> tiempos = new ConcurrentHashMap<>();
+    private static final Map<String, Histograma> valores = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> contadores = new ConcurrentHashMap<>();
+    private static final Map<String, Supplier<? extends Number>> indicadores = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService exportador;
+    private static Path archivo;
+
+    private Metricas() {
+    }
+
+    public static boolean isActivo() {
+        return ACTIVO;
+    }
+
+    /**
+     * Registra la duración de una operación
+     */
+    public static void registrarTiempo(String nombre, long nanos) {
+        if (ACTIVO) {
+            tiempos.computeIfAbsent(nombre, n -> new Histograma()).registrar(nanos);
+        }
+    }
+
+    /**
+     * Registra un valor de una distribución (filas devueltas, tamaño de lote...)
+     */
+    public static void registrarValor(String nombre, long valor) {
+        if (ACTIVO) {
+            valores.computeIfAbsent(nombre, n -> new Histograma()).registrar(valor);
+        }
+    }
+
+    public static void incrementar(String nombre) {
+        if (ACTIVO) {
+            contadores.computeIfAbsent(nombre, n -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Indicador que se lee en el momento de exportar (no se guarda historial)
+     */
+    public static void registrarIndicador(String nombre, Supplier<? extends Number> lectura) {
+        indicadores.put(nombre, lectura);
+    }
+
+    /**
+     * Valores actuales de todas las métricas, ordenados por nombre.
+     * Los tiempos se expanden en cantidad, promedio, p50, p95, p99 y máximo en milisegundos.
+     */
+    public static Map<String, Number> instantanea() {
+        Map<String, Number> datos = new TreeMap<>();
+        tiempos.forEach((nombre, h) -> {
+            datos.put(nombre + ".cantidad", h.getCantidad());
+            datos.put(nombre + ".promedioMs", redondear(h.getPromedio() / 1_000_000));
+            datos.put(nombre + ".p50Ms", redondear(h.percentil(0.50) / 1_000_000.0));
+            datos.put(nombre + ".p95Ms", redondear(h.percentil(0.95) / 1_000_000.0));
+            datos.put(nombre + ".p99Ms", redondear(h.percentil(0.99) / 1_000_000.0));
+            datos.put(nombre + ".maxMs", redondear(h.getMaximo() / 1_000_000.0));
+        });
+        valores.forEach((nombre, h) -> {
+            datos.put(nombre + ".cantidad", h.getCantidad());
+            datos.put(nombre + ".promedio", redondear(h.getPromedio()));
+            datos.put(nombre + ".p50", h.percentil(0.50));
+            datos.put(nombre + ".p95", h.percentil(0.95));
+            datos.put(nombre + ".max", h.getMaximo());
+        });
+        contadores.forEach((nombre, c) -> datos.put(nombre, c.sum()));
+        indicadores.forEach((nombre, lectura) -> {
+            try {
+                Number valor = lectura.get();
+                if (valor != null) {
+                    datos.put(nombre, valor);
+                }
+            } catch (RuntimeException e) {
+                // Un indicador que falla (p. ej. pool sin configurar) no impide exportar el resto
+            }
+        });
+        return datos;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    /**
+     * Publica el MBean y programa la escritura periódica del archivo
+     */
+    public static synchronized void iniciarExportacion() {
+        if (!ACTIVO || exportador != null) {
+            return;
+        }
+        registrarJmx();
+
+        archivo = Path.of(System.getProperty("finimpact.metricas.archivo",
+                Path.of(System.getProperty("user.home"), ".finimpact", "metricas.log").toString()));
+        long intervalo = Long.getLong("finimpact.metricas.intervaloSeg", 60);
+        exportador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "finimpact-metricas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        exportador.scheduleWithFixedDelay(Metricas::escribirArchivo, intervalo, intervalo, TimeUnit.SECONDS);
+        System.out.println("📈 Métricas en JMX (" + NOMBRE_JMX + ") y en " + archivo + " cada " + intervalo + " s");
+    }
+
+    /**
+     * Detiene la exportación periódica y escribe una última instantánea
+     */
+    public static synchronized void detenerExportacion() {
+        if (exportador == null) {
+            return;
+        }
+        exportador.shutdownNow();
+        exportador = null;
+        escribirArchivo();
+    }
+
+    private static void escribirArchivo() {
+        String fecha = LocalDateTime.now().withNano(0).format(FORMATO_FECHA);
+        StringBuilder texto = new StringBuilder();
+        instantanea().forEach((nombre, valor) ->
+                texto.append(fecha).append(' ').append(nombre).append(' ').append(formatear(valor)).append('\n'));
+        try {
+            if (archivo.getParent() != null) {
+                Files.createDirectories(archivo.getParent());
+            }
+            Files.writeString(archivo, texto, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Error escribiendo métricas en " + archivo + ": " + e.getMessage());
+        }
+    }
+
+    private static String formatear(Number valor) {
+        return valor instanceof Double ? String.format(Locale.ROOT, "%.2f", valor.doubleValue()) : valor.toString();
+    }
+
+    private static void registrarJmx() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(NOMBRE_JMX);
+            if (!servidor.isRegistered(nombre)) {
+                servidor.registerMBean(new MetricasMBean(), nombre);
+            }
+        } catch (Exception e) {
+            System.err.println("Error publicando métricas por JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Expone cada métrica de la instantánea como atributo de solo lectura
+     */
+    private static class MetricasMBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String atributo) throws AttributeNotFoundException {
+            Number valor = instantanea().get(atributo);
+            if (valor == null) {
+                throw new AttributeNotFoundException(atributo);
+            }
+            return valor;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] atributos) {
+            Map<String, Number> datos = instantanea();
+            AttributeList lista = new AttributeList();
+            for (String atributo : atributos) {
+                Number valor = datos.get(atributo);
+                if (valor != null) {
+                    lista.add(new Attribute(atributo, valor));
+                }
+            }
+            return lista;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException("Las métricas son de solo lectura");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException("Sin operaciones");
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            Map<String, Number> datos = instantanea();
+            MBeanAttributeInfo[] atributos = datos.entrySet().stream()
+                    .map(e -> new MBeanAttributeInfo(e.getKey(), e.getValue().getClass().getName(), e.getKey(), true, false, false))
+                    .toArray(MBeanAttributeInfo[]::new);
+            return new MBeanInfo(Metricas.class.getName(), "Métricas de FinImpact", atributos, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.juank.utp.finimpact.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migraciones versionadas del esquema (scripts en resources/db/migracion).
+ * Cada versión aplicada queda registrada en la tabla schema_version; al migrar solo se
+ * ejecutan las pendientes, en orden y cada una en su propia transacción.
+ * Los scripts se separan en lotes con líneas "GO", igual que en SSMS.
+ */
+public class MigradorEsquema {
+
+    private static final String CARPETA = "/db/migracion/";
+
+    // Agregar aquí cada script nuevo; la versión es el número después de la V
+    private static final List<String> MIGRACIONES = List.of(
+        "V1__esquema_inicial.sql",
+        "V2__impactos_mensual.sql",
+        "V3__indices.sql",
+        "V4__lista_ids.sql"
+    );
+
+    private static final String SQL_CREAR_TABLA_VERSION =
+        "IF OBJECT_ID('schema_version', 'U') IS NULL " +
+        "CREATE TABLE schema_version (version INT PRIMARY KEY, script NVARCHAR(200) NOT NULL, " +
+        "aplicada DATETIME2 NOT NULL DEFAULT SYSDATETIME())";
+
+    public static void main(String[] args) {
+        try {
+            System.out.println("=== MIGRANDO ESQUEMA DE BASE DE DATOS ===");
+            int aplicadas = migrar();
+            System.out.println("✅ Esquema en versión " + versionDisponible() + " (" + aplicadas + " migraciones aplicadas)");
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConfig.closePool();
+        }
+    }
+
+    /**
+     * Aplica las migraciones pendientes
+     *
+     * @return cantidad de migraciones aplicadas
+     */
+    public static int migrar() throws SQLException, IOException {
+        int aplicadas = 0;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(SQL_CREAR_TABLA_VERSION);
+            }
+            int actual = versionActual(conn);
+            for (String script : MIGRACIONES) {
+                int version = version(script);
+                if (version <= actual) {
+                    continue;
+                }
+                aplicar(conn, version, script);
+                aplicadas++;
+            }
+        }
+        return aplicadas;
+    }
+
+    private static void aplicar(Connection conn, int version, String script) throws SQLException, IOException {
+        System.out.println("🛠️ Aplicando migración " + script);
+        long inicio = System.nanoTime();
+        conn.setAutoCommit(false);
+        try {
+            // Bloqueo de aplicación: dos instancias migrando a la vez esperan en lugar de duplicar cambios
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("EXEC sp_getapplock @Resource = 'finimpact_schema_version', @LockMode = 'Exclusive', @LockOwner = 'Transaction'");
+            }
+            if (versionActual(conn) >= version) {
+                conn.rollback(); // otra instancia la aplicó mientras se esperaba el bloqueo
+                return;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                for (String lote : lotes(leerScript(script))) {
+                    stmt.execute(lote);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+                stmt.setInt(1, version);
+                stmt.setString(2, script);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("✅ Migración " + script + " aplicada en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Error aplicando " + script + ": " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Versión registrada en la base; 0 si todavía no se aplicó ninguna migración
+     */
+    public static int versionActual() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return versionActual(conn);
+        }
+    }
+
+    private static int versionActual(Connection conn) throws SQLException {
+        String sql = "IF OBJECT_ID('schema_version', 'U') IS NULL SELECT 0 ELSE SELECT COALESCE(MAX(version), 0) FROM schema_version";
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Última versión incluida en la aplicación
+     */
+    public static int versionDisponible() {
+        return version(MIGRACIONES.get(MIGRACIONES.size() - 1));
+    }
+
+    private static int version(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static String leerScript(String script) throws IOException {
+        try (InputStream input = MigradorEsquema.class.getResourceAsStream(CARPETA + script)) {
+            if (input == null) {
+                throw new IOException("No se encontró la migración " + script + " en resources");
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Divide el script en lotes separados por líneas que solo contienen GO
+     */
+    static List<String> lotes(String script) {
+        List<String> lotes = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        for (String linea : script.split("\\R")) {
+            if (linea.trim().equalsIgnoreCase("GO")) {
+                agregarLote(lotes, actual);
+            } else {
+                actual.append(linea).append('\n');
+            }
+        }
+        agregarLote(lotes, actual);
+        return lotes;
+    }
+
+    private static void agregarLote(List<String> lotes, StringBuilder actual) {
+        String lote = actual.toString().strip();
+        // Un lote con solo comentarios no es una sentencia ejecutable
+        boolean soloComentarios = lote.lines().allMatch(l -> l.isBlank() || l.strip().startsWith("--"));
+        if (!soloComentarios) {
+            lotes.add(lote);
+        }
+        actual.setLength(0);
+    }
+}
@@ -0,0 +1,354 @@
+package com.juank.utp.finimpact.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Wrapper para conexiones del pool que las devuelve automáticamente al cerrar.
+ * Las sentencias preparadas salen de la caché de la conexión física (StatementCache).
+ */
+class PooledConnection implements Connection {
+    private final ConnectionPool.PoolEntry entry;
+    private final ConnectionPool pool;
+    private final Connection actualConnection;
+    private volatile boolean closed = false;
+    // Sentencias en caché entregadas en este préstamo; vuelven a la caché al devolver la conexión
+    private final List<PreparedStatement> cachedStatements = new ArrayList<>();
+
+    PooledConnection(ConnectionPool.PoolEntry entry, ConnectionPool pool) {
+        this.entry = entry;
+        this.pool = pool;
+        this.actualConnection = entry.connection;
+    }
+
+    /**
+     * Devuelve la conexión física al pool; las llamadas posteriores fallan
+     */
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            for (PreparedStatement statement : cachedStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    System.err.println("Error devolviendo sentencia a la caché: " + e.getMessage());
+                }
+            }
+            cachedStatements.clear();
+            pool.release(entry);
+        }
+    }
+
+    PreparedStatement register(PreparedStatement statement) {
+        cachedStatements.add(statement);
+        return statement;
+    }
+
+    void recordStatement(String sql) {
+        ConnectionPool.Usage usage = entry.usage;
+        if (usage.firstSql == null) {
+            usage.firstSql = sql;
+        }
+        usage.statements++;
+    }
+
+    boolean isCountingRows() {
+        return entry.usage.context != null;
+    }
+
+    void addRows(long filas) {
+        if (filas > 0) {
+            entry.usage.rows += filas;
+        }
+    }
+
+    /**
+     * true si el pool tuvo que abrir una conexión física para este préstamo
+     */
+    boolean isCreatedOnBorrow() {
+        return entry.createdOnBorrow;
+    }
+
+    private Connection delegate() throws SQLException {
+        if (closed) {
+            throw new SQLException("La conexión ya fue devuelta al pool");
+        }
+        return actualConnection;
+    }
+
+    // Delegar todos los métodos a la conexión real
+    @Override
+    public java.sql.Statement createStatement() throws SQLException {
+        return delegate().createStatement();
+    }
+
+    @Override
+    public java.sql.PreparedStatement prepareStatement(String sql) throws SQLException {
+        Connection connection = delegate();
+        return entry.statements.prepare(this, sql, "", () -> connection.prepareStatement(sql));
+    }
+
+    @Override
+    public java.sql.CallableStatement prepareCall(String sql) throws SQLException {
+        return delegate().prepareCall(sql);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        return delegate().nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        delegate().setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        return delegate().getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        delegate().commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        delegate().rollback();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || actualConnection.isClosed();
+    }
+
+    @Override
+    public java.sql.DatabaseMetaData getMetaData() throws SQLException {
+        return delegate().getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        delegate().setReadOnly(readOnly);
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return delegate().isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        delegate().setCatalog(catalog);
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return delegate().getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        delegate().setTransactionIsolation(level);
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        return delegate().getTransactionIsolation();
+    }
+
+    @Override
+    public java.sql.SQLWarning getWarnings() throws SQLException {
+        return delegate().getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate().clearWarnings();
+    }
+
+    @Override
+    public java.sql.Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return delegate().createStatement(resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public java.sql.PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        Connection connection = delegate();
+        return entry.statements.prepare(this, sql, "rs" + resultSetType + "/" + resultSetConcurrency,
+                () -> connection.prepareStatement(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public java.sql.CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return delegate().prepareCall(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public java.util.Map<String, Class<?>> getTypeMap() throws SQLException {
+        return delegate().getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(java.util.Map<String, Class<?>> map) throws SQLException {
+        delegate().setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        delegate().setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return delegate().getHoldability();
+    }
+
+    @Override
+    public java.sql.Savepoint setSavepoint() throws SQLException {
+        return delegate().setSavepoint();
+    }
+
+    @Override
+    public java.sql.Savepoint setSavepoint(String name) throws SQLException {
+        return delegate().setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(java.sql.Savepoint savepoint) throws SQLException {
+        delegate().rollback(savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(java.sql.Savepoint savepoint) throws SQLException {
+        delegate().releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public java.sql.Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return delegate().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public java.sql.PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return delegate().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public java.sql.CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return delegate().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public java.sql.PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        Connection connection = delegate();
+        return entry.statements.prepare(this, sql, "keys" + autoGeneratedKeys,
+                () -> connection.prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public java.sql.PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return delegate().prepareStatement(sql, columnIndexes);
+    }
+
+    @Override
+    public java.sql.PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return delegate().prepareStatement(sql, columnNames);
+    }
+
+    @Override
+    public java.sql.Clob createClob() throws SQLException {
+        return delegate().createClob();
+    }
+
+    @Override
+    public java.sql.Blob createBlob() throws SQLException {
+        return delegate().createBlob();
+    }
+
+    @Override
+    public java.sql.NClob createNClob() throws SQLException {
+        return delegate().createNClob();
+    }
+
+    @Override
+    public java.sql.SQLXML createSQLXML() throws SQLException {
+        return delegate().createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return !closed && actualConnection.isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws java.sql.SQLClientInfoException {
+        actualConnection.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws java.sql.SQLClientInfoException {
+        actualConnection.setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        return delegate().getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return delegate().getClientInfo();
+    }
+
+    @Override
+    public java.sql.Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        return delegate().createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public java.sql.Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        return delegate().createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        delegate().setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return delegate().getSchema();
+    }
+
+    @Override
+    public void abort(java.util.concurrent.Executor executor) throws SQLException {
+        delegate().abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(java.util.concurrent.Executor executor, int milliseconds) throws SQLException {
+        delegate().setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        return delegate().getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate().isWrapperFor(iface);
+    }
+}
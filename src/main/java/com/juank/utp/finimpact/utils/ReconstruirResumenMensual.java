@@ -0,0 +1,27 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.repository.ImpactoMensualRepository;
+
+/**
+ * Recalcula la tabla impactos_mensual a partir de todos los impactos.
+ * Usar después de cargas hechas directamente en la base (la tabla la crea MigradorEsquema).
+ */
+public class ReconstruirResumenMensual {
+    public static void main(String[] args) {
+        try {
+            System.out.println("=== RECONSTRUYENDO RESUMEN MENSUAL DE IMPACTOS ===");
+            long inicio = System.nanoTime();
+
+            int filas = new ImpactoMensualRepository().reconstruir();
+
+            System.out.println("✅ Resumen mensual reconstruido: " + filas + " filas en " +
+                    (System.nanoTime() - inicio) / 1_000_000 + " ms");
+
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConfig.closePool();
+        }
+    }
+}
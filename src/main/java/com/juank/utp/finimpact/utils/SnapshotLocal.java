@@ -0,0 +1,831 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.ImpactoColumnas;
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.model.Usuario;
+import com.juank.utp.finimpact.repository.SnapshotRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot en disco de iniciativas e impactos para mostrar las tablas al iniciar sin esperar al servidor.
+ * Cada tabla y alcance (todos o las iniciativas de un owner) se guarda en un archivo binario compacto
+ * que se lee con un mapeo de memoria. Después sincronizar() lo concilia: una consulta de una fila
+ * compara conteo y checksum hasta la marca (mayor ID guardado) y solo se traen las filas nuevas,
+ * que se agregan al final del archivo como un segmento más; si algo cambió por debajo de la marca,
+ * o el snapshot tiene más de un día, se recarga la tabla y se reescribe el archivo.
+ * Se desactiva con -Dfinimpact.snapshot=false; el directorio se cambia con finimpact.snapshot.dir.
+ *
+ * @param <T> tipo de fila guardada
+ * @param <R> forma en que se entregan todas las filas (lista, columnas...)
+ */
+public abstract class SnapshotLocal<T, R> {
+
+    public static final SnapshotLocal<Iniciativa, List<Iniciativa>> INICIATIVAS = new SnapshotIniciativas();
+    public static final SnapshotLocal<Impacto, ImpactoColumnas> IMPACTOS = new SnapshotImpactos();
+
+    private static final int MAGICO = 0x46494E53; // "FINS"
+    private static final short VERSION = 2;
+    // Mágico, versión, escrito, marca, cantidad, suma, segmentos y fin
+    private static final int TAMANO_CABECERA = Integer.BYTES + Short.BYTES + Long.BYTES + 4 * Integer.BYTES + Long.BYTES;
+    // Filas y bytes de filas al inicio de cada segmento
+    private static final int TAMANO_CABECERA_SEGMENTO = Integer.BYTES + Long.BYTES;
+    // Cada sincronización con filas nuevas agrega un segmento; pasado este número se reescribe completo
+    private static final int MAXIMO_SEGMENTOS = 64;
+    private static final int SIN_FECHA = Integer.MIN_VALUE;
+    // CHECKSUM_AGG puede no notar algunos cambios: una vez al día se recarga completo de todas formas
+    private static final long EDAD_MAXIMA_MS = TimeUnit.DAYS.toMillis(1);
+    private static final boolean ACTIVO = Boolean.parseBoolean(System.getProperty("finimpact.snapshot", "true"));
+    private static final Path DIRECTORIO = Path.of(System.getProperty("finimpact.snapshot.dir",
+            Path.of(System.getProperty("user.home"), ".finimpact", "snapshot").toString()));
+
+    private final String nombre;
+    private final Comparator<T> orden;
+    private final SnapshotRepository snapshotRepository = new SnapshotRepository();
+    // Último archivo mapeado por alcance, para que sincronizar() no lo vuelva a abrir
+    private final Map<String, Guardado> leidos = new ConcurrentHashMap<>();
+
+    private SnapshotLocal(String nombre, Comparator<T> orden) {
+        this.nombre = nombre;
+        this.orden = orden;
+    }
+
+    public static boolean isActivo() {
+        return ACTIVO;
+    }
+
+    /**
+     * Primeras filas guardadas en el orden de la tabla (p. ej. la primera página); solo se
+     * decodifican esas, no el archivo completo
+     *
+     * @return vacío si no hay snapshot o no se pudo leer
+     */
+    public Optional<List<T>> leerPrimeras(Usuario usuario, int maximo) {
+        Guardado guardado = abrir(usuario);
+        if (guardado == null) {
+            return Optional.empty();
+        }
+        // Cada segmento está ordenado: las primeras del total están entre las primeras de cada uno
+        List<T> primeras = new ArrayList<>();
+        for (Segmento segmento : guardado.segmentos) {
+            Entrada entrada = segmento.entrada(guardado.buffer);
+            for (int i = 0; i < Math.min(maximo, segmento.filas); i++) {
+                primeras.add(leerFila(entrada));
+            }
+        }
+        if (guardado.segmentos.size() > 1) {
+            primeras.sort(orden);
+        }
+        return Optional.of(List.copyOf(primeras.subList(0, Math.min(maximo, primeras.size()))));
+    }
+
+    /**
+     * Todas las filas guardadas en la última sesión para el alcance del usuario, sin conciliar
+     *
+     * @return vacío si no hay snapshot o no se pudo leer
+     */
+    public Optional<R> leer(Usuario usuario) {
+        Guardado guardado = abrir(usuario);
+        if (guardado == null) {
+            return Optional.empty();
+        }
+        R acumulado = nuevoAcumulado();
+        recorrer(guardado, entrada -> acumular(acumulado, entrada));
+        return Optional.of(terminar(acumulado));
+    }
+
+    /**
+     * Concilia el snapshot con el servidor y lo guarda. Bloqueante: llamar en background.
+     * Las filas del servidor se escriben en el archivo a medida que llegan, sin juntarlas en memoria.
+     *
+     * @return todas las filas vigentes del alcance del usuario
+     */
+    public R sincronizar(Usuario usuario) throws SQLException {
+        long inicio = System.nanoTime();
+        Integer idOwner = idOwner(usuario);
+        String alcance = alcance(idOwner);
+        Guardado guardado = leidos.remove(alcance);
+        if (guardado == null && ACTIVO) {
+            guardado = leerArchivo(alcance);
+        }
+        if (guardado != null && (System.currentTimeMillis() - guardado.escrito > EDAD_MAXIMA_MS
+                || guardado.segmentos.size() >= MAXIMO_SEGMENTOS)) {
+            guardado = null;
+        }
+
+        // El estado se consulta antes que las filas: un cambio entre ambas consultas queda como
+        // diferencia de checksum y fuerza la recarga la próxima vez, nunca como dato viejo aceptado
+        SnapshotRepository.Estado estado = estado(idOwner, guardado != null ? guardado.marca : 0);
+        boolean vigente = guardado != null
+                && estado.getFilasHastaMarca() == guardado.cantidad
+                && estado.getSumaHastaMarca() == guardado.suma;
+
+        R acumulado = nuevoAcumulado();
+        if (vigente) {
+            recorrer(guardado, entrada -> acumular(acumulado, entrada));
+        }
+        int traidas;
+        // Un solo escritor por tabla: dos sincronizaciones no pueden agregar al mismo archivo a la vez
+        synchronized (this) {
+            traidas = vigente
+                    ? agregarNuevas(guardado, idOwner, estado, acumulado)
+                    : recargar(alcance, idOwner, estado, acumulado);
+        }
+        R filas = terminar(acumulado);
+        Metricas.registrarTiempo("snapshot." + nombre + ".sincronizacion", System.nanoTime() - inicio);
+        System.out.println(vigente
+                ? "🔄 Snapshot de " + nombre + " al día con " + traidas + " filas nuevas"
+                : "🔄 Snapshot de " + nombre + " recargado completo (" + traidas + " filas)");
+
+        alSincronizar(idOwner, filas);
+        return filas;
+    }
+
+    abstract int id(T fila);
+
+    abstract void escribirFila(T fila, Salida salida) throws IOException;
+
+    abstract T leerFila(Entrada entrada);
+
+    abstract R nuevoAcumulado();
+
+    /**
+     * Agrega al acumulado la siguiente fila del archivo, consumiendo todos sus campos
+     */
+    abstract void acumular(R acumulado, Entrada entrada);
+
+    /**
+     * Agrega al acumulado una fila recién traída del servidor
+     */
+    abstract void acumular(R acumulado, T fila);
+
+    /**
+     * Último paso antes de entregar el acumulado (p. ej. ordenar una lista armada por segmentos)
+     */
+    R terminar(R acumulado) {
+        return acumulado;
+    }
+
+    abstract SnapshotRepository.Estado estado(Integer idOwner, int marca) throws SQLException;
+
+    /**
+     * Entrega las filas con ID mayor a la marca en el orden de la tabla
+     */
+    abstract void recorrerDesde(Integer idOwner, int marca, Consumer<T> consumidor) throws SQLException;
+
+    /**
+     * Datos recién conciliados con el servidor (p. ej. para reconstruir índices en memoria)
+     */
+    void alSincronizar(Integer idOwner, R filas) {
+    }
+
+    /**
+     * Analistas solo ven sus iniciativas; admin y viewer comparten el snapshot de todas
+     */
+    private static Integer idOwner(Usuario usuario) {
+        return usuario != null && "analista".equals(usuario.getRol()) ? usuario.getIdUsuario() : null;
+    }
+
+    private static String alcance(Integer idOwner) {
+        return idOwner == null ? "todos" : "owner" + idOwner;
+    }
+
+    /**
+     * Mapea el archivo del alcance del usuario la primera vez y lo reutiliza hasta sincronizar
+     */
+    private Guardado abrir(Usuario usuario) {
+        if (!ACTIVO) {
+            return null;
+        }
+        String alcance = alcance(idOwner(usuario));
+        Guardado guardado = leidos.get(alcance);
+        if (guardado != null) {
+            return guardado;
+        }
+        long inicio = System.nanoTime();
+        guardado = leerArchivo(alcance);
+        if (guardado == null) {
+            return null;
+        }
+        leidos.put(alcance, guardado);
+        ArranqueAplicacion.registrarFase("snapshot " + nombre, inicio);
+        System.out.println("📦 Snapshot de " + nombre + ": " + guardado.filas() + " filas guardadas el "
+                + LocalDateTime.ofInstant(Instant.ofEpochMilli(guardado.escrito), ZoneOffset.systemDefault()));
+        return guardado;
+    }
+
+    private static void recorrer(Guardado guardado, Consumer<Entrada> fila) {
+        for (Segmento segmento : guardado.segmentos) {
+            Entrada entrada = segmento.entrada(guardado.buffer);
+            for (int i = 0; i < segmento.filas; i++) {
+                fila.accept(entrada);
+            }
+        }
+    }
+
+    /**
+     * Agrega las filas nuevas como un segmento al final del archivo leído. La cabecera se
+     * actualiza al final: si algo falla antes, el archivo sigue siendo el anterior y las filas
+     * se vuelven a traer en la próxima sincronización.
+     *
+     * @return filas traídas del servidor
+     */
+    private int agregarNuevas(Guardado guardado, Integer idOwner, SnapshotRepository.Estado estado, R acumulado)
+            throws SQLException {
+        int traidas = -1;
+        if (ACTIVO) {
+            try (FileChannel canal = FileChannel.open(guardado.archivo, StandardOpenOption.WRITE)) {
+                Escritura escritura = new Escritura(canal, guardado.fin);
+                traidas = traer(idOwner, guardado.marca, estado, acumulado, escritura);
+                if (traidas > 0) {
+                    long fin = escritura.terminar();
+                    // El segmento queda en disco antes de que la cabecera lo incluya
+                    canal.force(false);
+                    escribirCabecera(canal, guardado.escrito, estado, guardado.segmentos.size() + 1, fin);
+                }
+            } catch (IOException e) {
+                System.err.println("⚠️ No se pudo agregar al snapshot de " + nombre + ": " + e.getMessage());
+            }
+        }
+        // Sin escribir (desactivado o el archivo no se pudo abrir): solo se acumulan
+        return traidas >= 0 ? traidas : traer(idOwner, guardado.marca, estado, acumulado, null);
+    }
+
+    /**
+     * Trae toda la tabla y la escribe en un archivo nuevo, que reemplaza al más antiguo de los dos
+     *
+     * @return filas traídas del servidor
+     */
+    private int recargar(String alcance, Integer idOwner, SnapshotRepository.Estado estado, R acumulado)
+            throws SQLException {
+        int traidas = -1;
+        if (ACTIVO) {
+            Path temporal = null;
+            try {
+                Files.createDirectories(DIRECTORIO);
+                temporal = Files.createTempFile(DIRECTORIO, nombre, ".tmp");
+                try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                    Escritura escritura = new Escritura(canal, TAMANO_CABECERA);
+                    traidas = traer(idOwner, 0, estado, acumulado, escritura);
+                    long fin = escritura.terminar();
+                    escribirCabecera(canal, System.currentTimeMillis(), estado, 1, fin);
+                }
+                List<Path> archivos = archivos(alcance);
+                Files.move(temporal, archivos.get(archivos.size() - 1), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("⚠️ No se pudo guardar el snapshot de " + nombre + ": " + e.getMessage());
+                borrar(temporal);
+            } catch (SQLException | RuntimeException e) {
+                borrar(temporal);
+                throw e;
+            }
+        }
+        return traidas >= 0 ? traidas : traer(idOwner, 0, estado, acumulado, null);
+    }
+
+    /**
+     * Trae del servidor las filas por encima de la marca, las acumula y las escribe si hay
+     * escritura; las que se insertaron después de leer el estado quedan para la próxima vez
+     */
+    private int traer(Integer idOwner, int marca, SnapshotRepository.Estado estado, R acumulado, Escritura escritura)
+            throws SQLException {
+        int[] traidas = new int[1];
+        recorrerDesde(idOwner, marca, fila -> {
+            if (id(fila) <= estado.getMarca()) {
+                acumular(acumulado, fila);
+                if (escritura != null) {
+                    escritura.agregar(fila);
+                }
+                traidas[0]++;
+            }
+        });
+        return traidas[0];
+    }
+
+    private static void escribirCabecera(FileChannel canal, long escrito, SnapshotRepository.Estado estado,
+                                         int segmentos, long fin) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA)
+                .putInt(MAGICO)
+                .putShort(VERSION)
+                .putLong(escrito)
+                .putInt(estado.getMarca())
+                .putInt(estado.getFilas())
+                .putInt(estado.getSuma())
+                .putInt(segmentos)
+                .putLong(fin)
+                .flip();
+        while (cabecera.hasRemaining()) {
+            canal.write(cabecera, cabecera.position());
+        }
+    }
+
+    private static void borrar(Path temporal) {
+        if (temporal != null) {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException ignorado) {
+                // se sobrescribe o se borra con el directorio
+            }
+        }
+    }
+
+    /**
+     * Dos archivos por tabla y alcance, y una recarga completa se escribe en el más antiguo: en
+     * Windows un archivo mapeado no se puede reemplazar hasta que el GC libera el mapeo
+     */
+    private List<Path> archivos(String alcance) {
+        List<Path> archivos = new ArrayList<>();
+        archivos.add(DIRECTORIO.resolve(nombre + "-" + alcance + "-1.bin"));
+        archivos.add(DIRECTORIO.resolve(nombre + "-" + alcance + "-2.bin"));
+        archivos.sort(Comparator.<Path>comparingLong(SnapshotLocal::modificado).reversed());
+        return archivos;
+    }
+
+    private static long modificado(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo).toMillis();
+        } catch (IOException e) {
+            return Long.MIN_VALUE; // no existe
+        }
+    }
+
+    /**
+     * Mapea el archivo más reciente que sea válido; null si no hay ninguno
+     */
+    private Guardado leerArchivo(String alcance) {
+        for (Path archivo : archivos(alcance)) {
+            if (!Files.isRegularFile(archivo)) {
+                continue;
+            }
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                // El mapeo sigue siendo válido después de cerrar el canal
+                Guardado guardado = decodificar(archivo, canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+                if (guardado != null) {
+                    return guardado;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️ Snapshot " + archivo.getFileName() + " descartado: " + e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee la cabecera y ubica cada segmento con sus textos; las filas se leen después, a pedido
+     */
+    private static Guardado decodificar(Path archivo, ByteBuffer buffer) {
+        if (buffer.remaining() < TAMANO_CABECERA || buffer.getInt(0) != MAGICO || buffer.getShort(Integer.BYTES) != VERSION) {
+            return null;
+        }
+        ByteBuffer lectura = buffer.duplicate().position(Integer.BYTES + Short.BYTES);
+        long escrito = lectura.getLong();
+        int marca = lectura.getInt();
+        int cantidad = lectura.getInt();
+        int suma = lectura.getInt();
+        int segmentos = lectura.getInt();
+        // Lo que haya después de fin es un segmento que no se terminó de agregar
+        long fin = lectura.getLong();
+        if (fin > buffer.limit()) {
+            return null;
+        }
+
+        List<Segmento> ubicados = new ArrayList<>(segmentos);
+        for (int i = 0; i < segmentos; i++) {
+            int filas = lectura.getInt();
+            long bytesFilas = lectura.getLong();
+            int inicioFilas = lectura.position();
+            lectura.position(Math.toIntExact(inicioFilas + bytesFilas));
+            String[] textos = new String[lectura.getInt()];
+            for (int t = 0; t < textos.length; t++) {
+                textos[t] = Entrada.texto(lectura);
+            }
+            ubicados.add(new Segmento(filas, inicioFilas, textos));
+        }
+        if (lectura.position() != fin) {
+            return null;
+        }
+        return new Guardado(archivo, buffer, marca, cantidad, suma, escrito, ubicados, fin);
+    }
+
+    /**
+     * Archivo mapeado: marca, conteo y checksum del servidor al guardarlo, y la ubicación de cada segmento
+     */
+    private static class Guardado {
+        final Path archivo;
+        final ByteBuffer buffer;
+        final int marca;
+        final int cantidad;
+        final int suma;
+        // Última recarga completa; agregar un segmento no la cambia
+        final long escrito;
+        final List<Segmento> segmentos;
+        final long fin;
+
+        Guardado(Path archivo, ByteBuffer buffer, int marca, int cantidad, int suma, long escrito,
+                 List<Segmento> segmentos, long fin) {
+            this.archivo = archivo;
+            this.buffer = buffer;
+            this.marca = marca;
+            this.cantidad = cantidad;
+            this.suma = suma;
+            this.escrito = escrito;
+            this.segmentos = segmentos;
+            this.fin = fin;
+        }
+
+        int filas() {
+            return segmentos.stream().mapToInt(segmento -> segmento.filas).sum();
+        }
+    }
+
+    /**
+     * Filas escritas de una vez (recarga o sincronización) en el orden de la tabla, seguidas
+     * de los textos codificados que usan
+     */
+    private static class Segmento {
+        final int filas;
+        final int inicioFilas;
+        final String[] textos;
+
+        Segmento(int filas, int inicioFilas, String[] textos) {
+            this.filas = filas;
+            this.inicioFilas = inicioFilas;
+            this.textos = textos;
+        }
+
+        /**
+         * Lector con su propia posición sobre el mapeo: varios hilos pueden recorrer el mismo archivo
+         */
+        Entrada entrada(ByteBuffer buffer) {
+            return new Entrada(buffer.duplicate().position(inicioFilas), textos);
+        }
+    }
+
+    /**
+     * Escribe un segmento a medida que llegan las filas: primero las filas y al terminar los
+     * textos codificados, que recién entonces se conocen, y el tamaño al inicio del segmento
+     */
+    private final class Escritura {
+        private final FileChannel canal;
+        private final long inicio;
+        private final DataOutputStream out;
+        private final Salida salida;
+        private int filas;
+        // Un error de disco no corta la lectura del servidor; se informa al terminar
+        private IOException error;
+
+        Escritura(FileChannel canal, long inicio) throws IOException {
+            this.canal = canal;
+            this.inicio = inicio;
+            canal.position(inicio + TAMANO_CABECERA_SEGMENTO);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal)));
+            this.salida = new Salida(out);
+        }
+
+        void agregar(T fila) {
+            if (error != null) {
+                return;
+            }
+            try {
+                escribirFila(fila, salida);
+                filas++;
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        /**
+         * @return posición donde termina el segmento
+         */
+        long terminar() throws IOException {
+            if (error != null) {
+                throw error;
+            }
+            long bytesFilas = out.size();
+            out.writeInt(salida.textos.size());
+            for (String texto : salida.textos.keySet()) {
+                Salida.texto(out, texto);
+            }
+            out.flush();
+            long fin = inicio + TAMANO_CABECERA_SEGMENTO + out.size();
+
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA_SEGMENTO).putInt(filas).putLong(bytesFilas).flip();
+            while (cabecera.hasRemaining()) {
+                canal.write(cabecera, inicio + cabecera.position());
+            }
+            return fin;
+        }
+    }
+
+    /**
+     * Escritura de filas; los textos de pocos valores distintos (tipo, estado...) van como código
+     */
+    static final class Salida {
+        private final DataOutputStream datos;
+        private final Map<String, Integer> textos = new LinkedHashMap<>();
+
+        Salida(DataOutputStream datos) {
+            this.datos = datos;
+        }
+
+        void entero(int valor) throws IOException {
+            datos.writeInt(valor);
+        }
+
+        void largo(long valor) throws IOException {
+            datos.writeLong(valor);
+        }
+
+        void texto(String valor) throws IOException {
+            texto(datos, valor);
+        }
+
+        void codigo(String valor) throws IOException {
+            datos.writeInt(valor == null ? -1 : textos.computeIfAbsent(valor, v -> textos.size()));
+        }
+
+        void fecha(LocalDate valor) throws IOException {
+            datos.writeInt(valor == null ? SIN_FECHA : (int) valor.toEpochDay());
+        }
+
+        void fechaHora(LocalDateTime valor) throws IOException {
+            datos.writeLong(valor == null ? Long.MIN_VALUE : valor.toEpochSecond(ZoneOffset.UTC));
+            datos.writeInt(valor == null ? 0 : valor.getNano());
+        }
+
+        void monto(BigDecimal valor) throws IOException {
+            // DECIMAL(18, 2): el valor sin escala siempre cabe en un long
+            datos.writeLong(valor.unscaledValue().longValueExact());
+            datos.writeByte(valor.scale());
+        }
+
+        static void texto(DataOutputStream out, String valor) throws IOException {
+            if (valor == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    /**
+     * Lectura de filas sobre el archivo mapeado, en el mismo orden en que Salida las escribió
+     */
+    static final class Entrada {
+        private final ByteBuffer buffer;
+        private final String[] textos;
+
+        Entrada(ByteBuffer buffer, String[] textos) {
+            this.buffer = buffer;
+            this.textos = textos;
+        }
+
+        int entero() {
+            return buffer.getInt();
+        }
+
+        String texto() {
+            return texto(buffer);
+        }
+
+        String codigo() {
+            int codigo = buffer.getInt();
+            return codigo < 0 ? null : textos[codigo];
+        }
+
+        LocalDate fecha() {
+            int dia = buffer.getInt();
+            return dia == SIN_FECHA ? null : LocalDate.ofEpochDay(dia);
+        }
+
+        /**
+         * Fecha como día epoch, sin crear el LocalDate
+         */
+        int dia() {
+            return buffer.getInt();
+        }
+
+        LocalDateTime fechaHora() {
+            long segundos = buffer.getLong();
+            int nanos = buffer.getInt();
+            return segundos == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+        }
+
+        BigDecimal monto() {
+            long sinEscala = buffer.getLong();
+            return BigDecimal.valueOf(sinEscala, buffer.get());
+        }
+
+        /**
+         * Monto por el multiplicador en centavos, sin crear el BigDecimal si la escala es de hasta 2 decimales
+         */
+        long montoEnCentavos(int multiplicador) {
+            long sinEscala = buffer.getLong();
+            int escala = buffer.get();
+            if (escala >= 0 && escala <= 2) {
+                long factor = escala == 2 ? 1 : escala == 1 ? 10 : 100;
+                return Math.multiplyExact(Math.multiplyExact(sinEscala, (long) multiplicador), factor);
+            }
+            return BigDecimal.valueOf(sinEscala, escala).multiply(BigDecimal.valueOf(multiplicador))
+                    .movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        }
+
+        static String texto(ByteBuffer buffer) {
+            int largo = buffer.getInt();
+            if (largo < 0) {
+                return null;
+            }
+            byte[] utf8 = new byte[largo];
+            buffer.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class SnapshotIniciativas extends SnapshotLocal<Iniciativa, List<Iniciativa>> {
+
+        SnapshotIniciativas() {
+            // Mismo orden que IniciativaRepository: más recientes primero (NULL al final, como en SQL Server)
+            super("iniciativas", Comparator.comparing(Iniciativa::getFechaRegistro, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                    .reversed()
+                    .thenComparing(Iniciativa::getIdIniciativa, Comparator.reverseOrder()));
+        }
+
+        @Override
+        int id(Iniciativa iniciativa) {
+            return iniciativa.getIdIniciativa();
+        }
+
+        @Override
+        void escribirFila(Iniciativa iniciativa, Salida salida) throws IOException {
+            salida.entero(iniciativa.getIdIniciativa());
+            salida.texto(iniciativa.getNombre());
+            salida.texto(iniciativa.getDescripcion());
+            salida.fecha(iniciativa.getFechaInicio());
+            salida.fecha(iniciativa.getFechaFin());
+            salida.codigo(iniciativa.getTipo());
+            salida.codigo(iniciativa.getEstado());
+            salida.codigo(iniciativa.getRiesgo());
+            salida.entero(iniciativa.getIdOwner());
+            salida.fechaHora(iniciativa.getFechaRegistro());
+        }
+
+        @Override
+        Iniciativa leerFila(Entrada entrada) {
+            Iniciativa iniciativa = new Iniciativa();
+            iniciativa.setIdIniciativa(entrada.entero());
+            iniciativa.setNombre(entrada.texto());
+            iniciativa.setDescripcion(entrada.texto());
+            iniciativa.setFechaInicio(entrada.fecha());
+            iniciativa.setFechaFin(entrada.fecha());
+            iniciativa.setTipo(entrada.codigo());
+            iniciativa.setEstado(entrada.codigo());
+            iniciativa.setRiesgo(entrada.codigo());
+            iniciativa.setIdOwner(entrada.entero());
+            iniciativa.setFechaRegistro(entrada.fechaHora());
+            return iniciativa;
+        }
+
+        @Override
+        List<Iniciativa> nuevoAcumulado() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        void acumular(List<Iniciativa> iniciativas, Entrada entrada) {
+            iniciativas.add(leerFila(entrada));
+        }
+
+        @Override
+        void acumular(List<Iniciativa> iniciativas, Iniciativa iniciativa) {
+            iniciativas.add(iniciativa);
+        }
+
+        @Override
+        List<Iniciativa> terminar(List<Iniciativa> iniciativas) {
+            // La tabla muestra la lista completa: los segmentos se intercalan en el orden de la tabla
+            iniciativas.sort(super.orden);
+            return iniciativas;
+        }
+
+        @Override
+        SnapshotRepository.Estado estado(Integer idOwner, int marca) throws SQLException {
+            return super.snapshotRepository.estadoIniciativas(idOwner, marca);
+        }
+
+        @Override
+        void recorrerDesde(Integer idOwner, int marca, Consumer<Iniciativa> consumidor) throws SQLException {
+            super.snapshotRepository.recorrerIniciativasDesde(idOwner, marca, consumidor);
+        }
+
+        @Override
+        void alSincronizar(Integer idOwner, List<Iniciativa> iniciativas) {
+            // Todas las iniciativas frescas: el índice de búsqueda no necesita otra consulta
+            if (idOwner == null) {
+                IndiceBusquedaIniciativas.reconstruir(iniciativas);
+            }
+        }
+    }
+
+    private static final class SnapshotImpactos extends SnapshotLocal<Impacto, ImpactoColumnas> {
+
+        SnapshotImpactos() {
+            // Mismo orden que la paginación de impactos: (fecha_impacto, id_impacto) descendente
+            super("impactos", Comparator.comparing(Impacto::getFechaImpacto)
+                    .thenComparingInt(Impacto::getIdImpacto)
+                    .reversed());
+        }
+
+        @Override
+        int id(Impacto impacto) {
+            return impacto.getIdImpacto();
+        }
+
+        @Override
+        void escribirFila(Impacto impacto, Salida salida) throws IOException {
+            salida.entero(impacto.getIdImpacto());
+            salida.entero(impacto.getIdIniciativa());
+            salida.fecha(impacto.getFechaCreacion());
+            salida.codigo(impacto.getTipoImpacto());
+            salida.entero(impacto.getMultiplicador());
+            salida.codigo(impacto.getAtributoImpacto());
+            salida.fecha(impacto.getFechaImpacto());
+            salida.monto(impacto.getImpacto());
+        }
+
+        @Override
+        Impacto leerFila(Entrada entrada) {
+            Impacto impacto = new Impacto();
+            impacto.setIdImpacto(entrada.entero());
+            impacto.setIdIniciativa(entrada.entero());
+            impacto.setFechaCreacion(entrada.fecha());
+            impacto.setTipoImpacto(entrada.codigo());
+            impacto.setMultiplicador(entrada.entero());
+            impacto.setAtributoImpacto(entrada.codigo());
+            impacto.setFechaImpacto(entrada.fecha());
+            impacto.setImpacto(entrada.monto());
+            return impacto;
+        }
+
+        @Override
+        ImpactoColumnas nuevoAcumulado() {
+            return new ImpactoColumnas();
+        }
+
+        @Override
+        void acumular(ImpactoColumnas columnas, Entrada entrada) {
+            // Del mapeo directo a las columnas, sin crear un Impacto por fila
+            int idImpacto = entrada.entero();
+            int idIniciativa = entrada.entero();
+            entrada.dia(); // fecha de creación: no se usa en los totales
+            String tipo = entrada.codigo();
+            int multiplicador = entrada.entero();
+            String atributo = entrada.codigo();
+            int fechaImpacto = entrada.dia();
+            columnas.agregar(idImpacto, idIniciativa, fechaImpacto, tipo, atributo, entrada.montoEnCentavos(multiplicador));
+        }
+
+        @Override
+        void acumular(ImpactoColumnas columnas, Impacto impacto) {
+            columnas.agregar(impacto);
+        }
+
+        @Override
+        SnapshotRepository.Estado estado(Integer idOwner, int marca) throws SQLException {
+            return super.snapshotRepository.estadoImpactos(idOwner, marca);
+        }
+
+        @Override
+        void recorrerDesde(Integer idOwner, int marca, Consumer<Impacto> consumidor) throws SQLException {
+            super.snapshotRepository.recorrerImpactosDesde(idOwner, marca, consumidor);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.juank.utp.finimpact.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Caché LRU de sentencias preparadas de una conexión física del pool.
+ * prepareStatement() devuelve un proxy de la sentencia guardada; al cerrarlo la sentencia
+ * se limpia y vuelve a la caché en lugar de cerrarse, así el driver reutiliza el handle
+ * preparado en el servidor (sp_execute) en vez de preparar de nuevo en cada llamada.
+ */
+class StatementCache {
+
+    /**
+     * Crea la sentencia física cuando no está en caché
+     */
+    @FunctionalInterface
+    interface StatementFactory {
+        PreparedStatement create() throws SQLException;
+    }
+
+    private final int maxSize;
+    private final ConnectionPool pool;
+    // Orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize, ConnectionPool pool) {
+        this.maxSize = maxSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Devuelve la sentencia de la caché o la crea. Si la misma SQL ya está en uso en esta conexión
+     * (p. ej. dos ResultSet abiertos a la vez) se entrega una sentencia aparte que se cierra normalmente.
+     *
+     * @param variante distingue opciones de preparación distintas para la misma SQL (claves generadas, tipo de ResultSet)
+     */
+    PreparedStatement prepare(PooledConnection owner, String sql, String variante, StatementFactory factory) throws SQLException {
+        owner.recordStatement(sql);
+        if (maxSize <= 0) {
+            return factory.create();
+        }
+        String clave = variante.isEmpty() ? sql : variante + '|' + sql;
+        CachedStatement cached;
+        synchronized (this) {
+            cached = statements.get(clave);
+            if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+                cached.inUse = true;
+                pool.recordStatementCacheHit();
+                return owner.register(cached.proxy(owner));
+            }
+        }
+
+        pool.recordStatementCacheMiss();
+        PreparedStatement statement = factory.create();
+        if (cached != null && cached.inUse) {
+            return statement;
+        }
+        CachedStatement nuevo = new CachedStatement(clave, statement);
+        nuevo.inUse = true;
+        List<CachedStatement> desalojadas = new ArrayList<>();
+        synchronized (this) {
+            CachedStatement anterior = statements.put(clave, nuevo);
+            if (anterior != null) {
+                desalojadas.add(anterior); // sentencia cerrada por el driver
+            }
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while (statements.size() > maxSize && it.hasNext()) {
+                CachedStatement candidata = it.next();
+                if (!candidata.inUse) {
+                    it.remove();
+                    desalojadas.add(candidata);
+                }
+            }
+        }
+        for (CachedStatement desalojada : desalojadas) {
+            pool.recordStatementCacheEviction();
+            closeQuietly(desalojada.statement);
+        }
+        return owner.register(nuevo.proxy(owner));
+    }
+
+    /**
+     * Limpia la sentencia y la deja disponible; si no se puede limpiar se descarta
+     */
+    private void giveBack(CachedStatement cached) {
+        try {
+            ResultSet abierto = cached.statement.getResultSet();
+            if (abierto != null) {
+                abierto.close();
+            }
+            cached.statement.clearParameters();
+            cached.statement.clearBatch();
+            cached.statement.clearWarnings();
+            // Restaurar lo que el usuario anterior pudo cambiar (p. ej. fetch size de exportaciones)
+            cached.statement.setFetchSize(cached.fetchSizeInicial);
+            cached.statement.setMaxRows(cached.maxRowsInicial);
+            cached.statement.setQueryTimeout(cached.queryTimeoutInicial);
+            synchronized (this) {
+                cached.inUse = false;
+            }
+        } catch (SQLException e) {
+            synchronized (this) {
+                statements.remove(cached.clave, cached);
+            }
+            closeQuietly(cached.statement);
+        }
+    }
+
+    /**
+     * Cierra todas las sentencias (la conexión física se va a cerrar)
+     */
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error cerrando sentencia en caché: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sentencia física guardada con los valores con los que se creó
+     */
+    private class CachedStatement {
+        final String clave;
+        final PreparedStatement statement;
+        final int fetchSizeInicial;
+        final int maxRowsInicial;
+        final int queryTimeoutInicial;
+        boolean inUse;
+
+        CachedStatement(String clave, PreparedStatement statement) throws SQLException {
+            this.clave = clave;
+            this.statement = statement;
+            this.fetchSizeInicial = statement.getFetchSize();
+            this.maxRowsInicial = statement.getMaxRows();
+            this.queryTimeoutInicial = statement.getQueryTimeout();
+        }
+
+        PreparedStatement proxy(PooledConnection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, new LogicalStatement(this, owner));
+        }
+    }
+
+    /**
+     * Suma al préstamo las filas afectadas o, para consultas, envuelve el ResultSet para contar las leídas
+     */
+    private Object contarFilas(Object proxy, String metodo, Object resultado) {
+        switch (metodo) {
+            case "executeQuery":
+                ResultSet rs = (ResultSet) resultado;
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                        new Class<?>[] {ResultSet.class}, new FilasContadas(rs, (PreparedStatement) proxy));
+            case "executeUpdate":
+            case "executeLargeUpdate":
+                ownerOf(proxy).addRows(((Number) resultado).longValue());
+                return resultado;
+            case "executeBatch":
+                for (int filas : (int[]) resultado) {
+                    ownerOf(proxy).addRows(filas);
+                }
+                return resultado;
+            default:
+                return resultado;
+        }
+    }
+
+    private static PooledConnection ownerOf(Object proxy) {
+        return ((LogicalStatement) Proxy.getInvocationHandler(proxy)).owner;
+    }
+
+    /**
+     * ResultSet que cuenta las filas leídas (solo mientras hay un evento de diagnóstico activo)
+     */
+    private static class FilasContadas implements InvocationHandler {
+        private final ResultSet rs;
+        private final PreparedStatement statement;
+
+        FilasContadas(ResultSet rs, PreparedStatement statement) {
+            this.rs = rs;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getStatement":
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    Object resultado;
+                    try {
+                        resultado = method.invoke(rs, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if ("next".equals(method.getName()) && Boolean.TRUE.equals(resultado)) {
+                        ownerOf(statement).addRows(1);
+                    }
+                    return resultado;
+            }
+        }
+    }
+
+    /**
+     * Vista de una sentencia en caché para un préstamo: close() la devuelve a la caché
+     * y después de cerrarla las llamadas fallan como en una sentencia cerrada
+     */
+    private class LogicalStatement implements InvocationHandler {
+        private final CachedStatement cached;
+        private final PooledConnection owner;
+        private boolean closed;
+
+        LogicalStatement(CachedStatement cached, PooledConnection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        giveBack(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "StatementCache[" + cached.statement + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("La sentencia ya fue cerrada");
+                    }
+                    Object resultado;
+                    try {
+                        resultado = method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return owner.isCountingRows() ? contarFilas(proxy, method.getName(), resultado) : resultado;
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.juank.utp.finimpact.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revisa al iniciar que existan los índices que necesitan las consultas de los repositorios
+ * (los crea la migración V3__indices.sql). Un índice cuenta como presente si algún índice
+ * de la tabla empieza por las mismas columnas clave, aunque tenga otro nombre.
+ */
+public class VerificadorIndices {
+
+    /**
+     * Índice esperado: tabla y columnas clave en orden
+     */
+    public static class IndiceRequerido {
+        private final String nombre;
+        private final String tabla;
+        private final List<String> columnas;
+
+        IndiceRequerido(String nombre, String tabla, String... columnas) {
+            this.nombre = nombre;
+            this.tabla = tabla;
+            this.columnas = List.of(columnas);
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public String getTabla() {
+            return tabla;
+        }
+
+        public List<String> getColumnas() {
+            return columnas;
+        }
+
+        @Override
+        public String toString() {
+            return nombre + " ON " + tabla + " (" + String.join(", ", columnas) + ")";
+        }
+    }
+
+    private static final List<IndiceRequerido> REQUERIDOS = List.of(
+        new IndiceRequerido("ix_impactos_iniciativa_fecha", "impactos", "id_iniciativa", "fecha_impacto"),
+        new IndiceRequerido("ix_impactos_atributo_fecha", "impactos", "atributo_impacto", "fecha_impacto"),
+        new IndiceRequerido("ix_impactos_fecha_id", "impactos", "fecha_impacto", "id_impacto"),
+        new IndiceRequerido("ix_iniciativas_owner_registro", "iniciativas", "id_owner", "fecha_registro"),
+        new IndiceRequerido("ix_impactos_mensual_atributo_mes", "impactos_mensual", "atributo_impacto", "mes")
+    );
+
+    /**
+     * Devuelve los índices requeridos que no tienen equivalente en la base
+     */
+    public static List<IndiceRequerido> buscarFaltantes() throws SQLException {
+        String sql = "SELECT t.name AS tabla, i.index_id, c.name AS columna FROM sys.indexes i " +
+                    "INNER JOIN sys.tables t ON i.object_id = t.object_id " +
+                    "INNER JOIN sys.index_columns ic ON i.object_id = ic.object_id AND i.index_id = ic.index_id " +
+                    "INNER JOIN sys.columns c ON ic.object_id = c.object_id AND ic.column_id = c.column_id " +
+                    "WHERE ic.key_ordinal > 0 AND t.name IN ('impactos', 'iniciativas', 'impactos_mensual') " +
+                    "ORDER BY t.name, i.index_id, ic.key_ordinal";
+
+        // tabla -> columnas clave de cada índice existente
+        Map<String, Map<Integer, List<String>>> existentes = new HashMap<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                existentes.computeIfAbsent(rs.getString("tabla").toLowerCase(), k -> new HashMap<>())
+                        .computeIfAbsent(rs.getInt("index_id"), k -> new ArrayList<>())
+                        .add(rs.getString("columna").toLowerCase());
+            }
+        }
+
+        List<IndiceRequerido> faltantes = new ArrayList<>();
+        for (IndiceRequerido requerido : REQUERIDOS) {
+            Map<Integer, List<String>> indicesTabla = existentes.getOrDefault(requerido.getTabla(), Map.of());
+            boolean cubierto = indicesTabla.values().stream().anyMatch(columnas ->
+                    columnas.size() >= requerido.getColumnas().size()
+                            && columnas.subList(0, requerido.getColumnas().size()).equals(requerido.getColumnas()));
+            if (!cubierto) {
+                faltantes.add(requerido);
+            }
+        }
+        return faltantes;
+    }
+
+    /**
+     * Verificación de inicio: informa por consola las migraciones pendientes y los índices faltantes.
+     * Nunca lanza excepciones; la ventana abre igual (el que bloquea el login con un esquema
+     * desactualizado es LoginController).
+     */
+    public static void verificarAlIniciar() {
+        try {
+            int actual = MigradorEsquema.versionActual();
+            if (actual < MigradorEsquema.versionDisponible()) {
+                // La aplicación no migra: el login queda bloqueado hasta que se despliegue el esquema
+                System.err.println("⚠️ Esquema en versión " + actual + " de " + MigradorEsquema.versionDisponible() +
+                        ": el login no deja entrar hasta que un administrador aplique las migraciones con " +
+                        "mvn -q compile exec:java -Dexec.mainClass=" + MigradorEsquema.class.getName());
+            }
+            List<IndiceRequerido> faltantes = buscarFaltantes();
+            if (faltantes.isEmpty()) {
+                System.out.println("✅ Índices del esquema verificados");
+                return;
+            }
+            for (IndiceRequerido faltante : faltantes) {
+                System.err.println("⚠️ Falta índice " + faltante + "; las consultas sobre " + faltante.getTabla() + " recorrerán la tabla completa");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al verificar índices del esquema: " + e.getMessage());
+        }
+    }
+}
@@ -12,6 +12,8 @@ module com.juank.utp.finimpact {
 
     // Dependencias para base de datos
     requires java.sql;
+    requires java.management;
+    requires jdk.jfr;
     requires com.microsoft.sqlserver.jdbc;
 
     opens com.juank.utp.finimpact to javafx.fxml;
@@ -0,0 +1,45 @@
+-- Esquema base de la aplicación. Usa IF OBJECT_ID para poder registrarse sobre bases
+-- creadas antes de las migraciones (con el script del README) sin fallar.
+
+IF OBJECT_ID('usuarios', 'U') IS NULL
+CREATE TABLE usuarios (
+    id_usuario INT PRIMARY KEY IDENTITY(1,1),
+    nombre_completo NVARCHAR(100) NOT NULL,
+    email NVARCHAR(100) UNIQUE NOT NULL,
+    password NVARCHAR(255) NOT NULL,
+    rol NVARCHAR(20) CHECK (rol IN ('admin', 'analista', 'viewer')) NOT NULL,
+    estado BIT NOT NULL -- 1 = activo, 0 = inactivo
+);
+GO
+
+IF OBJECT_ID('iniciativas', 'U') IS NULL
+CREATE TABLE iniciativas (
+    id_iniciativa INT PRIMARY KEY IDENTITY(1,1),
+    nombre NVARCHAR(100) NOT NULL,
+    descripcion NVARCHAR(500),
+    fecha_inicio DATE,
+    fecha_fin DATE,
+    tipo NVARCHAR(30),
+    estado NVARCHAR(20) CHECK (estado IN ('planeado', 'en curso', 'finalizado', 'cancelado')) NOT NULL,
+    riesgo NVARCHAR(20) CHECK (riesgo IN ('alto', 'medio', 'bajo')) NOT NULL,
+    id_owner INT NOT NULL,
+    fecha_registro DATETIME DEFAULT GETDATE(),
+
+    FOREIGN KEY (id_owner) REFERENCES usuarios(id_usuario)
+);
+GO
+
+IF OBJECT_ID('impactos', 'U') IS NULL
+CREATE TABLE impactos (
+    id_impacto INT PRIMARY KEY IDENTITY(1,1),
+    id_iniciativa INT NOT NULL,
+    fecha_creacion DATE NOT NULL,
+    tipo_impacto NVARCHAR(30) CHECK (tipo_impacto IN ('Maquinaria', 'Generación', 'Optimización', 'Transformación')) NOT NULL,
+    multiplicador INT CHECK (multiplicador IN (1, -1)) NOT NULL,
+    atributo_impacto NVARCHAR(20) CHECK (atributo_impacto IN ('Planeado', 'Estimado', 'Real')) NOT NULL,
+    fecha_impacto DATE NOT NULL,
+    impacto DECIMAL(18, 2) NOT NULL,
+
+    FOREIGN KEY (id_iniciativa) REFERENCES iniciativas(id_iniciativa)
+);
+GO
@@ -0,0 +1,22 @@
+-- Resumen mensual de impactos (ver ImpactoMensualRepository) y su carga inicial
+
+IF OBJECT_ID('impactos_mensual', 'U') IS NULL
+CREATE TABLE impactos_mensual (
+    id_iniciativa INT NOT NULL,
+    tipo_impacto NVARCHAR(30) NOT NULL,
+    atributo_impacto NVARCHAR(20) NOT NULL,
+    mes DATE NOT NULL, -- primer día del mes
+    cantidad INT NOT NULL,
+    total DECIMAL(19, 2) NOT NULL, -- SUM(impacto * multiplicador)
+
+    CONSTRAINT pk_impactos_mensual PRIMARY KEY (id_iniciativa, tipo_impacto, atributo_impacto, mes)
+);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM impactos_mensual)
+INSERT INTO impactos_mensual (id_iniciativa, tipo_impacto, atributo_impacto, mes, cantidad, total)
+SELECT id_iniciativa, tipo_impacto, atributo_impacto, DATEFROMPARTS(YEAR(fecha_impacto), MONTH(fecha_impacto), 1),
+       COUNT(*), SUM(impacto * multiplicador)
+FROM impactos
+GROUP BY id_iniciativa, tipo_impacto, atributo_impacto, DATEFROMPARTS(YEAR(fecha_impacto), MONTH(fecha_impacto), 1);
+GO
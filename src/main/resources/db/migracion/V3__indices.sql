@@ -0,0 +1,32 @@
+-- Índices de las consultas de los repositorios. Los INCLUDE cubren las columnas que se leen
+-- para que SQL Server no vuelva a la tabla por cada fila. Deben coincidir con VerificadorIndices.
+
+-- findByIniciativa, findByIniciativaIds, borrado de iniciativas (FK) y joins por iniciativa
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_impactos_iniciativa_fecha' AND object_id = OBJECT_ID('impactos'))
+CREATE INDEX ix_impactos_iniciativa_fecha ON impactos (id_iniciativa, fecha_impacto DESC)
+    INCLUDE (fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, impacto);
+GO
+
+-- sumImpactosByAtributoAndFecha (días sueltos de los extremos), findByAtributoImpacto y filtros por atributo
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_impactos_atributo_fecha' AND object_id = OBJECT_ID('impactos'))
+CREATE INDEX ix_impactos_atributo_fecha ON impactos (atributo_impacto, fecha_impacto)
+    INCLUDE (id_iniciativa, tipo_impacto, multiplicador, impacto);
+GO
+
+-- Paginación keyset (fecha_impacto DESC, id_impacto DESC) y findByFechaRange
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_impactos_fecha_id' AND object_id = OBJECT_ID('impactos'))
+CREATE INDEX ix_impactos_fecha_id ON impactos (fecha_impacto DESC, id_impacto DESC)
+    INCLUDE (id_iniciativa, tipo_impacto, atributo_impacto, multiplicador, impacto);
+GO
+
+-- findByOwner y filtros por owner ordenados por fecha_registro; joins del dashboard por owner
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_iniciativas_owner_registro' AND object_id = OBJECT_ID('iniciativas'))
+CREATE INDEX ix_iniciativas_owner_registro ON iniciativas (id_owner, fecha_registro DESC)
+    INCLUDE (nombre, estado, riesgo, tipo);
+GO
+
+-- KPIs del mes y comparación planeado vs real
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_impactos_mensual_atributo_mes' AND object_id = OBJECT_ID('impactos_mensual'))
+CREATE INDEX ix_impactos_mensual_atributo_mes ON impactos_mensual (atributo_impacto, mes)
+    INCLUDE (total, cantidad);
+GO
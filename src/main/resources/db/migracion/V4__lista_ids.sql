@@ -0,0 +1,5 @@
+-- Tipo de tabla para enviar listas grandes de IDs como un solo parámetro (ver ListaIds)
+
+IF TYPE_ID('dbo.lista_ids') IS NULL
+CREATE TYPE dbo.lista_ids AS TABLE (id INT PRIMARY KEY);
+GO
@@ -0,0 +1,147 @@
+package com.juank.utp.finimpact;
+
+import com.juank.utp.finimpact.utils.DatabaseConfig;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Esquema de la aplicación en la base H2 de las pruebas (src/test/resources/database.properties).
+ * Cada prueba que lo necesita lo recrea vacío e inserta solo las filas que revisa.
+ */
+public final class BaseDatosPruebas {
+
+    private BaseDatosPruebas() {}
+
+    /**
+     * Borra y vuelve a crear las tablas; registra también BINARY_CHECKSUM y CHECKSUM_AGG,
+     * que H2 no tiene y usa la conciliación del snapshot
+     */
+    public static void recrearEsquema() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS impactos_mensual");
+            stmt.execute("DROP TABLE IF EXISTS impactos");
+            stmt.execute("DROP TABLE IF EXISTS iniciativas");
+            stmt.execute("DROP TABLE IF EXISTS usuarios");
+            stmt.execute("CREATE TABLE usuarios (id_usuario INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "nombre_completo NVARCHAR(100) NOT NULL, email NVARCHAR(100) UNIQUE NOT NULL, " +
+                    "password NVARCHAR(255) NOT NULL, rol NVARCHAR(20) NOT NULL, estado BIT NOT NULL)");
+            stmt.execute("CREATE TABLE iniciativas (id_iniciativa INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "nombre NVARCHAR(100) NOT NULL, descripcion NVARCHAR(500), fecha_inicio DATE, fecha_fin DATE, " +
+                    "tipo NVARCHAR(30), estado NVARCHAR(20) NOT NULL, riesgo NVARCHAR(20) NOT NULL, " +
+                    "id_owner INT NOT NULL REFERENCES usuarios(id_usuario), fecha_registro DATETIME DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE TABLE impactos (id_impacto INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "id_iniciativa INT NOT NULL REFERENCES iniciativas(id_iniciativa), fecha_creacion DATE NOT NULL, " +
+                    "tipo_impacto NVARCHAR(30) NOT NULL, multiplicador INT NOT NULL, atributo_impacto NVARCHAR(20) NOT NULL, " +
+                    "fecha_impacto DATE NOT NULL, impacto DECIMAL(18, 2) NOT NULL)");
+            stmt.execute("CREATE TABLE impactos_mensual (id_iniciativa INT NOT NULL, tipo_impacto NVARCHAR(30) NOT NULL, " +
+                    "atributo_impacto NVARCHAR(20) NOT NULL, mes DATE NOT NULL, cantidad INT NOT NULL, total DECIMAL(19, 2) NOT NULL, " +
+                    "PRIMARY KEY (id_iniciativa, tipo_impacto, atributo_impacto, mes))");
+            stmt.execute("CREATE ALIAS IF NOT EXISTS BINARY_CHECKSUM FOR '" + BaseDatosPruebas.class.getName() + ".checksum'");
+            stmt.execute("CREATE AGGREGATE IF NOT EXISTS CHECKSUM_AGG FOR '" + ChecksumAgg.class.getName() + "'");
+        }
+    }
+
+    public static int insertarUsuario(String email, String rol) throws SQLException {
+        return insertar("INSERT INTO usuarios (nombre_completo, email, password, rol, estado) VALUES (?, ?, 'x', ?, 1)",
+                email, email, rol);
+    }
+
+    public static int insertarIniciativa(String nombre, String descripcion, int idOwner) throws SQLException {
+        return insertar("INSERT INTO iniciativas (nombre, descripcion, fecha_inicio, fecha_fin, tipo, estado, riesgo, id_owner) " +
+                "VALUES (?, ?, DATE '2024-01-01', NULL, 'Operativa', 'en curso', 'medio', ?)", nombre, descripcion, idOwner);
+    }
+
+    public static int insertarImpacto(int idIniciativa, String tipo, String atributo, int multiplicador,
+                                      LocalDate fecha, String monto) throws SQLException {
+        return insertar("INSERT INTO impactos (id_iniciativa, fecha_creacion, tipo_impacto, multiplicador, atributo_impacto, fecha_impacto, impacto) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", idIniciativa, Date.valueOf(fecha.minusDays(5)), tipo, multiplicador,
+                atributo, Date.valueOf(fecha), new BigDecimal(monto));
+    }
+
+    /**
+     * Mismo contenido que ImpactoMensualRepository.reconstruir(), con funciones de fecha de H2
+     */
+    public static void reconstruirResumenMensual() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM impactos_mensual");
+            stmt.executeUpdate("INSERT INTO impactos_mensual (id_iniciativa, tipo_impacto, atributo_impacto, mes, cantidad, total) " +
+                    "SELECT id_iniciativa, tipo_impacto, atributo_impacto, CAST(DATE_TRUNC(MONTH, fecha_impacto) AS DATE), " +
+                    "COUNT(*), SUM(impacto * multiplicador) FROM impactos " +
+                    "GROUP BY id_iniciativa, tipo_impacto, atributo_impacto, CAST(DATE_TRUNC(MONTH, fecha_impacto) AS DATE)");
+        }
+    }
+
+    public static void ejecutar(String sql) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static int insertar(String sql, Object... valores) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < valores.length; i++) {
+                stmt.setObject(i + 1, valores[i]);
+            }
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * BINARY_CHECKSUM de las columnas de impactos (8) e iniciativas (10)
+     */
+    public static int checksum(String a, String b, String c, String d, String e, String f, String g, String h) {
+        return Arrays.hashCode(new Object[] {a, b, c, d, e, f, g, h});
+    }
+
+    public static int checksum(String a, String b, String c, String d, String e, String f, String g, String h,
+                               String i, String j) {
+        return Arrays.hashCode(new Object[] {a, b, c, d, e, f, g, h, i, j});
+    }
+
+    /**
+     * Función DORMIR(ms): una consulta que tarda lo indicado del lado del servidor
+     */
+    public static int dormir(int ms) throws InterruptedException {
+        Thread.sleep(ms);
+        return ms;
+    }
+
+    /**
+     * CHECKSUM_AGG: XOR de los valores, NULL si no hay ninguno
+     */
+    public static class ChecksumAgg implements org.h2.api.Aggregate {
+        private int suma;
+        private boolean hayValores;
+
+        @Override
+        public int getInternalType(int[] tipos) {
+            return org.h2.value.Value.INTEGER;
+        }
+
+        @Override
+        public void add(Object valor) {
+            if (valor != null) {
+                suma ^= ((Number) valor).intValue();
+                hayValores = true;
+            }
+        }
+
+        @Override
+        public Object getResult() {
+            return hayValores ? suma : null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.BaseDatosPruebas;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suma por atributo combinando meses completos del resumen con los días sueltos de los extremos
+ */
+class ImpactoMensualRepositoryTest {
+
+    // Monto efectivo (impacto * multiplicador) de cada impacto "Real" por fecha
+    private static final Map<LocalDate, BigDecimal> REALES = new LinkedHashMap<>();
+
+    private final ImpactoMensualRepository repository = new ImpactoMensualRepository();
+
+    @BeforeAll
+    static void cargarDatos() throws SQLException {
+        BaseDatosPruebas.recrearEsquema();
+        int owner = BaseDatosPruebas.insertarUsuario("analista@finimpact.test", "analista");
+        int iniciativa = BaseDatosPruebas.insertarIniciativa("Iniciativa", null, owner);
+
+        real(iniciativa, "2024-01-14", "1000.00", 1);
+        real(iniciativa, "2024-01-15", "1.00", 1);
+        real(iniciativa, "2024-01-31", "2.00", 1);
+        real(iniciativa, "2024-02-01", "4.00", 1);
+        real(iniciativa, "2024-02-29", "16.00", -1);
+        real(iniciativa, "2024-03-01", "32.00", 1);
+        real(iniciativa, "2024-03-10", "64.00", 1);
+        real(iniciativa, "2024-03-11", "2000.00", 1);
+        real(iniciativa, "2024-04-01", "3000.00", 1);
+        BaseDatosPruebas.insertarImpacto(iniciativa, "Maquinaria", "Planeado", 1, LocalDate.parse("2024-02-10"), "500.00");
+        BaseDatosPruebas.reconstruirResumenMensual();
+    }
+
+    private static void real(int iniciativa, String fecha, String monto, int multiplicador) throws SQLException {
+        LocalDate dia = LocalDate.parse(fecha);
+        BaseDatosPruebas.insertarImpacto(iniciativa, "Maquinaria", "Real", multiplicador, dia, monto);
+        REALES.merge(dia, new BigDecimal(monto).multiply(BigDecimal.valueOf(multiplicador)), BigDecimal::add);
+    }
+
+    private BigDecimal sumar(String desde, String hasta) {
+        return repository.sumarPorAtributo("Real", LocalDate.parse(desde), LocalDate.parse(hasta));
+    }
+
+    private static void assertMonto(String esperado, BigDecimal obtenido) {
+        assertEquals(0, new BigDecimal(esperado).compareTo(obtenido), "esperado " + esperado + ", obtenido " + obtenido);
+    }
+
+    @Test
+    void incluyeElPrimerYUltimoDiaDeUnRangoConMesesParciales() {
+        // 15 al 31 de enero desde impactos, febrero del resumen, 1 al 10 de marzo desde impactos
+        assertMonto("87.00", sumar("2024-01-15", "2024-03-10"));
+        assertMonto("86.00", sumar("2024-01-16", "2024-03-10"));
+        assertMonto("23.00", sumar("2024-01-15", "2024-03-09"));
+    }
+
+    @Test
+    void rangoDeMesesCompletosSeLeeDelResumen() {
+        assertMonto("3087.00", sumar("2024-01-01", "2024-03-31"));
+        assertMonto("-12.00", sumar("2024-02-01", "2024-02-29"));
+    }
+
+    @Test
+    void extremosEnElUltimoDiaYElPrimerDiaDelMes() {
+        // Empieza el último día de enero y termina el primero de marzo
+        assertMonto("22.00", sumar("2024-01-31", "2024-03-01"));
+    }
+
+    @Test
+    void rangoDentroDeUnoODosMesesParciales() {
+        assertMonto("96.00", sumar("2024-03-01", "2024-03-10"));
+        assertMonto("6.00", sumar("2024-01-20", "2024-02-10"));
+        assertMonto("2.00", sumar("2024-01-31", "2024-01-31"));
+    }
+
+    @Test
+    void sinImpactosEnElRangoDevuelveCero() {
+        assertMonto("0", sumar("2025-01-01", "2025-12-31"));
+    }
+
+    @Test
+    void coincideConLaSumaDiaADiaParaCualquierExtremo() {
+        for (LocalDate desde = LocalDate.parse("2024-01-13"); !desde.isAfter(LocalDate.parse("2024-02-02")); desde = desde.plusDays(1)) {
+            for (LocalDate hasta = LocalDate.parse("2024-02-27"); !hasta.isAfter(LocalDate.parse("2024-03-12")); hasta = hasta.plusDays(1)) {
+                BigDecimal esperado = BigDecimal.ZERO;
+                for (Map.Entry<LocalDate, BigDecimal> real : REALES.entrySet()) {
+                    if (!real.getKey().isBefore(desde) && !real.getKey().isAfter(hasta)) {
+                        esperado = esperado.add(real.getValue());
+                    }
+                }
+                BigDecimal obtenido = repository.sumarPorAtributo("Real", desde, hasta);
+                assertEquals(0, esperado.compareTo(obtenido), desde + " a " + hasta + ": " + obtenido);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.juank.utp.finimpact.repository;
+
+import com.juank.utp.finimpact.BaseDatosPruebas;
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.model.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las lecturas en caché entregan copias: editar lo leído sin guardarlo no cambia lo que ven las demás
+ */
+class IniciativaRepositoryTest {
+
+    private final IniciativaRepository repository = new IniciativaRepository();
+    private final UsuarioRepository usuarioRepository = new UsuarioRepository();
+    private int idIniciativa;
+
+    @BeforeEach
+    void cargarDatos() throws SQLException {
+        BaseDatosPruebas.recrearEsquema();
+        // Las altas pasan por los repositorios para invalidar lo que otras pruebas dejaron en caché
+        Usuario owner = new Usuario("Analista", "analista@finimpact.test", "secreta123", "analista", true);
+        assertTrue(usuarioRepository.save(owner));
+        Iniciativa iniciativa = new Iniciativa("Optimización de planta", "Línea 2", LocalDate.of(2024, 1, 1), null,
+                "Operativa", "en curso", "medio", owner.getIdUsuario());
+        assertTrue(repository.save(iniciativa));
+        idIniciativa = iniciativa.getIdIniciativa();
+    }
+
+    @Test
+    void unaActualizacionFallidaNoDejaLaEdicionEnLaCache() {
+        Iniciativa editada = repository.findAll().get(0);
+        repository.findById(idIniciativa).orElseThrow();
+
+        // Lo que hace el formulario: cambiar la fila leída y guardarla; el nombre supera NVARCHAR(100)
+        editada.setNombre("x".repeat(101));
+        editada.setEstado("finalizado");
+        assertFalse(repository.update(editada));
+
+        assertEquals("Optimización de planta", repository.findAll().get(0).getNombre());
+        assertEquals("en curso", repository.findAll().get(0).getEstado());
+        assertEquals("Optimización de planta", repository.findById(idIniciativa).orElseThrow().getNombre());
+    }
+
+    @Test
+    void cadaLecturaEntregaInstanciasPropias() {
+        Iniciativa primera = repository.findById(idIniciativa).orElseThrow();
+        Iniciativa segunda = repository.findById(idIniciativa).orElseThrow();
+
+        assertNotSame(primera, segunda);
+        assertNotSame(repository.findAll().get(0), repository.findAll().get(0));
+    }
+
+    @Test
+    void losUsuariosEnCacheNoTraenElHashNiCompartenInstancias() {
+        Usuario leido = usuarioRepository.findAll().get(0);
+        assertNull(leido.getPassword(), "el hash solo se lee al autenticar");
+
+        leido.setRol("admin");
+        assertEquals("analista", usuarioRepository.findAll().get(0).getRol());
+        assertTrue(usuarioRepository.authenticate("analista@finimpact.test", "secreta123").isPresent());
+    }
+}
@@ -0,0 +1,82 @@
+package com.juank.utp.finimpact.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Relleno de la lista de parámetros a potencias de 2 y paso al parámetro con valor de tabla
+ */
+class ListaIdsTest {
+
+    private static List<Integer> rango(int desde, int hasta) {
+        return IntStream.rangeClosed(desde, hasta).boxed().collect(Collectors.toList());
+    }
+
+    private static int parametros(ListaIds ids) {
+        StringBuilder sql = new StringBuilder();
+        ids.agregarCondicion(sql, "x");
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
+    @Test
+    void rellenaHastaLaSiguientePotenciaDeDos() {
+        assertEquals(1, parametros(new ListaIds(List.of(7))));
+        assertEquals(2, parametros(new ListaIds(List.of(1, 2))));
+        assertEquals(4, parametros(new ListaIds(List.of(1, 2, 3))));
+        assertEquals(4, parametros(new ListaIds(rango(1, 4))));
+        assertEquals(8, parametros(new ListaIds(rango(1, 5))));
+        assertEquals(1024, parametros(new ListaIds(rango(1, 1024))));
+    }
+
+    @Test
+    void losIdsRepetidosSeCuentanUnaVez() {
+        ListaIds ids = new ListaIds(List.of(5, 5, 6, 5));
+        assertEquals(2, parametros(ids));
+    }
+
+    @Test
+    void sobreElMaximoUsaElParametroConValorDeTabla() {
+        ListaIds hastaElMaximo = new ListaIds(rango(1, ListaIds.MAXIMO_PARAMETROS));
+        ListaIds sobreElMaximo = new ListaIds(rango(1, ListaIds.MAXIMO_PARAMETROS + 1));
+        assertFalse(hastaElMaximo.usaTabla());
+        assertTrue(sobreElMaximo.usaTabla());
+
+        StringBuilder sql = new StringBuilder();
+        sobreElMaximo.agregarCondicion(sql, "imp.id_iniciativa");
+        assertEquals("imp.id_iniciativa IN (SELECT id FROM ?)", sql.toString());
+    }
+
+    @Test
+    void elRellenoNoCambiaElResultado() throws SQLException {
+        ListaIds ids = new ListaIds(List.of(3, 8, 11));
+        StringBuilder sql = new StringBuilder("SELECT X FROM SYSTEM_RANGE(1, 20) WHERE ");
+        ids.agregarCondicion(sql, "X");
+        sql.append(" AND X > ? ORDER BY X");
+
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:lista_ids");
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int siguiente = ids.asignar(stmt, 1);
+            assertEquals(5, siguiente, "3 IDs ocupan 4 parámetros");
+            stmt.setInt(siguiente, 0);
+
+            List<Integer> encontrados = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    encontrados.add(rs.getInt(1));
+                }
+            }
+            assertEquals(List.of(3, 8, 11), encontrados);
+        }
+    }
+}
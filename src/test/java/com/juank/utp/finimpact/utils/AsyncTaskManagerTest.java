@@ -0,0 +1,96 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.BaseDatosPruebas;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cancelar una consulta en curso no interrumpe su hilo: la conexión, bloqueada en el socket
+ * mientras espera al servidor, vuelve sana al pool
+ */
+class AsyncTaskManagerTest {
+
+    private static Server servidor;
+    private static String url;
+
+    private ConnectionPool pool;
+
+    @BeforeAll
+    static void iniciarServidor() throws SQLException {
+        // Por TCP, para que la consulta espere en E/S de socket como con SQL Server
+        servidor = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        url = "jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:cancelacion;DB_CLOSE_DELAY=-1";
+        try (Connection conn = DriverManager.getConnection(url, "sa", ""); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE ALIAS IF NOT EXISTS DORMIR FOR '" + BaseDatosPruebas.class.getName() + ".dormir'");
+        }
+    }
+
+    @AfterAll
+    static void detenerServidor() {
+        servidor.stop();
+    }
+
+    @AfterEach
+    void cerrar() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void cancelarUnaConsultaEnCursoDejaLaConexionUsableEnElPool() throws Exception {
+        pool = new ConnectionPool(ConnectionPoolTest.config("pool.maxSize", "1", "pool.connectionTimeoutMs", "2000"),
+                () -> DriverManager.getConnection(url, "sa", ""));
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch terminada = new CountDownLatch(1);
+        AtomicReference<Throwable> errorDeLaConsulta = new AtomicReference<>();
+        AtomicBoolean interrumpida = new AtomicBoolean();
+        AtomicBoolean vioLaCancelacion = new AtomicBoolean();
+
+        CompletableFuture<Integer> consulta = AsyncTaskManager.supplyAsync("consulta-reemplazada", () -> {
+            try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+                consultando.countDown();
+                try (ResultSet rs = stmt.executeQuery("SELECT DORMIR(300)")) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            } catch (Throwable t) {
+                errorDeLaConsulta.set(t);
+                return null;
+            } finally {
+                interrumpida.set(Thread.currentThread().isInterrupted());
+                vioLaCancelacion.set(AsyncTaskManager.isCancelada());
+                terminada.countDown();
+            }
+        });
+
+        assertTrue(consultando.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertTrue(consulta.cancel(true), "una solicitud más nueva reemplaza a esta");
+        assertTrue(terminada.await(5, TimeUnit.SECONDS));
+
+        assertNull(errorDeLaConsulta.get(), "la consulta termina aunque su resultado se descarte");
+        assertFalse(interrumpida.get());
+        assertTrue(vioLaCancelacion.get(), "la tarea puede ver que se canceló");
+        try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            assertTrue(rs.next());
+        }
+        assertEquals(1, pool.getConnectionsCreated(), "la conexión de la consulta cancelada se reutiliza");
+    }
+}
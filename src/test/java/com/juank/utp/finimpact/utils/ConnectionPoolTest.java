@@ -0,0 +1,234 @@
+package com.juank.utp.finimpact.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Préstamo, devolución, timeout, desalojo y calentamiento del pool sobre conexiones H2 en memoria
+ */
+class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:h2:mem:pool_pruebas;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void cerrar() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    static ConnectionPool.Config config(String... claveValor) {
+        Properties props = new Properties();
+        props.setProperty("pool.minSize", "0");
+        props.setProperty("pool.maxSize", "2");
+        props.setProperty("pool.connectionTimeoutMs", "200");
+        props.setProperty("pool.warmupBackoffMs", "10");
+        props.setProperty("pool.warmupMaxBackoffMs", "20");
+        for (int i = 0; i < claveValor.length; i += 2) {
+            props.setProperty(claveValor[i], claveValor[i + 1]);
+        }
+        return ConnectionPool.Config.fromProperties(props);
+    }
+
+    static Connection abrirH2() throws SQLException {
+        return DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @Test
+    void devolverLaConexionLaDejaLibreParaElSiguientePrestamo() throws SQLException {
+        pool = new ConnectionPool(config(), ConnectionPoolTest::abrirH2);
+
+        Connection primera = pool.borrow();
+        assertEquals(1, pool.getActiveCount());
+        primera.close();
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        try (Connection segunda = pool.borrow()) {
+            assertTrue(segunda.isValid(1));
+        }
+        assertEquals(1, pool.getTotalCount(), "la segunda reutiliza la conexión física");
+    }
+
+    @Test
+    void cerrarDosVecesNoDevuelveDosPermisos() throws SQLException {
+        pool = new ConnectionPool(config(), ConnectionPoolTest::abrirH2);
+
+        Connection conexion = pool.borrow();
+        conexion.close();
+        conexion.close();
+
+        try (Connection a = pool.borrow(); Connection b = pool.borrow()) {
+            assertThrows(SQLTransientConnectionException.class, () -> pool.borrow());
+        }
+    }
+
+    @Test
+    void fallaPorTimeoutCuandoTodasEstanPrestadas() throws SQLException {
+        pool = new ConnectionPool(config(), ConnectionPoolTest::abrirH2);
+
+        try (Connection a = pool.borrow(); Connection b = pool.borrow()) {
+            long inicio = System.nanoTime();
+            SQLException error = assertThrows(SQLTransientConnectionException.class, () -> pool.borrow());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) >= 200);
+            assertTrue(error.getMessage().contains("máximo=2"), error.getMessage());
+        }
+        try (Connection c = pool.borrow()) {
+            assertFalse(c.isClosed(), "al devolverlas se puede volver a prestar");
+        }
+    }
+
+    @Test
+    void unaConexionCerradaPorFueraSeDescartaAlPrestar() throws SQLException {
+        pool = new ConnectionPool(config("pool.maxSize", "1"), ConnectionPoolTest::abrirH2);
+
+        Connection conexion = pool.borrow();
+        conexion.unwrap(Connection.class).close();
+        conexion.close();
+        assertEquals(0, pool.getTotalCount(), "la conexión cerrada no vuelve al pool");
+
+        try (Connection nueva = pool.borrow()) {
+            assertTrue(nueva.isValid(1));
+        }
+    }
+
+    @Test
+    void elDesalojoNoPrestaLaConexionQueEstaValidando() throws Exception {
+        CountDownLatch validando = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        AtomicBoolean validada = new AtomicBoolean();
+        pool = new ConnectionPool(config("pool.maxSize", "1", "pool.connectionTimeoutMs", "2000", "pool.evictionIntervalMs", "20"),
+                () -> conValidacionLenta(abrirH2(), validando, continuar, validada));
+
+        pool.borrow().close();
+        assertTrue(validando.await(2, TimeUnit.SECONDS), "el desalojo valida la conexión libre");
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            continuar.countDown();
+        });
+
+        try (Connection conexion = pool.borrow()) {
+            assertTrue(validada.get(), "el préstamo espera a que termine la validación");
+        }
+        assertEquals(1, pool.getConnectionsCreated(), "la conexión validada vuelve al pool y se reutiliza");
+    }
+
+    @Test
+    void unaFallaDelListenerNoImpideDevolverLaConexion() throws SQLException {
+        pool = new ConnectionPool(config("pool.maxSize", "1"), ConnectionPoolTest::abrirH2);
+        pool.setUsageListener(new ConnectionPool.UsageListener() {
+            @Override
+            public Object onBorrow(String label, long waitNanos, boolean created) {
+                return null;
+            }
+
+            @Override
+            public void onRelease(String label, long heldNanos, ConnectionPool.Usage usage) {
+                throw new IllegalStateException("error de métricas");
+            }
+        });
+
+        pool.borrow("prueba").close();
+        try (Connection otra = pool.borrow()) {
+            assertEquals(1, pool.getActiveCount());
+        }
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void calentamientoAbreElMinimoSinPrestar() {
+        pool = new ConnectionPool(config("pool.minSize", "2"), ConnectionPoolTest::abrirH2);
+
+        assertEquals(2, pool.warmUp().join());
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(0, pool.warmUp().join(), "el mínimo ya está cubierto");
+    }
+
+    @Test
+    void calentamientoReintentaLasConexionesQueFallan() {
+        AtomicInteger intentos = new AtomicInteger();
+        pool = new ConnectionPool(config("pool.minSize", "1"), () -> {
+            if (intentos.incrementAndGet() <= 2) {
+                throw new SQLException("servidor no disponible");
+            }
+            return abrirH2();
+        });
+
+        assertEquals(1, pool.warmUp().join());
+        assertEquals(3, intentos.get());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void calentamientoFallaSiNoAbreNinguna() {
+        pool = new ConnectionPool(config("pool.minSize", "2", "pool.warmupRetries", "1"), () -> {
+            throw new SQLException("servidor no disponible");
+        });
+
+        CompletionException error = assertThrows(CompletionException.class, () -> pool.warmUp().join());
+        assertInstanceOf(SQLException.class, error.getCause());
+        assertEquals(0, pool.getTotalCount());
+    }
+
+    @Test
+    void prestarDuranteElCalentamientoEsperaLaConexionQueSeAbre() throws SQLException {
+        pool = new ConnectionPool(config("pool.minSize", "1", "pool.connectionTimeoutMs", "2000"), () -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return abrirH2();
+        });
+
+        pool.warmUp();
+        try (Connection conexion = pool.borrow()) {
+            assertFalse(conexion.isClosed());
+        }
+        assertEquals(1, pool.getConnectionsCreated(), "el préstamo usa la conexión del calentamiento");
+        assertEquals(0, pool.getConnectionsCreatedOnBorrow());
+    }
+
+    /**
+     * Conexión cuyo primer isValid() desde el hilo de desalojo espera a que la prueba lo libere
+     */
+    private static Connection conValidacionLenta(Connection conexion, CountDownLatch validando,
+                                                 CountDownLatch continuar, AtomicBoolean validada) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().equals("isValid") && validando.getCount() > 0
+                            && Thread.currentThread().getName().equals("finimpact-pool-evictor")) {
+                        validando.countDown();
+                        continuar.await();
+                        validada.set(true);
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
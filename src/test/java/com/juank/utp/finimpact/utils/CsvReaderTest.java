@@ -0,0 +1,80 @@
+package com.juank.utp.finimpact.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Campos entre comillas, separador detectado y números de línea del lector CSV
+ */
+class CsvReaderTest {
+
+    private static List<List<String>> leer(String csv) throws IOException {
+        List<List<String>> filas = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            List<String> fila;
+            while ((fila = reader.leerFila()) != null) {
+                filas.add(fila);
+            }
+        }
+        return filas;
+    }
+
+    @Test
+    void separadorEntreComillasNoDivideElCampo() throws IOException {
+        assertEquals(List.of(List.of("nombre", "descripcion"), List.of("Planta, norte", "a;b")),
+                leer("nombre,descripcion\n\"Planta, norte\",a;b\n"));
+    }
+
+    @Test
+    void comillasDoblesEscapadas() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("dijo \"hola\"", "\"")),
+                leer("a,b\n\"dijo \"\"hola\"\"\",\"\"\"\"\n"));
+    }
+
+    @Test
+    void campoEntreComillasConSaltoDeLinea() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("a,b\n\"línea 1\nlínea 2\",x\nfin,y\n"))) {
+            reader.leerFila();
+            assertEquals(List.of("línea 1\nlínea 2", "x"), reader.leerFila());
+            assertEquals(3, reader.getNumeroLinea());
+            assertEquals(List.of("fin", "y"), reader.leerFila());
+            assertEquals(4, reader.getNumeroLinea());
+            assertNull(reader.leerFila());
+        }
+    }
+
+    @Test
+    void comillasSinCerrarFallan() {
+        IOException error = assertThrows(IOException.class, () -> leer("a,b\n\"sin cerrar,x\n"));
+        assertTrue(error.getMessage().contains("línea 2"), error.getMessage());
+    }
+
+    @Test
+    void detectaPuntoYComaYQuitaElBom() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("\uFEFFtipo;monto;nota\nReal;1.234,50;\"x;y\"\n"))) {
+            assertEquals(List.of("tipo", "monto", "nota"), reader.leerFila());
+            assertEquals(';', reader.getSeparador());
+            assertEquals(List.of("Real", "1.234,50", "x;y"), reader.leerFila());
+        }
+    }
+
+    @Test
+    void omiteLineasVaciasYRecortaEspacios() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("a,b\n\n  \n uno , \" dos \" \n"))) {
+            reader.leerFila();
+            assertEquals(List.of("uno", "dos"), reader.leerFila());
+            assertEquals(4, reader.getNumeroLinea(), "las líneas vacías cuentan para el número de línea");
+        }
+    }
+
+    @Test
+    void camposVaciosAlFinal() throws IOException {
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("1", "", "")), leer("a,b,c\n1,,\n"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.model.Iniciativa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Orden por relevancia de la búsqueda de iniciativas: nombre antes que descripción,
+ * palabra completa antes que prefijo y, a igual puntaje, la más reciente primero
+ */
+class IndiceBusquedaIniciativasTest {
+
+    private static Iniciativa iniciativa(int id, String nombre, String descripcion) {
+        Iniciativa iniciativa = new Iniciativa();
+        iniciativa.setIdIniciativa(id);
+        iniciativa.setNombre(nombre);
+        iniciativa.setDescripcion(descripcion);
+        return iniciativa;
+    }
+
+    @BeforeEach
+    void cargar() {
+        IndiceBusquedaIniciativas.reconstruir(List.of(
+                iniciativa(1, "Innovación logística", "Rutas de reparto"),
+                iniciativa(2, "Plan de planta", "Innovacion en la planta norte"),
+                iniciativa(3, "Innovaciones digitales", "Portal de clientes"),
+                iniciativa(4, "Ahorro energético", "Paneles"),
+                iniciativa(5, "Ahorro energético", "Paneles")));
+    }
+
+    @Test
+    void nombreCompletoAntesQuePrefijoYQueDescripcion() {
+        // 1: palabra completa en el nombre; 3: prefijo en el nombre; 2: palabra completa en la descripción
+        assertEquals(List.of(1, 3, 2), IndiceBusquedaIniciativas.buscar("innovacion"));
+    }
+
+    @Test
+    void aIgualPuntajeLaMasRecientePrimero() {
+        assertEquals(List.of(5, 4), IndiceBusquedaIniciativas.buscar("ahorro"));
+    }
+
+    @Test
+    void todasLasPalabrasDebenCoincidir() {
+        assertEquals(List.of(2), IndiceBusquedaIniciativas.buscar("innov planta"));
+        assertEquals(List.of(1), IndiceBusquedaIniciativas.buscar("INNOVACIÓN  Logist"));
+        assertTrue(IndiceBusquedaIniciativas.buscar("innovacion paneles").isEmpty());
+    }
+
+    @Test
+    void sinPalabrasOSinCoincidenciasDevuelveVacio() {
+        assertTrue(IndiceBusquedaIniciativas.buscar("   ").isEmpty());
+        assertTrue(IndiceBusquedaIniciativas.buscar("xyz").isEmpty());
+        assertTrue(IndiceBusquedaIniciativas.buscar(null).isEmpty());
+    }
+
+    @Test
+    void indexarYEliminarActualizanElRanking() {
+        IndiceBusquedaIniciativas.indexar(iniciativa(4, "Innovación verde", "Paneles"));
+        assertEquals(List.of(4, 1, 3, 2), IndiceBusquedaIniciativas.buscar("innovacion"));
+        assertEquals(List.of(5), IndiceBusquedaIniciativas.buscar("ahorro"));
+
+        IndiceBusquedaIniciativas.eliminar(1);
+        assertEquals(List.of(4, 3, 2), IndiceBusquedaIniciativas.buscar("innovacion"));
+    }
+
+    @Test
+    void normalizaTildesYMayusculas() {
+        assertEquals("gestion energetica", IndiceBusquedaIniciativas.normalizar("Gestión Energética"));
+    }
+}
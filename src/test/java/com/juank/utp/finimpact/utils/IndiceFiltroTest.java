@@ -0,0 +1,85 @@
+package com.juank.utp.finimpact.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Intersección de campos indexados y búsqueda de texto que se acota al seguir escribiendo
+ */
+class IndiceFiltroTest {
+
+    // {tipo, atributo, texto}
+    private static final String[] MAQUINARIA_REAL = {"Maquinaria", "Real", "Línea de Maquinaria"};
+    private static final String[] MAQUINARIA_PLAN = {"Maquinaria", "Planeado", "Maquinaria nueva"};
+    private static final String[] GENERACION_REAL = {"Generación", "Real", "Generación solar"};
+    private static final String[] OPTIMIZACION_REAL = {"Optimización", "Real", "Mantenimiento"};
+
+    private IndiceFiltro<String[]> indice;
+
+    private static List<String[]> filas(String[]... filas) {
+        return List.of(filas);
+    }
+
+    @BeforeEach
+    void crear() {
+        indice = new IndiceFiltro<String[]>(fila -> fila[2]).campo(fila -> fila[0]).campo(fila -> fila[1]);
+        indice.reconstruir(filas(MAQUINARIA_REAL, MAQUINARIA_PLAN, GENERACION_REAL, OPTIMIZACION_REAL));
+    }
+
+    @Test
+    void sinCondicionesDevuelveTodasEnOrden() {
+        assertEquals(filas(MAQUINARIA_REAL, MAQUINARIA_PLAN, GENERACION_REAL, OPTIMIZACION_REAL), indice.filtrar(null));
+        assertEquals(4, indice.filtrar("", null, null).size());
+    }
+
+    @Test
+    void cadaCampoAcotaElResultado() {
+        assertEquals(filas(MAQUINARIA_REAL, MAQUINARIA_PLAN), indice.filtrar(null, "Maquinaria"));
+        assertEquals(filas(MAQUINARIA_REAL, GENERACION_REAL, OPTIMIZACION_REAL), indice.filtrar(null, null, "Real"));
+        assertEquals(filas(MAQUINARIA_REAL), indice.filtrar(null, "Maquinaria", "Real"));
+    }
+
+    @Test
+    void valorQueNoApareceDevuelveVacio() {
+        assertTrue(indice.filtrar(null, "Transformación").isEmpty());
+        assertTrue(indice.filtrar(null, "Generación", "Planeado").isEmpty());
+    }
+
+    @Test
+    void textoSinDistinguirMayusculasYCombinadoConCampos() {
+        assertEquals(filas(MAQUINARIA_REAL, MAQUINARIA_PLAN), indice.filtrar("MAQUIN"));
+        assertEquals(filas(MAQUINARIA_PLAN), indice.filtrar("maquin", null, "Planeado"));
+    }
+
+    @Test
+    void seguirEscribiendoAcotaYBorrarVuelveAAmpliar() {
+        assertEquals(filas(MAQUINARIA_REAL, MAQUINARIA_PLAN, GENERACION_REAL, OPTIMIZACION_REAL), indice.filtrar("n"));
+        assertEquals(filas(MAQUINARIA_REAL, GENERACION_REAL), indice.filtrar("ne"));
+        assertEquals(filas(MAQUINARIA_REAL), indice.filtrar("nea"));
+        // El texto nuevo no contiene al anterior: se vuelve a revisar todo
+        assertEquals(filas(MAQUINARIA_REAL, MAQUINARIA_PLAN, OPTIMIZACION_REAL), indice.filtrar("ma"));
+        assertEquals(filas(GENERACION_REAL), indice.filtrar("solar"));
+    }
+
+    @Test
+    void agregarFilasLasIncluyeEnLaBusquedaEnCurso() {
+        assertEquals(filas(GENERACION_REAL), indice.filtrar("sol"));
+        String[] nueva = {"Generación", "Estimado", "Paneles solares"};
+        indice.agregar(filas(nueva));
+
+        assertEquals(5, indice.getTamano());
+        assertEquals(filas(GENERACION_REAL, nueva), indice.filtrar("sola"));
+        assertEquals(filas(nueva), indice.filtrar("sola", "Generación", "Estimado"));
+    }
+
+    @Test
+    void reconstruirReemplazaLasFilas() {
+        indice.reconstruir(filas(OPTIMIZACION_REAL));
+        assertEquals(filas(OPTIMIZACION_REAL), indice.filtrar(null));
+        assertTrue(indice.filtrar(null, "Maquinaria").isEmpty());
+    }
+}
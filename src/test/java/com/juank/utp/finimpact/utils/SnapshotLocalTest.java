@@ -0,0 +1,137 @@
+package com.juank.utp.finimpact.utils;
+
+import com.juank.utp.finimpact.BaseDatosPruebas;
+import com.juank.utp.finimpact.model.Impacto;
+import com.juank.utp.finimpact.model.ImpactoColumnas;
+import com.juank.utp.finimpact.model.Iniciativa;
+import com.juank.utp.finimpact.model.Usuario;
+import com.juank.utp.finimpact.repository.ImpactoRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Las filas escritas en el snapshot se leen del archivo igual que como llegaron del servidor,
+ * también después de agregar un segmento con las filas nuevas
+ */
+class SnapshotLocalTest {
+
+    private static Usuario admin;
+    private static int idIniciativa;
+
+    @BeforeAll
+    static void preparar() throws SQLException, IOException {
+        // Solo con el directorio de pruebas que configura surefire: nunca se borra el snapshot del usuario
+        String directorio = System.getProperty("finimpact.snapshot.dir");
+        assumeTrue(directorio != null, "finimpact.snapshot.dir no está configurado");
+        Path snapshots = Path.of(directorio);
+        if (Files.isDirectory(snapshots)) {
+            try (Stream<Path> archivos = Files.list(snapshots)) {
+                for (Path archivo : archivos.toList()) {
+                    Files.delete(archivo);
+                }
+            }
+        }
+
+        BaseDatosPruebas.recrearEsquema();
+        int idAdmin = BaseDatosPruebas.insertarUsuario("admin@finimpact.test", "admin");
+        int idAnalista = BaseDatosPruebas.insertarUsuario("analista@finimpact.test", "analista");
+        idIniciativa = BaseDatosPruebas.insertarIniciativa("Optimización de planta", "Línea 2 — fase «piloto»", idAnalista);
+        int otra = BaseDatosPruebas.insertarIniciativa("Sin descripción", null, idAdmin);
+        BaseDatosPruebas.ejecutar("UPDATE iniciativas SET fecha_fin = DATE '2025-06-30', tipo = NULL WHERE id_iniciativa = " + otra);
+
+        BaseDatosPruebas.insertarImpacto(idIniciativa, "Maquinaria", "Real", 1, LocalDate.of(2024, 3, 1), "1500.25");
+        BaseDatosPruebas.insertarImpacto(idIniciativa, "Maquinaria", "Planeado", -1, LocalDate.of(2024, 3, 1), "0.05");
+        BaseDatosPruebas.insertarImpacto(otra, "Generación", "Estimado", 1, LocalDate.of(2023, 12, 31), "9999999999999999.99");
+        BaseDatosPruebas.insertarImpacto(otra, "Optimización", "Real", 1, LocalDate.of(2024, 2, 29), "0.00");
+
+        admin = new Usuario();
+        admin.setIdUsuario(idAdmin);
+        admin.setRol("admin");
+    }
+
+    @Test
+    void iniciativasLeidasDelArchivoIgualesALasDelServidor() throws SQLException {
+        List<Iniciativa> servidor = SnapshotLocal.INICIATIVAS.sincronizar(admin);
+        List<Iniciativa> archivo = SnapshotLocal.INICIATIVAS.leer(admin).orElseThrow();
+
+        assertEquals(2, servidor.size());
+        assertEquals(texto(servidor), texto(archivo));
+        assertEquals(texto(servidor.subList(0, 1)), texto(SnapshotLocal.INICIATIVAS.leerPrimeras(admin, 1).orElseThrow()));
+    }
+
+    @Test
+    void impactosLeidosDelArchivoIgualesALosDelServidor() throws SQLException {
+        ImpactoColumnas servidor = SnapshotLocal.IMPACTOS.sincronizar(admin);
+        assertColumnasIguales(servidor, SnapshotLocal.IMPACTOS.leer(admin).orElseThrow());
+
+        List<Impacto> pagina = new ImpactoRepository().findAllPage(null, 10);
+        assertEquals(texto(pagina), texto(SnapshotLocal.IMPACTOS.leerPrimeras(admin, 10).orElseThrow()));
+    }
+
+    @Test
+    void lasFilasNuevasSeAgreganComoSegmento() throws SQLException {
+        SnapshotLocal.IMPACTOS.sincronizar(admin);
+        BaseDatosPruebas.insertarImpacto(idIniciativa, "Transformación", "Real", 1, LocalDate.of(2030, 1, 1), "12.34");
+        BaseDatosPruebas.insertarImpacto(idIniciativa, "Transformación", "Real", 1, LocalDate.of(2020, 1, 1), "56.78");
+
+        ImpactoColumnas servidor = SnapshotLocal.IMPACTOS.sincronizar(admin);
+        ImpactoColumnas archivo = SnapshotLocal.IMPACTOS.leer(admin).orElseThrow();
+        assertColumnasIguales(servidor, archivo);
+
+        // Los segmentos se intercalan en el orden de la tabla
+        List<Impacto> pagina = new ImpactoRepository().findAllPage(null, 10);
+        List<Impacto> primeras = SnapshotLocal.IMPACTOS.leerPrimeras(admin, 10).orElseThrow();
+        assertEquals(LocalDate.of(2030, 1, 1), primeras.get(0).getFechaImpacto());
+        assertEquals(LocalDate.of(2020, 1, 1), primeras.get(primeras.size() - 1).getFechaImpacto());
+        assertEquals(texto(pagina), texto(primeras));
+    }
+
+    private static void assertColumnasIguales(ImpactoColumnas esperadas, ImpactoColumnas obtenidas) {
+        assertEquals(esperadas.getTamano(), obtenidas.getTamano());
+        assertEquals(esperadas.sumarCentavos(esperadas.todas()), obtenidas.sumarCentavos(obtenidas.todas()));
+        assertEquals(esperadas.sumarPorTipo(esperadas.todas()), obtenidas.sumarPorTipo(obtenidas.todas()));
+        assertEquals(esperadas.sumarPorMes(esperadas.todas()), obtenidas.sumarPorMes(obtenidas.todas()));
+        assertEquals(filas(esperadas), filas(obtenidas));
+    }
+
+    /**
+     * ID y centavos de cada fila, por ID (el orden interno de las columnas no importa)
+     */
+    private static List<String> filas(ImpactoColumnas columnas) {
+        return Arrays.stream(columnas.todas())
+                .mapToObj(fila -> columnas.getIdImpacto(fila) + "=" + columnas.getCentavos(fila))
+                .sorted()
+                .toList();
+    }
+
+    private static String texto(List<?> filas) {
+        StringBuilder texto = new StringBuilder();
+        for (Object fila : filas) {
+            if (fila instanceof Iniciativa) {
+                Iniciativa i = (Iniciativa) fila;
+                texto.append(String.join("|", String.valueOf(i.getIdIniciativa()), i.getNombre(), i.getDescripcion(),
+                        String.valueOf(i.getFechaInicio()), String.valueOf(i.getFechaFin()), i.getTipo(), i.getEstado(),
+                        i.getRiesgo(), String.valueOf(i.getIdOwner()), String.valueOf(i.getFechaRegistro())));
+            } else {
+                Impacto i = (Impacto) fila;
+                texto.append(String.join("|", String.valueOf(i.getIdImpacto()), String.valueOf(i.getIdIniciativa()),
+                        String.valueOf(i.getFechaCreacion()), i.getTipoImpacto(), String.valueOf(i.getMultiplicador()),
+                        i.getAtributoImpacto(), String.valueOf(i.getFechaImpacto()), i.getImpacto().toPlainString()));
+            }
+            texto.append('\n');
+        }
+        return texto.toString();
+    }
+}
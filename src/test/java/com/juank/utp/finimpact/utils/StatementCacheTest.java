@@ -0,0 +1,120 @@
+package com.juank.utp.finimpact.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reutilización y desalojo de sentencias preparadas en la caché de cada conexión del pool
+ */
+class StatementCacheTest {
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void cerrar() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private void crearPool(int sentencias) {
+        pool = new ConnectionPool(ConnectionPoolTest.config("pool.maxSize", "1",
+                "pool.statementCacheSize", String.valueOf(sentencias)), ConnectionPoolTest::abrirH2);
+    }
+
+    private static int consultar(Connection conn, String sql, int valor) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, valor);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    @Test
+    void laMismaSqlReutilizaLaSentenciaEntrePrestamos() throws SQLException {
+        crearPool(4);
+
+        try (Connection conn = pool.borrow()) {
+            assertEquals(1, consultar(conn, "SELECT ? + 0", 1));
+        }
+        try (Connection conn = pool.borrow()) {
+            assertEquals(2, consultar(conn, "SELECT ? + 0", 2), "los parámetros anteriores se limpiaron");
+            assertEquals(3, consultar(conn, "SELECT ? + 0", 3));
+        }
+        assertEquals(1, pool.getStatementCacheMisses());
+        assertEquals(2, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void laSentenciaCerradaYaNoSePuedeUsar() throws SQLException {
+        crearPool(4);
+
+        try (Connection conn = pool.borrow()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT ? + 0");
+            stmt.close();
+            assertTrue(stmt.isClosed());
+            assertThrows(SQLException.class, () -> stmt.setInt(1, 1));
+        }
+    }
+
+    @Test
+    void laMismaSqlEnUsoEntregaOtraSentencia() throws SQLException {
+        crearPool(4);
+
+        try (Connection conn = pool.borrow();
+             PreparedStatement externa = conn.prepareStatement("SELECT ? + 0");
+             PreparedStatement interna = conn.prepareStatement("SELECT ? + 0")) {
+            assertNotSame(externa, interna);
+            externa.setInt(1, 10);
+            interna.setInt(1, 20);
+            try (ResultSet a = externa.executeQuery(); ResultSet b = interna.executeQuery()) {
+                a.next();
+                b.next();
+                assertEquals(10, a.getInt(1));
+                assertEquals(20, b.getInt(1));
+            }
+        }
+        assertEquals(2, pool.getStatementCacheMisses());
+        assertEquals(0, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void desalojaLaMenosUsadaAlSuperarElTamano() throws SQLException {
+        crearPool(2);
+
+        try (Connection conn = pool.borrow()) {
+            consultar(conn, "SELECT ? + 1", 0);
+            consultar(conn, "SELECT ? + 2", 0);
+            consultar(conn, "SELECT ? + 1", 0); // la de "+ 2" queda como la menos usada
+            consultar(conn, "SELECT ? + 3", 0);
+            assertEquals(1, pool.getStatementCacheEvictions());
+
+            assertEquals(1, consultar(conn, "SELECT ? + 1", 0));
+            assertEquals(2, consultar(conn, "SELECT ? + 2", 0));
+        }
+        assertEquals(2, pool.getStatementCacheHits(), "las dos de \"+ 1\" después de prepararla");
+        assertEquals(4, pool.getStatementCacheMisses(), "\"+ 2\" se preparó de nuevo tras el desalojo");
+        assertEquals(2, pool.getStatementCacheEvictions());
+    }
+
+    @Test
+    void sinCacheCadaPreparacionEsNueva() throws SQLException {
+        crearPool(0);
+
+        try (Connection conn = pool.borrow()) {
+            consultar(conn, "SELECT ? + 0", 1);
+            consultar(conn, "SELECT ? + 0", 1);
+        }
+        assertEquals(0, pool.getStatementCacheHits());
+        assertEquals(0, pool.getStatementCacheMisses());
+    }
+}